@@ -0,0 +1,129 @@
+package org.opentripplanner.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.opentripplanner.benchmark.snapshot.SnapshotTransitData;
+import org.opentripplanner.benchmark.snapshot.SnapshotTripSchedule;
+import org.opentripplanner.framework.time.DurationUtils;
+import org.opentripplanner.framework.time.TimeUtils;
+import org.opentripplanner.raptor.api.model.RaptorAccessEgress;
+import org.opentripplanner.raptor.api.request.RaptorProfile;
+import org.opentripplanner.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.cost.RaptorCostConverter;
+
+/**
+ * Create a reproducible list of searches for a snapshot. The origin and destination are random
+ * stops served by at least one route, and the departure time is random between 06:00 and 20:00.
+ * The same seed and snapshot always give the same searches.
+ */
+public final class BenchmarkSearches {
+
+  private static final long SEED = 42;
+  private static final int EARLIEST_DEPARTURE_TIME = TimeUtils.time("06:00");
+  private static final int LATEST_DEPARTURE_TIME = TimeUtils.time("20:00");
+  private static final Duration SEARCH_WINDOW = Duration.ofMinutes(40);
+  private static final int WALK_DURATION = 60;
+  private static final double WALK_RELUCTANCE = 2.0;
+
+  private BenchmarkSearches() {}
+
+  public static List<Search> create(SnapshotTransitData transitData, int nSearches) {
+    var random = new Random(SEED);
+    List<Integer> stops = servedStops(transitData);
+    if (stops.size() < 2) {
+      throw new IllegalArgumentException("The snapshot has less than two stops with transit.");
+    }
+    var searches = new ArrayList<Search>(nSearches);
+    while (searches.size() < nSearches) {
+      int origin = stops.get(random.nextInt(stops.size()));
+      int destination = stops.get(random.nextInt(stops.size()));
+      int edt =
+        EARLIEST_DEPARTURE_TIME + random.nextInt(LATEST_DEPARTURE_TIME - EARLIEST_DEPARTURE_TIME);
+      if (origin != destination) {
+        searches.add(new Search(origin, destination, edt));
+      }
+    }
+    return searches;
+  }
+
+  static List<Integer> servedStops(SnapshotTransitData transitData) {
+    var stops = new ArrayList<Integer>();
+    for (int stop = 0; stop < transitData.numberOfStops(); ++stop) {
+      if (transitData.isServed(stop)) {
+        stops.add(stop);
+      }
+    }
+    return stops;
+  }
+
+  public record Search(int originStop, int destinationStop, int earliestDepartureTime) {
+    /**
+     * Create a request builder for this search, with a short walk to and from the stops. The
+     * caller may add optimizations and debugging before building the request.
+     */
+    public RaptorRequestBuilder<SnapshotTripSchedule> requestBuilder(RaptorProfile profile) {
+      var builder = new RaptorRequestBuilder<SnapshotTripSchedule>();
+      builder
+        .profile(profile)
+        .searchParams()
+        .earliestDepartureTime(earliestDepartureTime)
+        .searchWindow(SEARCH_WINDOW)
+        .addAccessPaths(access())
+        .addEgressPaths(egress());
+      return builder;
+    }
+
+    public RaptorAccessEgress access() {
+      return new Walk(originStop);
+    }
+
+    public RaptorAccessEgress egress() {
+      return new Walk(destinationStop);
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+        "S%d ~ S%d %s",
+        originStop,
+        destinationStop,
+        TimeUtils.timeToStrLong(earliestDepartureTime)
+      );
+    }
+  }
+
+  /** A walk with a fixed duration, used for both access and egress. */
+  private record Walk(int stop) implements RaptorAccessEgress {
+    @Override
+    public int c1() {
+      return RaptorCostConverter.toRaptorCost(WALK_DURATION * WALK_RELUCTANCE);
+    }
+
+    @Override
+    public int durationInSeconds() {
+      return WALK_DURATION;
+    }
+
+    @Override
+    public int earliestDepartureTime(int requestedDepartureTime) {
+      return requestedDepartureTime;
+    }
+
+    @Override
+    public int latestArrivalTime(int requestedArrivalTime) {
+      return requestedArrivalTime;
+    }
+
+    @Override
+    public boolean hasOpeningHours() {
+      return false;
+    }
+
+    @Override
+    public String toString() {
+      return "Walk " + DurationUtils.durationToStr(WALK_DURATION) + " ~ S" + stop;
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package org.opentripplanner.benchmark;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.opentripplanner.framework.time.ServiceDateUtils;
+import org.opentripplanner.raptor.util.IntIterators;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.cost.GeneralizedCostParameters;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.GeneralizedCostParametersMapper;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRoutingRequestTransitData;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RouteRequestTransitDataProviderFilter;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.TripPatternForDates;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.graph.SerializedGraphObject;
+import org.opentripplanner.standalone.config.RouterConfig;
+import org.opentripplanner.standalone.configure.ConstructApplication;
+import org.opentripplanner.transit.model.network.grouppriority.TransitGroupPriorityService;
+import org.opentripplanner.transit.service.TransitModel;
+
+/**
+ * Load the Raptor transit data from a serialized graph. The transit data is created for one
+ * service date, with the default route request - no filtering is done.
+ */
+class BenchmarkTransitData {
+
+  private final String description;
+  private final RouteRequest request;
+  private final TransitLayer transitLayer;
+  private final RaptorRoutingRequestTransitData transitData;
+
+  private BenchmarkTransitData(
+    String description,
+    RouteRequest request,
+    TransitLayer transitLayer,
+    RaptorRoutingRequestTransitData transitData
+  ) {
+    this.description = description;
+    this.request = request;
+    this.transitLayer = transitLayer;
+    this.transitData = transitData;
+  }
+
+  /**
+   * @param graphFile The serialized graph, the graph must contain transit data.
+   * @param date      The service date as ISO-8601, if empty the date in the middle of the transit
+   *                  service period is used.
+   */
+  static BenchmarkTransitData load(String graphFile, String date) {
+    var serializedGraph = SerializedGraphObject.load(new File(graphFile));
+    TransitModel transitModel = serializedGraph.transitModel;
+    if (!transitModel.hasTransit()) {
+      throw new IllegalArgumentException("The graph does not contain transit data: " + graphFile);
+    }
+    transitModel.index();
+
+    var routerConfig = serializedGraph.routerConfig == null
+      ? RouterConfig.DEFAULT
+      : serializedGraph.routerConfig;
+    ConstructApplication.creatTransitLayerForRaptor(
+      transitModel,
+      routerConfig.transitTuningConfig()
+    );
+
+    LocalDate serviceDate = date.isEmpty()
+      ? middleOfServicePeriod(transitModel)
+      : LocalDate.parse(date);
+    ZonedDateTime timeZero = ServiceDateUtils.asStartOfService(
+      serviceDate,
+      transitModel.getTimeZone()
+    );
+
+    var request = new RouteRequest();
+    request.setDateTime(timeZero.toInstant());
+
+    var transitLayer = transitModel.getTransitLayer();
+    var transitData = new RaptorRoutingRequestTransitData(
+      transitLayer,
+      TransitGroupPriorityService.empty(),
+      timeZero,
+      0,
+      0,
+      new RouteRequestTransitDataProviderFilter(request),
+      request
+    );
+    var description = new File(graphFile).getName() + " " + serviceDate;
+    return new BenchmarkTransitData(description, request, transitLayer, transitData);
+  }
+
+  String description() {
+    return description;
+  }
+
+  RaptorRoutingRequestTransitData transitData() {
+    return transitData;
+  }
+
+  TransitLayer transitLayer() {
+    return transitLayer;
+  }
+
+  GeneralizedCostParameters costParameters() {
+    return GeneralizedCostParametersMapper.map(request, scheduledPatterns());
+  }
+
+  /**
+   * List all patterns with at least one trip on the service date. Patterns with frequency based
+   * trips are not included, they do not use the regular trip search.
+   */
+  List<TripPatternForDates> scheduledPatterns() {
+    var allStops = IntIterators.intIncIterator(0, transitData.numberOfStops());
+    var routeIndexes = transitData.routeIndexIterator(allStops);
+    List<TripPatternForDates> patterns = new ArrayList<>();
+
+    while (routeIndexes.hasNext()) {
+      var route = transitData.getRouteForIndex(routeIndexes.next());
+      if (
+        route instanceof TripPatternForDates pattern &&
+        pattern.numberOfTripSchedules() > 0 &&
+        !pattern.useCustomizedTripSearch()
+      ) {
+        patterns.add(pattern);
+      }
+    }
+    return patterns;
+  }
+
+  private static LocalDate middleOfServicePeriod(TransitModel transitModel) {
+    var start = transitModel.getTransitServiceStarts().toLocalDate();
+    var end = transitModel.getTransitServiceEnds().toLocalDate();
+    return start.plusDays((end.toEpochDay() - start.toEpochDay()) / 2);
+  }
+}
@@ -0,0 +1,109 @@
+package org.opentripplanner.benchmark;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.opentripplanner.benchmark.snapshot.SnapshotTripSchedule;
+import org.opentripplanner.benchmark.snapshot.TransitDataSnapshot;
+import org.opentripplanner.raptor.api.model.RelaxFunction;
+import org.opentripplanner.raptor.api.model.SearchDirection;
+import org.opentripplanner.raptor.api.request.RaptorProfile;
+import org.opentripplanner.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.raptor.rangeraptor.debug.DebugHandlerFactory;
+import org.opentripplanner.raptor.rangeraptor.lifecycle.LifeCycleSubscriptions;
+import org.opentripplanner.raptor.rangeraptor.multicriteria.McStopArrivals;
+import org.opentripplanner.raptor.rangeraptor.multicriteria.arrivals.ArrivalParetoSetComparatorFactory;
+import org.opentripplanner.raptor.rangeraptor.multicriteria.arrivals.McStopArrival;
+import org.opentripplanner.raptor.rangeraptor.transit.AccessPaths;
+import org.opentripplanner.raptor.rangeraptor.transit.EgressPaths;
+
+/**
+ * Benchmark adding stop arrivals to the {@link McStopArrivals}. The arrivals are recorded from
+ * multi-criteria searches on a snapshot, see {@link RecordedStopArrivals}, and added again in the
+ * same order. The stop markers are set when the round or iteration changes, like in the search.
+ * <pre>
+ * java -jar benchmarks.jar McStopArrivalsBenchmark -p snapshot=raptor-transit-data.bin
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class McStopArrivalsBenchmark {
+
+  private static final int N_SEARCHES = 20;
+  private static final int N_SAMPLE_STOPS = 500;
+
+  /** The transit data snapshot, see {@code RecordTransitDataSnapshot}. */
+  @Param("raptor-transit-data.bin")
+  public String snapshot;
+
+  @Param({ "false", "true" })
+  public boolean sortByArrivalTime;
+
+  private int nStops;
+  private List<RecordedStopArrivals> recordings;
+  private EgressPaths egressPaths;
+  private AccessPaths accessPaths;
+  private ArrivalParetoSetComparatorFactory<McStopArrival<SnapshotTripSchedule>> comparatorFactory;
+  private DebugHandlerFactory<SnapshotTripSchedule> debugHandlerFactory;
+
+  @Setup
+  public void setup() {
+    var transitData = TransitDataSnapshot.load(new File(snapshot));
+    var searches = BenchmarkSearches.create(transitData, N_SEARCHES);
+
+    nStops = transitData.numberOfStops();
+    recordings = RecordedStopArrivals.record(transitData, searches, N_SAMPLE_STOPS);
+    egressPaths = EgressPaths.create(List.of(), RaptorProfile.MULTI_CRITERIA);
+    accessPaths =
+      AccessPaths.create(60, List.of(), RaptorProfile.MULTI_CRITERIA, SearchDirection.FORWARD);
+    comparatorFactory = ArrivalParetoSetComparatorFactory.factory(RelaxFunction.NORMAL, null);
+    var debugRequest = new RaptorRequestBuilder<SnapshotTripSchedule>().debug().build();
+    debugHandlerFactory = new DebugHandlerFactory<>(debugRequest, new LifeCycleSubscriptions());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(N_SEARCHES)
+  public void addStopArrivals(Blackhole blackhole) {
+    for (var recording : recordings) {
+      var stopArrivals = new McStopArrivals<>(
+        nStops,
+        egressPaths,
+        accessPaths,
+        null,
+        comparatorFactory,
+        debugHandlerFactory,
+        sortByArrivalTime
+      );
+      int iterationStartTime = -1;
+      int round = -1;
+
+      for (var it : recording.arrivals()) {
+        var arrival = it.arrival();
+        if (it.iterationStartTime() != iterationStartTime || arrival.round() != round) {
+          stopArrivals.clearTouchedStopsAndSetStopMarkers();
+          iterationStartTime = it.iterationStartTime();
+          round = arrival.round();
+        }
+        stopArrivals.addStopArrival(arrival);
+      }
+      blackhole.consume(stopArrivals);
+    }
+  }
+}
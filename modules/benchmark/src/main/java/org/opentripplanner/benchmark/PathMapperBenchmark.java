@@ -0,0 +1,114 @@
+package org.opentripplanner.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.opentripplanner.benchmark.snapshot.SnapshotTripSchedule;
+import org.opentripplanner.benchmark.snapshot.TransitDataSnapshot;
+import org.opentripplanner.raptor.rangeraptor.lifecycle.LifeCycleEventPublisher;
+import org.opentripplanner.raptor.rangeraptor.lifecycle.LifeCycleSubscriptions;
+import org.opentripplanner.raptor.rangeraptor.path.DestinationArrival;
+import org.opentripplanner.raptor.rangeraptor.path.ForwardPathMapper;
+import org.opentripplanner.raptor.rangeraptor.path.PathMapper;
+
+/**
+ * Benchmark mapping the destination arrivals to paths. The destination arrivals are created from
+ * the transit arrivals at the destination stop, recorded from multi-criteria searches on a
+ * snapshot. See {@link RecordedStopArrivals}.
+ * <pre>
+ * java -jar benchmarks.jar PathMapperBenchmark -p snapshot=raptor-transit-data.bin
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathMapperBenchmark {
+
+  private static final int N_SEARCHES = 50;
+  private static final int N_PATHS = 1000;
+
+  /** The transit data snapshot, see {@link RecordTransitDataSnapshot}. */
+  @Param("raptor-transit-data.bin")
+  public String snapshot;
+
+  private PathMapper<SnapshotTripSchedule> pathMapper;
+  private LifeCycleEventPublisher lifeCycle;
+  private int[] iterationStartTimes;
+  private List<DestinationArrival<SnapshotTripSchedule>> destinationArrivals;
+
+  @Setup
+  public void setup() {
+    var transitData = TransitDataSnapshot.load(new File(snapshot));
+    var searches = BenchmarkSearches.create(transitData, N_SEARCHES);
+    var recordings = RecordedStopArrivals.record(transitData, searches, 0);
+
+    var subscriptions = new LifeCycleSubscriptions();
+    pathMapper =
+      new ForwardPathMapper<>(
+        transitData.slackProvider(),
+        transitData.multiCriteriaCostCalculator(),
+        transitData.stopNameResolver(),
+        null,
+        subscriptions,
+        false
+      );
+    lifeCycle = new LifeCycleEventPublisher(subscriptions);
+
+    // Repeat the destination arrivals of all searches to get N_PATHS paths
+    List<Integer> startTimes = new ArrayList<>();
+    List<DestinationArrival<SnapshotTripSchedule>> arrivals = new ArrayList<>();
+    while (arrivals.size() < N_PATHS) {
+      int size = arrivals.size();
+      for (var recording : recordings) {
+        var egress = recording.search().egress();
+        for (var it : recording.transitArrivalsAtDestination()) {
+          if (arrivals.size() == N_PATHS) {
+            break;
+          }
+          var arrival = it.arrival();
+          arrivals.add(
+            new DestinationArrival<>(
+              egress,
+              arrival,
+              arrival.arrivalTime() + egress.durationInSeconds(),
+              egress.c1(),
+              arrival.c2()
+            )
+          );
+          startTimes.add(it.iterationStartTime());
+        }
+      }
+      if (arrivals.size() == size) {
+        throw new IllegalStateException("No paths found in " + N_SEARCHES + " searches.");
+      }
+    }
+    destinationArrivals = arrivals;
+    iterationStartTimes = startTimes.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(N_PATHS)
+  public void mapToPath(Blackhole blackhole) {
+    for (int i = 0; i < N_PATHS; ++i) {
+      lifeCycle.setupIteration(iterationStartTimes[i]);
+      blackhole.consume(pathMapper.mapToPath(destinationArrivals.get(i)));
+    }
+  }
+}
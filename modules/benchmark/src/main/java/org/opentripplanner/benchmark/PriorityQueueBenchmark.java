@@ -0,0 +1,142 @@
+package org.opentripplanner.benchmark;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.opentripplanner.astar.model.BinHeap;
+import org.opentripplanner.astar.model.IndexedDaryHeap;
+import org.opentripplanner.framework.geometry.SphericalDistanceLibrary;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.graph.SerializedGraphObject;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.search.StreetSearchBuilder;
+import org.opentripplanner.street.search.strategy.DominanceFunctions;
+import org.opentripplanner.street.search.strategy.EuclideanRemainingWeightHeuristic;
+
+/**
+ * Compare the priority queues used by the A* street search, by running the same street searches
+ * on a graph with each queue. The searches are set up like the direct street search, with the
+ * Euclidean heuristic and the minimum weight dominance function, so the queue sees the inserts,
+ * extractions and removals of dominated states of a real search. The {@link BinHeap} ignores the
+ * removals, so the dominated states are popped and thrown away later.
+ * <p>
+ * The origins and destinations are street vertices picked from a fixed random seed, each
+ * destination is at most {@code maxDistance} meters from the origin in a straight line.
+ * <p>
+ * This benchmark needs a graph, not a transit data snapshot.
+ * <pre>
+ * java -jar benchmarks.jar PriorityQueueBenchmark -p graph=graph.obj
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriorityQueueBenchmark {
+
+  private static final int N_SEARCHES = 20;
+  private static final int MAX_DESTINATION_ATTEMPTS = 10_000;
+
+  /** The serialized graph, the graph must contain streets. */
+  @Param("graph.obj")
+  public String graph;
+
+  @Param({ "IndexedDaryHeap", "BinHeap" })
+  public String queue;
+
+  @Param({ "WALK", "BIKE", "CAR" })
+  public StreetMode mode;
+
+  /** The max straight line distance from the origin to the destination in meters. */
+  @Param("5000")
+  public double maxDistance;
+
+  private final RouteRequest request = new RouteRequest();
+  private float maxCarSpeed;
+  private StreetVertex[] origins;
+  private StreetVertex[] destinations;
+
+  @Setup
+  public void setup() {
+    if (!List.of("IndexedDaryHeap", "BinHeap").contains(queue)) {
+      throw new IllegalArgumentException("Unknown queue: " + queue);
+    }
+    var serializedGraph = SerializedGraphObject.load(new File(graph));
+    maxCarSpeed = serializedGraph.streetLimitationParameters.maxCarSpeed();
+    request.journey().direct().setMode(mode);
+
+    List<StreetVertex> vertices = serializedGraph.graph
+      .getVerticesOfType(StreetVertex.class)
+      .stream()
+      .filter(v -> v.getDegreeOut() > 0 && v.getDegreeIn() > 0)
+      .toList();
+    if (vertices.isEmpty()) {
+      throw new IllegalArgumentException("The graph does not contain streets: " + graph);
+    }
+
+    var random = new Random(42);
+    origins = new StreetVertex[N_SEARCHES];
+    destinations = new StreetVertex[N_SEARCHES];
+    for (int i = 0; i < N_SEARCHES; ++i) {
+      origins[i] = vertices.get(random.nextInt(vertices.size()));
+      destinations[i] = destination(origins[i], vertices, random);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(N_SEARCHES)
+  public void search(Blackhole blackhole) {
+    for (int i = 0; i < N_SEARCHES; ++i) {
+      var aStar = StreetSearchBuilder
+        .of()
+        .setHeuristic(new EuclideanRemainingWeightHeuristic(maxCarSpeed))
+        .setDominanceFunction(new DominanceFunctions.MinimumWeight())
+        .setRequest(request)
+        .setStreetRequest(request.journey().direct())
+        .setFrom(origins[i])
+        .setTo(destinations[i]);
+
+      if (queue.equals("BinHeap")) {
+        aStar.setPriorityQueueFactory(BinHeap::new);
+      } else {
+        aStar.setPriorityQueueFactory(IndexedDaryHeap::new);
+      }
+      blackhole.consume(aStar.getPathsToTarget());
+    }
+  }
+
+  /**
+   * Pick a random vertex within the max distance from the origin. If none is found the origin is
+   * used, and the search ends at once.
+   */
+  private StreetVertex destination(StreetVertex origin, List<StreetVertex> vertices, Random random) {
+    for (int i = 0; i < MAX_DESTINATION_ATTEMPTS; ++i) {
+      var candidate = vertices.get(random.nextInt(vertices.size()));
+      if (
+        candidate != origin &&
+        SphericalDistanceLibrary.fastDistance(origin.getCoordinate(), candidate.getCoordinate()) <=
+        maxDistance
+      ) {
+        return candidate;
+      }
+    }
+    return origin;
+  }
+}
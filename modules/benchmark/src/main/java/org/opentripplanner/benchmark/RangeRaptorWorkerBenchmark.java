@@ -0,0 +1,82 @@
+package org.opentripplanner.benchmark;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.opentripplanner.benchmark.snapshot.SnapshotTransitData;
+import org.opentripplanner.benchmark.snapshot.SnapshotTripSchedule;
+import org.opentripplanner.benchmark.snapshot.TransitDataSnapshot;
+import org.opentripplanner.raptor.api.request.RaptorProfile;
+import org.opentripplanner.raptor.api.request.RaptorRequest;
+import org.opentripplanner.raptor.api.request.RaptorTuningParameters;
+import org.opentripplanner.raptor.configure.RaptorConfig;
+
+/**
+ * Benchmark the Range Raptor worker rounds - one search with all iterations in the search-window,
+ * without heuristics and path post-processing. The searches are created by
+ * {@link BenchmarkSearches}, so the same snapshot gives the same searches. The searches are run
+ * with and without the route pruning index.
+ * <pre>
+ * java -jar benchmarks.jar RangeRaptorWorkerBenchmark -p snapshot=raptor-transit-data.bin
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RangeRaptorWorkerBenchmark {
+
+  private static final int N_SEARCHES = 20;
+
+  /** The transit data snapshot, see {@link RecordTransitDataSnapshot}. */
+  @Param("raptor-transit-data.bin")
+  public String snapshot;
+
+  @Param({ "STANDARD", "MULTI_CRITERIA" })
+  public RaptorProfile profile;
+
+  @Param({ "true", "false" })
+  public boolean routePruning;
+
+  private SnapshotTransitData transitData;
+  private RaptorConfig<SnapshotTripSchedule> config;
+  private List<RaptorRequest<SnapshotTripSchedule>> requests;
+
+  @Setup
+  public void setup() {
+    transitData = TransitDataSnapshot.load(new File(snapshot)).withRoutePruning(routePruning);
+    config = new RaptorConfig<>(new RaptorTuningParameters() {});
+    requests =
+      BenchmarkSearches
+        .create(transitData, N_SEARCHES)
+        .stream()
+        .map(it -> it.requestBuilder(profile).build())
+        .toList();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(N_SEARCHES)
+  public void route(Blackhole blackhole) {
+    for (var request : requests) {
+      var worker = profile.is(RaptorProfile.STANDARD)
+        ? config.createStdWorker(transitData, request)
+        : config.createMcWorker(transitData, request, null);
+      blackhole.consume(worker.route());
+    }
+  }
+}
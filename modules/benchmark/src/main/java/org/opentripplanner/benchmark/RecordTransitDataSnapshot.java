@@ -0,0 +1,40 @@
+package org.opentripplanner.benchmark;
+
+import java.io.File;
+import org.opentripplanner.benchmark.snapshot.TransitDataSnapshot;
+import org.opentripplanner.transit.model.basic.TransitMode;
+
+/**
+ * Record a {@link TransitDataSnapshot} from a serialized graph. The snapshot is used as input to
+ * the benchmarks. Record it once, and keep it to compare the benchmark results of different
+ * versions of OTP - the graph is not needed to run the benchmarks.
+ * <pre>
+ * java -cp benchmarks.jar org.opentripplanner.benchmark.RecordTransitDataSnapshot \
+ *   graph.obj raptor-transit-data.bin [service-date]
+ * </pre>
+ * The service date is optional, the default is the middle of the transit service period.
+ */
+public class RecordTransitDataSnapshot {
+
+  public static void main(String[] args) {
+    if (args.length < 2 || args.length > 3) {
+      System.err.println(
+        "Usage: RecordTransitDataSnapshot <graph.obj> <snapshot file> [service date, YYYY-MM-DD]"
+      );
+      System.exit(1);
+    }
+    var data = BenchmarkTransitData.load(args[0], args.length == 3 ? args[2] : "");
+    var file = new File(args[1]);
+
+    TransitDataSnapshot.save(
+      file,
+      data.description(),
+      data.transitData(),
+      data.scheduledPatterns(),
+      data.costParameters(),
+      data.transitLayer().getStopBoardAlightTransferCosts(),
+      TransitMode.values().length
+    );
+    System.out.println("Saved " + TransitDataSnapshot.load(file) + " to " + file);
+  }
+}
@@ -0,0 +1,101 @@
+package org.opentripplanner.benchmark;
+
+import static org.opentripplanner.raptor.api.model.PathLegType.TRANSIT;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.opentripplanner.benchmark.BenchmarkSearches.Search;
+import org.opentripplanner.benchmark.snapshot.SnapshotTransitData;
+import org.opentripplanner.benchmark.snapshot.SnapshotTripSchedule;
+import org.opentripplanner.raptor.api.debug.DebugEvent;
+import org.opentripplanner.raptor.api.request.RaptorProfile;
+import org.opentripplanner.raptor.api.request.RaptorTuningParameters;
+import org.opentripplanner.raptor.api.view.ArrivalView;
+import org.opentripplanner.raptor.configure.RaptorConfig;
+import org.opentripplanner.raptor.rangeraptor.multicriteria.arrivals.McStopArrival;
+
+/**
+ * The stop arrivals a multi-criteria search tries to add to the stop arrival pareto sets, in the
+ * order they are added. The arrivals are recorded with the Raptor debug listener, for a random
+ * sample of stops and the destination stop. The pareto set of each stop is independent of the
+ * other stops, so adding the recorded arrivals again does the same work for the sampled stops as
+ * the search did.
+ */
+public final class RecordedStopArrivals {
+
+  private static final long SEED = 7;
+
+  private final Search search;
+  private final List<RecordedArrival> arrivals;
+
+  private RecordedStopArrivals(Search search, List<RecordedArrival> arrivals) {
+    this.search = search;
+    this.arrivals = arrivals;
+  }
+
+  public static List<RecordedStopArrivals> record(
+    SnapshotTransitData transitData,
+    List<Search> searches,
+    int nSampleStops
+  ) {
+    var stops = BenchmarkSearches.servedStops(transitData);
+    Collections.shuffle(stops, new Random(SEED));
+    var sample = stops.subList(0, Math.min(nSampleStops, stops.size()));
+    var config = new RaptorConfig<SnapshotTripSchedule>(new RaptorTuningParameters() {});
+
+    var result = new ArrayList<RecordedStopArrivals>();
+    for (Search search : searches) {
+      var arrivals = new ArrayList<RecordedArrival>();
+      var builder = search.requestBuilder(RaptorProfile.MULTI_CRITERIA);
+      builder
+        .debug()
+        .addStops(sample)
+        .addStops(search.destinationStop())
+        .stopArrivalListener(event -> record(event, arrivals));
+
+      config.createMcWorker(transitData, builder.build(), null).route();
+      result.add(new RecordedStopArrivals(search, arrivals));
+    }
+    return result;
+  }
+
+  public Search search() {
+    return search;
+  }
+
+  /** All arrivals accepted or rejected by the pareto sets, in the order they are added. */
+  public List<RecordedArrival> arrivals() {
+    return arrivals;
+  }
+
+  /** The arrivals accepted at the destination stop by transit, used to create the paths. */
+  public List<RecordedArrival> transitArrivalsAtDestination() {
+    return arrivals
+      .stream()
+      .filter(RecordedArrival::accepted)
+      .filter(it -> it.arrival().stop() == search.destinationStop())
+      .filter(it -> it.arrival().arrivedBy(TRANSIT))
+      .toList();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void record(DebugEvent<ArrivalView<?>> event, List<RecordedArrival> arrivals) {
+    boolean accepted = event.action() == DebugEvent.Action.ACCEPT;
+    if (accepted || event.action() == DebugEvent.Action.REJECT) {
+      var arrival = (McStopArrival<SnapshotTripSchedule>) event.element();
+      arrivals.add(new RecordedArrival(event.iterationStartTime(), arrival, accepted));
+    }
+  }
+
+  /**
+   * @param iterationStartTime The Range Raptor iteration departure time.
+   * @param accepted           {@code true} if the arrival was added to the pareto set.
+   */
+  public record RecordedArrival(
+    int iterationStartTime,
+    McStopArrival<SnapshotTripSchedule> arrival,
+    boolean accepted
+  ) {}
+}
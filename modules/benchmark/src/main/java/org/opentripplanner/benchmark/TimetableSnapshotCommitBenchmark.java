@@ -0,0 +1,130 @@
+package org.opentripplanner.benchmark;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.opentripplanner.model.RealTimeTripUpdate;
+import org.opentripplanner.model.TimetableSnapshot;
+import org.opentripplanner.routing.graph.SerializedGraphObject;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.timetable.RealTimeTripTimes;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+
+/**
+ * Apply a stream of real-time trip updates to the timetable snapshot buffer, and commit the buffer
+ * at a fixed interval, as the real-time updaters do. Before each iteration the buffer is filled
+ * with updates for a share of the trips, so the commits are measured on a snapshot of a realistic
+ * size.
+ * <p>
+ * The updates are synthetic, not a recorded real-time feed. Each update delays all stops of a
+ * random trip of the graph by the same random amount, the updates are created up front from a
+ * fixed random seed. A recorded feed would update fewer stops per trip and revisit the same trips
+ * more often, so the commit cost with a real feed may differ.
+ * <p>
+ * This benchmark needs a graph, not a transit data snapshot.
+ * <pre>
+ * java -jar benchmarks.jar TimetableSnapshotCommitBenchmark -p graph=graph.obj
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimetableSnapshotCommitBenchmark {
+
+  private static final int N_UPDATES = 100_000;
+  private static final int MAX_DELAY = 600;
+
+  /** The serialized graph, the graph must contain transit data. */
+  @Param("graph.obj")
+  public String graph;
+
+  /** The number of updates applied to the buffer between each commit. */
+  @Param({ "10", "100", "1000" })
+  public int updatesPerCommit;
+
+  /** The share of the updates applied to the buffer before each iteration. */
+  @Param("0.5")
+  public double preloadedShare;
+
+  private RealTimeTripUpdate[] updates;
+  private TimetableSnapshot buffer;
+  private int next;
+
+  @Setup
+  public void setup() {
+    var transitModel = SerializedGraphObject.load(new File(graph)).transitModel;
+    if (!transitModel.hasTransit()) {
+      throw new IllegalArgumentException("The graph does not contain transit data: " + graph);
+    }
+    transitModel.index();
+
+    List<TripPattern> patterns = new ArrayList<>();
+    for (TripPattern pattern : transitModel.getAllTripPatterns()) {
+      if (!pattern.getScheduledTimetable().getTripTimes().isEmpty()) {
+        patterns.add(pattern);
+      }
+    }
+    var serviceDate = transitModel.getTransitServiceStarts().toLocalDate();
+    var random = new Random(42);
+
+    updates = new RealTimeTripUpdate[N_UPDATES];
+    for (int i = 0; i < N_UPDATES; ++i) {
+      var pattern = patterns.get(random.nextInt(patterns.size()));
+      updates[i] = delayedTrip(pattern, serviceDate, random);
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void fillBuffer() {
+    buffer = new TimetableSnapshot();
+    int n = (int) (N_UPDATES * preloadedShare);
+    for (int i = 0; i < n; ++i) {
+      buffer.update(updates[i]);
+    }
+    buffer.commit();
+    next = n;
+  }
+
+  @Benchmark
+  public void updateAndCommit(Blackhole blackhole) {
+    for (int i = 0; i < updatesPerCommit; ++i) {
+      blackhole.consume(buffer.update(updates[next]));
+      next = (next + 1) % N_UPDATES;
+    }
+    blackhole.consume(buffer.commit());
+  }
+
+  private static RealTimeTripUpdate delayedTrip(
+    TripPattern pattern,
+    LocalDate serviceDate,
+    Random random
+  ) {
+    List<TripTimes> trips = pattern.getScheduledTimetable().getTripTimes();
+    RealTimeTripTimes tripTimes = trips.get(random.nextInt(trips.size())).copyScheduledTimes();
+    int delay = random.nextInt(MAX_DELAY);
+    for (int stop = 0; stop < tripTimes.getNumStops(); ++stop) {
+      tripTimes.updateArrivalDelay(stop, delay);
+      tripTimes.updateDepartureDelay(stop, delay);
+    }
+    return new RealTimeTripUpdate(pattern, tripTimes, serviceDate);
+  }
+}
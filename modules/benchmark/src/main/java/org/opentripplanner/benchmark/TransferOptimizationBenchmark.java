@@ -0,0 +1,104 @@
+package org.opentripplanner.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.opentripplanner.benchmark.snapshot.SnapshotTransitData;
+import org.opentripplanner.benchmark.snapshot.SnapshotTripSchedule;
+import org.opentripplanner.benchmark.snapshot.TransitDataSnapshot;
+import org.opentripplanner.raptor.RaptorService;
+import org.opentripplanner.raptor.api.path.RaptorPath;
+import org.opentripplanner.raptor.api.request.Optimization;
+import org.opentripplanner.raptor.api.request.RaptorProfile;
+import org.opentripplanner.raptor.api.request.RaptorRequest;
+import org.opentripplanner.raptor.api.request.RaptorTuningParameters;
+import org.opentripplanner.raptor.configure.RaptorConfig;
+import org.opentripplanner.routing.algorithm.transferoptimization.configure.TransferOptimizationServiceConfigurator;
+import org.opentripplanner.routing.api.request.preference.TransferOptimizationPreferences;
+
+/**
+ * Benchmark the transfer optimization of the paths found by a multi-criteria search. The paths
+ * are found in the setup, using searches with at least one path. The optimization service is
+ * created for each search, like in the router. Constrained transfers are not part of the snapshot,
+ * so only the transfer wait time is optimized.
+ * <pre>
+ * java -jar benchmarks.jar TransferOptimizationBenchmark -p snapshot=raptor-transit-data.bin
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferOptimizationBenchmark {
+
+  private static final int N_SEARCHES = 20;
+  private static final int MAX_SEARCHES = 10 * N_SEARCHES;
+
+  /** The transit data snapshot, see {@link RecordTransitDataSnapshot}. */
+  @Param("raptor-transit-data.bin")
+  public String snapshot;
+
+  private SnapshotTransitData transitData;
+  private final List<RaptorRequest<SnapshotTripSchedule>> requests = new ArrayList<>();
+  private final List<Collection<RaptorPath<SnapshotTripSchedule>>> paths = new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    transitData = TransitDataSnapshot.load(new File(snapshot));
+    var service = new RaptorService<>(
+      new RaptorConfig<SnapshotTripSchedule>(new RaptorTuningParameters() {})
+    );
+
+    for (var search : BenchmarkSearches.create(transitData, MAX_SEARCHES)) {
+      var request = search
+        .requestBuilder(RaptorProfile.MULTI_CRITERIA)
+        .enableOptimization(Optimization.PARETO_CHECK_AGAINST_DESTINATION)
+        .build();
+      var response = service.route(request, transitData);
+      if (!response.paths().isEmpty()) {
+        requests.add(request);
+        paths.add(response.paths());
+      }
+      if (requests.size() == N_SEARCHES) {
+        return;
+      }
+    }
+    throw new IllegalStateException(
+      "Only " + requests.size() + " of " + MAX_SEARCHES + " searches found a path."
+    );
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(N_SEARCHES)
+  public void optimize(Blackhole blackhole) {
+    for (int i = 0; i < N_SEARCHES; ++i) {
+      var service = TransferOptimizationServiceConfigurator.createOptimizeTransferService(
+        null,
+        transitData.stopNameResolver(),
+        null,
+        transitData,
+        transitData.stopBoardAlightTransferCosts(),
+        TransferOptimizationPreferences.DEFAULT,
+        requests.get(i).multiCriteria()
+      );
+      blackhole.consume(service.optimize(paths.get(i)));
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package org.opentripplanner.benchmark;
+
+import static org.opentripplanner.raptor.spi.RaptorTripScheduleSearch.UNBOUNDED_TRIP_INDEX;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.opentripplanner.benchmark.snapshot.SnapshotTripSchedule;
+import org.opentripplanner.benchmark.snapshot.TransitDataSnapshot;
+import org.opentripplanner.raptor.api.model.SearchDirection;
+import org.opentripplanner.raptor.spi.RaptorTripScheduleSearch;
+
+/**
+ * Benchmark the trip search used by Raptor to board a trip, on the routes of a transit data
+ * snapshot. The searches are created up front from a fixed random seed: a route, a stop position
+ * and an earliest board time up to 10 minutes before a trip departs. So, the same snapshot gives
+ * the same searches.
+ * <pre>
+ * java -jar benchmarks.jar TripScheduleBoardSearchBenchmark -p snapshot=raptor-transit-data.bin
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TripScheduleBoardSearchBenchmark {
+
+  private static final int N_SEARCHES = 10_000;
+  private static final int MAX_WAIT_TIME = 600;
+
+  /** The transit data snapshot, see {@link RecordTransitDataSnapshot}. */
+  @Param("raptor-transit-data.bin")
+  public String snapshot;
+
+  private RaptorTripScheduleSearch<SnapshotTripSchedule>[] searches;
+  private int[] stopPositions;
+  private int[] earliestBoardTimes;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    var transitData = TransitDataSnapshot.load(new File(snapshot));
+    int nRoutes = transitData.numberOfRoutes();
+    var random = new Random(42);
+
+    searches = new RaptorTripScheduleSearch[N_SEARCHES];
+    stopPositions = new int[N_SEARCHES];
+    earliestBoardTimes = new int[N_SEARCHES];
+
+    for (int i = 0; i < N_SEARCHES; ++i) {
+      var route = transitData.getRouteForIndex(random.nextInt(nRoutes));
+      var timetable = route.timetable();
+      // It is not possible to board at the last stop
+      int stopPos = random.nextInt(route.pattern().numberOfStopsInPattern() - 1);
+      var trip = timetable.getTripSchedule(random.nextInt(timetable.numberOfTripSchedules()));
+
+      searches[i] = timetable.tripSearch(SearchDirection.FORWARD);
+      stopPositions[i] = stopPos;
+      earliestBoardTimes[i] = trip.departure(stopPos) - random.nextInt(MAX_WAIT_TIME);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(N_SEARCHES)
+  public void boardSearch(Blackhole blackhole) {
+    for (int i = 0; i < N_SEARCHES; ++i) {
+      var event = searches[i].search(earliestBoardTimes[i], stopPositions[i], UNBOUNDED_TRIP_INDEX);
+      blackhole.consume(event.tripIndex());
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package org.opentripplanner.benchmark.snapshot;
+
+import org.opentripplanner.raptor.api.model.SearchDirection;
+import org.opentripplanner.raptor.spi.RaptorRoute;
+import org.opentripplanner.raptor.spi.RaptorTimeTable;
+import org.opentripplanner.raptor.spi.RaptorTripScheduleSearch;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.TripScheduleSearchFactory;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.TripSearchTimetable;
+
+/**
+ * A route with its timetable. The times are stored as stop-major matrices, like in the OTP
+ * transit model, so the same trip search is used.
+ */
+final class SnapshotRoute
+  implements RaptorRoute<SnapshotTripSchedule>, TripSearchTimetable<SnapshotTripSchedule> {
+
+  private final SnapshotTripPattern pattern;
+  private final int nTrips;
+  private final int[] arrivalTimes;
+  private final int[] departureTimes;
+  private final int[] latestDepartureTimes;
+  private final int[] earliestArrivalTimes;
+  private final SnapshotTripSchedule[] trips;
+
+  SnapshotRoute(
+    SnapshotTripPattern pattern,
+    int[] arrivalTimes,
+    int[] departureTimes,
+    int[] transitReluctanceFactorIndexes
+  ) {
+    this.pattern = pattern;
+    this.nTrips = transitReluctanceFactorIndexes.length;
+    this.arrivalTimes = arrivalTimes;
+    this.departureTimes = departureTimes;
+    this.trips = new SnapshotTripSchedule[nTrips];
+    for (int i = 0; i < nTrips; ++i) {
+      trips[i] = new SnapshotTripSchedule(this, i, transitReluctanceFactorIndexes[i]);
+    }
+
+    int nStops = pattern.numberOfStopsInPattern();
+    this.latestDepartureTimes = new int[nStops];
+    this.earliestArrivalTimes = new int[nStops];
+    for (int s = 0; s < nStops; ++s) {
+      int latest = Integer.MIN_VALUE;
+      int earliest = Integer.MAX_VALUE;
+      for (int t = 0; t < nTrips; ++t) {
+        latest = Math.max(latest, departureTime(t, s));
+        earliest = Math.min(earliest, arrivalTime(t, s));
+      }
+      latestDepartureTimes[s] = latest;
+      earliestArrivalTimes[s] = earliest;
+    }
+  }
+
+  @Override
+  public RaptorTimeTable<SnapshotTripSchedule> timetable() {
+    return this;
+  }
+
+  @Override
+  public SnapshotTripPattern pattern() {
+    return pattern;
+  }
+
+  @Override
+  public SnapshotTripSchedule getTripSchedule(int index) {
+    return trips[index];
+  }
+
+  @Override
+  public int numberOfTripSchedules() {
+    return nTrips;
+  }
+
+  @Override
+  public int[] arrivalTimes() {
+    return arrivalTimes;
+  }
+
+  @Override
+  public int[] departureTimes() {
+    return departureTimes;
+  }
+
+  @Override
+  public RaptorTripScheduleSearch<SnapshotTripSchedule> tripSearch(SearchDirection direction) {
+    return TripScheduleSearchFactory.create(direction, this);
+  }
+
+  int[] latestDepartureTimes() {
+    return latestDepartureTimes;
+  }
+
+  int[] earliestArrivalTimes() {
+    return earliestArrivalTimes;
+  }
+
+  int arrivalTime(int tripIndex, int stopPos) {
+    return arrivalTimes[stopPos * nTrips + tripIndex];
+  }
+
+  int departureTime(int tripIndex, int stopPos) {
+    return departureTimes[stopPos * nTrips + tripIndex];
+  }
+
+  @Override
+  public String toString() {
+    return pattern.debugInfo() + " (" + nTrips + " trips)";
+  }
+}
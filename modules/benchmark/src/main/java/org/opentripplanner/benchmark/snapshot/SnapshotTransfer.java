@@ -0,0 +1,5 @@
+package org.opentripplanner.benchmark.snapshot;
+
+import org.opentripplanner.raptor.api.model.RaptorTransfer;
+
+record SnapshotTransfer(int stop, int durationInSeconds, int c1) implements RaptorTransfer {}
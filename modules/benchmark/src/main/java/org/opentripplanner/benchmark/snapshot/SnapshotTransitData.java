@@ -0,0 +1,256 @@
+package org.opentripplanner.benchmark.snapshot;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.opentripplanner.raptor.api.model.RaptorTransfer;
+import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
+import org.opentripplanner.raptor.api.path.RaptorStopNameResolver;
+import org.opentripplanner.raptor.spi.IntIterator;
+import org.opentripplanner.raptor.spi.RaptorBoardOrAlightEvent;
+import org.opentripplanner.raptor.spi.RaptorConstrainedBoardingSearch;
+import org.opentripplanner.raptor.spi.RaptorCostCalculator;
+import org.opentripplanner.raptor.spi.RaptorPathConstrainedTransferSearch;
+import org.opentripplanner.raptor.spi.RaptorRoute;
+import org.opentripplanner.raptor.spi.RaptorRoutePruningIndex;
+import org.opentripplanner.raptor.spi.RaptorSlackProvider;
+import org.opentripplanner.raptor.spi.RaptorTimeTable;
+import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
+import org.opentripplanner.raptor.util.BitSetIterator;
+
+/**
+ * The transit data of a {@link TransitDataSnapshot}. The data is immutable, so one instance can be
+ * used by all searches in a benchmark. Constrained transfers are not part of the snapshot.
+ */
+public final class SnapshotTransitData implements RaptorTransitDataProvider<SnapshotTripSchedule> {
+
+  private final String description;
+  private final SnapshotRoute[] routes;
+  private final int[][] routeIndexesByStop;
+  private final List<SnapshotTransfer>[] transfersFromStop;
+  private final List<SnapshotTransfer>[] transfersToStop;
+  private final RaptorCostCalculator<SnapshotTripSchedule> costCalculator;
+  private final RaptorSlackProvider slackProvider;
+
+  @Nullable
+  private final int[] stopBoardAlightTransferCosts;
+
+  private final int validTransitDataStartTime;
+  private final int validTransitDataEndTime;
+  private final boolean routePruning;
+
+  SnapshotTransitData(
+    String description,
+    SnapshotRoute[] routes,
+    int[][] routeIndexesByStop,
+    List<SnapshotTransfer>[] transfersFromStop,
+    List<SnapshotTransfer>[] transfersToStop,
+    RaptorCostCalculator<SnapshotTripSchedule> costCalculator,
+    RaptorSlackProvider slackProvider,
+    @Nullable int[] stopBoardAlightTransferCosts,
+    int validTransitDataStartTime,
+    int validTransitDataEndTime,
+    boolean routePruning
+  ) {
+    this.description = description;
+    this.routes = routes;
+    this.routeIndexesByStop = routeIndexesByStop;
+    this.transfersFromStop = transfersFromStop;
+    this.transfersToStop = transfersToStop;
+    this.costCalculator = costCalculator;
+    this.slackProvider = slackProvider;
+    this.stopBoardAlightTransferCosts = stopBoardAlightTransferCosts;
+    this.validTransitDataStartTime = validTransitDataStartTime;
+    this.validTransitDataEndTime = validTransitDataEndTime;
+    this.routePruning = routePruning;
+  }
+
+  /**
+   * Return a copy of the transit data with the route pruning index turned on or off, used to
+   * compare the worker with and without pruning. The route pruning is on by default.
+   */
+  public SnapshotTransitData withRoutePruning(boolean routePruning) {
+    return new SnapshotTransitData(
+      description,
+      routes,
+      routeIndexesByStop,
+      transfersFromStop,
+      transfersToStop,
+      costCalculator,
+      slackProvider,
+      stopBoardAlightTransferCosts,
+      validTransitDataStartTime,
+      validTransitDataEndTime,
+      routePruning
+    );
+  }
+
+  /** The graph and service date the snapshot is recorded from. */
+  public String description() {
+    return description;
+  }
+
+  public int numberOfRoutes() {
+    return routes.length;
+  }
+
+  /** Return {@code true} if at least one route stops at the given stop. */
+  public boolean isServed(int stop) {
+    return routeIndexesByStop[stop].length > 0;
+  }
+
+  @Nullable
+  public int[] stopBoardAlightTransferCosts() {
+    return stopBoardAlightTransferCosts;
+  }
+
+  @Override
+  public int numberOfStops() {
+    return routeIndexesByStop.length;
+  }
+
+  @Override
+  public Iterator<? extends RaptorTransfer> getTransfersFromStop(int fromStop) {
+    return transfersFromStop[fromStop].iterator();
+  }
+
+  @Override
+  public Iterator<? extends RaptorTransfer> getTransfersToStop(int toStop) {
+    return transfersToStop[toStop].iterator();
+  }
+
+  @Override
+  public IntIterator routeIndexIterator(IntIterator stops) {
+    BitSet routeIndexes = new BitSet(routes.length);
+    while (stops.hasNext()) {
+      for (int routeIndex : routeIndexesByStop[stops.next()]) {
+        routeIndexes.set(routeIndex);
+      }
+    }
+    return new BitSetIterator(routeIndexes);
+  }
+
+  @Nullable
+  @Override
+  public RaptorRoutePruningIndex routePruningIndex() {
+    if (!routePruning) {
+      return null;
+    }
+    return new RaptorRoutePruningIndex() {
+      @Override
+      public int[] latestDepartureTimes(int routeIndex) {
+        return routes[routeIndex].latestDepartureTimes();
+      }
+
+      @Override
+      public int[] earliestArrivalTimes(int routeIndex) {
+        return routes[routeIndex].earliestArrivalTimes();
+      }
+    };
+  }
+
+  @Override
+  public RaptorRoute<SnapshotTripSchedule> getRouteForIndex(int routeIndex) {
+    return routes[routeIndex];
+  }
+
+  @Override
+  public RaptorCostCalculator<SnapshotTripSchedule> multiCriteriaCostCalculator() {
+    return costCalculator;
+  }
+
+  @Override
+  public RaptorSlackProvider slackProvider() {
+    return slackProvider;
+  }
+
+  @Override
+  public RaptorPathConstrainedTransferSearch<SnapshotTripSchedule> transferConstraintsSearch() {
+    return null;
+  }
+
+  @Override
+  public RaptorStopNameResolver stopNameResolver() {
+    return stopIndex -> "S" + stopIndex;
+  }
+
+  @Override
+  public int getValidTransitDataStartTime() {
+    return validTransitDataStartTime;
+  }
+
+  @Override
+  public int getValidTransitDataEndTime() {
+    return validTransitDataEndTime;
+  }
+
+  @Override
+  public RaptorConstrainedBoardingSearch<SnapshotTripSchedule> transferConstraintsForwardSearch(
+    int routeIndex
+  ) {
+    return NoConstrainedTransfers.instance();
+  }
+
+  @Override
+  public RaptorConstrainedBoardingSearch<SnapshotTripSchedule> transferConstraintsReverseSearch(
+    int routeIndex
+  ) {
+    return NoConstrainedTransfers.instance();
+  }
+
+  @Override
+  public String toString() {
+    return (
+      description +
+      " (stops: " +
+      numberOfStops() +
+      ", routes: " +
+      routes.length +
+      ", trips: " +
+      numberOfTrips() +
+      ")"
+    );
+  }
+
+  private long numberOfTrips() {
+    long n = 0;
+    for (SnapshotRoute route : routes) {
+      n += route.numberOfTripSchedules();
+    }
+    return n;
+  }
+
+  private static final class NoConstrainedTransfers<T extends RaptorTripSchedule>
+    implements RaptorConstrainedBoardingSearch<T> {
+
+    private static final NoConstrainedTransfers<?> INSTANCE = new NoConstrainedTransfers<>();
+
+    @SuppressWarnings("unchecked")
+    private static <T extends RaptorTripSchedule> NoConstrainedTransfers<T> instance() {
+      return (NoConstrainedTransfers<T>) INSTANCE;
+    }
+
+    @Override
+    public boolean transferExistTargetStop(int targetStopPos) {
+      return false;
+    }
+
+    @Override
+    public boolean transferExistSourceStop(int targetStopPos) {
+      return false;
+    }
+
+    @Override
+    public RaptorBoardOrAlightEvent<T> find(
+      RaptorTimeTable<T> targetTimetable,
+      int transferSlack,
+      T sourceTrip,
+      int sourceStopIndex,
+      int prevTransitArrivalTime,
+      int earliestBoardTime
+    ) {
+      return null;
+    }
+  }
+}
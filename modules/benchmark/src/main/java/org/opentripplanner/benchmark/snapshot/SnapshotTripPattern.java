@@ -0,0 +1,93 @@
+package org.opentripplanner.benchmark.snapshot;
+
+import org.opentripplanner.raptor.api.model.RaptorTripPattern;
+
+final class SnapshotTripPattern implements RaptorTripPattern {
+
+  private static final byte BOARDING = 1;
+  private static final byte ALIGHTING = 2;
+
+  private final int patternIndex;
+  private final int[] stopIndexes;
+  private final byte[] boardAlight;
+  private final int slackIndex;
+  private final int priorityGroupId;
+  private final String debugInfo;
+
+  SnapshotTripPattern(
+    int patternIndex,
+    int[] stopIndexes,
+    byte[] boardAlight,
+    int slackIndex,
+    int priorityGroupId,
+    String debugInfo
+  ) {
+    this.patternIndex = patternIndex;
+    this.stopIndexes = stopIndexes;
+    this.boardAlight = boardAlight;
+    this.slackIndex = slackIndex;
+    this.priorityGroupId = priorityGroupId;
+    this.debugInfo = debugInfo;
+  }
+
+  /** Encode the boarding and alighting flags of a stop position as stored in the snapshot. */
+  static byte boardAlight(RaptorTripPattern pattern, int stopPos) {
+    byte value = 0;
+    if (pattern.boardingPossibleAt(stopPos)) {
+      value |= BOARDING;
+    }
+    if (pattern.alightingPossibleAt(stopPos)) {
+      value |= ALIGHTING;
+    }
+    return value;
+  }
+
+  @Override
+  public int patternIndex() {
+    return patternIndex;
+  }
+
+  @Override
+  public int numberOfStopsInPattern() {
+    return stopIndexes.length;
+  }
+
+  @Override
+  public int stopIndex(int stopPositionInPattern) {
+    return stopIndexes[stopPositionInPattern];
+  }
+
+  @Override
+  public boolean boardingPossibleAt(int stopPositionInPattern) {
+    return (boardAlight[stopPositionInPattern] & BOARDING) != 0;
+  }
+
+  @Override
+  public boolean alightingPossibleAt(int stopPositionInPattern) {
+    return (boardAlight[stopPositionInPattern] & ALIGHTING) != 0;
+  }
+
+  @Override
+  public int slackIndex() {
+    return slackIndex;
+  }
+
+  @Override
+  public int priorityGroupId() {
+    return priorityGroupId;
+  }
+
+  @Override
+  public String debugInfo() {
+    return debugInfo;
+  }
+
+  int[] stopIndexes() {
+    return stopIndexes;
+  }
+
+  @Override
+  public String toString() {
+    return debugInfo;
+  }
+}
@@ -0,0 +1,56 @@
+package org.opentripplanner.benchmark.snapshot;
+
+import org.opentripplanner.raptor.api.model.RaptorTripPattern;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.cost.DefaultTripSchedule;
+import org.opentripplanner.transit.model.basic.Accessibility;
+
+/**
+ * A trip in a {@link SnapshotRoute}, the times are read from the route timetable.
+ */
+public final class SnapshotTripSchedule implements DefaultTripSchedule {
+
+  private final SnapshotRoute route;
+  private final int tripIndex;
+  private final int transitReluctanceFactorIndex;
+
+  SnapshotTripSchedule(SnapshotRoute route, int tripIndex, int transitReluctanceFactorIndex) {
+    this.route = route;
+    this.tripIndex = tripIndex;
+    this.transitReluctanceFactorIndex = transitReluctanceFactorIndex;
+  }
+
+  @Override
+  public int tripSortIndex() {
+    return arrival(0);
+  }
+
+  @Override
+  public int arrival(int stopPosInPattern) {
+    return route.arrivalTime(tripIndex, stopPosInPattern);
+  }
+
+  @Override
+  public int departure(int stopPosInPattern) {
+    return route.departureTime(tripIndex, stopPosInPattern);
+  }
+
+  @Override
+  public RaptorTripPattern pattern() {
+    return route.pattern();
+  }
+
+  @Override
+  public int transitReluctanceFactorIndex() {
+    return transitReluctanceFactorIndex;
+  }
+
+  @Override
+  public Accessibility wheelchairBoarding() {
+    return Accessibility.NO_INFORMATION;
+  }
+
+  @Override
+  public String toString() {
+    return route.pattern().debugInfo() + " #" + tripIndex;
+  }
+}
@@ -0,0 +1,395 @@
+package org.opentripplanner.benchmark.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
+import org.opentripplanner.raptor.api.model.RaptorTransfer;
+import org.opentripplanner.raptor.spi.RaptorRoute;
+import org.opentripplanner.raptor.spi.RaptorSlackProvider;
+import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.cost.DefaultCostCalculator;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.cost.DefaultTripSchedule;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.cost.GeneralizedCostParameters;
+
+/**
+ * Save and load a snapshot of the Raptor transit data for one service date. The snapshot contains
+ * what Raptor sees through the {@link RaptorTransitDataProvider}: the number of stops, the routes
+ * with their trip times, the transfers, the slack and the generalized-cost parameters.
+ * <p>
+ * The snapshot is a simple versioned binary format, and does not depend on the graph
+ * serialization. A snapshot recorded once can be used to benchmark later versions of Raptor, as
+ * long as the format version is the same. Constrained transfers and frequency based trips are not
+ * included.
+ * <p>
+ * The trip times are seconds since the start of the service date. The routes are numbered in the
+ * order they are saved, the route index is used as pattern index.
+ */
+public final class TransitDataSnapshot {
+
+  private static final String MAGIC = "OTP-RAPTOR-TRANSIT-DATA";
+  private static final int VERSION = 1;
+  private static final int NULL_ARRAY = -1;
+
+  private TransitDataSnapshot() {}
+
+  /**
+   * @param description   A short description of the data, like the graph and service date.
+   * @param nSlackIndexes The number of slack indexes used by the routes.
+   */
+  public static <T extends DefaultTripSchedule> void save(
+    File file,
+    String description,
+    RaptorTransitDataProvider<T> transitData,
+    List<? extends RaptorRoute<T>> routes,
+    GeneralizedCostParameters costParameters,
+    @Nullable int[] stopBoardAlightTransferCosts,
+    int nSlackIndexes
+  ) {
+    try (
+      var out = new DataOutputStream(
+        new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(file)))
+      )
+    ) {
+      out.writeUTF(MAGIC);
+      out.writeInt(VERSION);
+      out.writeUTF(description);
+      out.writeInt(transitData.getValidTransitDataStartTime());
+      out.writeInt(transitData.getValidTransitDataEndTime());
+      writeSlack(out, transitData.slackProvider(), nSlackIndexes);
+      writeCostParameters(out, costParameters, stopBoardAlightTransferCosts);
+      writeTransfers(out, transitData);
+      out.writeInt(routes.size());
+      for (var route : routes) {
+        writeRoute(out, route);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public static SnapshotTransitData load(File file) {
+    try (
+      var in = new DataInputStream(
+        new GZIPInputStream(new BufferedInputStream(new FileInputStream(file)))
+      )
+    ) {
+      if (!MAGIC.equals(in.readUTF())) {
+        throw new IllegalArgumentException("Not a Raptor transit data snapshot: " + file);
+      }
+      int version = in.readInt();
+      if (version != VERSION) {
+        throw new IllegalArgumentException(
+          "The snapshot version is " + version + ", expected " + VERSION + ": " + file
+        );
+      }
+      String description = in.readUTF();
+      int validTransitDataStartTime = in.readInt();
+      int validTransitDataEndTime = in.readInt();
+      var slackProvider = readSlack(in);
+      var costCalculator = readCostParameters(in);
+      var transfersFromStop = readTransfers(in);
+      int nStops = transfersFromStop.length;
+
+      var routes = new SnapshotRoute[in.readInt()];
+      for (int i = 0; i < routes.length; ++i) {
+        routes[i] = readRoute(in, i);
+      }
+      return new SnapshotTransitData(
+        description,
+        routes,
+        routeIndexesByStop(routes, nStops),
+        transfersFromStop,
+        reverseTransfers(transfersFromStop),
+        costCalculator.calculator(),
+        slackProvider,
+        costCalculator.stopBoardAlightTransferCosts(),
+        validTransitDataStartTime,
+        validTransitDataEndTime,
+        true
+      );
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /* private methods */
+
+  private static void writeSlack(DataOutputStream out, RaptorSlackProvider slack, int nIndexes)
+    throws IOException {
+    out.writeInt(slack.transferSlack());
+    out.writeInt(nIndexes);
+    for (int i = 0; i < nIndexes; ++i) {
+      out.writeInt(slack.boardSlack(i));
+      out.writeInt(slack.alightSlack(i));
+    }
+  }
+
+  private static RaptorSlackProvider readSlack(DataInputStream in) throws IOException {
+    int transferSlack = in.readInt();
+    int n = in.readInt();
+    int[] boardSlack = new int[n];
+    int[] alightSlack = new int[n];
+    for (int i = 0; i < n; ++i) {
+      boardSlack[i] = in.readInt();
+      alightSlack[i] = in.readInt();
+    }
+    return new SlackProvider(transferSlack, boardSlack, alightSlack);
+  }
+
+  private static void writeCostParameters(
+    DataOutputStream out,
+    GeneralizedCostParameters params,
+    @Nullable int[] stopBoardAlightTransferCosts
+  ) throws IOException {
+    out.writeInt(params.boardCost());
+    out.writeInt(params.transferCost());
+    out.writeDouble(params.waitReluctanceFactor());
+    var transitReluctanceFactors = params.transitReluctanceFactors();
+    if (transitReluctanceFactors == null) {
+      out.writeInt(NULL_ARRAY);
+    } else {
+      out.writeInt(transitReluctanceFactors.length);
+      for (double it : transitReluctanceFactors) {
+        out.writeDouble(it);
+      }
+    }
+    writeIntArray(out, stopBoardAlightTransferCosts);
+  }
+
+  private static CostCalculatorWithStopCosts readCostParameters(DataInputStream in)
+    throws IOException {
+    int boardCost = in.readInt();
+    int transferCost = in.readInt();
+    double waitReluctanceFactor = in.readDouble();
+    double[] transitReluctanceFactors = null;
+    int n = in.readInt();
+    if (n != NULL_ARRAY) {
+      transitReluctanceFactors = new double[n];
+      for (int i = 0; i < n; ++i) {
+        transitReluctanceFactors[i] = in.readDouble();
+      }
+    }
+    int[] stopBoardAlightTransferCosts = readIntArray(in);
+    return new CostCalculatorWithStopCosts(
+      new DefaultCostCalculator<>(
+        boardCost,
+        transferCost,
+        waitReluctanceFactor,
+        transitReluctanceFactors,
+        stopBoardAlightTransferCosts
+      ),
+      stopBoardAlightTransferCosts
+    );
+  }
+
+  private static void writeTransfers(
+    DataOutputStream out,
+    RaptorTransitDataProvider<?> transitData
+  ) throws IOException {
+    int nStops = transitData.numberOfStops();
+    out.writeInt(nStops);
+    List<RaptorTransfer> transfers = new ArrayList<>();
+    for (int stop = 0; stop < nStops; ++stop) {
+      transfers.clear();
+      // The iterator may return a flyweight, so only the values are kept
+      transitData.getTransfersFromStop(stop).forEachRemaining(it -> transfers.add(copyOf(it)));
+      out.writeInt(transfers.size());
+      for (var it : transfers) {
+        out.writeInt(it.stop());
+        out.writeInt(it.durationInSeconds());
+        out.writeInt(it.c1());
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<SnapshotTransfer>[] readTransfers(DataInputStream in) throws IOException {
+    int nStops = in.readInt();
+    var transfers = (List<SnapshotTransfer>[]) new List[nStops];
+    for (int stop = 0; stop < nStops; ++stop) {
+      int n = in.readInt();
+      var list = new ArrayList<SnapshotTransfer>(n);
+      for (int i = 0; i < n; ++i) {
+        list.add(new SnapshotTransfer(in.readInt(), in.readInt(), in.readInt()));
+      }
+      transfers[stop] = list;
+    }
+    return transfers;
+  }
+
+  /**
+   * The reverse transfers are the same transfers as the forward, but indexed by the to-stop and
+   * with the from-stop as target.
+   */
+  @SuppressWarnings("unchecked")
+  private static List<SnapshotTransfer>[] reverseTransfers(List<SnapshotTransfer>[] forward) {
+    var reverse = (List<SnapshotTransfer>[]) new List[forward.length];
+    for (int stop = 0; stop < forward.length; ++stop) {
+      reverse[stop] = new ArrayList<>();
+    }
+    for (int fromStop = 0; fromStop < forward.length; ++fromStop) {
+      for (var it : forward[fromStop]) {
+        reverse[it.stop()].add(new SnapshotTransfer(fromStop, it.durationInSeconds(), it.c1()));
+      }
+    }
+    return reverse;
+  }
+
+  private static <T extends DefaultTripSchedule> void writeRoute(
+    DataOutputStream out,
+    RaptorRoute<T> route
+  ) throws IOException {
+    var pattern = route.pattern();
+    var timetable = route.timetable();
+    int nStops = pattern.numberOfStopsInPattern();
+    int nTrips = timetable.numberOfTripSchedules();
+
+    out.writeUTF(pattern.debugInfo());
+    out.writeInt(pattern.slackIndex());
+    out.writeInt(pattern.priorityGroupId());
+    out.writeInt(nStops);
+    for (int pos = 0; pos < nStops; ++pos) {
+      out.writeInt(pattern.stopIndex(pos));
+      out.writeByte(SnapshotTripPattern.boardAlight(pattern, pos));
+    }
+    out.writeInt(nTrips);
+    for (int i = 0; i < nTrips; ++i) {
+      out.writeInt(timetable.getTripSchedule(i).transitReluctanceFactorIndex());
+    }
+    for (int i = 0; i < nTrips; ++i) {
+      var trip = timetable.getTripSchedule(i);
+      for (int pos = 0; pos < nStops; ++pos) {
+        out.writeInt(trip.arrival(pos));
+        out.writeInt(trip.departure(pos));
+      }
+    }
+  }
+
+  private static SnapshotRoute readRoute(DataInputStream in, int routeIndex) throws IOException {
+    String debugInfo = in.readUTF();
+    int slackIndex = in.readInt();
+    int priorityGroupId = in.readInt();
+    int nStops = in.readInt();
+    int[] stopIndexes = new int[nStops];
+    byte[] boardAlight = new byte[nStops];
+    for (int pos = 0; pos < nStops; ++pos) {
+      stopIndexes[pos] = in.readInt();
+      boardAlight[pos] = in.readByte();
+    }
+    int nTrips = in.readInt();
+    int[] transitReluctanceFactorIndexes = new int[nTrips];
+    for (int i = 0; i < nTrips; ++i) {
+      transitReluctanceFactorIndexes[i] = in.readInt();
+    }
+    // The times are saved by trip, but stored by stop
+    int[] arrivalTimes = new int[nStops * nTrips];
+    int[] departureTimes = new int[nStops * nTrips];
+    for (int i = 0; i < nTrips; ++i) {
+      for (int pos = 0; pos < nStops; ++pos) {
+        arrivalTimes[pos * nTrips + i] = in.readInt();
+        departureTimes[pos * nTrips + i] = in.readInt();
+      }
+    }
+    var pattern = new SnapshotTripPattern(
+      routeIndex,
+      stopIndexes,
+      boardAlight,
+      slackIndex,
+      priorityGroupId,
+      debugInfo
+    );
+    return new SnapshotRoute(pattern, arrivalTimes, departureTimes, transitReluctanceFactorIndexes);
+  }
+
+  private static int[][] routeIndexesByStop(SnapshotRoute[] routes, int nStops) {
+    int[] count = new int[nStops];
+    int[] lastRouteIndex = new int[nStops];
+    Arrays.fill(lastRouteIndex, -1);
+
+    // A route may visit the same stop more than once, it is only added once
+    for (var route : routes) {
+      int routeIndex = route.pattern().patternIndex();
+      for (int stop : route.pattern().stopIndexes()) {
+        if (lastRouteIndex[stop] != routeIndex) {
+          lastRouteIndex[stop] = routeIndex;
+          ++count[stop];
+        }
+      }
+    }
+    int[][] result = new int[nStops][];
+    for (int stop = 0; stop < nStops; ++stop) {
+      result[stop] = new int[count[stop]];
+      count[stop] = 0;
+    }
+    for (var route : routes) {
+      int routeIndex = route.pattern().patternIndex();
+      for (int stop : route.pattern().stopIndexes()) {
+        int n = count[stop];
+        if (n == 0 || result[stop][n - 1] != routeIndex) {
+          result[stop][n] = routeIndex;
+          count[stop] = n + 1;
+        }
+      }
+    }
+    return result;
+  }
+
+  private static void writeIntArray(DataOutputStream out, @Nullable int[] values)
+    throws IOException {
+    if (values == null) {
+      out.writeInt(NULL_ARRAY);
+      return;
+    }
+    out.writeInt(values.length);
+    for (int it : values) {
+      out.writeInt(it);
+    }
+  }
+
+  @Nullable
+  private static int[] readIntArray(DataInputStream in) throws IOException {
+    int n = in.readInt();
+    if (n == NULL_ARRAY) {
+      return null;
+    }
+    int[] values = new int[n];
+    for (int i = 0; i < n; ++i) {
+      values[i] = in.readInt();
+    }
+    return values;
+  }
+
+  private static RaptorTransfer copyOf(RaptorTransfer it) {
+    return new SnapshotTransfer(it.stop(), it.durationInSeconds(), it.c1());
+  }
+
+  private record CostCalculatorWithStopCosts(
+    DefaultCostCalculator<SnapshotTripSchedule> calculator,
+    @Nullable int[] stopBoardAlightTransferCosts
+  ) {}
+
+  private record SlackProvider(int transferSlack, int[] boardSlack, int[] alightSlack)
+    implements RaptorSlackProvider {
+    @Override
+    public int boardSlack(int slackIndex) {
+      return boardSlack[slackIndex];
+    }
+
+    @Override
+    public int alightSlack(int slackIndex) {
+      return alightSlack[slackIndex];
+    }
+  }
+}
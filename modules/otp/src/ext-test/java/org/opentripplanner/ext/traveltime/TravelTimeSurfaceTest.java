@@ -0,0 +1,116 @@
+package org.opentripplanner.ext.traveltime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.opentripplanner.framework.geometry.SphericalDistanceLibrary;
+
+class TravelTimeSurfaceTest {
+
+  private static final double WALK_SPEED = 1.0;
+  private static final Coordinate ORIGIN = new Coordinate(10.0, 60.0);
+
+  /** 1 km in each direction from the origin, a grid of 20 x 20 cells of 100 m. */
+  private static final Envelope ENVELOPE = envelope(ORIGIN, 1000);
+
+  private final TravelTimeSurfaceBuffers buffers = new TravelTimeSurfaceBuffers(2);
+  private final TravelTimeSurface subject = TravelTimeSurface.of(ENVELOPE, 100, 10_000, buffers);
+
+  @Test
+  void spread() {
+    assertEquals(20, subject.width());
+    assertEquals(20, subject.height());
+
+    subject.spread(ORIGIN, 0, 500, WALK_SPEED);
+
+    // The origin is in the corner of the four cells in the center
+    assertEquals(70, subject.travelTime(10, 10));
+    assertEquals(70, subject.travelTime(9, 9));
+    assertEquals(158, subject.travelTime(11, 9));
+    assertEquals(TravelTimeSurface.UNREACHED, subject.travelTime(0, 0));
+    assertEquals(TravelTimeSurface.UNREACHED, subject.travelTime(16, 10));
+  }
+
+  @Test
+  void spreadKeepsTheBestTravelTime() {
+    double dLon = lonDegrees(500, ORIGIN.y);
+    var stop = new Coordinate(ORIGIN.x + dLon, ORIGIN.y);
+
+    subject.spread(ORIGIN, 0, 1000, WALK_SPEED);
+    subject.spread(stop, 120, 1000, WALK_SPEED);
+
+    assertEquals(70, subject.travelTime(10, 10));
+    // 453 m to walk from the origin, or 71 m from the stop reached after 120 seconds
+    assertEquals(190, subject.travelTime(14, 10));
+  }
+
+  @Test
+  void isochrone() {
+    subject.spread(ORIGIN, 0, 1000, WALK_SPEED);
+
+    var small = subject.isochrone(300);
+    var large = subject.isochrone(600);
+
+    assertEquals(1, small.getNumGeometries());
+    assertTrue(small.contains(large.getFactory().createPoint(ORIGIN)));
+    assertTrue(large.contains(small));
+    assertTrue(large.getArea() > 3 * small.getArea());
+    assertTrue(subject.isochrone(10).isEmpty());
+  }
+
+  @Test
+  void surfaceIsLimitedInSize() {
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> TravelTimeSurface.of(ENVELOPE, 100, 399, buffers)
+    );
+  }
+
+  @Test
+  void arraysAreReusedWhenTheSurfaceIsClosed() {
+    subject.spread(ORIGIN, 0, 1000, WALK_SPEED);
+    subject.close();
+
+    assertEquals(400, buffers.travelTimes(1).length);
+  }
+
+  @Test
+  void reusedArrayIsReset() {
+    subject.spread(ORIGIN, 0, 1000, WALK_SPEED);
+    subject.close();
+
+    // A smaller surface uses the first cells of the array
+    try (var next = TravelTimeSurface.of(envelope(ORIGIN, 500), 100, 10_000, buffers)) {
+      assertEquals(10, next.width());
+      assertEquals(10, next.height());
+      for (int y = 0; y < next.height(); ++y) {
+        for (int x = 0; x < next.width(); ++x) {
+          assertEquals(TravelTimeSurface.UNREACHED, next.travelTime(x, y));
+        }
+      }
+    }
+  }
+
+  @Test
+  void arrayTooSmallIsNotReused() {
+    var times = buffers.travelTimes(10);
+    buffers.release(times);
+
+    assertNotSame(times, buffers.travelTimes(400));
+  }
+
+  private static Envelope envelope(Coordinate center, double meters) {
+    double dLat = SphericalDistanceLibrary.metersToDegrees(meters);
+    double dLon = lonDegrees(meters, center.y);
+    return new Envelope(center.x - dLon, center.x + dLon, center.y - dLat, center.y + dLat);
+  }
+
+  private static double lonDegrees(double meters, double latitude) {
+    return SphericalDistanceLibrary.metersToDegrees(meters) / Math.cos(Math.toRadians(latitude));
+  }
+}
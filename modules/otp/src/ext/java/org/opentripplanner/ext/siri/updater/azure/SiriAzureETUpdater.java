@@ -96,13 +96,14 @@ public class SiriAzureETUpdater extends AbstractAzureSiriUpdater {
   }
 
   private Future<?> processMessage(List<EstimatedTimetableDeliveryStructure> updates) {
+    var journeys = snapshotSource.prepareEstimatedTimetable(fuzzyTripMatching(), feedId, updates);
     return super.saveResultOnGraph.execute(context -> {
-      var result = snapshotSource.applyEstimatedTimetable(
+      var result = snapshotSource.applyPreparedEstimatedTimetable(
         fuzzyTripMatching() ? context.siriFuzzyTripMatcher() : null,
         context.entityResolver(feedId),
         feedId,
         UpdateIncrementality.DIFFERENTIAL,
-        updates
+        journeys
       );
       ResultLogger.logUpdateResultErrors(feedId, "siri-et", result);
       recordMetrics.accept(result);
@@ -0,0 +1,218 @@
+package org.opentripplanner.ext.traveltime;
+
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.List;
+import org.geotools.api.feature.simple.SimpleFeatureType;
+import org.geotools.coverage.grid.GridCoverage2D;
+import org.geotools.data.geojson.GeoJSONWriter;
+import org.geotools.feature.DefaultFeatureCollection;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.gce.geotiff.GeoTiffWriter;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.opentripplanner.framework.time.DurationUtils;
+import org.opentripplanner.model.GenericLocation;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.standalone.api.OtpServerRequestContext;
+
+/**
+ * Travel time surfaces and isochrones from a single origin, using a one-to-all transit search.
+ * The travel time surface is computed once for each request, and the polygons for all cutoffs are
+ * created from it.
+ */
+@Path("/traveltime")
+public class TravelTimeResource {
+
+  private static final Duration MAX_CUTOFF = Duration.ofHours(4);
+  private static final double MIN_RESOLUTION = 25;
+
+  private final OtpServerRequestContext serverContext;
+
+  public TravelTimeResource(@Context OtpServerRequestContext serverContext) {
+    this.serverContext = serverContext;
+  }
+
+  /**
+   * Return the areas reached within each cutoff as GeoJSON polygons.
+   *
+   * @param location The origin as "latitude,longitude".
+   * @param time The departure time in ISO-8601 format, the default is now.
+   * @param cutoffs One or more cutoffs, like "30m" or "PT1H".
+   * @param resolution The size of the grid cells in meters.
+   * @param straightLineWalk Walk in a straight line from the stops instead of on the streets. This
+   *                         is an approximation, see {@link TravelTimeRouter}.
+   */
+  @GET
+  @Path("/isochrone")
+  @Produces("application/geo+json")
+  public Response isochrone(
+    @QueryParam("location") String location,
+    @QueryParam("time") String time,
+    @QueryParam("cutoff") List<String> cutoffs,
+    @QueryParam("resolution") @DefaultValue("100") double resolution,
+    @QueryParam("straightLineWalk") @DefaultValue("false") boolean straightLineWalk
+  ) {
+    var cutoffDurations = parseCutoffs(cutoffs);
+
+    SimpleFeatureType schema = isochroneSchema();
+    var featureCollection = new DefaultFeatureCollection(null, schema);
+    var featureBuilder = new SimpleFeatureBuilder(schema);
+    try (
+      var surface = travelTimeSurface(
+        location,
+        time,
+        cutoffDurations.getLast(),
+        resolution,
+        straightLineWalk
+      )
+    ) {
+      for (Duration cutoff : cutoffDurations) {
+        featureBuilder.add(surface.isochrone((int) cutoff.toSeconds()));
+        featureBuilder.add(cutoff.toSeconds());
+        featureCollection.add(featureBuilder.buildFeature(null));
+      }
+    }
+
+    StreamingOutput output = out -> {
+      try (var writer = new GeoJSONWriter(out)) {
+        writer.writeFeatureCollection(featureCollection);
+      }
+    };
+    return Response.ok(output).build();
+  }
+
+  /**
+   * Return the travel time in seconds as a GeoTIFF raster, the extent is given by the cutoff.
+   */
+  @GET
+  @Path("/surface")
+  @Produces("image/tiff")
+  public Response surface(
+    @QueryParam("location") String location,
+    @QueryParam("time") String time,
+    @QueryParam("cutoff") String cutoff,
+    @QueryParam("resolution") @DefaultValue("100") double resolution,
+    @QueryParam("straightLineWalk") @DefaultValue("false") boolean straightLineWalk
+  ) {
+    var maxCutoff = parseCutoffs(cutoff == null ? List.of() : List.of(cutoff)).getLast();
+    var surface = travelTimeSurface(location, time, maxCutoff, resolution, straightLineWalk);
+
+    // The raster uses the arrays of the surface, so it is closed after the raster is written
+    StreamingOutput output = out -> {
+      try (surface) {
+        writeGeoTiff(surface.toGridCoverage(), out);
+      }
+    };
+    return Response.ok(output).build();
+  }
+
+  private TravelTimeSurface travelTimeSurface(
+    String location,
+    String time,
+    Duration maxCutoff,
+    double resolution,
+    boolean straightLineWalk
+  ) {
+    if (resolution < MIN_RESOLUTION) {
+      throw new BadRequestException("The resolution must be at least " + MIN_RESOLUTION + "m");
+    }
+    RouteRequest request = serverContext.defaultRouteRequest();
+    request.setFrom(parseLocation(location));
+    request.setDateTime(parseTime(time));
+
+    try {
+      return new TravelTimeRouter(
+        request,
+        serverContext,
+        maxCutoff,
+        resolution,
+        straightLineWalk
+      )
+        .route();
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException(e.getMessage());
+    }
+  }
+
+  private static void writeGeoTiff(GridCoverage2D coverage, OutputStream out)
+    throws IOException {
+    var writer = new GeoTiffWriter(out);
+    try {
+      writer.write(coverage);
+    } finally {
+      writer.dispose();
+    }
+  }
+
+  private static GenericLocation parseLocation(String location) {
+    if (location == null) {
+      throw new BadRequestException("The location is required.");
+    }
+    try {
+      String[] latLon = location.split(",");
+      return new GenericLocation(Double.parseDouble(latLon[0]), Double.parseDouble(latLon[1]));
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+      throw new BadRequestException("Expected location as 'latitude,longitude': " + location);
+    }
+  }
+
+  private static Instant parseTime(String time) {
+    if (time == null) {
+      return Instant.now();
+    }
+    try {
+      return OffsetDateTime.parse(time).toInstant();
+    } catch (DateTimeParseException e) {
+      throw new BadRequestException("Expected time in ISO-8601 format: " + time);
+    }
+  }
+
+  /**
+   * Parse the cutoffs and return them sorted, the last is the max cutoff.
+   */
+  private static List<Duration> parseCutoffs(List<String> cutoffs) {
+    if (cutoffs == null || cutoffs.isEmpty()) {
+      throw new BadRequestException("At least one cutoff is required.");
+    }
+    List<Duration> result;
+    try {
+      result =
+        cutoffs.stream().map(DurationUtils::duration).sorted(Comparator.naturalOrder()).toList();
+    } catch (RuntimeException e) {
+      throw new BadRequestException("Unable to parse cutoff: " + e.getMessage());
+    }
+    if (result.getFirst().isNegative() || result.getFirst().isZero()) {
+      throw new BadRequestException("The cutoff must be positive.");
+    }
+    if (result.getLast().compareTo(MAX_CUTOFF) > 0) {
+      throw new BadRequestException("The max cutoff is " + DurationUtils.durationToStr(MAX_CUTOFF));
+    }
+    return result;
+  }
+
+  private static SimpleFeatureType isochroneSchema() {
+    var typeBuilder = new SimpleFeatureTypeBuilder();
+    typeBuilder.setName("isochrones");
+    typeBuilder.setCRS(DefaultGeographicCRS.WGS84);
+    typeBuilder.setDefaultGeometry("the_geom");
+    typeBuilder.add("the_geom", MultiPolygon.class);
+    typeBuilder.add("time", Long.class);
+    return typeBuilder.buildFeatureType();
+  }
+}
@@ -0,0 +1,309 @@
+package org.opentripplanner.ext.traveltime;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.opentripplanner.framework.geometry.SphericalDistanceLibrary;
+import org.opentripplanner.framework.time.ServiceDateUtils;
+import org.opentripplanner.raptor.RaptorService;
+import org.opentripplanner.raptor.api.request.RaptorProfile;
+import org.opentripplanner.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.raptor.api.response.StopArrivals;
+import org.opentripplanner.routing.algorithm.raptoradapter.router.AdditionalSearchDays;
+import org.opentripplanner.routing.algorithm.raptoradapter.router.street.AccessEgressRouter;
+import org.opentripplanner.routing.algorithm.raptoradapter.router.street.AccessEgressType;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.RoutingAccessEgress;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.AccessEgressMapper;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRoutingRequestTransitData;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RouteRequestTransitDataProviderFilter;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.request.StreetRequest;
+import org.opentripplanner.standalone.api.OtpServerRequestContext;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.StreetSearchBuilder;
+import org.opentripplanner.street.search.TemporaryVerticesContainer;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.street.search.request.StreetSearchRequestMapper;
+import org.opentripplanner.street.search.state.State;
+import org.opentripplanner.street.search.state.StateData;
+import org.opentripplanner.street.search.strategy.DominanceFunctions;
+import org.opentripplanner.transit.model.network.grouppriority.TransitGroupPriorityService;
+import org.opentripplanner.transit.model.site.StopLocation;
+
+/**
+ * Compute the travel time surface from the origin of a request. The access stops are found with a
+ * street search, then a one-to-all Raptor search finds the earliest arrival time at every stop.
+ * At last a walk search on the streets, from the origin and all the stops reached, finds the travel
+ * time to each street vertex, limited by the max egress walk duration. The cells between the
+ * streets are reached by walking in a straight line from the street vertices, at most
+ * {@link #OFF_STREET_DISTANCE_METERS}.
+ * <p>
+ * If {@code straightLineWalk} is set, the walk search on the streets is skipped, and the travel
+ * times are spread out from the origin and each stop reached by walking in a straight line for the
+ * remaining time. This is an approximation, which is cheaper to compute. It ignores the street
+ * network, so the area reached is too large where the streets are not straight, and across rivers,
+ * railways and motorways.
+ */
+class TravelTimeRouter {
+
+  /** Limit the size of the surface, a grid of 2000 x 2000 cells use 16 MB. */
+  private static final int MAX_CELLS = 4_000_000;
+
+  /** The arrays of the surfaces of this many requests are kept for the next requests. */
+  private static final TravelTimeSurfaceBuffers BUFFERS = new TravelTimeSurfaceBuffers(4);
+
+  /** The max distance walked in a straight line from a street vertex. */
+  private static final double OFF_STREET_DISTANCE_METERS = 150;
+
+  private final RouteRequest request;
+  private final OtpServerRequestContext serverContext;
+  private final int maxCutoff;
+  private final double resolutionMeters;
+  private final boolean straightLineWalk;
+  private final double walkSpeed;
+  private final int maxEgressWalk;
+
+  TravelTimeRouter(
+    RouteRequest request,
+    OtpServerRequestContext serverContext,
+    Duration maxCutoff,
+    double resolutionMeters,
+    boolean straightLineWalk
+  ) {
+    this.request = request;
+    this.serverContext = serverContext;
+    this.maxCutoff = (int) maxCutoff.toSeconds();
+    this.resolutionMeters = resolutionMeters;
+    this.straightLineWalk = straightLineWalk;
+    this.walkSpeed = request.preferences().walk().speed();
+    this.maxEgressWalk =
+      (int) request
+        .preferences()
+        .street()
+        .accessEgress()
+        .maxDuration()
+        .valueOf(StreetMode.WALK)
+        .toSeconds();
+  }
+
+  TravelTimeSurface route() {
+    var transitService = serverContext.transitService();
+    ZonedDateTime timeZero = ServiceDateUtils.asStartOfService(
+      request.dateTime(),
+      transitService.getTimeZone()
+    );
+    int departureTime = (int) (request.dateTime().getEpochSecond() - timeZero.toEpochSecond());
+    var streetMode = request.journey().access().mode();
+
+    try (
+      var temporaryVertices = new TemporaryVerticesContainer(
+        serverContext.graph(),
+        request.from(),
+        request.from(),
+        streetMode,
+        streetMode
+      )
+    ) {
+      List<ReachedStop> stops = new ArrayList<>();
+      var accessList = findAccess(temporaryVertices);
+      if (!accessList.isEmpty()) {
+        TransitLayer transitLayer = request.preferences().transit().ignoreRealtimeUpdates()
+          ? transitService.getTransitLayer()
+          : transitService.getRealtimeTransitLayer();
+        var arrivals = routeTransit(transitLayer, timeZero, departureTime, accessList);
+
+        for (int stop = 0; stop < transitLayer.getStopCount(); ++stop) {
+          if (arrivals.reached(stop)) {
+            int time = arrivals.bestArrivalTime(stop) - departureTime;
+            if (time < maxCutoff) {
+              stops.add(new ReachedStop(transitLayer.getStopByIndex(stop), time));
+            }
+          }
+        }
+      }
+      var points = straightLineWalk
+        ? walkInStraightLine(stops)
+        : walkOnStreets(temporaryVertices.getFromVertices(), stops);
+      return createSurface(points);
+    }
+  }
+
+  private Collection<RoutingAccessEgress> findAccess(TemporaryVerticesContainer temporaryVertices) {
+    var streetRequest = request.journey().access();
+    var durationLimit = request
+      .preferences()
+      .street()
+      .accessEgress()
+      .maxDuration()
+      .valueOf(streetRequest.mode());
+    if (durationLimit.toSeconds() > maxCutoff) {
+      durationLimit = Duration.ofSeconds(maxCutoff);
+    }
+
+    var nearbyStops = AccessEgressRouter.findAccessEgresses(
+      request,
+      temporaryVertices,
+      streetRequest,
+      serverContext.dataOverlayContext(request),
+      AccessEgressType.ACCESS,
+      durationLimit,
+      request.preferences().street().accessEgress().maxStopCount()
+    );
+    return new ArrayList<>(AccessEgressMapper.mapNearbyStops(nearbyStops, AccessEgressType.ACCESS));
+  }
+
+  private StopArrivals routeTransit(
+    TransitLayer transitLayer,
+    ZonedDateTime timeZero,
+    int departureTime,
+    Collection<RoutingAccessEgress> accessList
+  ) {
+    var duration = Duration.ofSeconds(maxCutoff);
+    var searchDays = new AdditionalSearchDays(
+      false,
+      request.dateTime().atZone(timeZero.getZone()),
+      Duration.ZERO,
+      duration,
+      duration
+    );
+    var transitData = new RaptorRoutingRequestTransitData(
+      transitLayer,
+      TransitGroupPriorityService.empty(),
+      timeZero,
+      searchDays.additionalSearchDaysInPast(),
+      searchDays.additionalSearchDaysInFuture(),
+      new RouteRequestTransitDataProviderFilter(request),
+      request
+    );
+
+    int maxTransfers = serverContext.raptorTuningParameters().maxNumberOfTransfers();
+    var raptorRequest = new RaptorRequestBuilder<TripSchedule>()
+      .profile(RaptorProfile.BEST_TIME)
+      .searchParams()
+      .earliestDepartureTime(departureTime)
+      .latestArrivalTime(departureTime + maxCutoff)
+      .searchOneIterationOnly()
+      .maxNumberOfTransfers(maxTransfers)
+      // All stops are destinations, so the search must continue after the "egress" is reached
+      .numberOfAdditionalTransfers(maxTransfers)
+      .addAccessPaths(accessList)
+      .addEgressPaths(accessList)
+      .build();
+
+    return new RaptorService<>(serverContext.raptorConfig())
+      .route(raptorRequest, transitData)
+      .getArrivals();
+  }
+
+  /**
+   * Walk in a straight line from the origin and each stop, the origin is walked from with time
+   * zero.
+   */
+  private List<TravelTimePoint> walkInStraightLine(List<ReachedStop> stops) {
+    List<TravelTimePoint> points = new ArrayList<>();
+    points.add(travelTimePoint(request.from().getCoordinate(), 0, maxEgressWalk));
+    for (ReachedStop it : stops) {
+      var coordinate = it.stop().getCoordinate().asJtsCoordinate();
+      points.add(travelTimePoint(coordinate, it.time(), maxEgressWalk));
+    }
+    return points;
+  }
+
+  /**
+   * Walk on the streets from the origin and all the stops at the same time, and return the travel
+   * time to each street vertex reached.
+   */
+  private List<TravelTimePoint> walkOnStreets(Set<Vertex> originVertices, List<ReachedStop> stops) {
+    StreetSearchRequest searchRequest = StreetSearchRequestMapper
+      .map(request)
+      .withMode(StreetMode.WALK)
+      .withArriveBy(false)
+      .build();
+
+    List<State> initialStates = new ArrayList<>();
+    for (Vertex vertex : originVertices) {
+      initialStates.add(initialState(vertex, 0, searchRequest));
+    }
+    for (ReachedStop it : stops) {
+      Vertex vertex = serverContext.graph().getStopVertexForStopId(it.stop().getId());
+      if (vertex != null) {
+        initialStates.add(initialState(vertex, it.time(), searchRequest));
+      }
+    }
+
+    double maxWalkDistance = maxEgressWalk * walkSpeed;
+    var spt = StreetSearchBuilder
+      .of()
+      .setSkipEdgeStrategy((state, edge) ->
+        state.getElapsedTimeSeconds() > maxCutoff || state.getWalkDistance() > maxWalkDistance
+      )
+      .setDominanceFunction(new DominanceFunctions.EarliestArrival())
+      .setRequest(request)
+      .setStreetRequest(new StreetRequest(StreetMode.WALK))
+      .setDataOverlayContext(serverContext.dataOverlayContext(request))
+      .setInitialStates(initialStates)
+      .getShortestPathTree();
+
+    int offStreetWalk = (int) (OFF_STREET_DISTANCE_METERS / walkSpeed);
+    List<TravelTimePoint> points = new ArrayList<>();
+    for (Vertex vertex : spt.getVertices()) {
+      long time = Long.MAX_VALUE;
+      for (State state : spt.getStates(vertex)) {
+        time = Math.min(time, state.getElapsedTimeSeconds());
+      }
+      if (time < maxCutoff) {
+        points.add(travelTimePoint(vertex.getCoordinate(), (int) time, offStreetWalk));
+      }
+    }
+    return points;
+  }
+
+  private static State initialState(Vertex vertex, int time, StreetSearchRequest request) {
+    return new State(
+      vertex,
+      request.startTime().plusSeconds(time),
+      StateData.getBaseCaseStateData(request),
+      request
+    );
+  }
+
+  /**
+   * Walk from the given point for the time left, limited by the given max walk time.
+   */
+  private TravelTimePoint travelTimePoint(Coordinate coordinate, int time, int maxWalkTime) {
+    return new TravelTimePoint(coordinate, time, Math.min(maxCutoff - time, maxWalkTime));
+  }
+
+  private TravelTimeSurface createSurface(List<TravelTimePoint> points) {
+    var envelope = new Envelope();
+    for (TravelTimePoint it : points) {
+      double radius = it.maxWalkTime() * walkSpeed;
+      double dLat = SphericalDistanceLibrary.metersToDegrees(radius);
+      double dLon = SphericalDistanceLibrary.metersToLonDegrees(radius, it.coordinate().y);
+      envelope.expandToInclude(it.coordinate().x - dLon, it.coordinate().y - dLat);
+      envelope.expandToInclude(it.coordinate().x + dLon, it.coordinate().y + dLat);
+    }
+
+    var surface = TravelTimeSurface.of(envelope, resolutionMeters, MAX_CELLS, BUFFERS);
+    for (TravelTimePoint it : points) {
+      surface.spread(it.coordinate(), it.time(), it.maxWalkTime(), walkSpeed);
+    }
+    return surface;
+  }
+
+  private record ReachedStop(StopLocation stop, int time) {}
+
+  /**
+   * A point reached at the given travel time, which is walked from in a straight line for at most
+   * the given max walk time.
+   */
+  private record TravelTimePoint(Coordinate coordinate, int time, int maxWalkTime) {}
+}
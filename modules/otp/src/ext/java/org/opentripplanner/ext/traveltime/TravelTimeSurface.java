@@ -0,0 +1,248 @@
+package org.opentripplanner.ext.traveltime;
+
+import java.awt.image.BandedSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferFloat;
+import java.awt.image.Raster;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.geotools.coverage.grid.GridCoverage2D;
+import org.geotools.coverage.grid.GridCoverageFactory;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.operation.union.CascadedPolygonUnion;
+import org.opentripplanner.framework.geometry.GeometryUtils;
+import org.opentripplanner.framework.geometry.SphericalDistanceLibrary;
+
+/**
+ * A regular grid of travel times from one origin. The grid is created for one request, and the
+ * travel times are spread out from each reached point (the street vertices, or the origin and the
+ * transit stops) by walking in a straight line. The same grid is used for all the cutoffs of the
+ * request, both to create the isochrone polygons and the raster.
+ * <p>
+ * The cells are square in meters, the size in degrees is computed at the latitude of the center of
+ * the grid.
+ * <p>
+ * The arrays of the surface are taken from the given {@link TravelTimeSurfaceBuffers}, and given
+ * back when the surface is closed. The raster returned by {@link #toGridCoverage()} must not be
+ * used after that.
+ */
+public class TravelTimeSurface implements AutoCloseable {
+
+  /** The travel time of a cell not reached. */
+  public static final int UNREACHED = Integer.MAX_VALUE;
+
+  private final double west;
+  private final double south;
+  private final double cellWidth;
+  private final double cellHeight;
+  private final double cellSizeMeters;
+  private final int width;
+  private final int height;
+  private final TravelTimeSurfaceBuffers buffers;
+
+  /**
+   * The travel time in seconds by cell, row by row starting in the south-west corner. The array
+   * may be longer than the number of cells.
+   */
+  private int[] times;
+
+  /** The cells of the raster, created when the raster is requested. */
+  private float[] raster;
+
+  private TravelTimeSurface(
+    Envelope envelope,
+    double cellSizeMeters,
+    double cellWidth,
+    double cellHeight,
+    TravelTimeSurfaceBuffers buffers
+  ) {
+    this.cellSizeMeters = cellSizeMeters;
+    this.cellWidth = cellWidth;
+    this.cellHeight = cellHeight;
+    this.west = envelope.getMinX();
+    this.south = envelope.getMinY();
+    this.width = numberOfCells(envelope.getWidth(), cellWidth);
+    this.height = numberOfCells(envelope.getHeight(), cellHeight);
+    this.buffers = buffers;
+    this.times = buffers.travelTimes(width * height);
+    Arrays.fill(times, 0, width * height, UNREACHED);
+  }
+
+  /**
+   * Create an empty surface covering the given envelope.
+   *
+   * @throws IllegalArgumentException if the grid would have more than the given number of cells.
+   */
+  public static TravelTimeSurface of(
+    Envelope envelope,
+    double cellSizeMeters,
+    int maxCells,
+    TravelTimeSurfaceBuffers buffers
+  ) {
+    double cellHeight = SphericalDistanceLibrary.metersToDegrees(cellSizeMeters);
+    double cellWidth = cellHeight / Math.cos(Math.toRadians(envelope.centre().y));
+    long nCells =
+      (long) numberOfCells(envelope.getWidth(), cellWidth) *
+      numberOfCells(envelope.getHeight(), cellHeight);
+    if (nCells > maxCells) {
+      throw new IllegalArgumentException(
+        "The travel time surface is too large, increase the resolution or reduce the cutoff."
+      );
+    }
+    return new TravelTimeSurface(envelope, cellSizeMeters, cellWidth, cellHeight, buffers);
+  }
+
+  /**
+   * The number of cells needed to cover the given length, ignoring rounding errors.
+   */
+  private static int numberOfCells(double length, double cellSize) {
+    return Math.max(1, (int) Math.ceil(length / cellSize - 1e-6));
+  }
+
+  public int width() {
+    return width;
+  }
+
+  public int height() {
+    return height;
+  }
+
+  /**
+   * The travel time at the given cell, or {@link #UNREACHED}.
+   */
+  public int travelTime(int x, int y) {
+    return times[y * width + x];
+  }
+
+  /**
+   * Walk from the given point in all directions, and update the cells where the travel time is
+   * improved.
+   *
+   * @param time The travel time to the point in seconds.
+   * @param maxWalkTime The maximum walk time from the point in seconds.
+   * @param walkSpeed Walk speed in meters per second.
+   */
+  public void spread(Coordinate point, int time, int maxWalkTime, double walkSpeed) {
+    double radius = maxWalkTime * walkSpeed / cellSizeMeters;
+    // The position of the point in the grid, in cells
+    double px = (point.x - west) / cellWidth;
+    double py = (point.y - south) / cellHeight;
+    double secondsPerCell = cellSizeMeters / walkSpeed;
+
+    int minY = Math.max(0, (int) Math.floor(py - radius));
+    int maxY = Math.min(height - 1, (int) Math.ceil(py + radius));
+    int minX = Math.max(0, (int) Math.floor(px - radius));
+    int maxX = Math.min(width - 1, (int) Math.ceil(px + radius));
+
+    for (int y = minY; y <= maxY; ++y) {
+      double dy = y + 0.5 - py;
+      int row = y * width;
+      for (int x = minX; x <= maxX; ++x) {
+        double dx = x + 0.5 - px;
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        if (distance > radius) {
+          continue;
+        }
+        int t = time + (int) (distance * secondsPerCell);
+        if (t < times[row + x]) {
+          times[row + x] = t;
+        }
+      }
+    }
+  }
+
+  /**
+   * Return the area reached within the given cutoff in seconds.
+   */
+  public MultiPolygon isochrone(int cutoff) {
+    GeometryFactory factory = GeometryUtils.getGeometryFactory();
+    List<Geometry> rectangles = new ArrayList<>();
+
+    // Merge the cells of each row into rectangles to reduce the work done by the union
+    for (int y = 0; y < height; ++y) {
+      int row = y * width;
+      int x = 0;
+      while (x < width) {
+        if (times[row + x] > cutoff) {
+          ++x;
+          continue;
+        }
+        int start = x;
+        while (x < width && times[row + x] <= cutoff) {
+          ++x;
+        }
+        rectangles.add(
+          factory.toGeometry(
+            new Envelope(
+              west + start * cellWidth,
+              west + x * cellWidth,
+              south + y * cellHeight,
+              south + (y + 1) * cellHeight
+            )
+          )
+        );
+      }
+    }
+    Geometry union = CascadedPolygonUnion.union(rectangles);
+    if (union instanceof MultiPolygon multiPolygon) {
+      return multiPolygon;
+    }
+    if (union instanceof Polygon polygon) {
+      return factory.createMultiPolygon(new Polygon[] { polygon });
+    }
+    return factory.createMultiPolygon();
+  }
+
+  /**
+   * Create a raster with the travel time in seconds, the cells not reached are set to NaN.
+   */
+  public GridCoverage2D toGridCoverage() {
+    int nCells = width * height;
+    if (raster == null) {
+      raster = buffers.raster(nCells);
+    }
+    for (int y = 0; y < height; ++y) {
+      // The first row of the raster is the north edge
+      int row = (height - 1 - y) * width;
+      for (int x = 0; x < width; ++x) {
+        int time = travelTime(x, y);
+        raster[row + x] = time == UNREACHED ? Float.NaN : time;
+      }
+    }
+    var sampleModel = new BandedSampleModel(DataBuffer.TYPE_FLOAT, width, height, 1);
+    var dataBuffer = new DataBufferFloat(raster, nCells);
+    var envelope = new ReferencedEnvelope(
+      west,
+      west + width * cellWidth,
+      south,
+      south + height * cellHeight,
+      DefaultGeographicCRS.WGS84
+    );
+    return new GridCoverageFactory()
+      .create("traveltime", Raster.createWritableRaster(sampleModel, dataBuffer, null), envelope);
+  }
+
+  /**
+   * Give the arrays back to be used by the next surface. The surface must not be used after it is
+   * closed.
+   */
+  @Override
+  public void close() {
+    if (times != null) {
+      buffers.release(times);
+      times = null;
+    }
+    if (raster != null) {
+      buffers.release(raster);
+      raster = null;
+    }
+  }
+}
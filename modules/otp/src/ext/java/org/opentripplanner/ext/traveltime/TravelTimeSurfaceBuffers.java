@@ -0,0 +1,41 @@
+package org.opentripplanner.ext.traveltime;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * The arrays of the travel time surfaces are returned here when a request is done, and reused by
+ * the following requests instead of allocating new arrays for each request. The arrays of a large
+ * surface use several megabytes, so only a few arrays are kept. An array too small for a surface is
+ * dropped, and a new array is allocated.
+ */
+class TravelTimeSurfaceBuffers {
+
+  private final Queue<int[]> travelTimes;
+  private final Queue<float[]> rasters;
+
+  TravelTimeSurfaceBuffers(int maxPooledArrays) {
+    this.travelTimes = new ArrayBlockingQueue<>(maxPooledArrays);
+    this.rasters = new ArrayBlockingQueue<>(maxPooledArrays);
+  }
+
+  /** Return an array with at least the given size, the content is not cleared. */
+  int[] travelTimes(int size) {
+    var buffer = travelTimes.poll();
+    return buffer == null || buffer.length < size ? new int[size] : buffer;
+  }
+
+  /** Return an array with at least the given size, the content is not cleared. */
+  float[] raster(int size) {
+    var buffer = rasters.poll();
+    return buffer == null || buffer.length < size ? new float[size] : buffer;
+  }
+
+  void release(int[] buffer) {
+    travelTimes.offer(buffer);
+  }
+
+  void release(float[] buffer) {
+    rasters.offer(buffer);
+  }
+}
@@ -1,6 +1,7 @@
 package org.opentripplanner.apis.gtfs;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.HeaderParam;
@@ -16,6 +17,7 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import org.opentripplanner.apis.support.graphql.CachingPreparsedDocumentProvider;
 import org.opentripplanner.standalone.api.OtpServerRequestContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +35,14 @@ public class GtfsGraphQLAPI {
     this.serverContext = serverContext;
   }
 
+  /**
+   * The metrics of the parsed document cache, the metrics are bound when the application is wired
+   * up.
+   */
+  public static MeterBinder documentCacheMetrics() {
+    return GtfsGraphQLIndex.documentProvider();
+  }
+
   /**
    * This class is only here for backwards-compatibility. It will be removed in the future.
    */
@@ -55,13 +65,24 @@ public class GtfsGraphQLAPI {
     @HeaderParam("OTPMaxResolves") @DefaultValue("1000000") int maxResolves,
     @Context HttpHeaders headers
   ) {
-    if (queryParameters == null || !queryParameters.containsKey("query")) {
+    if (queryParameters == null) {
       LOG.debug("No query found in body");
-      return Response
-        .status(Response.Status.BAD_REQUEST)
-        .type(MediaType.TEXT_PLAIN_TYPE)
-        .entity("No query found in body")
-        .build();
+      return badRequest("No query found in body");
+    }
+
+    Map<String, Object> extensions;
+    try {
+      extensions = readJsonObject(queryParameters.get("extensions"));
+    } catch (IOException e) {
+      return badRequest("Extensions must be a valid json object");
+    }
+
+    if (
+      !queryParameters.containsKey("query") &&
+      !CachingPreparsedDocumentProvider.hasPersistedQuery(extensions)
+    ) {
+      LOG.debug("No query found in body");
+      return badRequest("No query found in body");
     }
 
     Locale locale = headers.getAcceptableLanguages().size() > 0
@@ -69,29 +90,23 @@ public class GtfsGraphQLAPI {
       : serverContext.defaultLocale();
 
     String query = (String) queryParameters.get("query");
+    if (query == null) {
+      // Only the hash of a persisted query is sent
+      query = CachingPreparsedDocumentProvider.persistedQueryMarker();
+    }
     Object queryVariables = queryParameters.getOrDefault("variables", null);
     String operationName = (String) queryParameters.getOrDefault("operationName", null);
     Map<String, Object> variables;
-
-    if (queryVariables instanceof Map) {
-      variables = (Map) queryVariables;
-    } else if (queryVariables instanceof String && !((String) queryVariables).isEmpty()) {
-      try {
-        variables = deserializer.readValue((String) queryVariables, Map.class);
-      } catch (IOException e) {
-        return Response
-          .status(Response.Status.BAD_REQUEST)
-          .type(MediaType.TEXT_PLAIN_TYPE)
-          .entity("Variables must be a valid json object")
-          .build();
-      }
-    } else {
-      variables = new HashMap<>();
+    try {
+      variables = readJsonObject(queryVariables);
+    } catch (IOException e) {
+      return badRequest("Variables must be a valid json object");
     }
     return GtfsGraphQLIndex.getGraphQLResponse(
       query,
       variables,
       operationName,
+      extensions,
       maxResolves,
       timeout,
       locale,
@@ -114,10 +129,32 @@ public class GtfsGraphQLAPI {
       query,
       null,
       null,
+      null,
       maxResolves,
       timeout,
       locale,
       GraphQLRequestContext.ofServerContext(serverContext)
     );
   }
+
+  /**
+   * Read a JSON object from the request body, it can be sent either as an object or as a string.
+   */
+  private Map<String, Object> readJsonObject(Object value) throws IOException {
+    if (value instanceof Map) {
+      return (Map) value;
+    } else if (value instanceof String && !((String) value).isEmpty()) {
+      return deserializer.readValue((String) value, Map.class);
+    } else {
+      return new HashMap<>();
+    }
+  }
+
+  private static Response badRequest(String message) {
+    return Response
+      .status(Response.Status.BAD_REQUEST)
+      .type(MediaType.TEXT_PLAIN_TYPE)
+      .entity(message)
+      .build();
+  }
 }
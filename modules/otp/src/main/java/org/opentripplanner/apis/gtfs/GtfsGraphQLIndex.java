@@ -82,6 +82,7 @@ import org.opentripplanner.apis.gtfs.datafetchers.serviceTimeRangeImpl;
 import org.opentripplanner.apis.gtfs.datafetchers.stepImpl;
 import org.opentripplanner.apis.gtfs.datafetchers.stopAtDistanceImpl;
 import org.opentripplanner.apis.gtfs.model.StopPosition;
+import org.opentripplanner.apis.support.graphql.CachingPreparsedDocumentProvider;
 import org.opentripplanner.apis.support.graphql.LoggingDataFetcherExceptionHandler;
 import org.opentripplanner.ext.actuator.MicrometerGraphQLInstrumentation;
 import org.opentripplanner.framework.application.OTPFeature;
@@ -95,6 +96,8 @@ class GtfsGraphQLIndex {
 
   private static final GraphQLSchema indexSchema = buildSchema();
 
+  private static final CachingPreparsedDocumentProvider documentProvider = createDocumentProvider();
+
   protected static GraphQLSchema buildSchema() {
     try {
       URL url = Objects.requireNonNull(GtfsGraphQLIndex.class.getResource("schema.graphqls"));
@@ -188,10 +191,22 @@ class GtfsGraphQLIndex {
     return null;
   }
 
+  static CachingPreparsedDocumentProvider documentProvider() {
+    return documentProvider;
+  }
+
+  private static CachingPreparsedDocumentProvider createDocumentProvider() {
+    return new CachingPreparsedDocumentProvider(
+      "gtfsGraphQL",
+      CachingPreparsedDocumentProvider.DEFAULT_MAXIMUM_WEIGHT
+    );
+  }
+
   static ExecutionResult getGraphQLExecutionResult(
     String query,
     Map<String, Object> variables,
     String operationName,
+    Map<String, Object> extensions,
     int maxResolves,
     int timeoutMs,
     Locale locale,
@@ -211,11 +226,15 @@ class GtfsGraphQLIndex {
       .newGraphQL(indexSchema)
       .instrumentation(instrumentation)
       .defaultDataFetcherExceptionHandler(new LoggingDataFetcherExceptionHandler())
+      .preparsedDocumentProvider(documentProvider)
       .build();
 
     if (variables == null) {
       variables = new HashMap<>();
     }
+    if (extensions == null) {
+      extensions = Map.of();
+    }
 
     ExecutionInput executionInput = ExecutionInput
       .newExecutionInput()
@@ -223,6 +242,7 @@ class GtfsGraphQLIndex {
       .operationName(operationName)
       .context(requestContext)
       .variables(variables)
+      .extensions(extensions)
       .locale(locale)
       .build();
     try {
@@ -236,6 +256,7 @@ class GtfsGraphQLIndex {
     String query,
     Map<String, Object> variables,
     String operationName,
+    Map<String, Object> extensions,
     int maxResolves,
     int timeoutMs,
     Locale locale,
@@ -245,6 +266,7 @@ class GtfsGraphQLIndex {
       query,
       variables,
       operationName,
+      extensions,
       maxResolves,
       timeoutMs,
       locale,
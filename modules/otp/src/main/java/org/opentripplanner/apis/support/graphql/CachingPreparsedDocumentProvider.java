@@ -0,0 +1,190 @@
+package org.opentripplanner.apis.support.graphql;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQueryError;
+import graphql.execution.preparsed.persisted.PersistedQueryIdInvalid;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * Cache the parsed and validated GraphQL documents, so a query which is sent many times is only
+ * parsed and validated against the schema the first time. Documents with errors are not cached.
+ * <p>
+ * Automatic persisted queries are supported as well. The client sends the SHA-256 hash of the
+ * query in the {@code extensions.persistedQuery.sha256Hash} field of the request. If the query is
+ * left out, the query registered for the hash is used. If the hash is unknown the
+ * {@code PersistedQueryNotFound} error is returned, and the client should send the request again
+ * with both the query and the hash. The query is then registered, so the next requests can be
+ * sent with the hash only.
+ * <p>
+ * Both caches are bounded by the total length of the cached query texts, not by the number of
+ * entries, so a few very large queries can not use a lot of memory. The size of a parsed document
+ * is roughly proportional to the length of the query text. One instance should be used for each
+ * schema, since the documents are validated against the schema.
+ */
+public class CachingPreparsedDocumentProvider implements PreparsedDocumentProvider, MeterBinder {
+
+  /**
+   * The maximum number of query text characters to keep in each cache. The clients send a small
+   * set of different queries, so this is more than enough to keep all of them.
+   */
+  public static final long DEFAULT_MAXIMUM_WEIGHT = 5_000_000;
+
+  private static final String PERSISTED_QUERY = "persistedQuery";
+  private static final String SHA_256_HASH = "sha256Hash";
+
+  private final String name;
+  private final Cache<String, PreparsedDocumentEntry> documents;
+  private final Cache<String, String> persistedQueries;
+
+  /**
+   * @param name the name used for the cache metrics
+   * @param maximumWeight the maximum total length of the query texts in each of the caches
+   */
+  public CachingPreparsedDocumentProvider(String name, long maximumWeight) {
+    this.name = name;
+    this.documents =
+      CacheBuilder
+        .newBuilder()
+        .maximumWeight(maximumWeight)
+        .<String, PreparsedDocumentEntry>weigher((query, entry) -> query.length())
+        .recordStats()
+        .build();
+    this.persistedQueries =
+      CacheBuilder
+        .newBuilder()
+        .maximumWeight(maximumWeight)
+        .<String, String>weigher((hash, query) -> query.length())
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Return {@code true} if the GraphQL request extensions contain a persisted query hash. The
+   * query may then be left out of the request.
+   */
+  public static boolean hasPersistedQuery(@Nullable Map<String, Object> extensions) {
+    return persistedQueryHash(extensions) != null;
+  }
+
+  /**
+   * The query text to use when a request contains a persisted query hash, but no query.
+   */
+  public static String persistedQueryMarker() {
+    return PersistedQuerySupport.PERSISTED_QUERY_MARKER;
+  }
+
+  @Override
+  public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(
+    ExecutionInput executionInput,
+    Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction
+  ) {
+    String hash = persistedQueryHash(executionInput.getExtensions());
+    String query = executionInput.getQuery();
+
+    if (hash != null) {
+      if (query == null || query.isBlank() || query.equals(persistedQueryMarker())) {
+        query = persistedQueries.getIfPresent(hash);
+        if (query == null) {
+          var error = new PersistedQueryNotFound(hash);
+          return CompletableFuture.completedFuture(toEntry(error, error.getExtensions()));
+        }
+        String persistedQuery = query;
+        executionInput = executionInput.transform(it -> it.query(persistedQuery));
+      } else if (!hash.equalsIgnoreCase(sha256(query))) {
+        var error = new PersistedQueryIdInvalid(hash);
+        return CompletableFuture.completedFuture(toEntry(error, error.getExtensions()));
+      }
+    }
+
+    PreparsedDocumentEntry entry = documents.getIfPresent(query);
+    if (entry == null) {
+      entry = parseAndValidateFunction.apply(executionInput);
+      if (!entry.hasErrors()) {
+        documents.put(query, entry);
+      }
+    }
+    if (hash != null && !entry.hasErrors()) {
+      persistedQueries.put(hash, query);
+    }
+    return CompletableFuture.completedFuture(entry);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    new GuavaCacheMetrics<>(documents, name + "DocumentCache", List.of()).bindTo(registry);
+    new GuavaCacheMetrics<>(persistedQueries, name + "PersistedQueryCache", List.of())
+      .bindTo(registry);
+  }
+
+  /**
+   * Remove all cached documents and persisted queries, this must be done if the schema changes.
+   */
+  public void clear() {
+    documents.invalidateAll();
+    persistedQueries.invalidateAll();
+  }
+
+  @Override
+  public String toString() {
+    return (
+      "CachingPreparsedDocumentProvider{" +
+      name +
+      ", documents: " +
+      documents.size() +
+      ", persistedQueries: " +
+      persistedQueries.size() +
+      '}'
+    );
+  }
+
+  @Nullable
+  private static String persistedQueryHash(@Nullable Map<String, Object> extensions) {
+    if (
+      extensions != null &&
+      extensions.get(PERSISTED_QUERY) instanceof Map<?, ?> persistedQuery &&
+      persistedQuery.get(SHA_256_HASH) instanceof String hash &&
+      !hash.isBlank()
+    ) {
+      return hash;
+    }
+    return null;
+  }
+
+  /**
+   * Return the error in the same format as the persisted query support in graphql-java, the
+   * clients use the message to find out if the query should be sent again.
+   */
+  private static PreparsedDocumentEntry toEntry(
+    PersistedQueryError error,
+    Map<String, Object> extensions
+  ) {
+    return new PreparsedDocumentEntry(
+      GraphqlErrorBuilder
+        .newError()
+        .errorType(error)
+        .message(error.getMessage())
+        .extensions(extensions)
+        .build()
+    );
+  }
+
+  private static String sha256(String query) {
+    return Hashing.sha256().hashString(query, StandardCharsets.UTF_8).toString();
+  }
+}
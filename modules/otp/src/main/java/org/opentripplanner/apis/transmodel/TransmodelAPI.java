@@ -3,6 +3,7 @@ package org.opentripplanner.apis.transmodel;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import graphql.schema.GraphQLSchema;
 import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.POST;
@@ -19,6 +20,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
+import org.opentripplanner.apis.support.graphql.CachingPreparsedDocumentProvider;
 import org.opentripplanner.apis.transmodel.mapping.TransitIdMapper;
 import org.opentripplanner.apis.transmodel.support.GqlUtil;
 import org.opentripplanner.routing.api.request.RouteRequest;
@@ -33,6 +35,11 @@ public class TransmodelAPI {
 
   private static final Logger LOG = LoggerFactory.getLogger(TransmodelAPI.class);
 
+  /**
+   * The parsed and validated documents are shared by all requests, the schema is the same.
+   */
+  private static final CachingPreparsedDocumentProvider documentProvider = createDocumentProvider();
+
   private static GraphQLSchema schema;
   private static Collection<String> tracingHeaderTags;
   private static int maxNumberOfResultFields;
@@ -43,7 +50,7 @@ public class TransmodelAPI {
 
   public TransmodelAPI(@Context OtpServerRequestContext serverContext) {
     this.serverContext = serverContext;
-    this.index = new TransmodelGraph(schema);
+    this.index = new TransmodelGraph(schema, documentProvider);
   }
 
   /**
@@ -60,6 +67,14 @@ public class TransmodelAPI {
     }
   }
 
+  /**
+   * The metrics of the parsed document cache, the metrics are bound when the application is wired
+   * up.
+   */
+  public static MeterBinder documentCacheMetrics() {
+    return documentProvider;
+  }
+
   /**
    * This method should be called BEFORE the Web-Container is started and load new instances of this
    * class. This is a hack, and it would be better if the configuration was done more explicit and
@@ -77,6 +92,7 @@ public class TransmodelAPI {
     maxNumberOfResultFields = config.maxNumberOfResultFields();
     GqlUtil gqlUtil = new GqlUtil(transitModel.getTimeZone());
     schema = TransmodelGraphQLSchema.create(defaultRouteRequest, gqlUtil);
+    documentProvider.clear();
   }
 
   @POST
@@ -85,36 +101,40 @@ public class TransmodelAPI {
     HashMap<String, Object> queryParameters,
     @Context HttpHeaders headers
   ) {
-    if (queryParameters == null || !queryParameters.containsKey("query")) {
+    if (queryParameters == null) {
       LOG.debug("No query found in body");
       throw new BadRequestException("No query found in body");
     }
 
-    if (!(queryParameters.get("query") instanceof String query)) {
-      throw new BadRequestException("Invalid format for query");
-    }
-
-    Object queryVariables = queryParameters.getOrDefault("variables", null);
-    Map<String, Object> variables;
-    if (queryVariables instanceof Map queryVariablesAsMap) {
-      variables = queryVariablesAsMap;
-    } else if (
-      queryVariables instanceof String queryVariablesAsString && !queryVariablesAsString.isEmpty()
-    ) {
-      try {
-        variables = deserializer.readValue(queryVariablesAsString, Map.class);
-      } catch (IOException e) {
-        throw new BadRequestException("Variables must be a valid json object");
+    Map<String, Object> extensions = readJsonObject(
+      queryParameters.get("extensions"),
+      "Extensions must be a valid json object"
+    );
+    String query;
+    if (queryParameters.containsKey("query")) {
+      if (!(queryParameters.get("query") instanceof String it)) {
+        throw new BadRequestException("Invalid format for query");
       }
+      query = it;
+    } else if (CachingPreparsedDocumentProvider.hasPersistedQuery(extensions)) {
+      // Only the hash of a persisted query is sent
+      query = CachingPreparsedDocumentProvider.persistedQueryMarker();
     } else {
-      variables = Collections.emptyMap();
+      LOG.debug("No query found in body");
+      throw new BadRequestException("No query found in body");
     }
+
+    Map<String, Object> variables = readJsonObject(
+      queryParameters.getOrDefault("variables", null),
+      "Variables must be a valid json object"
+    );
     String operationName = (String) queryParameters.getOrDefault("operationName", null);
     return index.executeGraphQL(
       query,
       serverContext,
       variables,
       operationName,
+      extensions,
       maxNumberOfResultFields,
       getTagsFromHeaders(headers)
     );
@@ -128,11 +148,36 @@ public class TransmodelAPI {
       serverContext,
       null,
       null,
+      null,
       maxNumberOfResultFields,
       getTagsFromHeaders(headers)
     );
   }
 
+  private static CachingPreparsedDocumentProvider createDocumentProvider() {
+    return new CachingPreparsedDocumentProvider(
+      "transmodelGraphQL",
+      CachingPreparsedDocumentProvider.DEFAULT_MAXIMUM_WEIGHT
+    );
+  }
+
+  /**
+   * Read a JSON object from the request body, it can be sent either as an object or as a string.
+   */
+  private Map<String, Object> readJsonObject(Object value, String errorMessage) {
+    if (value instanceof Map valueAsMap) {
+      return valueAsMap;
+    } else if (value instanceof String valueAsString && !valueAsString.isEmpty()) {
+      try {
+        return deserializer.readValue(valueAsString, Map.class);
+      } catch (IOException e) {
+        throw new BadRequestException(errorMessage);
+      }
+    } else {
+      return Collections.emptyMap();
+    }
+  }
+
   private static Iterable<Tag> getTagsFromHeaders(HttpHeaders headers) {
     return tracingHeaderTags
       .stream()
@@ -7,6 +7,7 @@ import graphql.execution.ExecutionStrategy;
 import graphql.execution.UnknownOperationException;
 import graphql.execution.instrumentation.ChainedInstrumentation;
 import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
 import graphql.schema.CoercingParseValueException;
 import graphql.schema.GraphQLSchema;
 import io.micrometer.core.instrument.Metrics;
@@ -34,13 +35,15 @@ class TransmodelGraph {
 
   private static final int MAX_ERROR_TO_RETURN = 25;
   private final GraphQLSchema indexSchema;
+  private final PreparsedDocumentProvider documentProvider;
 
   final ExecutorService threadPool;
 
-  TransmodelGraph(GraphQLSchema schema) {
+  TransmodelGraph(GraphQLSchema schema, PreparsedDocumentProvider documentProvider) {
     this.threadPool =
       Executors.newCachedThreadPool(OtpRequestThreadFactory.of("transmodel-api-%d"));
     this.indexSchema = schema;
+    this.documentProvider = documentProvider;
   }
 
   Response executeGraphQL(
@@ -48,6 +51,7 @@ class TransmodelGraph {
     OtpServerRequestContext serverContext,
     Map<String, Object> variables,
     String operationName,
+    Map<String, Object> extensions,
     int maxNumberOfResultFields,
     Iterable<Tag> tracingTags
   ) {
@@ -60,6 +64,7 @@ class TransmodelGraph {
         serverContext,
         variables,
         operationName,
+        ObjectUtils.ifNotNull(extensions, Map.of()),
         transmodelRequestContext
       );
       var graphQL = createGraphQL(instrumentation, executionStrategy);
@@ -111,6 +116,7 @@ class TransmodelGraph {
     OtpServerRequestContext serverContext,
     Map<String, Object> variables,
     String operationName,
+    Map<String, Object> extensions,
     TransmodelRequestContext transmodelRequestContext
   ) {
     return ExecutionInput
@@ -120,6 +126,7 @@ class TransmodelGraph {
       .context(transmodelRequestContext)
       .root(serverContext)
       .variables(variables)
+      .extensions(extensions)
       .build();
   }
 
@@ -132,6 +139,7 @@ class TransmodelGraph {
       .instrumentation(instrumentation)
       .queryExecutionStrategy(executionStrategy)
       .defaultDataFetcherExceptionHandler(new LoggingDataFetcherExceptionHandler())
+      .preparsedDocumentProvider(documentProvider)
       .build();
   }
 
@@ -6,9 +6,10 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import org.opentripplanner.astar.model.BinHeap;
 import org.opentripplanner.astar.model.GraphPath;
+import org.opentripplanner.astar.model.MinPriorityQueue;
 import org.opentripplanner.astar.model.ShortestPathTree;
 import org.opentripplanner.astar.spi.AStarEdge;
 import org.opentripplanner.astar.spi.AStarState;
@@ -47,11 +48,13 @@ public class AStar<
   private final Duration timeout;
 
   private final ShortestPathTree<State, Edge, Vertex> spt;
-  private final BinHeap<State> pq;
+  private final MinPriorityQueue<State> pq;
+  private final Consumer<State> removeDominatedStateFromQueue;
   private final List<State> targetAcceptedStates;
 
   private State u;
   private int nVisited;
+  private Consumer<State> stateAddedListener;
 
   AStar(
     RemainingWeightHeuristic<State> heuristic,
@@ -62,6 +65,7 @@ public class AStar<
     Set<Vertex> toVertices,
     SearchTerminationStrategy<State> terminationStrategy,
     DominanceFunction<State> dominanceFunction,
+    MinPriorityQueue<State> priorityQueue,
     Duration timeout,
     Collection<State> initialStates
   ) {
@@ -76,8 +80,8 @@ public class AStar<
 
     this.spt = new ShortestPathTree<>(dominanceFunction);
 
-    // Initialized with a reasonable size, see #4445
-    this.pq = new BinHeap<>(1000);
+    this.pq = Objects.requireNonNull(priorityQueue);
+    this.removeDominatedStateFromQueue = pq::remove;
     this.nVisited = 0;
     this.targetAcceptedStates = new ArrayList<>();
 
@@ -103,7 +107,40 @@ public class AStar<
       .collect(Collectors.toList());
   }
 
-  private boolean iterate() {
+  /* Methods used by the BidirectionalAStar to step through the search one state at a time */
+
+  ShortestPathTree<State, Edge, Vertex> spt() {
+    return spt;
+  }
+
+  /** Set a listener notified each time a new state is added to the tree and the queue. */
+  void setStateAddedListener(Consumer<State> stateAddedListener) {
+    this.stateAddedListener = stateAddedListener;
+  }
+
+  boolean isQueueEmpty() {
+    return pq.empty();
+  }
+
+  int queueSize() {
+    return pq.size();
+  }
+
+  double peekMinKey() {
+    return pq.peek_min_key();
+  }
+
+  int nVisited() {
+    return nVisited;
+  }
+
+  /**
+   * Take the next state from the queue and, if it is not dominated, add its successors to the
+   * queue.
+   *
+   * @return {@code false} if the state was dominated and dropped.
+   */
+  boolean iterate() {
     // print debug info
     if (verbose) {
       double w = pq.peek_min_key();
@@ -168,13 +205,17 @@ public class AStar<
           );
         }
 
-        // spt.add returns true if the state is hopeful; enqueue state if it's hopeful
-        if (spt.add(v)) {
+        // spt.add returns true if the state is hopeful; enqueue state if it's hopeful. States
+        // dominated by the new state are removed from the queue, if the queue supports it.
+        if (spt.add(v, removeDominatedStateFromQueue)) {
           // report to the visitor if there is one
           if (traverseVisitor != null) {
             traverseVisitor.visitEnqueue();
           }
           pq.insert(v, estimate);
+          if (stateAddedListener != null) {
+            stateAddedListener.accept(v);
+          }
         }
       }
     }
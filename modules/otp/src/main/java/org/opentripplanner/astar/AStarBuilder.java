@@ -6,7 +6,10 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 import org.opentripplanner.astar.model.GraphPath;
+import org.opentripplanner.astar.model.IndexedDaryHeap;
+import org.opentripplanner.astar.model.MinPriorityQueue;
 import org.opentripplanner.astar.model.ShortestPathTree;
 import org.opentripplanner.astar.spi.AStarEdge;
 import org.opentripplanner.astar.spi.AStarState;
@@ -33,8 +36,12 @@ public abstract class AStarBuilder<
   private Set<Vertex> toVertices;
   private SearchTerminationStrategy<State> terminationStrategy;
   private DominanceFunction<State> dominanceFunction;
+  // Initialized with a reasonable size, see #4445
+  private Supplier<MinPriorityQueue<State>> priorityQueueFactory = () ->
+    new IndexedDaryHeap<>(1000);
   private Edge originBackEdge;
   private Collection<State> initialStates;
+  private RemainingWeightHeuristic<State> reverseHeuristic;
 
   protected AStarBuilder() {}
 
@@ -97,6 +104,15 @@ public abstract class AStarBuilder<
     return builder;
   }
 
+  /**
+   * The factory for the priority queue holding the states to explore. The default is an
+   * {@link IndexedDaryHeap}, which allows dominated states to be removed from the queue.
+   */
+  public Builder setPriorityQueueFactory(Supplier<MinPriorityQueue<State>> priorityQueueFactory) {
+    this.priorityQueueFactory = priorityQueueFactory;
+    return builder;
+  }
+
   protected abstract Duration streetRoutingTimeout();
 
   public Builder setOriginBackEdge(Edge originBackEdge) {
@@ -109,24 +125,48 @@ public abstract class AStarBuilder<
     return builder;
   }
 
+  /**
+   * Search from both the origin and the destination at the same time, see
+   * {@link BidirectionalAStar}. The given heuristic is used by the search from the destination, it
+   * must be a different instance than the one used by the main search. Only one path is returned,
+   * and only {@link #getPathsToTarget()} supports this. Set to {@code null} to disable.
+   * <p>
+   * Both searches only compare states with the same back edge, see
+   * {@link DominanceFunction#perBackEdge()}. So the path found is the optimal path, and it has the
+   * same weight as the path found by a single search using the same dominance function. It may be
+   * cheaper than the path found by a single search comparing all states at a vertex.
+   * <p>
+   * The traverse visitor is called for the states explored by both searches. A termination
+   * strategy or initial states are not supported, an {@link IllegalStateException} is thrown when
+   * the search is started with one of them.
+   */
+  public Builder setBidirectionalSearch(RemainingWeightHeuristic<State> reverseHeuristic) {
+    this.reverseHeuristic = reverseHeuristic;
+    return builder;
+  }
+
   public ShortestPathTree<State, Edge, Vertex> getShortestPathTree() {
     return build().getShortestPathTree();
   }
 
   public List<GraphPath<State, Edge, Vertex>> getPathsToTarget() {
+    if (reverseHeuristic != null) {
+      return buildBidirectional().getPathsToTarget();
+    }
     return build().getPathsToTarget();
   }
 
   private AStar<State, Edge, Vertex> build() {
-    final Set<Vertex> origin = arriveBy ? toVertices : fromVertices;
-    final Set<Vertex> destination = arriveBy ? fromVertices : toVertices;
+    return build(dominanceFunction());
+  }
 
+  private AStar<State, Edge, Vertex> build(DominanceFunction<State> searchDominanceFunction) {
     Collection<State> initialStates;
 
     if (this.initialStates != null) {
       initialStates = this.initialStates;
     } else {
-      initialStates = createInitialStates(origin);
+      initialStates = createInitialStates(arriveBy ? toVertices : fromVertices, arriveBy);
 
       if (originBackEdge != null) {
         for (var state : initialStates) {
@@ -134,25 +174,71 @@ public abstract class AStarBuilder<
         }
       }
     }
+    return build(arriveBy, heuristic, searchDominanceFunction, initialStates);
+  }
+
+  private BidirectionalAStar<State, Edge, Vertex> buildBidirectional() {
+    if (heuristic == reverseHeuristic && heuristic != RemainingWeightHeuristic.TRIVIAL) {
+      throw new IllegalStateException(
+        "The two directions of a bidirectional search can not share the same heuristic instance."
+      );
+    }
+    if (initialStates != null) {
+      throw new IllegalStateException(
+        "A bidirectional search can not be started from a set of initial states."
+      );
+    }
+    if (terminationStrategy != null) {
+      throw new IllegalStateException(
+        "A bidirectional search does not support a search termination strategy."
+      );
+    }
+    var searchDominanceFunction = dominanceFunction().perBackEdge();
+    var main = build(searchDominanceFunction);
+    var opposite = build(
+      !arriveBy,
+      reverseHeuristic,
+      searchDominanceFunction,
+      createInitialStates(arriveBy ? fromVertices : toVertices, !arriveBy)
+    );
+    return new BidirectionalAStar<>(main, opposite, skipEdgeStrategy, streetRoutingTimeout());
+  }
+
+  private AStar<State, Edge, Vertex> build(
+    boolean searchArriveBy,
+    RemainingWeightHeuristic<State> searchHeuristic,
+    DominanceFunction<State> searchDominanceFunction,
+    Collection<State> initialStates
+  ) {
+    final Set<Vertex> origin = searchArriveBy ? toVertices : fromVertices;
+    final Set<Vertex> destination = searchArriveBy ? fromVertices : toVertices;
 
     prepareInitialStates(initialStates);
-    initializeHeuristic(heuristic, origin, destination, arriveBy);
+    initializeHeuristic(searchHeuristic, origin, destination, searchArriveBy);
 
     return new AStar<>(
-      heuristic,
+      searchHeuristic,
       skipEdgeStrategy,
       traverseVisitor,
-      arriveBy,
+      searchArriveBy,
       origin,
       destination,
       terminationStrategy,
-      Optional.ofNullable(dominanceFunction).orElseGet(this::createDefaultDominanceFunction),
+      searchDominanceFunction,
+      priorityQueueFactory.get(),
       streetRoutingTimeout(),
       initialStates
     );
   }
 
-  protected abstract Collection<State> createInitialStates(Set<Vertex> originVertices);
+  private DominanceFunction<State> dominanceFunction() {
+    return Optional.ofNullable(dominanceFunction).orElseGet(this::createDefaultDominanceFunction);
+  }
+
+  protected abstract Collection<State> createInitialStates(
+    Set<Vertex> originVertices,
+    boolean arriveBy
+  );
 
   protected abstract void prepareInitialStates(Collection<State> initialStates);
 
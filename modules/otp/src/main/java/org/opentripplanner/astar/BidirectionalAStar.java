@@ -0,0 +1,187 @@
+package org.opentripplanner.astar;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.opentripplanner.astar.model.GraphPath;
+import org.opentripplanner.astar.spi.AStarEdge;
+import org.opentripplanner.astar.spi.AStarState;
+import org.opentripplanner.astar.spi.AStarVertex;
+import org.opentripplanner.astar.spi.SkipEdgeStrategy;
+import org.opentripplanner.framework.application.OTPRequestTimeoutException;
+import org.opentripplanner.framework.time.DateUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Find the shortest path between the origin and the destination by running two A* searches at the
+ * same time: one from the origin in the direction of the request, and one from the destination in
+ * the opposite direction. The search with the smallest queue is advanced one state at a time.
+ * <p>
+ * The two searches meet on an edge. Each time a state is added to one of the searches, it is
+ * joined with the states of the other search at the same vertex: the back edge of the opposite
+ * state is traversed from the main state, so the turn from the back edge of the main state onto it
+ * is checked and paid for, and then the rest of the opposite path is re-traversed. So the joined
+ * path is made of states in the direction of the request, with the same time and weight as a
+ * normal search would produce.
+ * <p>
+ * The search stops when the smallest key in one of the queues is not better than the best joined
+ * path, this is the symmetric stopping criterion for bidirectional A*. The optimal path is found
+ * if:
+ * <ul>
+ *   <li>The heuristics of both searches are admissible.</li>
+ *   <li>
+ *     The weight of a path is the same in both directions, except for the turn at the vertex where
+ *     the two searches meet, which is never negative. This holds for the street edges, the turn
+ *     costs are computed so that they add up the same in both directions.
+ *   </li>
+ *   <li>
+ *     States with different back edges are not compared, so a state is never dropped because of
+ *     a state which can not make the same turns, see {@link AStarBuilder#setBidirectionalSearch}.
+ *   </li>
+ * </ul>
+ */
+public class BidirectionalAStar<
+  State extends AStarState<State, Edge, Vertex>,
+  Edge extends AStarEdge<State, Edge, Vertex>,
+  Vertex extends AStarVertex<State, Edge, Vertex>
+> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BidirectionalAStar.class);
+
+  private final AStar<State, Edge, Vertex> main;
+  private final AStar<State, Edge, Vertex> opposite;
+  private final SkipEdgeStrategy<State, Edge> skipEdgeStrategy;
+  private final Duration timeout;
+
+  private State best;
+
+  BidirectionalAStar(
+    AStar<State, Edge, Vertex> main,
+    AStar<State, Edge, Vertex> opposite,
+    SkipEdgeStrategy<State, Edge> skipEdgeStrategy,
+    Duration timeout
+  ) {
+    this.main = main;
+    this.opposite = opposite;
+    this.skipEdgeStrategy = skipEdgeStrategy;
+    this.timeout = Objects.requireNonNull(timeout);
+
+    main.setStateAddedListener(this::joinWithOppositeStates);
+    opposite.setStateAddedListener(this::joinWithMainStates);
+
+    // The origin and the destination might share vertices
+    for (State initialState : main.spt().getAllStates()) {
+      joinWithOppositeStates(initialState);
+    }
+  }
+
+  List<GraphPath<State, Edge, Vertex>> getPathsToTarget() {
+    runSearch();
+    var paths = new ArrayList<GraphPath<State, Edge, Vertex>>();
+    if (best != null) {
+      paths.add(new GraphPath<>(best));
+    }
+    return paths;
+  }
+
+  private void runSearch() {
+    OTPRequestTimeoutException.checkForTimeout();
+    long abortTime = DateUtils.absoluteTimeout(timeout);
+    int nSteps = 0;
+
+    while (!main.isQueueEmpty() && !opposite.isQueueEmpty()) {
+      if (nSteps++ % 100 == 0 && System.currentTimeMillis() > abortTime) {
+        LOG.warn("Bidirectional search timeout.");
+        main.spt().setAborted();
+        break;
+      }
+      if (
+        best != null &&
+        (main.peekMinKey() >= best.getWeight() || opposite.peekMinKey() >= best.getWeight())
+      ) {
+        break;
+      }
+      if (main.queueSize() <= opposite.queueSize()) {
+        main.iterate();
+      } else {
+        opposite.iterate();
+      }
+    }
+    LOG.debug(
+      "total vertices visited {} (main: {}, opposite: {})",
+      main.nVisited() + opposite.nVisited(),
+      main.nVisited(),
+      opposite.nVisited()
+    );
+  }
+
+  private void joinWithOppositeStates(State mainState) {
+    var oppositeStates = opposite.spt().getStates(mainState.getVertex());
+    if (oppositeStates == null) {
+      return;
+    }
+    for (State oppositeState : oppositeStates) {
+      join(mainState, oppositeState);
+    }
+  }
+
+  private void joinWithMainStates(State oppositeState) {
+    var mainStates = main.spt().getStates(oppositeState.getVertex());
+    if (mainStates == null) {
+      return;
+    }
+    for (State mainState : mainStates) {
+      join(mainState, oppositeState);
+    }
+  }
+
+  /**
+   * Continue the main state along the path of the opposite state, back to the origin of the
+   * opposite search, and keep the result if it is better than the best path found so far.
+   * <p>
+   * The back edge of the opposite state is traversed first. The rest of the opposite path has the
+   * same weight in both directions, so the weight of the joined path is known before the rest of
+   * the path is re-traversed, and only paths better than the best path are re-traversed.
+   */
+  private void join(State mainState, State oppositeState) {
+    if (best != null && mainState.getWeight() + oppositeState.getWeight() >= best.getWeight()) {
+      return;
+    }
+    State s = mainState;
+    State o = oppositeState;
+    if (o.getBackState() != null) {
+      s = traverse(s, o.getBackEdge());
+      if (s == null) {
+        return;
+      }
+      o = o.getBackState();
+      if (best != null && s.getWeight() + o.getWeight() >= best.getWeight()) {
+        return;
+      }
+      for (; o.getBackState() != null; o = o.getBackState()) {
+        s = traverse(s, o.getBackEdge());
+        if (s == null) {
+          return;
+        }
+      }
+    }
+    if (s.isFinal() && (best == null || s.getWeight() < best.getWeight())) {
+      best = s;
+    }
+  }
+
+  private State traverse(State s0, Edge edge) {
+    if (skipEdgeStrategy != null && skipEdgeStrategy.shouldSkipEdge(s0, edge)) {
+      return null;
+    }
+    State result = null;
+    for (State s : edge.traverse(s0)) {
+      if (result == null || s.getWeight() < result.getWeight()) {
+        result = s;
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,279 @@
+package org.opentripplanner.astar.model;
+
+import java.util.Arrays;
+
+/**
+ * An indexed d-ary min-heap with primitive {@code double} keys.
+ * <p>
+ * Compared with the {@link BinHeap} the tree is wider and shallower (4 children per node by
+ * default), so fewer levels need to be sifted through and the children of a node are next to each
+ * other in memory. The position of every element is kept in an identity hash index made of
+ * primitive arrays, so {@link #rekey(Object, double)} and {@link #remove(Object)} are O(log n)
+ * instead of a linear scan of the heap, and no objects are allocated per inserted element.
+ * <p>
+ * Elements are compared by identity, and an element can only be in the queue once. Inserting an
+ * element which is already in the queue changes its key.
+ */
+public class IndexedDaryHeap<T> implements MinPriorityQueue<T> {
+
+  private static final int DEFAULT_ARITY = 4;
+  private static final int MIN_CAPACITY = 10;
+  private static final int NOT_FOUND = -1;
+
+  private final int arity;
+
+  private double[] prio;
+  private Object[] elem;
+  private int size;
+
+  /** Open addressing (linear probing) index from element identity to position in the heap. */
+  private Object[] indexKeys;
+  private int[] indexPositions;
+  private int indexMask;
+
+  public IndexedDaryHeap() {
+    this(1000);
+  }
+
+  public IndexedDaryHeap(int capacity) {
+    this(capacity, DEFAULT_ARITY);
+  }
+
+  public IndexedDaryHeap(int capacity, int arity) {
+    if (arity < 2) {
+      throw new IllegalArgumentException("The heap arity must be at least 2, not " + arity + ".");
+    }
+    this.arity = arity;
+    capacity = Math.max(capacity, MIN_CAPACITY);
+    this.prio = new double[capacity];
+    this.elem = new Object[capacity];
+    this.size = 0;
+    initIndex(capacity);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean empty() {
+    return size <= 0;
+  }
+
+  @Override
+  public double peek_min_key() {
+    if (size > 0) {
+      return prio[0];
+    }
+    throw new IllegalStateException("An empty queue does not have a minimum key.");
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T peek_min() {
+    return size > 0 ? (T) elem[0] : null;
+  }
+
+  @Override
+  public void insert(T e, double p) {
+    int i = indexGet(e);
+    if (i != NOT_FOUND) {
+      changeKey(i, p);
+      return;
+    }
+    if (size == elem.length) {
+      resize(elem.length * 2);
+    }
+    siftUp(size++, e, p);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T extract_min() {
+    if (size <= 0) {
+      return null;
+    }
+    T minElem = (T) elem[0];
+    indexRemove(minElem);
+    --size;
+    Object lastElem = elem[size];
+    elem[size] = null;
+    if (size > 0) {
+      siftDown(0, lastElem, prio[size]);
+    }
+    return minElem;
+  }
+
+  @Override
+  public void rekey(T e, double p) {
+    int i = indexGet(e);
+    if (i != NOT_FOUND) {
+      changeKey(i, p);
+    }
+  }
+
+  @Override
+  public boolean remove(T e) {
+    int i = indexGet(e);
+    if (i == NOT_FOUND) {
+      return false;
+    }
+    indexRemove(e);
+    --size;
+    Object lastElem = elem[size];
+    double lastPrio = prio[size];
+    elem[size] = null;
+    if (i < size) {
+      if (i > 0 && lastPrio < prio[parent(i)]) {
+        siftUp(i, lastElem, lastPrio);
+      } else {
+        siftDown(i, lastElem, lastPrio);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void reset() {
+    Arrays.fill(elem, 0, size, null);
+    Arrays.fill(indexKeys, null);
+    size = 0;
+  }
+
+  public void resize(int capacity) {
+    if (capacity < size) {
+      throw new IllegalStateException(
+        "IndexedDaryHeap contains too many elements to fit in new capacity."
+      );
+    }
+    capacity = Math.max(capacity, MIN_CAPACITY);
+    prio = Arrays.copyOf(prio, capacity);
+    elem = Arrays.copyOf(elem, capacity);
+    initIndex(capacity);
+    for (int i = 0; i < size; ++i) {
+      indexPut(elem[i], i);
+    }
+  }
+
+  /* private methods */
+
+  private int parent(int i) {
+    return (i - 1) / arity;
+  }
+
+  private void changeKey(int i, double p) {
+    Object e = elem[i];
+    if (p < prio[i]) {
+      siftUp(i, e, p);
+    } else {
+      siftDown(i, e, p);
+    }
+  }
+
+  /** Move the hole at position {@code i} towards the root until {@code e} can be placed in it. */
+  private void siftUp(int i, Object e, double p) {
+    while (i > 0) {
+      int parent = parent(i);
+      if (prio[parent] <= p) {
+        break;
+      }
+      move(parent, i);
+      i = parent;
+    }
+    place(i, e, p);
+  }
+
+  /** Move the hole at position {@code i} towards the leaves until {@code e} can be placed in it. */
+  private void siftDown(int i, Object e, double p) {
+    while (true) {
+      int firstChild = i * arity + 1;
+      if (firstChild >= size) {
+        break;
+      }
+      int end = Math.min(firstChild + arity, size);
+      int minChild = firstChild;
+      for (int c = firstChild + 1; c < end; ++c) {
+        if (prio[c] < prio[minChild]) {
+          minChild = c;
+        }
+      }
+      if (prio[minChild] >= p) {
+        break;
+      }
+      move(minChild, i);
+      i = minChild;
+    }
+    place(i, e, p);
+  }
+
+  private void move(int from, int to) {
+    elem[to] = elem[from];
+    prio[to] = prio[from];
+    indexPut(elem[to], to);
+  }
+
+  private void place(int i, Object e, double p) {
+    elem[i] = e;
+    prio[i] = p;
+    indexPut(e, i);
+  }
+
+  /* element index, the load factor is kept at or below 0.5 */
+
+  private void initIndex(int capacity) {
+    int indexSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+    indexKeys = new Object[indexSize];
+    indexPositions = new int[indexSize];
+    indexMask = indexSize - 1;
+  }
+
+  private int indexSlot(Object e) {
+    int h = System.identityHashCode(e);
+    return (h ^ (h >>> 16)) & indexMask;
+  }
+
+  private int indexGet(Object e) {
+    for (int s = indexSlot(e); ; s = (s + 1) & indexMask) {
+      Object key = indexKeys[s];
+      if (key == e) {
+        return indexPositions[s];
+      }
+      if (key == null) {
+        return NOT_FOUND;
+      }
+    }
+  }
+
+  private void indexPut(Object e, int position) {
+    int s = indexSlot(e);
+    while (indexKeys[s] != null && indexKeys[s] != e) {
+      s = (s + 1) & indexMask;
+    }
+    indexKeys[s] = e;
+    indexPositions[s] = position;
+  }
+
+  /** Remove an element from the index using backward shift deletion, so no tombstones are needed. */
+  private void indexRemove(Object e) {
+    int hole = indexSlot(e);
+    while (indexKeys[hole] != e) {
+      if (indexKeys[hole] == null) {
+        return;
+      }
+      hole = (hole + 1) & indexMask;
+    }
+    indexKeys[hole] = null;
+
+    for (int s = (hole + 1) & indexMask; indexKeys[s] != null; s = (s + 1) & indexMask) {
+      int home = indexSlot(indexKeys[s]);
+      // Move the entry into the hole, unless its home slot is between the hole and the entry
+      if (((s - home) & indexMask) >= ((s - hole) & indexMask)) {
+        indexKeys[hole] = indexKeys[s];
+        indexPositions[hole] = indexPositions[s];
+        indexKeys[s] = null;
+        hole = s;
+      }
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package org.opentripplanner.astar.model;
+
+/**
+ * A min-priority queue with primitive {@code double} keys, used by the A* search to order the
+ * states waiting to be explored.
+ * <p>
+ * The A* search only needs insert and extract-min. Implementations that keep an index of where
+ * each element is stored can also support {@link #remove(Object)} efficiently, which lets the
+ * search drop states as soon as they are dominated, instead of popping them later and throwing
+ * them away.
+ */
+public interface MinPriorityQueue<T> {
+  int size();
+
+  boolean empty();
+
+  /**
+   * Return the key of the element at the top of the queue.
+   *
+   * @throws IllegalStateException if the queue is empty.
+   */
+  double peek_min_key();
+
+  /** Return the element at the top of the queue, or {@code null} if the queue is empty. */
+  T peek_min();
+
+  void insert(T e, double p);
+
+  /** Remove and return the element at the top of the queue, or {@code null} if it is empty. */
+  T extract_min();
+
+  /**
+   * Change the key of an element already in the queue. Nothing happens if the element is not in
+   * the queue.
+   */
+  void rekey(T e, double p);
+
+  /**
+   * Remove the given element from the queue. Implementations without an element index may ignore
+   * this request; the caller must then be prepared to see the element come out of the queue later.
+   *
+   * @return {@code true} if the element was found and removed.
+   */
+  default boolean remove(T e) {
+    return false;
+  }
+
+  /** Empty the queue, keeping the allocated capacity. */
+  void reset();
+}
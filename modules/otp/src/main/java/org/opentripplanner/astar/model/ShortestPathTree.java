@@ -11,6 +11,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import org.opentripplanner.astar.spi.AStarEdge;
 import org.opentripplanner.astar.spi.AStarState;
 import org.opentripplanner.astar.spi.AStarVertex;
@@ -126,6 +127,17 @@ public class ShortestPathTree<
    * be enqueued
    */
   public boolean add(State newState) {
+    return add(newState, null);
+  }
+
+  /**
+   * Same as {@link #add(AStarState)}, but every old state removed from the tree because it is
+   * dominated by the new state is passed to the given listener. This allows the caller to drop the
+   * old state from the priority queue, instead of visiting and discarding it later.
+   *
+   * @param dominatedStateListener notified of each removed state, may be {@code null}
+   */
+  public boolean add(State newState, Consumer<State> dominatedStateListener) {
     Vertex vertex = newState.getVertex();
     List<State> states = stateSets.get(vertex);
 
@@ -149,6 +161,9 @@ public class ShortestPathTree<
       }
       if (dominanceFunction.betterOrEqualAndComparable(newState, oldState)) {
         it.remove();
+        if (dominatedStateListener != null) {
+          dominatedStateListener.accept(oldState);
+        }
       }
     }
 
@@ -208,14 +223,11 @@ public class ShortestPathTree<
    * Many shortest path algorithms will decrease the key of a vertex in the priority queue when it
    * is updated, but we store states in the queue rather than vertices, and states do not get
    * updated or change their weight.
-   * TODO consider just removing states from the priority queue.
-   * <p>
-   * When the Fibonacci heap was replaced with a binary heap, the decrease-key operation was
-   * removed for the same reason: both improve theoretical run time complexity, at the cost of
-   * high constant factors and more complex code.
    * <p>
-   * So there can be dominated (useless) states in the queue. When they come out we want to
-   * ignore them rather than spend time branching out from them.
+   * Queues with an element index (see {@link IndexedDaryHeap}) remove dominated states when they
+   * are reported through {@link #add(AStarState, Consumer)}, but with other queue implementations
+   * there can be dominated (useless) states in the queue. When they come out we want to ignore
+   * them rather than spend time branching out from them.
    *
    * @param state - the state about to be visited
    * @return - whether this state is still considered worth visiting.
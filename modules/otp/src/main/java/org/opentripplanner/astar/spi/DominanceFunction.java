@@ -2,4 +2,14 @@ package org.opentripplanner.astar.spi;
 
 public interface DominanceFunction<State extends AStarState<State, ?, ?>> {
   boolean betterOrEqualAndComparable(State a, State b);
+
+  /**
+   * Return a dominance function which only compares states with the same back edge. The best
+   * state is then kept for each edge into a vertex, instead of for each vertex. The cost of
+   * continuing from a state depends on its back edge, because of turn costs and turn restrictions,
+   * so this makes the search find the optimal path at the cost of exploring more states.
+   */
+  default DominanceFunction<State> perBackEdge() {
+    return (a, b) -> a.getBackEdge() == b.getBackEdge() && betterOrEqualAndComparable(a, b);
+  }
 }
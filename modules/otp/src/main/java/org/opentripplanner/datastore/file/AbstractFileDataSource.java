@@ -34,6 +34,13 @@ public abstract class AbstractFileDataSource implements DataSource {
     return file.getPath();
   }
 
+  /**
+   * The wrapped file, for the few cases where the file itself is needed, like memory mapping.
+   */
+  public File file() {
+    return file;
+  }
+
   @Override
   public URI uri() {
     return file.toURI();
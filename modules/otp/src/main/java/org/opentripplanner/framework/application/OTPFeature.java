@@ -18,6 +18,13 @@ public enum OTPFeature {
   APIBikeRental(true, false, "Enable the bike rental endpoint."),
   APIServerInfo(true, false, "Enable the server info endpoint."),
   APIUpdaterStatus(true, false, "Enable endpoint for graph updaters status."),
+  BidirectionalStreetSearch(
+    false,
+    false,
+    "Search from both ends at the same time when routing direct walk, bike and car trips. The " +
+    "search keeps the best state for each edge into a vertex, so it finds the optimal path with " +
+    "turn costs and turn restrictions."
+  ),
   ConsiderPatternsForDirectTransfers(
     true,
     false,
@@ -44,6 +51,14 @@ public enum OTPFeature {
     false,
     "Does vehicleRentalStation query also allow ids that are not feed scoped."
   ),
+  MappedStreetGeometry(
+    false,
+    false,
+    "Save the street geometries in a separate file next to the graph file. The file is memory " +
+    "mapped on load, the vertices and edges are still deserialized. This reduces the heap size of " +
+    "the server. Both files must be kept together, and the graph must be loaded from the local " +
+    "file system."
+  ),
   /**
    * If this feature flag is switched on, then the minimum transfer time is not the minimum transfer
    * time, but the definitive transfer time. Use this to override what we think the transfer will
@@ -118,6 +133,7 @@ public enum OTPFeature {
   SandboxAPIGeocoder(false, true, "Enable the Geocoder API."),
   SandboxAPIMapboxVectorTilesApi(false, true, "Enable Mapbox vector tiles API."),
   SandboxAPIParkAndRideApi(false, true, "Enable park-and-ride endpoint."),
+  SandboxAPITravelTime(false, true, "Enable the isochrone and travel time surface endpoint."),
   TransferAnalyzer(false, true, "Analyze transfers during graph build.");
 
   private static final Object TEST_LOCK = new Object();
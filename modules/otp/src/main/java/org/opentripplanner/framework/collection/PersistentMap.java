@@ -0,0 +1,485 @@
+package org.opentripplanner.framework.collection;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * An immutable map where adding or removing an entry returns a new map sharing most of its
+ * structure with the old one. The map is a hash array mapped trie (HAMT), so {@link #plus(Object,
+ * Object)} and {@link #minus(Object)} copy at most one small node per level of the trie, which is
+ * in practice a handful of arrays with up to 32 elements each, regardless of the size of the map.
+ * <p>
+ * This is useful when a writer thread makes a few changes to a large map and then publishes a
+ * version of it to reader threads, and the old versions still in use by readers must stay
+ * unchanged. Copying the whole map for each published version is O(n), while with this map the
+ * cost is proportional to the number of changes.
+ * <p>
+ * Null keys and values are not allowed. All the mutating methods of {@link Map} throw
+ * {@link UnsupportedOperationException}.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+public final class PersistentMap<K, V> extends AbstractMap<K, V> {
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(BitmapNode.EMPTY, 0);
+
+  private final Node root;
+  private final int size;
+
+  private PersistentMap(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <K, V> PersistentMap<K, V> empty() {
+    return (PersistentMap<K, V>) EMPTY;
+  }
+
+  public static <K, V> PersistentMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+    if (map instanceof PersistentMap<? extends K, ? extends V> persistentMap) {
+      @SuppressWarnings("unchecked")
+      var result = (PersistentMap<K, V>) persistentMap;
+      return result;
+    }
+    PersistentMap<K, V> result = empty();
+    for (Entry<? extends K, ? extends V> e : map.entrySet()) {
+      result = result.plus(e.getKey(), e.getValue());
+    }
+    return result;
+  }
+
+  /**
+   * Return a map with the given entry added, replacing any existing value for the key. If the key
+   * is already mapped to the same value instance, this map is returned.
+   */
+  public PersistentMap<K, V> plus(K key, V value) {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(value);
+    var added = new boolean[1];
+    Node newRoot = root.put(0, key.hashCode(), key, value, added);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentMap<>(newRoot, added[0] ? size + 1 : size);
+  }
+
+  /**
+   * Return a map without the given key. If the key is not in the map, this map is returned.
+   */
+  public PersistentMap<K, V> minus(Object key) {
+    if (key == null) {
+      return this;
+    }
+    Node newRoot = root.remove(0, key.hashCode(), key);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentMap<>(newRoot == null ? BitmapNode.EMPTY : newRoot, size - 1);
+  }
+
+  /**
+   * Return a map without all the keys matching the given predicate. If no key matches, this map is
+   * returned.
+   */
+  public PersistentMap<K, V> minusIf(Predicate<? super K> keyFilter) {
+    PersistentMap<K, V> result = this;
+    for (K key : keySet()) {
+      if (keyFilter.test(key)) {
+        result = result.minus(key);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public V get(Object key) {
+    return getOrDefault(key, null);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V getOrDefault(Object key, V defaultValue) {
+    if (key == null) {
+      return defaultValue;
+    }
+    return (V) root.get(0, key.hashCode(), key, defaultValue);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    for (Entry<K, V> e : entrySet()) {
+      action.accept(e.getKey(), e.getValue());
+    }
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        return new NodeIterator<>(root) {
+          @Override
+          @SuppressWarnings("unchecked")
+          Entry<K, V> element(Object key, Object value) {
+            return new SimpleImmutableEntry<>((K) key, (V) value);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  /** The keys, iterated without creating an entry for each element. */
+  @Override
+  public Set<K> keySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<K> iterator() {
+        return new NodeIterator<>(root) {
+          @Override
+          @SuppressWarnings("unchecked")
+          K element(Object key, Object value) {
+            return (K) key;
+          }
+        };
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        return containsKey(o);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  /** The values, iterated without creating an entry for each element. */
+  @Override
+  public Collection<V> values() {
+    return new AbstractCollection<>() {
+      @Override
+      public Iterator<V> iterator() {
+        return new NodeIterator<>(root) {
+          @Override
+          @SuppressWarnings("unchecked")
+          V element(Object key, Object value) {
+            return (V) value;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  /* private implementation */
+
+  private static int bitpos(int hash, int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  /**
+   * A node in the trie. Both node types keep their content in an array of key/value pairs. In a
+   * {@link BitmapNode} a {@code null} key means that the value is a sub-node.
+   */
+  private interface Node {
+    Object get(int shift, int hash, Object key, Object notFound);
+
+    /**
+     * @return the new node, or this node if nothing changed. {@code added[0]} is set to true if
+     * the key was not present.
+     */
+    Node put(int shift, int hash, Object key, Object value, boolean[] added);
+
+    /** @return the new node, this node if the key is not found or {@code null} if empty. */
+    Node remove(int shift, int hash, Object key);
+
+    Object[] array();
+  }
+
+  private static final class BitmapNode implements Node {
+
+    private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    private final int bitmap;
+    private final Object[] array;
+
+    private BitmapNode(int bitmap, Object[] array) {
+      this.bitmap = bitmap;
+      this.array = array;
+    }
+
+    @Override
+    public Object get(int shift, int hash, Object key, Object notFound) {
+      int bit = bitpos(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return notFound;
+      }
+      int i = 2 * index(bit);
+      Object k = array[i];
+      Object v = array[i + 1];
+      if (k == null) {
+        return ((Node) v).get(shift + BITS, hash, key, notFound);
+      }
+      return key.equals(k) ? v : notFound;
+    }
+
+    @Override
+    public Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+      int bit = bitpos(hash, shift);
+      int i = 2 * index(bit);
+
+      if ((bitmap & bit) == 0) {
+        added[0] = true;
+        var newArray = new Object[array.length + 2];
+        System.arraycopy(array, 0, newArray, 0, i);
+        newArray[i] = key;
+        newArray[i + 1] = value;
+        System.arraycopy(array, i, newArray, i + 2, array.length - i);
+        return new BitmapNode(bitmap | bit, newArray);
+      }
+
+      Object k = array[i];
+      Object v = array[i + 1];
+      if (k == null) {
+        Node node = ((Node) v).put(shift + BITS, hash, key, value, added);
+        return node == v ? this : with(i + 1, node);
+      }
+      if (key.equals(k)) {
+        return value == v ? this : with(i + 1, value);
+      }
+      added[0] = true;
+      var newArray = array.clone();
+      newArray[i] = null;
+      newArray[i + 1] = createNode(shift + BITS, k, v, hash, key, value);
+      return new BitmapNode(bitmap, newArray);
+    }
+
+    @Override
+    public Node remove(int shift, int hash, Object key) {
+      int bit = bitpos(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int i = 2 * index(bit);
+      Object k = array[i];
+      Object v = array[i + 1];
+      if (k == null) {
+        Node node = ((Node) v).remove(shift + BITS, hash, key);
+        if (node == v) {
+          return this;
+        }
+        if (node != null) {
+          return with(i + 1, node);
+        }
+      } else if (!key.equals(k)) {
+        return this;
+      }
+      if (bitmap == bit) {
+        return null;
+      }
+      var newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, i);
+      System.arraycopy(array, i + 2, newArray, i, newArray.length - i);
+      return new BitmapNode(bitmap ^ bit, newArray);
+    }
+
+    @Override
+    public Object[] array() {
+      return array;
+    }
+
+    private int index(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    private BitmapNode with(int i, Object value) {
+      var newArray = array.clone();
+      newArray[i] = value;
+      return new BitmapNode(bitmap, newArray);
+    }
+
+    private static Node createNode(
+      int shift,
+      Object k1,
+      Object v1,
+      int h2,
+      Object k2,
+      Object v2
+    ) {
+      int h1 = k1.hashCode();
+      if (h1 == h2) {
+        return new CollisionNode(h1, new Object[] { k1, v1, k2, v2 });
+      }
+      var added = new boolean[1];
+      return EMPTY.put(shift, h1, k1, v1, added).put(shift, h2, k2, v2, added);
+    }
+  }
+
+  /** Holds keys with the same hash code. */
+  private static final class CollisionNode implements Node {
+
+    private final int hash;
+    private final Object[] array;
+
+    private CollisionNode(int hash, Object[] array) {
+      this.hash = hash;
+      this.array = array;
+    }
+
+    @Override
+    public Object get(int shift, int hash, Object key, Object notFound) {
+      int i = find(hash, key);
+      return i < 0 ? notFound : array[i + 1];
+    }
+
+    @Override
+    public Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+      if (hash != this.hash) {
+        // Push this node down one level, next to the new key
+        return new BitmapNode(bitpos(this.hash, shift), new Object[] { null, this })
+          .put(shift, hash, key, value, added);
+      }
+      int i = find(hash, key);
+      if (i >= 0) {
+        if (array[i + 1] == value) {
+          return this;
+        }
+        var newArray = array.clone();
+        newArray[i + 1] = value;
+        return new CollisionNode(hash, newArray);
+      }
+      added[0] = true;
+      var newArray = new Object[array.length + 2];
+      System.arraycopy(array, 0, newArray, 0, array.length);
+      newArray[array.length] = key;
+      newArray[array.length + 1] = value;
+      return new CollisionNode(hash, newArray);
+    }
+
+    @Override
+    public Node remove(int shift, int hash, Object key) {
+      int i = find(hash, key);
+      if (i < 0) {
+        return this;
+      }
+      if (array.length == 2) {
+        return null;
+      }
+      var newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, i);
+      System.arraycopy(array, i + 2, newArray, i, newArray.length - i);
+      return new CollisionNode(hash, newArray);
+    }
+
+    @Override
+    public Object[] array() {
+      return array;
+    }
+
+    private int find(int hash, Object key) {
+      if (hash == this.hash) {
+        for (int i = 0; i < array.length; i += 2) {
+          if (key.equals(array[i])) {
+            return i;
+          }
+        }
+      }
+      return -1;
+    }
+  }
+
+  /** Depth first iteration over the trie, using an explicit stack of node arrays. */
+  private abstract static class NodeIterator<T> implements Iterator<T> {
+
+    /** A 32-bit hash gives at most 7 levels of bitmap nodes, followed by a collision node. */
+    private static final int MAX_DEPTH = 8;
+
+    private final Object[][] arrays = new Object[MAX_DEPTH][];
+    private final int[] indexes = new int[MAX_DEPTH];
+    private int depth = 0;
+    private T next;
+
+    private NodeIterator(Node root) {
+      arrays[0] = root.array();
+      advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    /** Create the element returned by the iterator from a key/value pair. */
+    abstract T element(Object key, Object value);
+
+    @Override
+    public T next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      var result = next;
+      advance();
+      return result;
+    }
+
+    private void advance() {
+      while (depth >= 0) {
+        Object[] array = arrays[depth];
+        int i = indexes[depth];
+        if (i >= array.length) {
+          --depth;
+          continue;
+        }
+        indexes[depth] = i + 2;
+        if (array[i] == null) {
+          ++depth;
+          arrays[depth] = ((Node) array[i + 1]).array();
+          indexes[depth] = 0;
+        } else {
+          next = element(array[i], array[i + 1]);
+          return;
+        }
+      }
+      next = null;
+    }
+  }
+}
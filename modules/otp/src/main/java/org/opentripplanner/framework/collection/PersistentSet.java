@@ -0,0 +1,90 @@
+package org.opentripplanner.framework.collection;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+/**
+ * An immutable set where adding or removing an element returns a new set sharing most of its
+ * structure with the old one. The set is backed by a {@link PersistentMap}, with each element
+ * mapped to itself, so it has the same cost for {@link #plus(Object)} and {@link #minus(Object)}.
+ * <p>
+ * Null elements are not allowed. All the mutating methods of {@link java.util.Set} throw
+ * {@link UnsupportedOperationException}.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+public final class PersistentSet<E> extends AbstractSet<E> {
+
+  private static final PersistentSet<?> EMPTY = new PersistentSet<>(PersistentMap.empty());
+
+  private final PersistentMap<E, E> map;
+
+  private PersistentSet(PersistentMap<E, E> map) {
+    this.map = map;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <E> PersistentSet<E> empty() {
+    return (PersistentSet<E>) EMPTY;
+  }
+
+  public static <E> PersistentSet<E> copyOf(Collection<? extends E> elements) {
+    if (elements instanceof PersistentSet<? extends E> persistentSet) {
+      @SuppressWarnings("unchecked")
+      var result = (PersistentSet<E>) persistentSet;
+      return result;
+    }
+    PersistentSet<E> result = empty();
+    for (E e : elements) {
+      result = result.plus(e);
+    }
+    return result;
+  }
+
+  /**
+   * Return a set with the given element added. If an equal element is already in the set, this set
+   * is returned, and the element in the set is kept.
+   */
+  public PersistentSet<E> plus(E element) {
+    return map.containsKey(element) ? this : new PersistentSet<>(map.plus(element, element));
+  }
+
+  /** Return a set without the given element. If it is not in the set, this set is returned. */
+  public PersistentSet<E> minus(Object element) {
+    return with(map.minus(element));
+  }
+
+  /**
+   * Return a set without all the elements matching the given predicate. If no element matches,
+   * this set is returned.
+   */
+  public PersistentSet<E> minusIf(Predicate<? super E> filter) {
+    return with(map.minusIf(filter));
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return map.containsKey(o);
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return map.keySet().iterator();
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  private PersistentSet<E> with(PersistentMap<E, E> newMap) {
+    return newMap == map ? this : new PersistentSet<>(newMap);
+  }
+}
@@ -158,6 +158,11 @@ public class GraphBuilder implements Runnable {
       graphBuilder.addModule(factory.graphCoherencyCheckerModule());
     }
 
+    // Pre-calculate the car routing landmarks after the street network is complete
+    if ((loadStreetGraph || hasOsm) && config.carRoutingLandmarks > 0) {
+      graphBuilder.addModule(factory.streetLandmarkModule());
+    }
+
     if (OTPFeature.Co2Emissions.isOn()) {
       graphBuilder.addModule(factory.emissionsModule());
     }
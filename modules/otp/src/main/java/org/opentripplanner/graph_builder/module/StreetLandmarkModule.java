@@ -0,0 +1,255 @@
+package org.opentripplanner.graph_builder.module;
+
+import gnu.trove.impl.Constants;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.opentripplanner.astar.model.IndexedDaryHeap;
+import org.opentripplanner.framework.logging.ProgressTracker;
+import org.opentripplanner.graph_builder.model.GraphBuilderModule;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.street.model.StreetLandmarks;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.TraverseMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Select a set of landmarks in the street network and calculate the car travel time to and from
+ * each of them for every street vertex. The result is stored in the graph and used by the
+ * {@link org.opentripplanner.street.search.strategy.LandmarkRemainingWeightHeuristic}.
+ * <p>
+ * The landmarks are selected using the farthest point method: the first landmark is the vertex
+ * farthest away from the centre of the street network, and each following landmark is the vertex
+ * farthest away from all the landmarks already selected. Landmarks at the edge of the network give
+ * the tightest bounds for trips going in the direction of, or away from, the landmark.
+ */
+public class StreetLandmarkModule implements GraphBuilderModule {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StreetLandmarkModule.class);
+
+  private final Graph graph;
+  private final int numberOfLandmarks;
+
+  public StreetLandmarkModule(Graph graph, int numberOfLandmarks) {
+    this.graph = graph;
+    this.numberOfLandmarks = numberOfLandmarks;
+  }
+
+  @Override
+  public void buildGraph() {
+    List<Vertex> vertices = graph
+      .getVertices()
+      .stream()
+      .filter(StreetLandmarkModule::isCarVertex)
+      .toList();
+
+    if (vertices.isEmpty() || numberOfLandmarks < 1) {
+      LOG.info("No car routable streets, skipping landmark pre-calculation.");
+      return;
+    }
+
+    ProgressTracker progress = ProgressTracker.track(
+      "Calculate street landmarks",
+      1,
+      numberOfLandmarks
+    );
+    LOG.info(progress.startMessage());
+
+    var landmarks = new ArrayList<Vertex>();
+    var rows = newRows();
+    for (Vertex v : graph.getVerticesOfType(StreetVertex.class)) {
+      rows.put(v, rows.size());
+    }
+    var durations = new float[rows.size() * 2 * numberOfLandmarks];
+    Arrays.fill(durations, Float.POSITIVE_INFINITY);
+
+    // The distance to the closest landmark selected so far, used to select the next landmark
+    var minDistance = dijkstra(centre(vertices), true);
+
+    for (int i = 0; i < numberOfLandmarks; i++) {
+      Vertex landmark = farthest(minDistance);
+      if (landmark == null || landmarks.contains(landmark)) {
+        break;
+      }
+      landmarks.add(landmark);
+
+      var fromLandmark = dijkstra(landmark, true);
+      var toLandmark = dijkstra(landmark, false);
+      store(durations, rows, fromLandmark, 2 * i);
+      store(durations, rows, toLandmark, 2 * i + 1);
+
+      if (i == 0) {
+        minDistance = fromLandmark;
+      } else {
+        for (var it : fromLandmark.entrySet()) {
+          minDistance.merge(it.getKey(), it.getValue(), Math::min);
+        }
+      }
+      //Keep lambda! A method-ref would causes incorrect class and line number to be logged
+      //noinspection Convert2MethodRef
+      progress.step(m -> LOG.info(m));
+    }
+
+    var streetLandmarks = compact(landmarks, rows, durations);
+    graph.setStreetLandmarks(streetLandmarks);
+    LOG.info(progress.completeMessage());
+    LOG.info(
+      "{} street landmarks selected, covering {} vertices.",
+      landmarks.size(),
+      streetLandmarks.numberOfVertices()
+    );
+  }
+
+  /**
+   * A lower bound of the car travel time for the given edge. Edges which are not streets, like
+   * links and elevators, get a zero duration, so the result is a lower bound for every path a car
+   * search can take.
+   */
+  static double duration(Edge edge) {
+    if (edge instanceof StreetEdge streetEdge) {
+      if (!streetEdge.canTraverse(TraverseMode.CAR) || streetEdge.getCarSpeed() <= 0) {
+        return Double.POSITIVE_INFINITY;
+      }
+      return streetEdge.getDistanceMeters() / streetEdge.getCarSpeed();
+    }
+    return 0;
+  }
+
+  private static boolean isCarVertex(Vertex v) {
+    return (
+      v instanceof StreetVertex &&
+      v
+        .getOutgoing()
+        .stream()
+        .anyMatch(e -> e instanceof StreetEdge se && se.canTraverse(TraverseMode.CAR))
+    );
+  }
+
+  /** The car vertex closest to the average coordinate of all car vertices. */
+  private static Vertex centre(List<Vertex> vertices) {
+    double lat = vertices.stream().mapToDouble(Vertex::getLat).average().orElseThrow();
+    double lon = vertices.stream().mapToDouble(Vertex::getLon).average().orElseThrow();
+    Vertex closest = null;
+    double minDistance = Double.MAX_VALUE;
+    for (Vertex v : vertices) {
+      double d = Math.hypot(v.getLat() - lat, v.getLon() - lon);
+      if (d < minDistance) {
+        minDistance = d;
+        closest = v;
+      }
+    }
+    return closest;
+  }
+
+  private static Vertex farthest(Map<Vertex, Double> distances) {
+    Vertex farthest = null;
+    double max = -1;
+    for (var it : distances.entrySet()) {
+      if (it.getKey() instanceof StreetVertex && it.getValue() > max) {
+        max = it.getValue();
+        farthest = it.getKey();
+      }
+    }
+    return farthest;
+  }
+
+  private void store(
+    float[] durations,
+    TObjectIntHashMap<Vertex> rows,
+    Map<Vertex, Double> result,
+    int index
+  ) {
+    for (var it : result.entrySet()) {
+      int row = rows.get(it.getKey());
+      if (row != StreetLandmarks.UNKNOWN_VERTEX) {
+        durations[row * 2 * numberOfLandmarks + index] = it.getValue().floatValue();
+      }
+    }
+  }
+
+  /**
+   * Remove the vertices not reached from or to any landmark, and the space reserved for landmarks
+   * which were not found.
+   */
+  private StreetLandmarks compact(
+    List<Vertex> landmarks,
+    TObjectIntHashMap<Vertex> rows,
+    float[] durations
+  ) {
+    int stride = 2 * numberOfLandmarks;
+    int size = 2 * landmarks.size();
+    var compactRows = newRows();
+    var compactDurations = new float[rows.size() * size];
+
+    for (var it = rows.iterator(); it.hasNext();) {
+      it.advance();
+      int from = it.value() * stride;
+      if (isReached(durations, from, size)) {
+        int row = compactRows.size();
+        compactRows.put(it.key(), row);
+        System.arraycopy(durations, from, compactDurations, row * size, size);
+      }
+    }
+    return new StreetLandmarks(
+      landmarks,
+      compactRows,
+      Arrays.copyOf(compactDurations, compactRows.size() * size)
+    );
+  }
+
+  private static boolean isReached(float[] durations, int from, int size) {
+    for (int i = from; i < from + size; ++i) {
+      if (durations[i] != Float.POSITIVE_INFINITY) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static TObjectIntHashMap<Vertex> newRows() {
+    return new TObjectIntHashMap<>(
+      Constants.DEFAULT_CAPACITY,
+      Constants.DEFAULT_LOAD_FACTOR,
+      StreetLandmarks.UNKNOWN_VERTEX
+    );
+  }
+
+  /**
+   * Plain one-to-all Dijkstra search using the {@link #duration(Edge)} of each edge.
+   *
+   * @param forward search along outgoing edges if {@code true}, and along incoming edges if not.
+   */
+  static Map<Vertex, Double> dijkstra(Vertex origin, boolean forward) {
+    var result = new IdentityHashMap<Vertex, Double>();
+    var best = new IdentityHashMap<Vertex, Double>();
+    var queue = new IndexedDaryHeap<Vertex>();
+    queue.insert(origin, 0);
+    best.put(origin, 0.0);
+
+    while (!queue.empty()) {
+      double d = queue.peek_min_key();
+      Vertex v = queue.extract_min();
+      result.put(v, d);
+
+      for (Edge e : forward ? v.getOutgoing() : v.getIncoming()) {
+        Vertex w = forward ? e.getToVertex() : e.getFromVertex();
+        if (result.containsKey(w)) {
+          continue;
+        }
+        double dw = d + duration(e);
+        if (dw < best.getOrDefault(w, Double.POSITIVE_INFINITY)) {
+          best.put(w, dw);
+          queue.insert(w, dw);
+        }
+      }
+    }
+    return result;
+  }
+}
@@ -25,6 +25,7 @@ import org.opentripplanner.graph_builder.issue.report.DataImportIssueReporter;
 import org.opentripplanner.graph_builder.issue.service.DefaultDataImportIssueStore;
 import org.opentripplanner.graph_builder.module.DirectTransferGenerator;
 import org.opentripplanner.graph_builder.module.RouteToCentroidStationIdsValidator;
+import org.opentripplanner.graph_builder.module.StreetLandmarkModule;
 import org.opentripplanner.graph_builder.module.StreetLinkerModule;
 import org.opentripplanner.graph_builder.module.islandpruning.PruneIslands;
 import org.opentripplanner.graph_builder.module.ned.DegreeGridNEDTileSource;
@@ -161,6 +162,12 @@ public class GraphBuilderModules {
     return new StreetLinkerModule(graph, transitModel, issueStore, config.areaVisibility);
   }
 
+  @Provides
+  @Singleton
+  static StreetLandmarkModule provideStreetLandmarkModule(BuildConfig config, Graph graph) {
+    return new StreetLandmarkModule(graph, config.carRoutingLandmarks);
+  }
+
   @Provides
   @Singleton
   static PruneIslands providePruneIslands(
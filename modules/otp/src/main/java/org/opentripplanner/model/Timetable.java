@@ -21,6 +21,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import javax.annotation.Nullable;
 import org.opentripplanner.framework.time.ServiceDateUtils;
 import org.opentripplanner.transit.model.framework.DataValidationException;
@@ -62,6 +63,13 @@ public class Timetable implements Serializable {
   @Nullable
   private final LocalDate serviceDate;
 
+  /**
+   * The departure index for each stop position, created when used. The timetable is immutable, so
+   * the index is valid as long as the timetable is.
+   */
+  @Nullable
+  private transient volatile AtomicReferenceArray<TimetableDepartureIndex> departureIndexes;
+
   Timetable(TimetableBuilder timetableBuilder) {
     this.pattern = timetableBuilder.getPattern();
     this.serviceDate = timetableBuilder.getServiceDate();
@@ -406,6 +414,24 @@ public class Timetable implements Serializable {
     return tripTimes;
   }
 
+  /**
+   * Return the trips sorted by the departure time at the given stop position. The index
+   * is created the first time it is used, and cached. Frequency entries are not included.
+   */
+  public TimetableDepartureIndex getDepartureIndex(int stopPos) {
+    var indexes = departureIndexes;
+    if (indexes == null) {
+      indexes = new AtomicReferenceArray<>(pattern.numberOfStops());
+      departureIndexes = indexes;
+    }
+    var index = indexes.get(stopPos);
+    if (index == null) {
+      index = TimetableDepartureIndex.create(tripTimes, stopPos);
+      indexes.set(stopPos, index);
+    }
+    return index;
+  }
+
   /**
    * Contains one FrequencyEntry object for each block of frequency-based trips.
    */
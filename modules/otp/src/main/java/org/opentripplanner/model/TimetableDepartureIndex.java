@@ -0,0 +1,134 @@
+package org.opentripplanner.model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+
+/**
+ * The trips in a {@link Timetable} sorted by the departure time at one stop position in the
+ * pattern. The index is used to list the next departures from a stop, without going through all
+ * trips in the timetable. Use {@link #findFirstDepartureAtOrAfter(int)} to find the first trip in
+ * the time window, and go through the trips in order until the departure time is after the
+ * window.
+ * <p>
+ * The timetable is immutable, so the index is created once and cached by the timetable, see
+ * {@link Timetable#getDepartureIndex(int)}. When a real-time update changes a timetable, a new
+ * timetable is created and the index is created again for the new timetable, if it is used.
+ * <p>
+ * The index relies on the arrival time at a stop being the same as or before the departure time,
+ * this is validated when the trip times are created.
+ */
+public final class TimetableDepartureIndex {
+
+  /** The index of each trip in the timetable, sorted by the departure time. */
+  private final int[] tripIndexes;
+
+  /** The departure time for each trip in the same order as the {@link #tripIndexes}. */
+  private final int[] departureTimes;
+
+  private final int maxDwellTime;
+
+  private final int minScheduledDepartureOffset;
+
+  private TimetableDepartureIndex(
+    int[] tripIndexes,
+    int[] departureTimes,
+    int maxDwellTime,
+    int minScheduledDepartureOffset
+  ) {
+    this.tripIndexes = tripIndexes;
+    this.departureTimes = departureTimes;
+    this.maxDwellTime = maxDwellTime;
+    this.minScheduledDepartureOffset = minScheduledDepartureOffset;
+  }
+
+  static TimetableDepartureIndex create(List<TripTimes> tripTimes, int stopPos) {
+    // The sort is stable, trips departing at the same time keep the order in the timetable
+    int[] tripIndexes = IntStream
+      .range(0, tripTimes.size())
+      .boxed()
+      .sorted(Comparator.comparingInt(i -> tripTimes.get(i).getDepartureTime(stopPos)))
+      .mapToInt(Integer::intValue)
+      .toArray();
+
+    int[] departureTimes = new int[tripIndexes.length];
+    int maxDwellTime = 0;
+    int minScheduledDepartureOffset = 0;
+
+    for (int i = 0; i < tripIndexes.length; ++i) {
+      var it = tripTimes.get(tripIndexes[i]);
+      int departureTime = it.getDepartureTime(stopPos);
+      departureTimes[i] = departureTime;
+      maxDwellTime = Math.max(maxDwellTime, departureTime - it.getArrivalTime(stopPos));
+      minScheduledDepartureOffset =
+        Math.min(
+          minScheduledDepartureOffset,
+          it.getScheduledDepartureTime(stopPos) - departureTime
+        );
+    }
+    return new TimetableDepartureIndex(
+      tripIndexes,
+      departureTimes,
+      maxDwellTime,
+      minScheduledDepartureOffset
+    );
+  }
+
+  /** The number of trips in the index. */
+  public int size() {
+    return tripIndexes.length;
+  }
+
+  /**
+   * Return the position in the index of the first trip departing at or after the given time. If
+   * all trips depart before the given time, {@link #size()} is returned.
+   */
+  public int findFirstDepartureAtOrAfter(int time) {
+    int low = 0;
+    int high = departureTimes.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (departureTimes[mid] < time) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /** The index of the trip in the timetable, for the given position in the index. */
+  public int tripIndex(int position) {
+    return tripIndexes[position];
+  }
+
+  /** The departure time of the trip at the given position in the index. */
+  public int departureTime(int position) {
+    return departureTimes[position];
+  }
+
+  /**
+   * The longest time a trip waits at the stop, from the arrival to the departure. Trips departing
+   * later than the end of a time window plus this, also arrive after the window.
+   */
+  public int maxDwellTime() {
+    return maxDwellTime;
+  }
+
+  /**
+   * The smallest difference between the scheduled and the actual departure time, or zero if no
+   * trip departs before the schedule. Departure boards sort cancelled stops by the scheduled
+   * departure time. All trips after a position in the index depart at or after the departure time
+   * at that position plus this offset, also if the scheduled time is used.
+   */
+  public int minScheduledDepartureOffset() {
+    return minScheduledDepartureOffset;
+  }
+
+  @Override
+  public String toString() {
+    return "TimetableDepartureIndex" + Arrays.toString(departureTimes);
+  }
+}
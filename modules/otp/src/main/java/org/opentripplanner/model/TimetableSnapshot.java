@@ -2,25 +2,20 @@ package org.opentripplanner.model;
 
 import static org.opentripplanner.framework.collection.CollectionUtils.getByNullableKey;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.SetMultimap;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.ConcurrentModificationException;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import javax.annotation.Nullable;
+import org.opentripplanner.framework.collection.PersistentMap;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.TransitLayerUpdater;
 import org.opentripplanner.transit.model.framework.FeedScopedId;
 import org.opentripplanner.transit.model.framework.Result;
@@ -72,10 +67,13 @@ import org.slf4j.LoggerFactory;
  * transit network. It would also be possible to make the realtime version of Timetables or
  * TripTimes the primary view, and include references back to their scheduled versions.
  * <p>
- * Implementation note: when a snapshot is committed, the mutable state of this class is stored
- * in final fields and completely initialized in the constructor. This provides an additional
- * guarantee of safe-publication without synchronization.
- * (see <a href="https://docs.oracle.com/javase/specs/jls/se7/html/jls-17.html#jls-17.5">final Field Semantics</a>)
+ * Implementation note: all the maps are {@link PersistentMap}s. The buffer never modifies a map,
+ * it replaces it with a new version sharing most of its structure with the old one. A commit
+ * therefore hands the current versions over to the read-only snapshot without copying, and the
+ * cost of a commit is proportional to the number of changes since the last commit, not to the
+ * size of the realtime data. The snapshot is published to the routing threads through
+ * {@link org.opentripplanner.routing.util.ConcurrentPublished}, which guarantees that the field
+ * values are visible.
  */
 public class TimetableSnapshot {
 
@@ -104,7 +102,7 @@ public class TimetableSnapshot {
    * The compound key approach better reflects the fact that there should be only one Timetable per
    * TripPattern and date.
    */
-  private final Map<TripPattern, SortedSet<Timetable>> timetables;
+  private PersistentMap<TripPattern, SortedSet<Timetable>> timetables;
 
   /**
    * For cases where the trip pattern (sequence of stops visited) has been changed by a realtime
@@ -112,24 +110,24 @@ public class TimetableSnapshot {
    * trip ID and the service date.
    * TODO RT_AB: clarify if this is an index or the original source of truth.
    */
-  private final Map<TripIdAndServiceDate, TripPattern> realtimeAddedTripPattern;
+  private PersistentMap<TripIdAndServiceDate, TripPattern> realtimeAddedTripPattern;
 
   /**
    * This is an index of TripPatterns, not the primary collection. It tracks which TripPatterns
    * that were updated or newly created by realtime messages contain which stops. This allows them
    * to be readily found and included in API responses containing stop times at a specific stop.
-   * This is a SetMultimap, so that each pattern is only retained once per stop even if it's added
+   * The values are sets, so that each pattern is only retained once per stop even if it's added
    * more than once.
    * TODO RT_AB: More general handling of all realtime indexes outside primary data structures.
    */
-  private final SetMultimap<StopLocation, TripPattern> patternsForStop;
+  private PersistentMap<StopLocation, Set<TripPattern>> patternsForStop;
 
-  private final Map<FeedScopedId, Route> realtimeAddedRoutes;
-  private final Map<FeedScopedId, Trip> realTimeAddedTrips;
-  private final Map<Trip, TripPattern> realTimeAddedPatternForTrip;
-  private final Multimap<Route, TripPattern> realTimeAddedPatternsForRoute;
-  private final Map<FeedScopedId, TripOnServiceDate> realTimeAddedTripOnServiceDateById;
-  private final Map<TripIdAndServiceDate, TripOnServiceDate> realTimeAddedTripOnServiceDateForTripAndDay;
+  private PersistentMap<FeedScopedId, Route> realtimeAddedRoutes;
+  private PersistentMap<FeedScopedId, Trip> realTimeAddedTrips;
+  private PersistentMap<Trip, TripPattern> realTimeAddedPatternForTrip;
+  private PersistentMap<Route, Set<TripPattern>> realTimeAddedPatternsForRoute;
+  private PersistentMap<FeedScopedId, TripOnServiceDate> realTimeAddedTripOnServiceDateById;
+  private PersistentMap<TripIdAndServiceDate, TripOnServiceDate> realTimeAddedTripOnServiceDateForTripAndDay;
 
   /**
    * Boolean value indicating that timetable snapshot is read only if true. Once it is true, it
@@ -145,29 +143,29 @@ public class TimetableSnapshot {
 
   public TimetableSnapshot() {
     this(
-      new HashMap<>(),
-      new HashMap<>(),
-      new HashMap<>(),
-      new HashMap<>(),
-      new HashMap<>(),
-      HashMultimap.create(),
-      new HashMap<>(),
-      new HashMap<>(),
-      HashMultimap.create(),
+      PersistentMap.empty(),
+      PersistentMap.empty(),
+      PersistentMap.empty(),
+      PersistentMap.empty(),
+      PersistentMap.empty(),
+      PersistentMap.empty(),
+      PersistentMap.empty(),
+      PersistentMap.empty(),
+      PersistentMap.empty(),
       false
     );
   }
 
   private TimetableSnapshot(
-    Map<TripPattern, SortedSet<Timetable>> timetables,
-    Map<TripIdAndServiceDate, TripPattern> realtimeAddedTripPattern,
-    Map<FeedScopedId, Route> realtimeAddedRoutes,
-    Map<FeedScopedId, Trip> realtimeAddedTrips,
-    Map<Trip, TripPattern> realTimeAddedPatternForTrip,
-    Multimap<Route, TripPattern> realTimeAddedPatternsForRoute,
-    Map<FeedScopedId, TripOnServiceDate> realTimeAddedTripOnServiceDateById,
-    Map<TripIdAndServiceDate, TripOnServiceDate> realTimeAddedTripOnServiceDateForTripAndDay,
-    SetMultimap<StopLocation, TripPattern> patternsForStop,
+    PersistentMap<TripPattern, SortedSet<Timetable>> timetables,
+    PersistentMap<TripIdAndServiceDate, TripPattern> realtimeAddedTripPattern,
+    PersistentMap<FeedScopedId, Route> realtimeAddedRoutes,
+    PersistentMap<FeedScopedId, Trip> realtimeAddedTrips,
+    PersistentMap<Trip, TripPattern> realTimeAddedPatternForTrip,
+    PersistentMap<Route, Set<TripPattern>> realTimeAddedPatternsForRoute,
+    PersistentMap<FeedScopedId, TripOnServiceDate> realTimeAddedTripOnServiceDateById,
+    PersistentMap<TripIdAndServiceDate, TripOnServiceDate> realTimeAddedTripOnServiceDateForTripAndDay,
+    PersistentMap<StopLocation, Set<TripPattern>> patternsForStop,
     boolean readOnly
   ) {
     this.timetables = timetables;
@@ -255,7 +253,7 @@ public class TimetableSnapshot {
    * Return the trip patterns created by the updater for the given route.
    */
   public Collection<TripPattern> getRealTimeAddedPatternForRoute(Route route) {
-    return realTimeAddedPatternsForRoute.get(route);
+    return realTimeAddedPatternsForRoute.getOrDefault(route, Set.of());
   }
 
   /**
@@ -311,7 +309,7 @@ public class TimetableSnapshot {
       // Remember this pattern for the added trip id and service date
       FeedScopedId tripId = trip.getId();
       TripIdAndServiceDate tripIdAndServiceDate = new TripIdAndServiceDate(tripId, serviceDate);
-      realtimeAddedTripPattern.put(tripIdAndServiceDate, pattern);
+      realtimeAddedTripPattern = realtimeAddedTripPattern.plus(tripIdAndServiceDate, pattern);
     }
 
     // To make these trip patterns visible for departureRow searches.
@@ -320,21 +318,23 @@ public class TimetableSnapshot {
     Route route = trip.getRoute();
 
     if (realTimeTripUpdate.routeCreation()) {
-      realtimeAddedRoutes.put(route.getId(), route);
+      realtimeAddedRoutes = realtimeAddedRoutes.plus(route.getId(), route);
     }
     if (realTimeTripUpdate.tripCreation()) {
       FeedScopedId tripId = trip.getId();
-      realTimeAddedTrips.put(tripId, trip);
-      realTimeAddedPatternForTrip.put(trip, pattern);
-      realTimeAddedPatternsForRoute.put(route, pattern);
+      realTimeAddedTrips = realTimeAddedTrips.plus(tripId, trip);
+      realTimeAddedPatternForTrip = realTimeAddedPatternForTrip.plus(trip, pattern);
+      realTimeAddedPatternsForRoute = plus(realTimeAddedPatternsForRoute, route, pattern);
       TripOnServiceDate tripOnServiceDate = realTimeTripUpdate.addedTripOnServiceDate();
 
       if (tripOnServiceDate != null) {
-        realTimeAddedTripOnServiceDateById.put(tripOnServiceDate.getId(), tripOnServiceDate);
-        realTimeAddedTripOnServiceDateForTripAndDay.put(
-          new TripIdAndServiceDate(tripId, serviceDate),
-          tripOnServiceDate
-        );
+        realTimeAddedTripOnServiceDateById =
+          realTimeAddedTripOnServiceDateById.plus(tripOnServiceDate.getId(), tripOnServiceDate);
+        realTimeAddedTripOnServiceDateForTripAndDay =
+          realTimeAddedTripOnServiceDateForTripAndDay.plus(
+            new TripIdAndServiceDate(tripId, serviceDate),
+            tripOnServiceDate
+          );
       }
     }
 
@@ -344,12 +344,12 @@ public class TimetableSnapshot {
   }
 
   /**
-   * This produces a small delay of typically around 50ms, which is almost entirely due to the
-   * indexing step. Cloning the map is much faster (2ms). It is perhaps better to index timetables
-   * as they are changed to avoid experiencing all this lag at once, but we want to avoid
-   * re-indexing when receiving multiple updates for the same timetable in rapid succession. This
-   * compromise is expressed by the maxSnapshotFrequency property of StoptimeUpdater. The indexing
-   * could be made much more efficient as well.
+   * The maps are persistent, so creating the read-only snapshot does not copy anything. The cost
+   * of a commit is dominated by the indexing of the dirty timetables in the transit layer. It is
+   * perhaps better to index timetables as they are changed to avoid experiencing all this lag at
+   * once, but we want to avoid re-indexing when receiving multiple updates for the same timetable
+   * in rapid succession. This compromise is expressed by the maxSnapshotFrequency property of
+   * StoptimeUpdater.
    *
    * @return an immutable copy of this TimetableSnapshot with all updates applied
    */
@@ -357,7 +357,6 @@ public class TimetableSnapshot {
     return commit(null, false);
   }
 
-  @SuppressWarnings("unchecked")
   public TimetableSnapshot commit(TransitLayerUpdater transitLayerUpdater, boolean force) {
     if (readOnly) {
       throw new ConcurrentModificationException("This TimetableSnapshot is read-only.");
@@ -367,15 +366,15 @@ public class TimetableSnapshot {
       return null;
     }
     TimetableSnapshot ret = new TimetableSnapshot(
-      Map.copyOf(timetables),
-      Map.copyOf(realtimeAddedTripPattern),
-      Map.copyOf(realtimeAddedRoutes),
-      Map.copyOf(realTimeAddedTrips),
-      Map.copyOf(realTimeAddedPatternForTrip),
-      ImmutableSetMultimap.copyOf(realTimeAddedPatternsForRoute),
-      Map.copyOf(realTimeAddedTripOnServiceDateById),
-      Map.copyOf(realTimeAddedTripOnServiceDateForTripAndDay),
-      ImmutableSetMultimap.copyOf(patternsForStop),
+      timetables,
+      realtimeAddedTripPattern,
+      realtimeAddedRoutes,
+      realTimeAddedTrips,
+      realTimeAddedPatternForTrip,
+      realTimeAddedPatternsForRoute,
+      realTimeAddedTripOnServiceDateById,
+      realTimeAddedTripOnServiceDateForTripAndDay,
+      patternsForStop,
       true
     );
 
@@ -430,7 +429,8 @@ public class TimetableSnapshot {
     if (pattern != null) {
       // Dissociate the given trip from any realtime-added pattern.
       // The trip will then fall back to its original scheduled pattern.
-      realtimeAddedTripPattern.remove(new TripIdAndServiceDate(tripId, serviceDate));
+      realtimeAddedTripPattern =
+        realtimeAddedTripPattern.minus(new TripIdAndServiceDate(tripId, serviceDate));
       // Remove times for the trip from any timetables
       // under that now-obsolete realtime-added pattern.
       SortedSet<Timetable> sortedTimetables = this.timetables.get(pattern);
@@ -478,37 +478,35 @@ public class TimetableSnapshot {
     }
 
     boolean modified = false;
-    for (Iterator<TripPattern> it = timetables.keySet().iterator(); it.hasNext();) {
-      TripPattern pattern = it.next();
-      SortedSet<Timetable> sortedTimetables = timetables.get(pattern);
+    for (Map.Entry<TripPattern, SortedSet<Timetable>> it : timetables.entrySet()) {
+      TripPattern pattern = it.getKey();
+      SortedSet<Timetable> sortedTimetables = it.getValue();
       SortedSet<Timetable> toKeepTimetables = new TreeSet<>(new SortedTimetableComparator());
       for (Timetable timetable : sortedTimetables) {
         if (serviceDate.compareTo(timetable.getServiceDate()) < 0) {
           toKeepTimetables.add(timetable);
-        } else {
-          modified = true;
         }
       }
 
+      if (toKeepTimetables.size() == sortedTimetables.size()) {
+        continue;
+      }
+      modified = true;
       if (toKeepTimetables.isEmpty()) {
-        it.remove();
+        timetables = timetables.minus(pattern);
       } else {
-        timetables.put(pattern, ImmutableSortedSet.copyOfSorted(toKeepTimetables));
+        timetables =
+          timetables.plus(pattern, ImmutableSortedSet.copyOfSorted(toKeepTimetables));
       }
     }
 
     // Also remove last added trip pattern for days that are purged
-    for (
-      Iterator<Entry<TripIdAndServiceDate, TripPattern>> iterator = realtimeAddedTripPattern
-        .entrySet()
-        .iterator();
-      iterator.hasNext();
-    ) {
-      TripIdAndServiceDate tripIdAndServiceDate = iterator.next().getKey();
-      if (serviceDate.compareTo(tripIdAndServiceDate.serviceDate()) >= 0) {
-        iterator.remove();
-        modified = true;
-      }
+    var purgedTripPatterns = realtimeAddedTripPattern.minusIf(tripIdAndServiceDate ->
+      serviceDate.compareTo(tripIdAndServiceDate.serviceDate()) >= 0
+    );
+    if (purgedTripPatterns != realtimeAddedTripPattern) {
+      realtimeAddedTripPattern = purgedTripPatterns;
+      modified = true;
     }
 
     return modified;
@@ -527,7 +525,7 @@ public class TimetableSnapshot {
   }
 
   public Collection<TripPattern> getPatternsForStop(StopLocation stop) {
-    return patternsForStop.get(stop);
+    return patternsForStop.getOrDefault(stop, Set.of());
   }
 
   /**
@@ -544,7 +542,12 @@ public class TimetableSnapshot {
    * @return true if the timetable changed as a result of the call
    */
   private boolean clearTimetable(String feedId) {
-    return timetables.keySet().removeIf(tripPattern -> feedId.equals(tripPattern.getFeedId()));
+    var cleared = timetables.minusIf(tripPattern -> feedId.equals(tripPattern.getFeedId()));
+    if (cleared == timetables) {
+      return false;
+    }
+    timetables = cleared;
+    return true;
   }
 
   /**
@@ -554,11 +557,14 @@ public class TimetableSnapshot {
    * @return true if the realtimeAddedTripPattern changed as a result of the call
    */
   private boolean clearRealtimeAddedTripPattern(String feedId) {
-    return realtimeAddedTripPattern
-      .keySet()
-      .removeIf(realtimeAddedTripPattern ->
-        feedId.equals(realtimeAddedTripPattern.tripId().getFeedId())
-      );
+    var cleared = realtimeAddedTripPattern.minusIf(tripIdAndServiceDate ->
+      feedId.equals(tripIdAndServiceDate.tripId().getFeedId())
+    );
+    if (cleared == realtimeAddedTripPattern) {
+      return false;
+    }
+    realtimeAddedTripPattern = cleared;
+    return true;
   }
 
   /**
@@ -569,11 +575,27 @@ public class TimetableSnapshot {
       //TODO - SIRI: Add pattern to index?
 
       for (var stop : tripPattern.getStops()) {
-        patternsForStop.put(stop, tripPattern);
+        patternsForStop = plus(patternsForStop, stop, tripPattern);
       }
     }
   }
 
+  /**
+   * Add the value to the set of values for the given key. The sets are small, so they are copied
+   * when changed.
+   */
+  private static <K, V> PersistentMap<K, Set<V>> plus(
+    PersistentMap<K, Set<V>> map,
+    K key,
+    V value
+  ) {
+    Set<V> values = map.getOrDefault(key, Set.of());
+    if (values.contains(value)) {
+      return map;
+    }
+    return map.plus(key, ImmutableSet.<V>builder().addAll(values).add(value).build());
+  }
+
   /**
    * Replace the original Timetable by the updated one in the timetable index.
    * The SortedSet that holds the collection of Timetables for that pattern
@@ -599,7 +621,7 @@ public class TimetableSnapshot {
       sortedTimetables.remove(original);
     }
     sortedTimetables.add(updated);
-    timetables.put(pattern, ImmutableSortedSet.copyOfSorted(sortedTimetables));
+    timetables = timetables.plus(pattern, ImmutableSortedSet.copyOfSorted(sortedTimetables));
     dirtyTimetables.add(updated);
     dirty = true;
   }
@@ -0,0 +1,251 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.matrix;
+
+import static org.opentripplanner.standalone.configure.ConstructApplication.creatTransitLayerForRaptor;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.opentripplanner.framework.application.OtpAppException;
+import org.opentripplanner.framework.time.ServiceDateUtils;
+import org.opentripplanner.raptor.RaptorService;
+import org.opentripplanner.raptor.api.model.RaptorAccessEgress;
+import org.opentripplanner.raptor.api.request.DynamicSearchWindowCoefficients;
+import org.opentripplanner.raptor.api.request.RaptorProfile;
+import org.opentripplanner.raptor.api.request.RaptorRequest;
+import org.opentripplanner.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.raptor.api.request.RaptorTuningParameters;
+import org.opentripplanner.raptor.configure.RaptorConfig;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRoutingRequestTransitData;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RouteRequestTransitDataProviderFilter;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.graph.SerializedGraphObject;
+import org.opentripplanner.standalone.config.RouterConfig;
+import org.opentripplanner.transit.model.network.grouppriority.TransitGroupPriorityService;
+import org.opentripplanner.transit.service.TransitModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Command line tool computing the stop-to-stop travel-time matrix for a serialized graph. A
+ * Raptor search is run from every stop, and the travel times to all other stops are written to a
+ * binary file, see {@link TravelTimeMatrixWriter} for the format. The searches use the default
+ * routing request and the transit tuning parameters of the router config stored in the graph.
+ */
+public class TravelTimeMatrixExport {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TravelTimeMatrixExport.class);
+
+  @Parameter(
+    names = { "-h", "--help" },
+    description = "Print this help message and exit",
+    help = true
+  )
+  private boolean help;
+
+  @Parameter(names = { "-g", "--graph" }, description = "path to the graph file", required = true)
+  private String graphPath;
+
+  @Parameter(names = { "-o", "--out" }, description = "output file", required = true)
+  private String outPath;
+
+  @Parameter(names = { "-d", "--date" }, description = "service date, default is today")
+  private String date = null;
+
+  @Parameter(names = { "-t", "--time" }, description = "departure time, HH:mm")
+  private String time = "08:00";
+
+  @Parameter(names = { "--threads" }, description = "number of threads used to route")
+  private int threads = Runtime.getRuntime().availableProcessors();
+
+  public static void main(String[] args) {
+    var export = new TravelTimeMatrixExport();
+    var jc = new JCommander(export);
+    try {
+      jc.parse(args);
+    } catch (Exception e) {
+      System.out.println(e.getMessage());
+      jc.usage();
+      System.exit(1);
+    }
+    if (export.help) {
+      jc.usage();
+      System.exit(0);
+    }
+    try {
+      export.run();
+    } catch (OtpAppException ignore) {
+      // The error is handled at a lover level
+    }
+  }
+
+  private void run() {
+    SerializedGraphObject graph = SerializedGraphObject.load(new File(graphPath));
+    TransitModel transitModel = graph.transitModel;
+    var routerConfig = Objects.requireNonNullElse(graph.routerConfig, RouterConfig.DEFAULT);
+    var tuningParameters = routerConfig.transitTuningConfig();
+
+    transitModel.index();
+    creatTransitLayerForRaptor(transitModel, tuningParameters);
+    TransitLayer transitLayer = transitModel.getTransitLayer();
+
+    var zoneId = transitModel.getTimeZone();
+    var serviceDate = date == null ? LocalDate.now(zoneId) : LocalDate.parse(date);
+    var timeZero = ServiceDateUtils.asStartOfService(serviceDate, zoneId);
+    int departureTime = LocalTime.parse(time).toSecondOfDay();
+
+    var request = new RouteRequest();
+    var transitData = new RaptorRoutingRequestTransitData(
+      transitLayer,
+      TransitGroupPriorityService.empty(),
+      timeZero,
+      0,
+      1,
+      new RouteRequestTransitDataProviderFilter(request),
+      request
+    );
+
+    int nStops = transitLayer.getStopCount();
+    List<String> stopIds = new ArrayList<>(nStops);
+    List<RaptorRequest<TripSchedule>> requests = new ArrayList<>(nStops);
+    for (int stop = 0; stop < nStops; ++stop) {
+      stopIds.add(transitLayer.getStopByIndex(stop).getId().toString());
+      requests.add(createRequest(stop, departureTime, tuningParameters.maxNumberOfTransfers()));
+    }
+
+    var config = new RaptorConfig<TripSchedule>(withThreadPoolSize(tuningParameters, threads));
+    var service = new RaptorService<>(config);
+    LOG.info("Compute travel-time matrix for {} stops on {} at {}.", nStops, serviceDate, time);
+
+    try (
+      var writer = new TravelTimeMatrixWriter(
+        new BufferedOutputStream(new FileOutputStream(outPath)),
+        stopIds,
+        departureTime,
+        timeZero.plusSeconds(departureTime).toEpochSecond()
+      )
+    ) {
+      service.routeManyToMany(requests, transitData, writer);
+      LOG.info("{} rows written to {}", writer.rows(), outPath);
+    } catch (IOException e) {
+      throw new OtpAppException(
+        "Unable to write travel-time matrix: %s, %s",
+        outPath,
+        e.getLocalizedMessage()
+      );
+    } finally {
+      config.shutdown();
+    }
+  }
+
+  private RaptorRequest<TripSchedule> createRequest(int stop, int departureTime, int maxTransfers) {
+    var origin = new StopAccessEgress(stop);
+    return new RaptorRequestBuilder<TripSchedule>()
+      .profile(RaptorProfile.BEST_TIME)
+      .searchParams()
+      .earliestDepartureTime(departureTime)
+      // One iteration at the departure time. The best arrival time over a search-window is not
+      // the best travel time, so the matrix is computed for a single departure time.
+      .searchWindowInSeconds(0)
+      .maxNumberOfTransfers(maxTransfers)
+      // A request must have an egress, so the origin stop is used. Raptor stops the search the
+      // given number of rounds after the egress stop is reached by transit, for example by a trip
+      // looping back to the origin. Allowing all the transfers makes sure the search is not
+      // stopped early. The destination arrivals are ignored, the travel times are read from the
+      // best arrival time at each stop.
+      .numberOfAdditionalTransfers(maxTransfers)
+      .addAccessPaths(origin)
+      .addEgressPaths(origin)
+      .build();
+  }
+
+  /**
+   * Use the tuning parameters from the router config, but with the given thread pool size. All
+   * other parameters are delegated, so none of them are reset to the interface defaults.
+   */
+  private static RaptorTuningParameters withThreadPoolSize(
+    RaptorTuningParameters tuningParameters,
+    int size
+  ) {
+    return new RaptorTuningParameters() {
+      @Override
+      public int maxNumberOfTransfers() {
+        return tuningParameters.maxNumberOfTransfers();
+      }
+
+      @Override
+      public int scheduledTripBinarySearchThreshold() {
+        return tuningParameters.scheduledTripBinarySearchThreshold();
+      }
+
+      @Override
+      public int iterationDepartureStepInSeconds() {
+        return tuningParameters.iterationDepartureStepInSeconds();
+      }
+
+      @Override
+      public int searchThreadPoolSize() {
+        return size;
+      }
+
+      @Override
+      public int searchWindowPartitions() {
+        return tuningParameters.searchWindowPartitions();
+      }
+
+      @Override
+      public int heuristicCacheSize() {
+        return tuningParameters.heuristicCacheSize();
+      }
+
+      @Override
+      public boolean sortStopArrivalsByArrivalTime() {
+        return tuningParameters.sortStopArrivalsByArrivalTime();
+      }
+
+      @Override
+      public DynamicSearchWindowCoefficients dynamicSearchWindowCoefficients() {
+        return tuningParameters.dynamicSearchWindowCoefficients();
+      }
+    };
+  }
+
+  /**
+   * Board at the origin stop without any walking, the same is used as egress.
+   */
+  private record StopAccessEgress(int stop) implements RaptorAccessEgress {
+    @Override
+    public int c1() {
+      return 0;
+    }
+
+    @Override
+    public int durationInSeconds() {
+      return 0;
+    }
+
+    @Override
+    public int earliestDepartureTime(int requestedDepartureTime) {
+      return requestedDepartureTime;
+    }
+
+    @Override
+    public int latestArrivalTime(int requestedArrivalTime) {
+      return requestedArrivalTime;
+    }
+
+    @Override
+    public boolean hasOpeningHours() {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.matrix;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.opentripplanner.raptor.api.model.RaptorConstants;
+import org.opentripplanner.raptor.api.response.StopArrivalTimesConsumer;
+
+/**
+ * Write a stop-to-stop travel-time matrix to a compact binary file, one row at the time while the
+ * many-to-many search is running.
+ * <p>
+ * The file starts with the magic string {@code OTPTTM01}, the departure time in epoch seconds and
+ * the number of stops followed by the stop ids in the order of the stop index. Then follows one
+ * row for each origin stop, with the travel time in seconds to each destination stop. Stops not
+ * reached are set to {@code -1}. All numbers are big-endian, as written by
+ * {@link DataOutputStream}, and the stop ids are written with {@link DataOutputStream#writeUTF}.
+ */
+public class TravelTimeMatrixWriter implements StopArrivalTimesConsumer, Closeable {
+
+  static final byte[] MAGIC = "OTPTTM01".getBytes(StandardCharsets.US_ASCII);
+  static final int NOT_REACHED = -1;
+
+  private final DataOutputStream out;
+  private final int nStops;
+  private final int departureTime;
+  private int nRows = 0;
+
+  /**
+   * @param departureTime The departure time in seconds relative to the transit search time zero,
+   *                      the travel times are calculated from this time.
+   * @param departureEpochSecond The departure time written to the header.
+   */
+  public TravelTimeMatrixWriter(
+    OutputStream out,
+    List<String> stopIds,
+    int departureTime,
+    long departureEpochSecond
+  ) {
+    this.out = new DataOutputStream(out);
+    this.nStops = stopIds.size();
+    this.departureTime = departureTime;
+    try {
+      this.out.write(MAGIC);
+      this.out.writeLong(departureEpochSecond);
+      this.out.writeInt(nStops);
+      for (String stopId : stopIds) {
+        this.out.writeUTF(stopId);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void accept(int origin, int[] arrivalTimes) {
+    if (origin != nRows) {
+      throw new IllegalStateException("Expected row " + nRows + ", but got " + origin);
+    }
+    try {
+      for (int stop = 0; stop < nStops; ++stop) {
+        int time = arrivalTimes[stop];
+        out.writeInt(time == RaptorConstants.TIME_NOT_SET ? NOT_REACHED : time - departureTime);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    ++nRows;
+  }
+
+  /**
+   * The number of origin rows written.
+   */
+  public int rows() {
+    return nRows;
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+}
@@ -1,69 +1,212 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit;
 
-import static java.util.stream.Collectors.toMap;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.function.Function;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
 import org.opentripplanner.raptor.api.model.RaptorTransfer;
 import org.opentripplanner.street.search.request.StreetSearchRequest;
 
+/**
+ * The transfers for one set of street relevant request options. The stops and transfers are shared
+ * with the other indexes in the {@link TransfersByStop}, only the duration and cost of each
+ * transfer is stored here. The transfers are iterated with a flyweight cursor, so iterating does
+ * not create an object for each transfer. A Raptor worker reuses one cursor for all stops.
+ * <p>
+ * The immutable copy of a transfer, which Raptor keeps in the stop arrivals, is created each time
+ * it is asked for and not kept. So the memory used by each index is the duration and cost arrays
+ * only.
+ */
 public class RaptorTransferIndex {
 
-  private final List<RaptorTransfer>[] forwardTransfers;
+  /**
+   * Marks a transfer which is not possible for the request, or where a cheaper transfer to the
+   * same stop exist.
+   */
+  private static final int NOT_AVAILABLE = -1;
 
-  private final List<RaptorTransfer>[] reversedTransfers;
+  private static final AtomicLong ID_SEQUENCE = new AtomicLong();
 
-  public RaptorTransferIndex(
-    List<List<RaptorTransfer>> forwardTransfers,
-    List<List<RaptorTransfer>> reversedTransfers
-  ) {
-    // Create immutable copies of the lists for each stop to make them immutable and faster to iterate
-    this.forwardTransfers = forwardTransfers.stream().map(List::copyOf).toArray(List[]::new);
-    this.reversedTransfers = reversedTransfers.stream().map(List::copyOf).toArray(List[]::new);
+  /** Identify this index in cache keys without holding a reference to it. */
+  private final long id = ID_SEQUENCE.incrementAndGet();
+
+  private final TransfersByStop transfers;
+
+  private final int[] durationInSeconds;
+
+  private final int[] c1;
+
+  private RaptorTransferIndex(TransfersByStop transfers, int[] durationInSeconds, int[] c1) {
+    this.transfers = transfers;
+    this.durationInSeconds = durationInSeconds;
+    this.c1 = c1;
   }
 
   public static RaptorTransferIndex create(
-    List<List<Transfer>> transfersByStopIndex,
+    TransfersByStop transfers,
     StreetSearchRequest request
   ) {
-    var forwardTransfers = new ArrayList<List<RaptorTransfer>>(transfersByStopIndex.size());
-    var reversedTransfers = new ArrayList<List<RaptorTransfer>>(transfersByStopIndex.size());
+    var durationInSeconds = new int[transfers.numberOfTransfers()];
+    var c1 = new int[transfers.numberOfTransfers()];
+    Arrays.fill(durationInSeconds, NOT_AVAILABLE);
 
-    for (int i = 0; i < transfersByStopIndex.size(); i++) {
-      forwardTransfers.add(new ArrayList<>());
-      reversedTransfers.add(new ArrayList<>());
+    for (int fromStop = 0; fromStop < transfers.numberOfStops(); fromStop++) {
+      // The transfers are filtered so that there is only one possible directional transfer
+      // for a stop pair. The transfers to the same stop are next to each other.
+      int bestSlot = NOT_AVAILABLE;
+      int end = transfers.fromOffset(fromStop + 1);
+
+      for (int slot = transfers.fromOffset(fromStop); slot < end; slot++) {
+        var transfer = transfers.transfer(slot).asRaptorTransfer(request);
+        if (transfer.isEmpty()) {
+          continue;
+        }
+        if (bestSlot != NOT_AVAILABLE && transfers.toStop(bestSlot) != transfers.toStop(slot)) {
+          bestSlot = NOT_AVAILABLE;
+        }
+        if (bestSlot != NOT_AVAILABLE && c1[bestSlot] < transfer.get().c1()) {
+          continue;
+        }
+        if (bestSlot != NOT_AVAILABLE) {
+          durationInSeconds[bestSlot] = NOT_AVAILABLE;
+        }
+        durationInSeconds[slot] = transfer.get().durationInSeconds();
+        c1[slot] = transfer.get().c1();
+        bestSlot = slot;
+      }
     }
+    return new RaptorTransferIndex(transfers, durationInSeconds, c1);
+  }
 
-    for (int fromStop = 0; fromStop < transfersByStopIndex.size(); fromStop++) {
-      // The transfers are filtered so that there is only one possible directional transfer
-      // for a stop pair.
-      var transfers = transfersByStopIndex
-        .get(fromStop)
-        .stream()
-        .flatMap(s -> s.asRaptorTransfer(request).stream())
-        .collect(
-          toMap(RaptorTransfer::stop, Function.identity(), (a, b) -> a.c1() < b.c1() ? a : b)
-        )
-        .values();
-
-      forwardTransfers.get(fromStop).addAll(transfers);
-
-      for (RaptorTransfer forwardTransfer : transfers) {
-        reversedTransfers
-          .get(forwardTransfer.stop())
-          .add(DefaultRaptorTransfer.reverseOf(fromStop, forwardTransfer));
+  public long id() {
+    return id;
+  }
+
+  public Iterator<RaptorTransfer> getForwardTransfers(int stopIndex) {
+    return new ForwardCursor().reset(stopIndex);
+  }
+
+  public Iterator<RaptorTransfer> getReversedTransfers(int stopIndex) {
+    return new ReverseCursor().reset(stopIndex);
+  }
+
+  /**
+   * Return a function returning the same as {@link #getForwardTransfers(int)}, but reusing one
+   * cursor. The cursor is reset for each call, so the function must only be used by one thread.
+   */
+  public IntFunction<Iterator<? extends RaptorTransfer>> forwardTransfersCursor() {
+    var cursor = new ForwardCursor();
+    return cursor::reset;
+  }
+
+  /** Same as {@link #forwardTransfersCursor()}, but for the {@link #getReversedTransfers(int)}. */
+  public IntFunction<Iterator<? extends RaptorTransfer>> reversedTransfersCursor() {
+    var cursor = new ReverseCursor();
+    return cursor::reset;
+  }
+
+  /**
+   * Both the iterator and the current transfer. Raptor calls {@link #asImmutable()} before it
+   * keeps a reference to the transfer.
+   */
+  private abstract class TransferCursor implements Iterator<RaptorTransfer>, RaptorTransfer {
+
+    private int end;
+    private int next;
+    int current = NOT_AVAILABLE;
+    int slot = NOT_AVAILABLE;
+
+    /** Move the cursor to the first transfer of the given stop, and return it. */
+    abstract TransferCursor reset(int stopIndex);
+
+    abstract int slot(int index);
+
+    final TransferCursor reset(int start, int end) {
+      this.next = start;
+      this.end = end;
+      this.current = NOT_AVAILABLE;
+      this.slot = NOT_AVAILABLE;
+      return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (next < end) {
+        if (durationInSeconds[slot(next)] != NOT_AVAILABLE) {
+          return true;
+        }
+        ++next;
+      }
+      return false;
+    }
+
+    @Override
+    public RaptorTransfer next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
       }
+      current = next++;
+      slot = slot(current);
+      return this;
+    }
+
+    @Override
+    public int c1() {
+      return c1[slot];
+    }
+
+    @Override
+    public int durationInSeconds() {
+      return durationInSeconds[slot];
     }
 
-    return new RaptorTransferIndex(forwardTransfers, reversedTransfers);
+    @Override
+    public RaptorTransfer asImmutable() {
+      return new DefaultRaptorTransfer(stop(), durationInSeconds(), c1(), transfers.transfer(slot));
+    }
+
+    @Override
+    public String toString() {
+      return asString();
+    }
   }
 
-  public List<RaptorTransfer> getForwardTransfers(int stopIndex) {
-    return forwardTransfers[stopIndex];
+  private final class ForwardCursor extends TransferCursor {
+
+    @Override
+    ForwardCursor reset(int stopIndex) {
+      reset(transfers.fromOffset(stopIndex), transfers.fromOffset(stopIndex + 1));
+      return this;
+    }
+
+    @Override
+    int slot(int index) {
+      return index;
+    }
+
+    @Override
+    public int stop() {
+      return transfers.toStop(slot);
+    }
   }
 
-  public List<RaptorTransfer> getReversedTransfers(int stopIndex) {
-    return reversedTransfers[stopIndex];
+  private final class ReverseCursor extends TransferCursor {
+
+    @Override
+    ReverseCursor reset(int stopIndex) {
+      reset(transfers.toOffset(stopIndex), transfers.toOffset(stopIndex + 1));
+      return this;
+    }
+
+    @Override
+    int slot(int index) {
+      return transfers.reverseSlot(index);
+    }
+
+    @Override
+    public int stop() {
+      return transfers.reverseFromStop(current);
+    }
   }
 }
@@ -1,6 +1,8 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit;
 
+import java.util.Arrays;
 import java.util.Map;
+import java.util.Objects;
 import org.opentripplanner.raptor.spi.RaptorSlackProvider;
 import org.opentripplanner.routing.api.request.framework.DurationForEnum;
 import org.opentripplanner.transit.model.basic.TransitMode;
@@ -54,6 +56,27 @@ public final class SlackProvider implements RaptorSlackProvider {
     return alightSlack[slackIndex];
   }
 
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    SlackProvider that = (SlackProvider) o;
+    return (
+      transferSlack == that.transferSlack &&
+      Arrays.equals(boardSlack, that.boardSlack) &&
+      Arrays.equals(alightSlack, that.alightSlack)
+    );
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(transferSlack, Arrays.hashCode(boardSlack), Arrays.hashCode(alightSlack));
+  }
+
   /* private methods */
 
   private static int[] slackByMode(DurationForEnum<TransitMode> slack) {
@@ -0,0 +1,125 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A compact, read-only encoding of the transfers between stops, using the compressed sparse row
+ * (CSR) format. The transfers from each stop are stored in consecutive slots, sorted on the target
+ * stop. A second index lists the slots by target stop, to find the transfers arriving at a stop.
+ * <p>
+ * The structure only depends on the transfers in the graph, not on the request. It is shared by
+ * all {@link RaptorTransferIndex} instances, which only store the duration and cost of each slot.
+ */
+public final class TransfersByStop {
+
+  /** The slots for transfers from stop {@code s} are {@code [fromOffsets[s], fromOffsets[s+1])}. */
+  private final int[] fromOffsets;
+  private final int[] toStops;
+  private final Transfer[] transfers;
+
+  /** Index into {@code reverseSlots} for the transfers arriving at each stop. */
+  private final int[] toOffsets;
+  private final int[] reverseSlots;
+  private final int[] reverseFromStops;
+
+  private TransfersByStop(
+    int[] fromOffsets,
+    int[] toStops,
+    Transfer[] transfers,
+    int[] toOffsets,
+    int[] reverseSlots,
+    int[] reverseFromStops
+  ) {
+    this.fromOffsets = fromOffsets;
+    this.toStops = toStops;
+    this.transfers = transfers;
+    this.toOffsets = toOffsets;
+    this.reverseSlots = reverseSlots;
+    this.reverseFromStops = reverseFromStops;
+  }
+
+  public static TransfersByStop create(List<List<Transfer>> transfersByStopIndex) {
+    int nStops = transfersByStopIndex.size();
+    int nTransfers = transfersByStopIndex.stream().mapToInt(List::size).sum();
+
+    var fromOffsets = new int[nStops + 1];
+    var toStops = new int[nTransfers];
+    var transfers = new Transfer[nTransfers];
+    var toOffsets = new int[nStops + 1];
+
+    int slot = 0;
+    for (int fromStop = 0; fromStop < nStops; ++fromStop) {
+      fromOffsets[fromStop] = slot;
+      // The sort is stable, so transfers to the same stop keep their order
+      var sorted = transfersByStopIndex
+        .get(fromStop)
+        .stream()
+        .sorted(Comparator.comparingInt(Transfer::getToStop))
+        .toList();
+      for (Transfer it : sorted) {
+        toStops[slot] = it.getToStop();
+        transfers[slot] = it;
+        ++toOffsets[it.getToStop() + 1];
+        ++slot;
+      }
+    }
+    fromOffsets[nStops] = slot;
+
+    for (int stop = 0; stop < nStops; ++stop) {
+      toOffsets[stop + 1] += toOffsets[stop];
+    }
+
+    // Listing the slots in from stop order keeps the reverse transfers sorted on the from stop
+    var reverseSlots = new int[nTransfers];
+    var reverseFromStops = new int[nTransfers];
+    var next = toOffsets.clone();
+    for (int fromStop = 0; fromStop < nStops; ++fromStop) {
+      for (int s = fromOffsets[fromStop]; s < fromOffsets[fromStop + 1]; ++s) {
+        int i = next[toStops[s]]++;
+        reverseSlots[i] = s;
+        reverseFromStops[i] = fromStop;
+      }
+    }
+    return new TransfersByStop(
+      fromOffsets,
+      toStops,
+      transfers,
+      toOffsets,
+      reverseSlots,
+      reverseFromStops
+    );
+  }
+
+  int numberOfStops() {
+    return fromOffsets.length - 1;
+  }
+
+  int numberOfTransfers() {
+    return toStops.length;
+  }
+
+  int fromOffset(int stop) {
+    return fromOffsets[stop];
+  }
+
+  int toOffset(int stop) {
+    return toOffsets[stop];
+  }
+
+  int toStop(int slot) {
+    return toStops[slot];
+  }
+
+  Transfer transfer(int slot) {
+    return transfers[slot];
+  }
+
+  int reverseSlot(int index) {
+    return reverseSlots[index];
+  }
+
+  int reverseFromStop(int index) {
+    return reverseFromStops[index];
+  }
+}
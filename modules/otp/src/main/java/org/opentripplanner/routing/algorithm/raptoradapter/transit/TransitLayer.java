@@ -6,12 +6,14 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.opentripplanner.model.transfer.TransferService;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.ConstrainedTransfersForPatterns;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.TransferIndexGenerator;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRequestTransferCache;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRequestTransitDataCache;
 import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.transit.model.site.StopLocation;
 import org.opentripplanner.transit.service.StopModel;
@@ -29,19 +31,37 @@ import org.opentripplanner.transit.service.StopModel;
  */
 public class TransitLayer {
 
+  private static final AtomicLong VERSION_SEQUENCE = new AtomicLong();
+
+  /**
+   * Identify this instance without holding a reference to it. A realtime update publishes a new
+   * copy, which get a new version.
+   */
+  private final long version = VERSION_SEQUENCE.incrementAndGet();
+
+  /**
+   * Set when a realtime update has published a new copy of this layer. Requests already using this
+   * layer may still run, but their data should not be cached.
+   */
+  private volatile boolean replaced = false;
+
   /**
    * Transit data required for routing, indexed by each local date(Graph TimeZone) it runs through.
    * A Trip "runs through" a date if any of its arrivals or departures is happening on that date.
    * The same trip pattern can therefore have multiple running dates and trip pattern is not
    * required to "run" on its service date.
+   * <p>
+   * The collections are never modified after they are added to the map. The
+   * {@link org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.TransitLayerUpdater}
+   * replaces the collection for a date with a new version, which shares most of its structure
+   * with the old one.
    */
-  private final HashMap<LocalDate, List<TripPatternForDate>> tripPatternsRunningOnDate;
+  private final HashMap<LocalDate, Collection<TripPatternForDate>> tripPatternsRunningOnDate;
 
   /**
-   * Index of outer list is from stop index, inner list index has no specific meaning. To stop index
-   * is a field of the Transfer object.
+   * The transfers between stops, shared by all the cached {@link RaptorTransferIndex}es.
    */
-  private final List<List<Transfer>> transfersByStopIndex;
+  private final TransfersByStop transfersByStop;
 
   /**
    * Trip to trip transfers like with properties like guaranteedTransfer, staySeated and priority.
@@ -52,6 +72,8 @@ public class TransitLayer {
 
   private final RaptorRequestTransferCache transferCache;
 
+  private final RaptorRequestTransitDataCache transitDataCache;
+
   private ConstrainedTransfersForPatterns constrainedTransfers;
 
   private final TransferIndexGenerator transferIndexGenerator;
@@ -67,36 +89,82 @@ public class TransitLayer {
   public TransitLayer(TransitLayer transitLayer) {
     this(
       transitLayer.tripPatternsRunningOnDate,
-      transitLayer.transfersByStopIndex,
+      transitLayer.transfersByStop,
       transitLayer.transferService,
       transitLayer.stopModel,
       transitLayer.transferCache,
+      transitLayer.transitDataCache,
       transitLayer.constrainedTransfers,
       transitLayer.transferIndexGenerator,
       transitLayer.stopBoardAlightTransferCosts
     );
   }
 
+  /**
+   * @param transfersByStopIndex Index of outer list is from stop index, inner list index has no
+   *                             specific meaning. To stop index is a field of the Transfer object.
+   */
   public TransitLayer(
-    Map<LocalDate, List<TripPatternForDate>> tripPatternsRunningOnDate,
+    Map<LocalDate, ? extends Collection<TripPatternForDate>> tripPatternsRunningOnDate,
     List<List<Transfer>> transfersByStopIndex,
     TransferService transferService,
     StopModel stopModel,
     RaptorRequestTransferCache transferCache,
+    RaptorRequestTransitDataCache transitDataCache,
+    ConstrainedTransfersForPatterns constrainedTransfers,
+    TransferIndexGenerator transferIndexGenerator,
+    @Nullable int[] stopBoardAlightTransferCosts
+  ) {
+    this(
+      tripPatternsRunningOnDate,
+      transfersByStopIndex == null ? null : TransfersByStop.create(transfersByStopIndex),
+      transferService,
+      stopModel,
+      transferCache,
+      transitDataCache,
+      constrainedTransfers,
+      transferIndexGenerator,
+      stopBoardAlightTransferCosts
+    );
+  }
+
+  private TransitLayer(
+    Map<LocalDate, ? extends Collection<TripPatternForDate>> tripPatternsRunningOnDate,
+    TransfersByStop transfersByStop,
+    TransferService transferService,
+    StopModel stopModel,
+    RaptorRequestTransferCache transferCache,
+    RaptorRequestTransitDataCache transitDataCache,
     ConstrainedTransfersForPatterns constrainedTransfers,
     TransferIndexGenerator transferIndexGenerator,
     @Nullable int[] stopBoardAlightTransferCosts
   ) {
     this.tripPatternsRunningOnDate = new HashMap<>(tripPatternsRunningOnDate);
-    this.transfersByStopIndex = transfersByStopIndex;
+    this.transfersByStop = transfersByStop;
     this.transferService = transferService;
     this.stopModel = stopModel;
     this.transferCache = transferCache;
+    this.transitDataCache = transitDataCache;
     this.constrainedTransfers = constrainedTransfers;
     this.transferIndexGenerator = transferIndexGenerator;
     this.stopBoardAlightTransferCosts = stopBoardAlightTransferCosts;
   }
 
+  public long getVersion() {
+    return version;
+  }
+
+  public boolean isReplaced() {
+    return replaced;
+  }
+
+  /**
+   * Mark this layer as replaced by a newer copy, see {@link #isReplaced()}.
+   */
+  public void markAsReplaced() {
+    this.replaced = true;
+  }
+
   @Nullable
   public StopLocation getStopByIndex(int stop) {
     return stop == -1 ? null : this.stopModel.stopByIndex(stop);
@@ -121,7 +189,9 @@ public class TransitLayer {
    * or departures is happening on that date. Trip pattern can have multiple running dates.
    */
   public List<TripPatternForDate> getTripPatternsRunningOnDateCopy(LocalDate runningPeriodDate) {
-    List<TripPatternForDate> tripPatternForDate = tripPatternsRunningOnDate.get(runningPeriodDate);
+    Collection<TripPatternForDate> tripPatternForDate = tripPatternsRunningOnDate.get(
+      runningPeriodDate
+    );
     return tripPatternForDate != null ? new ArrayList<>(tripPatternForDate) : new ArrayList<>();
   }
 
@@ -146,17 +216,24 @@ public class TransitLayer {
   }
 
   public RaptorTransferIndex getRaptorTransfersForRequest(RouteRequest request) {
-    return transferCache.get(transfersByStopIndex, request);
+    return transferCache.get(transfersByStop, request);
   }
 
   public void initTransferCacheForRequest(RouteRequest request) {
-    transferCache.put(transfersByStopIndex, request);
+    transferCache.put(transfersByStop, request);
   }
 
   public RaptorRequestTransferCache getTransferCache() {
     return transferCache;
   }
 
+  /**
+   * The cache is shared with the copies of this layer, the entries are keyed on the layer instance.
+   */
+  public RaptorRequestTransitDataCache getTransitDataCache() {
+    return transitDataCache;
+  }
+
   @Nullable
   public ConstrainedTransfersForPatterns getConstrainedTransfers() {
     return constrainedTransfers;
@@ -177,11 +254,11 @@ public class TransitLayer {
 
   /**
    * Replaces all the TripPatternForDates for a single date. This is an atomic operation according
-   * to the HashMap implementation.
+   * to the HashMap implementation. The given collection must not be modified after this call.
    */
   public void replaceTripPatternsForDate(
     LocalDate date,
-    List<TripPatternForDate> tripPatternForDates
+    Collection<TripPatternForDate> tripPatternForDates
   ) {
     this.tripPatternsRunningOnDate.replace(date, tripPatternForDates);
   }
@@ -47,6 +47,11 @@ public interface TransitTuningParameters {
       return 5;
     }
 
+    @Override
+    public int transitDataCacheMaxSize() {
+      return 5;
+    }
+
     @Override
     public Duration maxSearchWindow() {
       return Duration.ofHours(24);
@@ -83,6 +88,14 @@ public interface TransitTuningParameters {
    */
   int transferCacheMaxSize();
 
+  /**
+   * The maximum number of filtered trip pattern sets for which the Raptor transit data should be
+   * cached. Requests searching the same days with the same transit filter share the cached data.
+   * Each entry contains the trip times of all the patterns running on the searched days, so it
+   * can be large. Set to zero to disable the cache.
+   */
+  int transitDataCacheMaxSize();
+
   /**
    * The maximum search window that can be set through the searchWindow API parameter. Due to the
    * way timetable data are collected before a Raptor trip search, using a search window larger than
@@ -3,7 +3,6 @@ package org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.SetMultimap;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -12,6 +11,7 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.stream.Collectors;
 import org.opentripplanner.framework.application.OTPFeature;
+import org.opentripplanner.framework.collection.PersistentSet;
 import org.opentripplanner.model.Timetable;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
@@ -29,6 +29,11 @@ import org.slf4j.LoggerFactory;
  * id and replaced by their updated versions. The realtime TransitLayer is then switched out with
  * the updated copy in an atomic operation. This ensures that any TransitLayer that is referenced
  * from the Graph is never changed.
+ * <p>
+ * The trip patterns running on each updated date are kept in a {@link PersistentSet}, so only the
+ * changed TripPatternForDates are patched, and the new version is handed to the TransitLayer
+ * without copying the whole list for the date. The cost of an update is therefore proportional to
+ * the number of updated timetables, not to the number of patterns running on the affected dates.
  *
  * This is a way of keeping the TransitLayer up to date (in sync with the TransitModel plus its most
  * recent TimetableSnapshot) without repeatedly deriving it from scratch every few seconds. The same
@@ -53,7 +58,8 @@ public class TransitLayerUpdater {
    */
   private final Map<TripIdAndServiceDate, TripPatternForDate> tripPatternsForTripIdAndServiceDateCache = new HashMap<>();
 
-  private final Map<LocalDate, Set<TripPatternForDate>> tripPatternsRunningOnDateMapCache = new HashMap<>();
+  /** The TripPatternForDates running on each date updated so far. */
+  private final Map<LocalDate, PersistentSet<TripPatternForDate>> tripPatternsRunningOnDateMapCache = new HashMap<>();
 
   public TransitLayerUpdater(TransitEditorService transitService) {
     this.transitService = transitService;
@@ -71,7 +77,8 @@ public class TransitLayerUpdater {
 
     // Make a shallow copy of the realtime transit layer. Only the objects that are copied will be
     // changed during this update process.
-    TransitLayer realtimeTransitLayer = new TransitLayer(transitService.getRealtimeTransitLayer());
+    TransitLayer previousTransitLayer = transitService.getRealtimeTransitLayer();
+    TransitLayer realtimeTransitLayer = new TransitLayer(previousTransitLayer);
 
     // Instantiate a TripPatternForDateMapper with the new TripPattern mappings
     TripPatternForDateMapper tripPatternForDateMapper = new TripPatternForDateMapper(
@@ -155,13 +162,12 @@ public class TransitLayerUpdater {
     // Now loop through all running period dates of old and new TripPatternsForDate and update
     // the tripPatternsByRunningPeriodDate accordingly
     for (LocalDate date : datesToBeUpdated) {
-      tripPatternsRunningOnDateMapCache.computeIfAbsent(
+      var patternsForDate = tripPatternsRunningOnDateMapCache.computeIfAbsent(
         date,
-        p -> new HashSet<>(realtimeTransitLayer.getTripPatternsRunningOnDateCopy(date))
+        d -> PersistentSet.copyOf(realtimeTransitLayer.getTripPatternsForRunningDate(d))
       );
 
       // Remove old cached tripPatterns where tripTimes are no longer running
-      Set<TripPatternForDate> patternsForDate = tripPatternsRunningOnDateMapCache.get(date);
 
       for (Map.Entry<TripPattern, Collection<TripPatternForDate>> entry : oldTripPatternsForDate
         .asMap()
@@ -170,7 +176,7 @@ public class TransitLayerUpdater {
           // Remove old TripPatternForDate for this date if it was valid on this date
           if (oldTripPatternForDate != null) {
             if (oldTripPatternForDate.getRunningPeriodDates().contains(date)) {
-              patternsForDate.remove(oldTripPatternForDate);
+              patternsForDate = patternsForDate.minus(oldTripPatternForDate);
             }
           }
         }
@@ -192,7 +198,7 @@ public class TransitLayerUpdater {
               .orElse(false);
 
             if (toRemove) {
-              patternsForDate.remove(tripPatternForDate);
+              patternsForDate = patternsForDate.minus(tripPatternForDate);
             }
           } else {
             LOG.warn("Could not fetch timetable for {}", pattern);
@@ -207,13 +213,14 @@ public class TransitLayerUpdater {
           // Add new TripPatternForDate for this date if it mapped correctly and is valid on this date
           if (newTripPatternForDate != null) {
             if (newTripPatternForDate.getRunningPeriodDates().contains(date)) {
-              patternsForDate.add(newTripPatternForDate);
+              patternsForDate = patternsForDate.plus(newTripPatternForDate);
             }
           }
         }
       }
 
-      realtimeTransitLayer.replaceTripPatternsForDate(date, new ArrayList<>(patternsForDate));
+      tripPatternsRunningOnDateMapCache.put(date, patternsForDate);
+      realtimeTransitLayer.replaceTripPatternsForDate(date, patternsForDate);
     }
 
     if (transferIndexGenerator != null) {
@@ -224,6 +231,9 @@ public class TransitLayerUpdater {
     // guarantee that the reference is set after all the fields have been updated.
     transitService.setRealtimeTransitLayer(realtimeTransitLayer);
 
+    // The cached transit data for the replaced layer will not be used by new requests
+    previousTransitLayer.getTransitDataCache().invalidate(previousTransitLayer);
+
     LOG.debug(
       "UPDATING {} tripPatterns took {} ms",
       updatedTimetables.size(),
@@ -3,12 +3,19 @@ package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
 import org.opentripplanner.framework.tostring.ToStringBuilder;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.RaptorTransferIndex;
-import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransfersByStop;
 import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.routing.api.request.StreetMode;
 import org.opentripplanner.routing.api.request.preference.BikePreferences;
@@ -20,34 +27,66 @@ import org.opentripplanner.street.search.request.StreetSearchRequestMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class RaptorRequestTransferCache {
+/**
+ * Cache the transfers for each set of street relevant request options. When the cache is bound to
+ * a meter registry, the cache hits, misses, evictions and the time used to build the transfer
+ * indexes are reported with the {@code raptorTransfersCache} name and the
+ * {@code cache=raptorTransfers} tag.
+ */
+public class RaptorRequestTransferCache implements MeterBinder {
 
   private static final Logger LOG = LoggerFactory.getLogger(RaptorRequestTransferCache.class);
+  private static final String METRICS_NAME = "raptorTransfersCache";
 
   private final LoadingCache<CacheKey, RaptorTransferIndex> transferCache;
 
+  /** The time used to build transfer indexes when the cache is initialized at startup. */
+  @Nullable
+  private Timer initTimer;
+
+  /** The time used to build transfer indexes for requests not found in the cache. */
+  @Nullable
+  private Timer requestTimer;
+
   public RaptorRequestTransferCache(int maximumSize) {
-    transferCache = CacheBuilder.newBuilder().maximumSize(maximumSize).build(cacheLoader());
+    transferCache =
+      CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build(cacheLoader());
+  }
+
+  /**
+   * Report the cache statistics and the build times to the given registry. This is done once when
+   * the application is wired up, before the cache is initialized.
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    new GuavaCacheMetrics<>(
+      transferCache,
+      METRICS_NAME,
+      List.of(Tag.of("cache", "raptorTransfers"))
+    )
+      .bindTo(registry);
+    initTimer = buildTimer(registry, "init");
+    requestTimer = buildTimer(registry, "request");
   }
 
   public LoadingCache<CacheKey, RaptorTransferIndex> getTransferCache() {
     return transferCache;
   }
 
-  public void put(List<List<Transfer>> transfersByStopIndex, RouteRequest request) {
-    final CacheKey cacheKey = new CacheKey(transfersByStopIndex, request);
-    final RaptorTransferIndex raptorTransferIndex = RaptorTransferIndex.create(
-      transfersByStopIndex,
-      cacheKey.request
+  public void put(TransfersByStop transfersByStop, RouteRequest request) {
+    final CacheKey cacheKey = new CacheKey(transfersByStop, request);
+    final RaptorTransferIndex raptorTransferIndex = record(
+      initTimer,
+      () -> RaptorTransferIndex.create(transfersByStop, cacheKey.request)
     );
 
     LOG.info("Initializing cache with request: {}", cacheKey.options);
     transferCache.put(cacheKey, raptorTransferIndex);
   }
 
-  public RaptorTransferIndex get(List<List<Transfer>> transfersByStopIndex, RouteRequest request) {
+  public RaptorTransferIndex get(TransfersByStop transfersByStop, RouteRequest request) {
     try {
-      return transferCache.get(new CacheKey(transfersByStopIndex, request));
+      return transferCache.get(new CacheKey(transfersByStop, request));
     } catch (ExecutionException e) {
       throw new RuntimeException("Failed to get item from transfer cache", e);
     }
@@ -58,26 +97,44 @@ public class RaptorRequestTransferCache {
       @Override
       public RaptorTransferIndex load(CacheKey cacheKey) {
         LOG.info("Adding runtime request to cache: {}", cacheKey.options);
-        return RaptorTransferIndex.create(cacheKey.transfersByStopIndex, cacheKey.request);
+        return record(
+          requestTimer,
+          () -> RaptorTransferIndex.create(cacheKey.transfersByStop, cacheKey.request)
+        );
       }
     };
   }
 
+  private static RaptorTransferIndex record(
+    @Nullable Timer timer,
+    Supplier<RaptorTransferIndex> create
+  ) {
+    return timer == null ? create.get() : timer.record(create);
+  }
+
+  private static Timer buildTimer(MeterRegistry registry, String trigger) {
+    return Timer
+      .builder(METRICS_NAME + ".build")
+      .description("Time used to build the transfer index for a request")
+      .tag("trigger", trigger)
+      .register(registry);
+  }
+
   private static class CacheKey {
 
-    private final List<List<Transfer>> transfersByStopIndex;
+    private final TransfersByStop transfersByStop;
     private final StreetSearchRequest request;
     private final StreetRelevantOptions options;
 
-    private CacheKey(List<List<Transfer>> transfersByStopIndex, RouteRequest request) {
-      this.transfersByStopIndex = transfersByStopIndex;
+    private CacheKey(TransfersByStop transfersByStop, RouteRequest request) {
+      this.transfersByStop = transfersByStop;
       this.request = StreetSearchRequestMapper.mapToTransferRequest(request).build();
       this.options = new StreetRelevantOptions(this.request);
     }
 
     @Override
     public int hashCode() {
-      // transfersByStopIndex is ignored on purpose since it should not change (there is only
+      // transfersByStop is ignored on purpose since it should not change (there is only
       // one instance per graph) and calculating the hashCode() would be expensive
       return options.hashCode();
     }
@@ -91,11 +148,9 @@ public class RaptorRequestTransferCache {
         return false;
       }
       CacheKey cacheKey = (CacheKey) o;
-      // transfersByStopIndex is checked using == on purpose since the instance should not change
+      // transfersByStop is checked using == on purpose since the instance should not change
       // (there is only one instance per graph)
-      return (
-        transfersByStopIndex == cacheKey.transfersByStopIndex && options.equals(cacheKey.options)
-      );
+      return transfersByStop == cacheKey.transfersByStop && options.equals(cacheKey.options);
     }
   }
 
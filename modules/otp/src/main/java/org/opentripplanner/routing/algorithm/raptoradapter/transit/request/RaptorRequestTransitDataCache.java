@@ -0,0 +1,142 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
+
+/**
+ * Cache the trip patterns used by {@link RaptorRoutingRequestTransitData}. Merging the trip
+ * schedules of several days into {@link TripPatternForDates} is expensive, and most requests
+ * search the same days with the same filter. The cached patterns are read-only and shared between
+ * requests.
+ * <p>
+ * The key is the {@link TransitLayer} version, the search days and the
+ * {@link TransitDataProviderFilter}. A realtime update publishes a new TransitLayer, the entries
+ * for the replaced layer are then removed with {@link #invalidate(TransitLayer)}. Requests still
+ * running on a replaced layer do not add new entries, so the replaced layer is not kept in memory
+ * by the cache. When the cache
+ * is bound to a meter registry, the cache hits, misses, evictions and the time used to create the
+ * patterns are reported with the {@code raptorTransitDataCache} name and the
+ * {@code cache=raptorTransitData} tag.
+ */
+public class RaptorRequestTransitDataCache implements MeterBinder {
+
+  private static final String METRICS_NAME = "raptorTransitDataCache";
+
+  private final Cache<CacheKey, TripPatterns> cache;
+
+  @Nullable
+  private Timer buildTimer;
+
+  public RaptorRequestTransitDataCache(int maximumSize) {
+    this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+  }
+
+  /**
+   * Report the cache statistics and the build time to the given registry. This is done once when
+   * the application is wired up.
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    new GuavaCacheMetrics<>(cache, METRICS_NAME, List.of(Tag.of("cache", "raptorTransitData")))
+      .bindTo(registry);
+    this.buildTimer =
+      Timer
+        .builder(METRICS_NAME + ".build")
+        .description("Time used to create the trip patterns for a request")
+        .register(registry);
+  }
+
+  /**
+   * Mark the given transit layer as replaced and remove all its entries. Call this when the layer
+   * is replaced, requests still using the old layer will create the patterns again.
+   */
+  public void invalidate(TransitLayer transitLayer) {
+    transitLayer.markAsReplaced();
+    long version = transitLayer.getVersion();
+    cache.asMap().keySet().removeIf(key -> key.transitLayerVersion == version);
+  }
+
+  long size() {
+    return cache.size();
+  }
+
+  TripPatterns get(
+    TransitLayer transitLayer,
+    ZonedDateTime transitSearchTimeZero,
+    int additionalPastSearchDays,
+    int additionalFutureSearchDays,
+    TransitDataProviderFilter filter,
+    Supplier<TripPatterns> create
+  ) {
+    if (transitLayer.isReplaced()) {
+      return create.get();
+    }
+    var key = new CacheKey(
+      transitLayer.getVersion(),
+      transitSearchTimeZero,
+      additionalPastSearchDays,
+      additionalFutureSearchDays,
+      filter
+    );
+    TripPatterns tripPatterns;
+    try {
+      tripPatterns =
+        cache.get(key, () -> buildTimer == null ? create.get() : buildTimer.record(create));
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Failed to get item from transit data cache", e);
+    }
+    // The layer may be replaced while the patterns are created, remove the entry if
+    // invalidate(TransitLayer) did not see it
+    if (transitLayer.isReplaced()) {
+      cache.invalidate(key);
+    }
+    return tripPatterns;
+  }
+
+  /**
+   * The trip patterns by pattern index, and the indexes of the active patterns by stop index. The
+   * id is unique for each instance, requests sharing the cached patterns get the same id.
+   */
+  record TripPatterns(
+    long id,
+    List<TripPatternForDates> patternIndex,
+    List<int[]> activeTripPatternsPerStop
+  ) {
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+
+    static TripPatterns of(
+      List<TripPatternForDates> patternIndex,
+      List<int[]> activeTripPatternsPerStop
+    ) {
+      return new TripPatterns(
+        ID_SEQUENCE.incrementAndGet(),
+        patternIndex,
+        activeTripPatternsPerStop
+      );
+    }
+  }
+
+  /**
+   * The transit layer is identified by its version, there is a new version for each realtime
+   * update. The key does not reference the layer, so it does not keep a replaced layer in memory.
+   */
+  private record CacheKey(
+    long transitLayerVersion,
+    ZonedDateTime transitSearchTimeZero,
+    int additionalPastSearchDays,
+    int additionalFutureSearchDays,
+    TransitDataProviderFilter filter
+  ) {}
+}
@@ -4,6 +4,8 @@ import java.time.ZonedDateTime;
 import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.framework.time.ServiceDateUtils;
@@ -16,6 +18,7 @@ import org.opentripplanner.raptor.spi.RaptorConstrainedBoardingSearch;
 import org.opentripplanner.raptor.spi.RaptorCostCalculator;
 import org.opentripplanner.raptor.spi.RaptorPathConstrainedTransferSearch;
 import org.opentripplanner.raptor.spi.RaptorRoute;
+import org.opentripplanner.raptor.spi.RaptorRoutePruningIndex;
 import org.opentripplanner.raptor.spi.RaptorSlackProvider;
 import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
 import org.opentripplanner.raptor.util.BitSetIterator;
@@ -69,6 +72,10 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
 
   private final int validTransitDataEndTime;
 
+  private final HeuristicCacheKey heuristicCacheKey;
+
+  private final RaptorRoutePruningIndex routePruningIndex;
+
   public RaptorRoutingRequestTransitData(
     TransitLayer transitLayer,
     TransitGroupPriorityService transitGroupPriorityService,
@@ -82,21 +89,16 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
     this.transitLayer = transitLayer;
     this.transitSearchTimeZero = transitSearchTimeZero;
 
-    // Delegate to the creator to construct the needed data structures. The code is messy so
-    // it is nice to NOT have it in the class. It isolates this code to only be available at
-    // the time of construction
-    var transitDataCreator = new RaptorRoutingRequestTransitDataCreator(
+    var tripPatterns = createTripPatterns(
       transitLayer,
-      transitSearchTimeZero
-    );
-    List<TripPatternForDates> tripPatterns = transitDataCreator.createTripPatterns(
+      transitGroupPriorityService,
+      transitSearchTimeZero,
       additionalPastSearchDays,
       additionalFutureSearchDays,
-      filter,
-      transitGroupPriorityService
+      filter
     );
-    this.patternIndex = transitDataCreator.createPatternIndex(tripPatterns);
-    this.activeTripPatternsPerStop = transitDataCreator.createTripPatternsPerStop(tripPatterns);
+    this.patternIndex = tripPatterns.patternIndex();
+    this.activeTripPatternsPerStop = tripPatterns.activeTripPatternsPerStop();
     this.transferIndex = transitLayer.getRaptorTransfersForRequest(request);
     this.constrainedTransfers = transitLayer.getConstrainedTransfers();
 
@@ -126,16 +128,77 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
         this.transitSearchTimeZero,
         this.transitSearchTimeZero.plusDays(additionalFutureSearchDays + 1).toInstant()
       );
+    this.routePruningIndex = new TripPatternPruningIndex(patternIndex);
+    this.heuristicCacheKey =
+      new HeuristicCacheKey(tripPatterns.id(), transferIndex.id(), slackProvider);
+  }
+
+  /**
+   * The trip patterns are shared with other requests with the same filter and search days, unless
+   * transit group priority is enabled. The group ids are assigned by the request scoped
+   * {@link TransitGroupPriorityService} while the patterns are created, so they can not be shared.
+   */
+  private static RaptorRequestTransitDataCache.TripPatterns createTripPatterns(
+    TransitLayer transitLayer,
+    TransitGroupPriorityService transitGroupPriorityService,
+    ZonedDateTime transitSearchTimeZero,
+    int additionalPastSearchDays,
+    int additionalFutureSearchDays,
+    TransitDataProviderFilter filter
+  ) {
+    // Delegate to the creator to construct the needed data structures. The code is messy so
+    // it is nice to NOT have it in the class. It isolates this code to only be available at
+    // the time of construction
+    Supplier<RaptorRequestTransitDataCache.TripPatterns> create = () -> {
+      var transitDataCreator = new RaptorRoutingRequestTransitDataCreator(
+        transitLayer,
+        transitSearchTimeZero
+      );
+      List<TripPatternForDates> tripPatterns = transitDataCreator.createTripPatterns(
+        additionalPastSearchDays,
+        additionalFutureSearchDays,
+        filter,
+        transitGroupPriorityService
+      );
+      return RaptorRequestTransitDataCache.TripPatterns.of(
+        transitDataCreator.createPatternIndex(tripPatterns),
+        transitDataCreator.createTripPatternsPerStop(tripPatterns)
+      );
+    };
+
+    if (transitGroupPriorityService.isEnabled()) {
+      return create.get();
+    }
+    return transitLayer
+      .getTransitDataCache()
+      .get(
+        transitLayer,
+        transitSearchTimeZero,
+        additionalPastSearchDays,
+        additionalFutureSearchDays,
+        filter,
+        create
+      );
   }
 
   @Override
   public Iterator<RaptorTransfer> getTransfersFromStop(int stopIndex) {
-    return transferIndex.getForwardTransfers(stopIndex).iterator();
+    return transferIndex.getForwardTransfers(stopIndex);
   }
 
   @Override
   public Iterator<? extends RaptorTransfer> getTransfersToStop(int stopIndex) {
-    return transferIndex.getReversedTransfers(stopIndex).iterator();
+    return transferIndex.getReversedTransfers(stopIndex);
+  }
+
+  @Override
+  public IntFunction<Iterator<? extends RaptorTransfer>> transfersFromStopCursor() {
+    return transferIndex.forwardTransfersCursor();
+  }
+
+  @Override
+  public IntFunction<Iterator<? extends RaptorTransfer>> transfersToStopCursor() {
+    return transferIndex.reversedTransfersCursor();
   }
 
   @Override
@@ -152,6 +215,11 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
     return new BitSetIterator(activeTripPatternsForGivenStops);
   }
 
+  @Override
+  public RaptorRoutePruningIndex routePruningIndex() {
+    return routePruningIndex;
+  }
+
   @Override
   public RaptorRoute<TripSchedule> getRouteForIndex(int routeIndex) {
     return patternIndex.get(routeIndex);
@@ -217,6 +285,11 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
     return validTransitDataEndTime;
   }
 
+  @Override
+  public Object heuristicCacheKey() {
+    return heuristicCacheKey;
+  }
+
   @Override
   public RaptorConstrainedBoardingSearch<TripSchedule> transferConstraintsForwardSearch(
     int routeIndex
@@ -242,4 +315,36 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
     }
     return new ConstrainedBoardingSearch(false, toStopTransfers, fromStopTransfers);
   }
+
+  /**
+   * The heuristic searches return the same result for the same trips, transfers and slack. The
+   * trips are identified by the id of the cached {@link RaptorRequestTransitDataCache.TripPatterns}
+   * and the transfers by the id of the {@link RaptorTransferIndex}. The key does not reference the
+   * transit data, so it does not keep a replaced transit layer or transfer index in memory.
+   * <p>
+   * The patterns are not shared if the transit data cache is disabled or transit group priority
+   * is used, the heuristics are then never found in the cache.
+   */
+  private record HeuristicCacheKey(
+    long tripPatternsId,
+    long transferIndexId,
+    RaptorSlackProvider slackProvider
+  ) {}
+
+  /**
+   * The pruning index uses the times precomputed by each {@link TripPatternForDates}, the
+   * patterns are shared between requests, so the times are only computed once.
+   */
+  private record TripPatternPruningIndex(List<TripPatternForDates> patternIndex)
+    implements RaptorRoutePruningIndex {
+    @Override
+    public int[] latestDepartureTimes(int routeIndex) {
+      return patternIndex.get(routeIndex).latestDepartureTimes();
+    }
+
+    @Override
+    public int[] earliestArrivalTimes(int routeIndex) {
+      return patternIndex.get(routeIndex).earliestArrivalTimes();
+    }
+  }
 }
@@ -12,6 +12,10 @@ import org.opentripplanner.transit.model.timetable.TripTimes;
  * {@link TripPatternForDate} and {@link TripTimes} are filtered based on the request parameters to
  * only included components which are allowed by the request. Such filters may included bike or
  * wheelchair accessibility, banned routes and transit modes.
+ * <p>
+ * The filter is part of the key when the filtered trip patterns are cached, see
+ * {@link RaptorRequestTransitDataCache}. Implementations should implement {@code equals()} and
+ * {@code hashCode()}, so that requests with the same filter can share the cached patterns.
  *
  * @see RouteRequestTransitDataProviderFilter
  */
@@ -1,7 +1,7 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 
 import java.util.BitSet;
-import java.util.function.IntUnaryOperator;
+import javax.annotation.Nullable;
 import org.opentripplanner.framework.tostring.ToStringBuilder;
 import org.opentripplanner.raptor.api.model.RaptorTripPattern;
 import org.opentripplanner.raptor.api.model.SearchDirection;
@@ -53,6 +53,16 @@ public class TripPatternForDates
    */
   private final int[] departureTimes;
 
+  /**
+   * The latest departure and earliest arrival time for each stop position, used to skip patterns
+   * which can not be boarded. These are {@code null} for frequency based patterns.
+   */
+  @Nullable
+  private final int[] latestDepartureTimes;
+
+  @Nullable
+  private final int[] earliestArrivalTimes;
+
   private final Accessibility[] wheelchairBoardings;
 
   // bit arrays with boarding/alighting information for all stops on trip pattern,
@@ -105,6 +115,24 @@ public class TripPatternForDates
         i++;
       }
     }
+
+    if (isFrequencyBased) {
+      this.latestDepartureTimes = null;
+      this.earliestArrivalTimes = null;
+    } else {
+      this.latestDepartureTimes = new int[nStops];
+      this.earliestArrivalTimes = new int[nStops];
+      for (int s = 0; s < nStops; s++) {
+        int latest = Integer.MIN_VALUE;
+        int earliest = Integer.MAX_VALUE;
+        for (int t = 0; t < numberOfTripSchedules; t++) {
+          latest = Math.max(latest, departureTimes[s * numberOfTripSchedules + t]);
+          earliest = Math.min(earliest, arrivalTimes[s * numberOfTripSchedules + t]);
+        }
+        this.latestDepartureTimes[s] = latest;
+        this.earliestArrivalTimes[s] = earliest;
+      }
+    }
   }
 
   public RoutingTripPattern getTripPattern() {
@@ -205,25 +233,39 @@ public class TripPatternForDates
   }
 
   @Override
-  public IntUnaryOperator getArrivalTimes(int stopPositionInPattern) {
-    final int base = stopPositionInPattern * numberOfTripSchedules;
-    return (int index) -> arrivalTimes[base + index];
+  public int[] arrivalTimes() {
+    return arrivalTimes;
   }
 
   @Override
-  public IntUnaryOperator getDepartureTimes(int stopPositionInPattern) {
-    final int base = stopPositionInPattern * numberOfTripSchedules;
-    return (int index) -> departureTimes[base + index];
+  public int[] departureTimes() {
+    return departureTimes;
+  }
+
+  /**
+   * The latest departure time of all trips for each stop position, {@code null} if the pattern is
+   * frequency based.
+   */
+  @Nullable
+  int[] latestDepartureTimes() {
+    return latestDepartureTimes;
+  }
+
+  /**
+   * The earliest arrival time of all trips for each stop position, {@code null} if the pattern is
+   * frequency based.
+   */
+  @Nullable
+  int[] earliestArrivalTimes() {
+    return earliestArrivalTimes;
   }
 
-  public IntUnaryOperator getArrivalTimesForTrip(int index) {
-    return (int stopPositionInPattern) ->
-      arrivalTimes[stopPositionInPattern * numberOfTripSchedules + index];
+  int arrivalTime(int tripIndex, int stopPositionInPattern) {
+    return arrivalTimes[stopPositionInPattern * numberOfTripSchedules + tripIndex];
   }
 
-  public IntUnaryOperator getDepartureTimesForTrip(int index) {
-    return (int stopPositionInPattern) ->
-      departureTimes[stopPositionInPattern * numberOfTripSchedules + index];
+  int departureTime(int tripIndex, int stopPositionInPattern) {
+    return departureTimes[stopPositionInPattern * numberOfTripSchedules + tripIndex];
   }
 
   @Override
@@ -1,6 +1,5 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 
-import java.util.function.IntUnaryOperator;
 import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
 import org.opentripplanner.raptor.spi.RaptorTimeTable;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
@@ -14,16 +13,20 @@ import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
  */
 public interface TripSearchTimetable<T extends RaptorTripSchedule> extends RaptorTimeTable<T> {
   /**
-   * Get the arrival times of all trips at a specific stop index, sorted by time. The returned
-   * function takes the trip index in the TimeTable as input and returns the arrival time as
-   * seconds from midnight on the search date.
+   * Get the arrival times of all trips at all stops as a matrix stored by stop. The arrival time
+   * of a trip at a stop is at index {@code stopPositionInPattern * numberOfTripSchedules() +
+   * tripIndex}, so the times at one stop are sorted by time and next to each other in memory. The
+   * times are seconds from midnight on the search date.
+   * <p>
+   * The returned array is NOT a copy, and must not be modified.
    */
-  IntUnaryOperator getArrivalTimes(int stopPositionInPattern);
+  int[] arrivalTimes();
 
   /**
-   * Get the departure times of all trips at a specific stop index, sorted by time. The returned
-   * function takes the trip index in the TimeTable as input and returns the departure time as
-   * seconds from midnight on the search date.
+   * Get the departure times of all trips at all stops as a matrix stored by stop. The order is
+   * the same as in {@link #arrivalTimes()}.
+   * <p>
+   * The returned array is NOT a copy, and must not be modified.
    */
-  IntUnaryOperator getDepartureTimes(int stopPositionInPattern);
+  int[] departureTimes();
 }
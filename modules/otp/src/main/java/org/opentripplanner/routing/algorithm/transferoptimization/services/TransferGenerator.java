@@ -185,7 +185,7 @@ public class TransferGenerator<T extends RaptorTripSchedule> {
 
         var to = TripStopTime.departure(toTrip, stopPos);
         // Add as a possible result
-        result.add(new TripToTripTransfer<>(from, to, it, tx));
+        result.add(new TripToTripTransfer<>(from, to, it.asImmutable(), tx));
       }
     }
 
@@ -1,5 +1,6 @@
 package org.opentripplanner.routing.graph;
 
+import static java.lang.System.identityHashCode;
 import static org.opentripplanner.model.projectinfo.OtpProjectInfo.projectInfo;
 
 import com.esotericsoftware.kryo.Kryo;
@@ -13,28 +14,52 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.opentripplanner.datastore.api.DataSource;
+import org.opentripplanner.datastore.file.FileDataSource;
 import org.opentripplanner.ext.emissions.EmissionsDataModel;
 import org.opentripplanner.ext.stopconsolidation.StopConsolidationRepository;
+import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.framework.application.OtpAppException;
 import org.opentripplanner.framework.geometry.CompactElevationProfile;
 import org.opentripplanner.framework.lang.OtpNumberFormat;
 import org.opentripplanner.framework.logging.ProgressTracker;
+import org.opentripplanner.framework.time.DurationUtils;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueSummary;
+import org.opentripplanner.model.PathTransfer;
 import org.opentripplanner.model.projectinfo.GraphFileHeader;
 import org.opentripplanner.model.projectinfo.OtpProjectInfo;
 import org.opentripplanner.routing.graph.kryosupport.KryoBuilder;
+import org.opentripplanner.routing.graph.kryosupport.PathTransferSerializer;
+import org.opentripplanner.routing.graph.kryosupport.SharedReferenceResolver;
 import org.opentripplanner.service.worldenvelope.WorldEnvelopeRepository;
 import org.opentripplanner.standalone.config.BuildConfig;
 import org.opentripplanner.standalone.config.RouterConfig;
 import org.opentripplanner.street.model.StreetLimitationParameters;
 import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.MappedStreetGeometry;
+import org.opentripplanner.street.model.edge.StreetEdgeSerializer;
+import org.opentripplanner.street.model.vertex.StationElementVertex;
 import org.opentripplanner.street.model.vertex.Vertex;
 import org.opentripplanner.transit.model.basic.SubMode;
 import org.opentripplanner.transit.model.network.RoutingTripPattern;
+import org.opentripplanner.transit.model.site.StationElement;
+import org.opentripplanner.transit.service.StopModel;
 import org.opentripplanner.transit.service.TransitModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,18 +67,48 @@ import org.slf4j.LoggerFactory;
 /**
  * This is the class that get serialized/deserialized into/from the file <em>graph.obj</em>.
  * <p>
+ * The small repositories, like the configs and the issue summary, are each written as a
+ * length-prefixed section first. They are deserialized in the background while the rest of the
+ * graph is read. The street graph and the transit model refer to the same stops and station
+ * elements. These are written first in a small shared section, and the transit model and the
+ * street graph are then written in two Kryo streams that refer back to the shared objects, see
+ * {@link SharedReferenceResolver}. The transfers of the transit model refer to street edges, their
+ * edges are written as indexes in the street edge list, see {@link PathTransferSerializer}. The
+ * transit section is read in the background at the same time as the street section, which is read
+ * from the input stream on the calling thread. After that the transit model index is built at the
+ * same time as the vertex edge lists. The time spent on each section is logged.
+ * <p>
+ * Kryo only keeps the identity of an object within one stream. Across the sections, only the
+ * objects in the {@link SharedSection}, the stop model and the station elements, keep their
+ * identity. Any other object referenced from both the street graph and the transit model is
+ * written once in each section, and is silently loaded as two different copies. So, if a new
+ * reference from the transit model to a street object, or the other way around, is added, the
+ * object must be added to the shared section, or be written as a reference like the transfer
+ * edges.
+ * <p>
  * The Graph object does not contain a collection of edges. The set of edges is generated on demand
  * from the vertices. However, when serializing, we intentionally do not serialize the vertices'
- * edge lists to prevent excessive recursion. So we need to save the edges along with the graph. We
- * used to make two serialization calls, one for the graph and one for the edges. But we need the
- * serializer to know that vertices referenced by the edges are the same vertices stored in the
- * graph itself. The easiest way to do this is to make only one serialization call, serializing a
- * single object that contains both the graph and the edge collection.
+ * edge lists to prevent excessive recursion. So the edges are saved in the street section, next to
+ * the graph, and the edge lists are rebuilt after loading.
+ * <p>
+ * The street index is not a section of the file, it is not serialized. It is rebuilt from the
+ * vertices and edges when the server starts, see {@link Graph#index(StopModel)}.
  */
 public class SerializedGraphObject implements Serializable {
 
   private static final Logger LOG = LoggerFactory.getLogger(SerializedGraphObject.class);
 
+  private static final String WORLD_ENVELOPE_SECTION = "world envelope";
+  private static final String BUILD_CONFIG_SECTION = "build config";
+  private static final String ROUTER_CONFIG_SECTION = "router config";
+  private static final String ISSUE_SUMMARY_SECTION = "issue summary";
+  private static final String EMISSIONS_SECTION = "emissions";
+  private static final String STOP_CONSOLIDATION_SECTION = "stop consolidation";
+  private static final String STREET_LIMITATION_SECTION = "street limitation parameters";
+  private static final String SHARED_SECTION = "stops and station elements";
+  private static final String TRANSIT_SECTION = "transit";
+  private static final String STREETS_SECTION = "streets";
+
   public final Graph graph;
   public final TransitModel transitModel;
   public final WorldEnvelopeRepository worldEnvelopeRepository;
@@ -91,16 +146,44 @@ public class SerializedGraphObject implements Serializable {
     StopConsolidationRepository stopConsolidationRepository,
     StreetLimitationParameters streetLimitationParameters
   ) {
-    this.graph = graph;
-    this.edges = graph.getEdges();
-    this.transitModel = transitModel;
+    this(
+      new StreetSection(graph, graph.getEdges()),
+      new TransitSection(
+        transitModel,
+        SubMode.listAllCachedSubModes(),
+        RoutingTripPattern.indexCounter()
+      ),
+      worldEnvelopeRepository,
+      buildConfig,
+      routerConfig,
+      issueSummary,
+      emissionsDataModel,
+      stopConsolidationRepository,
+      streetLimitationParameters
+    );
+  }
+
+  private SerializedGraphObject(
+    StreetSection streets,
+    TransitSection transit,
+    WorldEnvelopeRepository worldEnvelopeRepository,
+    BuildConfig buildConfig,
+    RouterConfig routerConfig,
+    DataImportIssueSummary issueSummary,
+    EmissionsDataModel emissionsDataModel,
+    StopConsolidationRepository stopConsolidationRepository,
+    StreetLimitationParameters streetLimitationParameters
+  ) {
+    this.graph = streets.graph;
+    this.edges = streets.edges;
+    this.transitModel = transit.transitModel;
     this.worldEnvelopeRepository = worldEnvelopeRepository;
     this.buildConfig = buildConfig;
     this.routerConfig = routerConfig;
     this.issueSummary = issueSummary;
     this.emissionsDataModel = emissionsDataModel;
-    this.allTransitSubModes = SubMode.listAllCachedSubModes();
-    this.routingTripPatternCounter = RoutingTripPattern.indexCounter();
+    this.allTransitSubModes = transit.allTransitSubModes;
+    this.routingTripPatternCounter = transit.routingTripPatternCounter;
     this.stopConsolidationRepository = stopConsolidationRepository;
     this.streetLimitationParameters = streetLimitationParameters;
   }
@@ -122,12 +205,12 @@ public class SerializedGraphObject implements Serializable {
   }
 
   public static SerializedGraphObject load(DataSource source) {
-    return load(source.asInputStream(), source.path());
+    return load(source.asInputStream(), source.path(), source.size(), localFile(source));
   }
 
   public static SerializedGraphObject load(File file) {
     try {
-      return load(new FileInputStream(file), file.getAbsolutePath());
+      return load(new FileInputStream(file), file.getAbsolutePath(), file.length(), file);
     } catch (FileNotFoundException e) {
       LOG.error("Graph file not found: " + file, e);
       throw new OtpAppException(e.getMessage());
@@ -137,18 +220,17 @@ public class SerializedGraphObject implements Serializable {
   /**
    * After deserialization, the vertices will all have null outgoing and incoming edge lists because
    * those edge lists are marked transient, to prevent excessive recursion depth while serializing.
-   * This method will reconstruct all those edge lists after deserialization.
+   * This method will reconstruct all those edge lists after deserialization. Instead of a map from
+   * vertex to edges, the edges are sorted in parallel by the identity hash code of the vertex, so
+   * the edges of each vertex are next to each other in one array.
    */
   public void reconstructEdgeLists() {
-    for (Vertex v : graph.getVertices()) {
-      v.initEdgeLists();
-    }
-    for (Edge e : edges) {
-      Vertex fromVertex = e.getFromVertex();
-      Vertex toVertex = e.getToVertex();
-      fromVertex.addOutgoing(e);
-      toVertex.addIncoming(e);
-    }
+    graph.getVertices().parallelStream().forEach(Vertex::initEdgeLists);
+    Edge[] sorted = edges.toArray(Edge[]::new);
+    Arrays.parallelSort(sorted, Comparator.comparingInt(e -> identityHashCode(e.getFromVertex())));
+    forEachVertex(sorted, Edge::getFromVertex, Vertex::initOutgoing);
+    Arrays.parallelSort(sorted, Comparator.comparingInt(e -> identityHashCode(e.getToVertex())));
+    forEachVertex(sorted, Edge::getToVertex, Vertex::initIncoming);
   }
 
   /**
@@ -156,7 +238,8 @@ public class SerializedGraphObject implements Serializable {
    */
   public void save(@Nullable DataSource target) {
     if (target != null) {
-      save(target.asOutputStream(), target.name(), target.size());
+      var streetGeometry = writeStreetGeometry(localFile(target));
+      save(target.asOutputStream(), target.name(), target.size(), streetGeometry);
     } else {
       LOG.info("Not saving graph to disk, as requested.");
     }
@@ -164,28 +247,86 @@ public class SerializedGraphObject implements Serializable {
 
   /* private methods */
 
-  private static SerializedGraphObject load(InputStream inputStream, String sourceDescription) {
+  private static SerializedGraphObject load(
+    InputStream inputStream,
+    String sourceDescription,
+    long size,
+    @Nullable File graphFile
+  ) {
     // TODO store version information, halt load if versions mismatch
     try (inputStream) {
       LOG.info("Reading graph from '{}'", sourceDescription);
-      Input input = new Input(inputStream);
+      Input input = new Input(wrapInputStreamWithProgressTracker(inputStream, size));
 
       validateGraphSerializationId(
         input.readBytes(GraphFileHeader.headerLength()),
         sourceDescription
       );
 
-      Kryo kryo = KryoBuilder.create();
-      SerializedGraphObject serObj = (SerializedGraphObject) kryo.readClassAndObject(input);
+      // The repository sections are small, read them and deserialize them in the background
+      Map<String, CompletableFuture<Object>> sections = new HashMap<>();
+      int nSections = input.readInt();
+      for (int i = 0; i < nSections; ++i) {
+        String name = input.readString();
+        byte[] bytes = input.readBytes(input.readInt());
+        sections.put(
+          name,
+          CompletableFuture.supplyAsync(() ->
+            readSection(name, () -> KryoBuilder.create().readClassAndObject(new Input(bytes)))
+          )
+        );
+      }
+      var streetGeometry = mapStreetGeometry(input.readLong(), graphFile);
+      var references = new SharedReferenceResolver();
+      readSection(SHARED_SECTION, () -> createKryo(references).readClassAndObject(input));
+
+      // The transit section only refers to the shared objects, it is read in the background
+      var transfers = PathTransferSerializer.forReading();
+      var transitKryo = createKryo(references.sharing());
+      transitKryo.register(PathTransfer.class, transfers);
+      byte[] transitBytes = input.readBytes(input.readInt());
+      var transitSection = CompletableFuture.supplyAsync(() ->
+        readSection(
+          TRANSIT_SECTION,
+          () -> (TransitSection) transitKryo.readClassAndObject(new Input(transitBytes))
+        )
+      );
+      var streetKryo = createKryo(references.sharing());
+      StreetEdgeSerializer.readGeometriesFrom(streetKryo, streetGeometry);
+      var streets = readSection(
+        STREETS_SECTION,
+        () -> (StreetSection) streetKryo.readClassAndObject(input)
+      );
+      var transit = join(transitSection);
+      transfers.resolveEdges(streets.edges);
+
+      SerializedGraphObject serObj = new SerializedGraphObject(
+        streets,
+        transit,
+        join(sections, WORLD_ENVELOPE_SECTION),
+        join(sections, BUILD_CONFIG_SECTION),
+        join(sections, ROUTER_CONFIG_SECTION),
+        join(sections, ISSUE_SUMMARY_SECTION),
+        join(sections, EMISSIONS_SECTION),
+        join(sections, STOP_CONSOLIDATION_SECTION),
+        join(sections, STREET_LIMITATION_SECTION)
+      );
       SubMode.deserializeSubModeCache(serObj.allTransitSubModes);
       RoutingTripPattern.initIndexCounter(serObj.routingTripPatternCounter);
       CompactElevationProfile.setDistanceBetweenSamplesM(
         serObj.graph.getDistanceBetweenElevationSamples()
       );
       LOG.debug("Graph read.");
-      serObj.reconstructEdgeLists();
-      serObj.transitModel.getStopModel().reindexAfterDeserialization();
-      serObj.transitModel.index();
+      // The transit model index does not depend on the street graph, build them concurrently
+      var transitIndex = CompletableFuture.runAsync(() -> {
+        serObj.transitModel.getStopModel().reindexAfterDeserialization();
+        serObj.transitModel.index();
+      });
+      readSection("edge lists", () -> {
+        serObj.reconstructEdgeLists();
+        return null;
+      });
+      join(transitIndex);
       logSerializationCompleteStatus(serObj.graph, serObj.transitModel);
       return serObj;
     } catch (IOException e) {
@@ -210,6 +351,142 @@ public class SerializedGraphObject implements Serializable {
     }
   }
 
+  /**
+   * Write the street geometries to a file next to the graph file, if the feature is enabled and
+   * the graph is saved to the local file system. Otherwise, {@code null} is returned and the
+   * geometries are serialized with the edges. The edges of the graph are not changed, the graph
+   * may still be in use after it is saved.
+   */
+  @Nullable
+  private MappedStreetGeometry.Positions writeStreetGeometry(@Nullable File graphFile) {
+    if (OTPFeature.MappedStreetGeometry.isOn() && graphFile != null) {
+      return MappedStreetGeometry.write(graph.getStreetEdges(), streetGeometryFile(graphFile));
+    }
+    return null;
+  }
+
+  /**
+   * Map the street geometry file saved with the graph, each loaded graph has its own store. Returns
+   * {@code null} if the geometries are serialized with the edges.
+   */
+  @Nullable
+  private static MappedStreetGeometry mapStreetGeometry(long fileId, @Nullable File graphFile) {
+    if (fileId == 0) {
+      return null;
+    }
+    if (graphFile == null) {
+      throw new OtpAppException(
+        "The graph is saved with the street geometries in a separate file, this is only " +
+        "supported when the graph is loaded from the local file system."
+      );
+    }
+    var file = streetGeometryFile(graphFile);
+    LOG.info("Mapping street geometries from '{}'", file);
+    return MappedStreetGeometry.map(file, fileId);
+  }
+
+  private static File streetGeometryFile(File graphFile) {
+    return new File(graphFile.getParentFile(), graphFile.getName() + ".geometry");
+  }
+
+  @Nullable
+  private static File localFile(DataSource source) {
+    return source instanceof FileDataSource fileSource ? fileSource.file() : null;
+  }
+
+  /**
+   * Call the action for each vertex with its edges. The edges must be sorted by the identity hash
+   * code of the vertex. Different vertices rarely have the same hash code, their edges are
+   * separated here.
+   */
+  private static void forEachVertex(
+    Edge[] sorted,
+    Function<Edge, Vertex> vertexOf,
+    BiConsumer<Vertex, List<Edge>> action
+  ) {
+    var edges = Arrays.asList(sorted);
+    int start = 0;
+    while (start < sorted.length) {
+      Vertex vertex = vertexOf.apply(sorted[start]);
+      int hashCode = identityHashCode(vertex);
+      int end = start + 1;
+      boolean sameVertex = true;
+      while (end < sorted.length && identityHashCode(vertexOf.apply(sorted[end])) == hashCode) {
+        sameVertex &= vertexOf.apply(sorted[end]) == vertex;
+        ++end;
+      }
+      var vertexEdges = edges.subList(start, end);
+      if (sameVertex) {
+        action.accept(vertex, vertexEdges);
+      } else {
+        vertexEdges
+          .stream()
+          .collect(Collectors.groupingBy(vertexOf, IdentityHashMap::new, Collectors.toList()))
+          .forEach(action);
+      }
+      start = end;
+    }
+  }
+
+  /**
+   * Create a Kryo instance for one of the sections sharing the stops and station elements.
+   */
+  private static Kryo createKryo(SharedReferenceResolver references) {
+    var kryo = KryoBuilder.create();
+    kryo.setReferenceResolver(references);
+    return kryo;
+  }
+
+  /**
+   * Deserialize or build one part of the graph, and log the time it took.
+   */
+  private static <T> T readSection(String name, Supplier<T> reader) {
+    long start = System.currentTimeMillis();
+    T result = reader.get();
+    LOG.info(
+      "Graph section '{}' read in {}.",
+      name,
+      DurationUtils.durationToStr(Duration.ofMillis(System.currentTimeMillis() - start))
+    );
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T join(Map<String, CompletableFuture<Object>> sections, String name) {
+    var section = sections.get(name);
+    return section == null ? null : (T) join(section);
+  }
+
+  /**
+   * Wait for the background task and rethrow any exception from it, so it is handled like the
+   * exceptions thrown reading the graph in the calling thread.
+   */
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw e;
+    }
+  }
+
+  @SuppressWarnings("Convert2MethodRef")
+  private static InputStream wrapInputStreamWithProgressTracker(
+    InputStream inputStream,
+    long size
+  ) {
+    return ProgressTracker.track(
+      "Read graph",
+      500_000,
+      size,
+      inputStream,
+      // Keep this to get correct logging info for class and line number
+      msg -> LOG.info(msg)
+    );
+  }
+
   @SuppressWarnings("Convert2MethodRef")
   private static OutputStream wrapOutputStreamWithProgressTracker(
     OutputStream outputStream,
@@ -243,13 +520,54 @@ public class SerializedGraphObject implements Serializable {
     }
   }
 
-  private void save(OutputStream outputStream, String graphName, long size) {
+  private void save(
+    OutputStream outputStream,
+    String graphName,
+    long size,
+    @Nullable MappedStreetGeometry.Positions streetGeometry
+  ) {
     LOG.info("Writing graph {}  ...", graphName);
     outputStream = wrapOutputStreamWithProgressTracker(outputStream, size);
-    Kryo kryo = KryoBuilder.create();
     Output output = new Output(outputStream);
     output.write(OtpProjectInfo.projectInfo().graphFileHeaderInfo.header());
-    kryo.writeClassAndObject(output, this);
+
+    var sections = List.of(
+      new Section(WORLD_ENVELOPE_SECTION, worldEnvelopeRepository),
+      new Section(BUILD_CONFIG_SECTION, buildConfig),
+      new Section(ROUTER_CONFIG_SECTION, routerConfig),
+      new Section(ISSUE_SUMMARY_SECTION, issueSummary),
+      new Section(EMISSIONS_SECTION, emissionsDataModel),
+      new Section(STOP_CONSOLIDATION_SECTION, stopConsolidationRepository),
+      new Section(STREET_LIMITATION_SECTION, streetLimitationParameters)
+    );
+    output.writeInt(sections.size());
+    for (Section section : sections) {
+      Output sectionOutput = new Output(4096, -1);
+      KryoBuilder.create().writeClassAndObject(sectionOutput, section.value());
+      output.writeString(section.name());
+      output.writeInt(sectionOutput.position());
+      output.writeBytes(sectionOutput.getBuffer(), 0, sectionOutput.position());
+    }
+    // The id of the street geometry file is read first, so the file can be mapped before the edges
+    // are read
+    output.writeLong(streetGeometry == null ? 0 : streetGeometry.fileId());
+    var references = new SharedReferenceResolver();
+    createKryo(references).writeClassAndObject(output, new SharedSection(transitModel, graph));
+
+    var streets = new StreetSection(graph, edges);
+    var transitKryo = createKryo(references.sharing());
+    transitKryo.register(PathTransfer.class, PathTransferSerializer.forWriting(streets.edges));
+    Output transitOutput = new Output(4096, -1);
+    transitKryo.writeClassAndObject(
+      transitOutput,
+      new TransitSection(transitModel, allTransitSubModes, routingTripPatternCounter)
+    );
+    output.writeInt(transitOutput.position());
+    output.writeBytes(transitOutput.getBuffer(), 0, transitOutput.position());
+
+    var streetKryo = createKryo(references.sharing());
+    StreetEdgeSerializer.writeGeometryPositions(streetKryo, streetGeometry);
+    streetKryo.writeClassAndObject(output, streets);
     output.close();
     LOG.info("Graph written: {}", graphName);
     // Summarize serialized classes and associated serializers to stdout:
@@ -272,4 +590,63 @@ public class SerializedGraphObject implements Serializable {
       nTransfers
     );
   }
+
+  private record Section(String name, @Nullable Object value) {}
+
+  /**
+   * The stops and the station elements the street graph refers to. The stop model holds the stops
+   * and stations, the entrances, pathway nodes and boarding areas are only referred to by the
+   * vertices. They are written first, so the street and transit sections can refer to them.
+   */
+  private static final class SharedSection implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final StopModel stopModel;
+    private final ArrayList<StationElement<?, ?>> stationElements = new ArrayList<>();
+
+    private SharedSection(TransitModel transitModel, Graph graph) {
+      this.stopModel = transitModel.getStopModel();
+      for (StationElementVertex vertex : graph.getVerticesOfType(StationElementVertex.class)) {
+        stationElements.add(vertex.getStationElement());
+      }
+    }
+  }
+
+  /**
+   * The edges are copied into a list, so the field has a serializable type, and the edges are not
+   * hashed again when they are read. The index of an edge in the list is used to refer to it from
+   * the transfers.
+   */
+  private static final class StreetSection implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Graph graph;
+    private final ArrayList<Edge> edges;
+
+    private StreetSection(Graph graph, Collection<Edge> edges) {
+      this.graph = graph;
+      this.edges = new ArrayList<>(edges);
+    }
+  }
+
+  private static final class TransitSection implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final TransitModel transitModel;
+    private final ArrayList<SubMode> allTransitSubModes;
+    private final int routingTripPatternCounter;
+
+    private TransitSection(
+      TransitModel transitModel,
+      List<SubMode> allTransitSubModes,
+      int routingTripPatternCounter
+    ) {
+      this.transitModel = transitModel;
+      this.allTransitSubModes = new ArrayList<>(allTransitSubModes);
+      this.routingTripPatternCounter = routingTripPatternCounter;
+    }
+  }
 }
@@ -12,6 +12,7 @@ import de.javakaffee.kryoserializers.guava.HashMultimapSerializer;
 import gnu.trove.impl.hash.TPrimitiveHash;
 import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -22,6 +23,8 @@ import org.opentripplanner.kryo.RouterConfigSerializer;
 import org.opentripplanner.kryo.UnmodifiableCollectionsSerializer;
 import org.opentripplanner.standalone.config.BuildConfig;
 import org.opentripplanner.standalone.config.RouterConfig;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.edge.StreetEdgeSerializer;
 
 public final class KryoBuilder {
 
@@ -47,6 +50,8 @@ public final class KryoBuilder {
     kryo.addDefaultSerializer(TPrimitiveHash.class, ExternalizableSerializer.class);
     kryo.register(TIntArrayList.class, new TIntArrayListSerializer());
     kryo.register(TIntIntHashMap.class, new TIntIntHashMapSerializer());
+    // The keys of an object hash are stored in transient fields, so they must be externalized
+    kryo.register(TObjectIntHashMap.class, new ExternalizableSerializer());
 
     // Add support for the package local java.util.ImmutableCollections.
     // Not supported properly in the current com.conveyal:kryo-tools:1.4.0.
@@ -66,6 +71,9 @@ public final class KryoBuilder {
     kryo.register(BuildConfig.class, new BuildConfigSerializer());
     kryo.register(AtomicInteger.class, new AtomicIntegerSerializer());
 
+    // The street geometries may be saved in a separate file
+    kryo.addDefaultSerializer(StreetEdge.class, StreetEdgeSerializer.class);
+
     UnmodifiableCollectionsSerializer.registerSerializers(kryo);
     // Instantiation strategy: how should Kryo make new instances of objects when they are deserialized?
     // The default strategy requires every class you serialize, even in your dependencies, to have a zero-arg
@@ -0,0 +1,101 @@
+package org.opentripplanner.routing.graph.kryosupport;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.opentripplanner.model.PathTransfer;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.transit.model.site.StopLocation;
+
+/**
+ * A custom serializer for a {@link PathTransfer}, writing the street edges as indexes in the edge
+ * list of the street graph.
+ * <p>
+ * This allows the transit model to be serialized without the street graph, so the two can be read
+ * at the same time. The edge lists of the transfers are empty when they are read, they are filled
+ * in by {@link #resolveEdges(List)} when the street graph is read as well.
+ */
+public final class PathTransferSerializer extends Serializer<PathTransfer> {
+
+  /** The edge count is written plus one, to allow transfers without edges. */
+  private static final int NO_EDGES = 0;
+
+  private final Map<Edge, Integer> edgeIndexes;
+  private final List<UnresolvedEdges> unresolvedEdges = new ArrayList<>();
+
+  private PathTransferSerializer(Map<Edge, Integer> edgeIndexes) {
+    this.edgeIndexes = edgeIndexes;
+  }
+
+  /**
+   * Create a serializer for writing transfers with edges from the given edge list.
+   */
+  public static PathTransferSerializer forWriting(List<Edge> edges) {
+    var edgeIndexes = new IdentityHashMap<Edge, Integer>(edges.size());
+    for (int i = 0; i < edges.size(); ++i) {
+      edgeIndexes.put(edges.get(i), i);
+    }
+    return new PathTransferSerializer(edgeIndexes);
+  }
+
+  public static PathTransferSerializer forReading() {
+    return new PathTransferSerializer(Map.of());
+  }
+
+  @Override
+  public void write(Kryo kryo, Output output, PathTransfer transfer) {
+    kryo.writeClassAndObject(output, transfer.from);
+    kryo.writeClassAndObject(output, transfer.to);
+    output.writeDouble(transfer.getDistanceMeters());
+    var edges = transfer.getEdges();
+    if (edges == null) {
+      output.writeVarInt(NO_EDGES, true);
+      return;
+    }
+    output.writeVarInt(edges.size() + 1, true);
+    for (Edge edge : edges) {
+      Integer index = edgeIndexes.get(edge);
+      if (index == null) {
+        throw new IllegalStateException(
+          "The transfer " + transfer + " has an edge that is not in the street graph: " + edge
+        );
+      }
+      output.writeVarInt(index, true);
+    }
+  }
+
+  @Override
+  public PathTransfer read(Kryo kryo, Input input, Class<? extends PathTransfer> type) {
+    var from = (StopLocation) kryo.readClassAndObject(input);
+    var to = (StopLocation) kryo.readClassAndObject(input);
+    double distanceMeters = input.readDouble();
+    int size = input.readVarInt(true);
+    if (size == NO_EDGES) {
+      return new PathTransfer(from, to, distanceMeters, null);
+    }
+    var indexes = input.readInts(size - 1, true);
+    var edges = new ArrayList<Edge>(indexes.length);
+    unresolvedEdges.add(new UnresolvedEdges(edges, indexes));
+    return new PathTransfer(from, to, distanceMeters, edges);
+  }
+
+  /**
+   * Add the edges to the transfers read, using the edge list of the street graph they were
+   * written with.
+   */
+  public void resolveEdges(List<Edge> streetEdges) {
+    for (UnresolvedEdges it : unresolvedEdges) {
+      for (int index : it.indexes()) {
+        it.edges().add(streetEdges.get(index));
+      }
+    }
+    unresolvedEdges.clear();
+  }
+
+  private record UnresolvedEdges(List<Edge> edges, int[] indexes) {}
+}
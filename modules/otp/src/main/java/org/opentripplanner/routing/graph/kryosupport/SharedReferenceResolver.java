@@ -0,0 +1,82 @@
+package org.opentripplanner.routing.graph.kryosupport;
+
+import com.esotericsoftware.kryo.util.MapReferenceResolver;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A reference resolver that lets several Kryo streams share objects. The objects written or read
+ * with this resolver are recorded, and {@link #sharing()} creates a resolver for another stream
+ * that starts out with references to them. An object from the first stream is then written as a
+ * reference in the other streams, and it is resolved to the same instance when they are read. The
+ * other streams only depend on the first stream, so they can be read at the same time.
+ * <p>
+ * Each resolver is used for one object only, and the streams must be written and read with
+ * resolvers created in the same order.
+ */
+public final class SharedReferenceResolver extends MapReferenceResolver {
+
+  private final List<Object> shared;
+  private final List<Object> recorded = new ArrayList<>();
+
+  public SharedReferenceResolver() {
+    this(List.of());
+  }
+
+  private SharedReferenceResolver(List<Object> shared) {
+    this.shared = shared;
+    addSharedReferences();
+  }
+
+  /**
+   * Create a resolver for another stream, with references to the objects shared with this
+   * resolver and the objects written or read with it.
+   */
+  public SharedReferenceResolver sharing() {
+    var objects = new ArrayList<>(shared);
+    objects.addAll(recorded);
+    return new SharedReferenceResolver(Collections.unmodifiableList(objects));
+  }
+
+  @Override
+  public int addWrittenObject(Object object) {
+    int id = super.addWrittenObject(object);
+    recorded.add(object);
+    return id;
+  }
+
+  @Override
+  public int nextReadId(Class type) {
+    int id = super.nextReadId(type);
+    recorded.add(null);
+    return id;
+  }
+
+  @Override
+  public void setReadObject(int id, Object object) {
+    super.setReadObject(id, object);
+    recorded.set(id - shared.size(), object);
+  }
+
+  /**
+   * Kryo resets the references after each object, the shared references are added again. The
+   * recorded objects are kept, so they can be shared after the object is written or read.
+   */
+  @Override
+  public void reset() {
+    super.reset();
+    addSharedReferences();
+  }
+
+  /**
+   * Give the shared objects the same ids when writing and reading, in the order they were
+   * recorded.
+   */
+  private void addSharedReferences() {
+    for (Object object : shared) {
+      super.addWrittenObject(object);
+      super.setReadObject(super.nextReadId(object.getClass()), object);
+    }
+  }
+}
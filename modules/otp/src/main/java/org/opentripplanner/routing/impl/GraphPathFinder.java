@@ -11,11 +11,14 @@ import org.opentripplanner.astar.spi.TraverseVisitor;
 import org.opentripplanner.astar.strategy.DurationSkipEdgeStrategy;
 import org.opentripplanner.astar.strategy.PathComparator;
 import org.opentripplanner.ext.dataoverlay.routing.DataOverlayContext;
+import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.framework.application.OTPRequestTimeoutException;
 import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
 import org.opentripplanner.routing.api.request.preference.StreetPreferences;
 import org.opentripplanner.routing.error.PathNotFoundException;
 import org.opentripplanner.street.model.StreetConstants;
+import org.opentripplanner.street.model.StreetLandmarks;
 import org.opentripplanner.street.model.edge.Edge;
 import org.opentripplanner.street.model.vertex.Vertex;
 import org.opentripplanner.street.search.StreetSearchBuilder;
@@ -23,6 +26,7 @@ import org.opentripplanner.street.search.TemporaryVerticesContainer;
 import org.opentripplanner.street.search.state.State;
 import org.opentripplanner.street.search.strategy.DominanceFunctions;
 import org.opentripplanner.street.search.strategy.EuclideanRemainingWeightHeuristic;
+import org.opentripplanner.street.search.strategy.LandmarkRemainingWeightHeuristic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,6 +56,12 @@ public class GraphPathFinder {
 
   private static final Logger LOG = LoggerFactory.getLogger(GraphPathFinder.class);
 
+  private static final Set<StreetMode> BIDIRECTIONAL_SEARCH_MODES = Set.of(
+    StreetMode.WALK,
+    StreetMode.BIKE,
+    StreetMode.CAR
+  );
+
   @Nullable
   private final TraverseVisitor<State, Edge> traverseVisitor;
 
@@ -59,6 +69,9 @@ public class GraphPathFinder {
 
   private final float maxCarSpeed;
 
+  @Nullable
+  private final StreetLandmarks streetLandmarks;
+
   public GraphPathFinder(@Nullable TraverseVisitor<State, Edge> traverseVisitor) {
     this(traverseVisitor, null, StreetConstants.DEFAULT_MAX_CAR_SPEED);
   }
@@ -67,10 +80,20 @@ public class GraphPathFinder {
     @Nullable TraverseVisitor<State, Edge> traverseVisitor,
     @Nullable DataOverlayContext dataOverlayContext,
     float maxCarSpeed
+  ) {
+    this(traverseVisitor, dataOverlayContext, maxCarSpeed, null);
+  }
+
+  public GraphPathFinder(
+    @Nullable TraverseVisitor<State, Edge> traverseVisitor,
+    @Nullable DataOverlayContext dataOverlayContext,
+    float maxCarSpeed,
+    @Nullable StreetLandmarks streetLandmarks
   ) {
     this.traverseVisitor = traverseVisitor;
     this.dataOverlayContext = dataOverlayContext;
     this.maxCarSpeed = maxCarSpeed;
+    this.streetLandmarks = streetLandmarks;
   }
 
   /**
@@ -86,7 +109,7 @@ public class GraphPathFinder {
 
     StreetSearchBuilder aStar = StreetSearchBuilder
       .of()
-      .setHeuristic(new EuclideanRemainingWeightHeuristic(maxCarSpeed))
+      .setHeuristic(createHeuristic())
       .setSkipEdgeStrategy(
         new DurationSkipEdgeStrategy(
           preferences.maxDirectDuration().valueOf(request.journey().direct().mode())
@@ -106,6 +129,10 @@ public class GraphPathFinder {
       aStar.setTraverseVisitor(traverseVisitor);
     }
 
+    if (useBidirectionalSearch(request)) {
+      aStar.setBidirectionalSearch(createHeuristic());
+    }
+
     LOG.debug("rreq={}", request);
 
     long searchBeginTime = System.currentTimeMillis();
@@ -119,6 +146,24 @@ public class GraphPathFinder {
     return paths;
   }
 
+  private EuclideanRemainingWeightHeuristic createHeuristic() {
+    return streetLandmarks == null
+      ? new EuclideanRemainingWeightHeuristic(maxCarSpeed)
+      : new LandmarkRemainingWeightHeuristic(streetLandmarks, maxCarSpeed);
+  }
+
+  /**
+   * The bidirectional search is only used for the modes where the cost of a path is the same in
+   * both directions. The rental, parking and pick-up modes change the state of the search on the
+   * way, and are searched from one end.
+   */
+  private static boolean useBidirectionalSearch(RouteRequest request) {
+    return (
+      OTPFeature.BidirectionalStreetSearch.isOn() &&
+      BIDIRECTIONAL_SEARCH_MODES.contains(request.journey().direct().mode())
+    );
+  }
+
   /**
    * Try to find N paths through the Graph
    */
@@ -202,22 +202,17 @@ public class StopTimesHelper {
     // datesUntil is exclusive in the end, so need to add one day
     List<LocalDate> serviceDates = startDate.datesUntil(endDate.plusDays(1)).toList();
 
-    // The bounded priority Q is used to keep a sorted short list of trip times. We can not
-    // rely on the trip times to be in order because of real-time updates. This code can
-    // probably be optimized, and the trip search in the Raptor search does almost the same
-    // thing. This is no part of a routing request, but is a used frequently in some
-    // operation like Entur for "departure boards" (apps, widgets, screens on platforms, and
-    // hotel lobbies). Setting the numberOfDepartures and timeRange to a big number for a
-    // transit hub could result in a DOS attack, but there are probably other more effective
-    // ways to do it.
+    // The bounded priority Q is used to keep a sorted short list of trip times. The trips are
+    // looked up in the departure index of each timetable, sorted by departure time at the stop,
+    // and merged in the queue across service dates and stop positions. This is no part of a
+    // routing request, but is a used frequently in some operation like Entur for "departure
+    // boards" (apps, widgets, screens on platforms, and hotel lobbies). Setting the
+    // numberOfDepartures and timeRange to a big number for a transit hub could result in a DOS
+    // attack, but there are probably other more effective ways to do it.
     //
     // The {@link MinMaxPriorityQueue} is marked beta, but we do not have a god alternative.
     MinMaxPriorityQueue<TripTimeOnDate> pq = MinMaxPriorityQueue
-      .orderedBy(
-        Comparator.comparing((TripTimeOnDate tts) ->
-          tts.getServiceDayMidnight() + tts.getRealtimeDeparture()
-        )
-      )
+      .orderedBy(Comparator.comparingLong(StopTimesHelper::departureSortTime))
       .maximumSize(numberOfDepartures)
       .create();
 
@@ -244,7 +239,34 @@ public class StopTimesHelper {
             continue;
           }
 
-          for (TripTimes tripTimes : timetable.getTripTimes()) {
+          // The trips are sorted by the departure time. A trip arriving in the time range also
+          // departs at or after the start of the range, and before the end plus the dwell time.
+          var index = timetable.getDepartureIndex(stopIndex);
+          int latestDepartureTime =
+            secondsSinceMidnight +
+            timeRangeSeconds +
+            (arrivalDeparture == DEPARTURES ? 0 : index.maxDwellTime());
+          long midnightEpochSecond = midnight.toEpochSecond();
+
+          for (
+            int i = index.findFirstDepartureAtOrAfter(secondsSinceMidnight);
+            i < index.size();
+            ++i
+          ) {
+            int departureTime = index.departureTime(i);
+            if (departureTime > latestDepartureTime) {
+              break;
+            }
+            // If the queue is full, the rest of the trips depart after the last one in the queue
+            if (
+              pq.size() == numberOfDepartures &&
+              midnightEpochSecond + departureTime + index.minScheduledDepartureOffset() >
+              departureSortTime(pq.peekLast())
+            ) {
+              break;
+            }
+            TripTimes tripTimes = timetable.getTripTimes(index.tripIndex(i));
+
             if (!servicesRunning.contains(tripTimes.getServiceCode())) {
               continue;
             }
@@ -285,6 +307,10 @@ public class StopTimesHelper {
     return pq;
   }
 
+  private static long departureSortTime(TripTimeOnDate tripTimeOnDate) {
+    return tripTimeOnDate.getServiceDayMidnight() + tripTimeOnDate.getRealtimeDeparture();
+  }
+
   private static boolean isReplacedByAnotherPattern(
     Trip trip,
     LocalDate serviceDate,
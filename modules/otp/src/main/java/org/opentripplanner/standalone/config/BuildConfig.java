@@ -161,6 +161,8 @@ public class BuildConfig implements OtpDataStoreConfig {
 
   public final int maxAreaNodes;
 
+  public final int carRoutingLandmarks;
+
   public final DataOverlayConfig dataOverlay;
   public final double maxStopToShapeSnapDistance;
   public final Set<String> boardingLocationTags;
@@ -496,6 +498,26 @@ recommended.
           "Visibility calculations for an area will not be done if there are more nodes than this limit."
         )
         .asInt(150);
+    carRoutingLandmarks =
+      root
+        .of("carRoutingLandmarks")
+        .since(V2_7)
+        .summary("The number of landmarks to pre-calculate for the car routing heuristic.")
+        .description(
+          """
+The car travel time to and from each landmark is calculated for every street vertex and stored in
+the graph. These are used to give the A* search a much better estimate of the remaining travel
+time than the straight line distance, which reduces the number of states visited by direct car
+searches. The durations are stored in one array with a row for each street vertex, and an index
+from vertex to row. This costs about 16 bytes per street vertex for the index, plus 8 bytes per
+landmark. With 16 landmarks this is about 145 bytes per street vertex. A value between 8 and 16
+is a good starting point, 0 disables the pre-calculation.
+
+The landmarks are only used for direct car searches. Walk, bike and car park-and-ride searches, and
+the access and egress searches, use the straight line estimate.
+"""
+        )
+        .asInt(0);
     maxElevationPropagationMeters =
       root
         .of("maxElevationPropagationMeters")
@@ -6,6 +6,7 @@ import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_2;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_3;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_4;
+import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_7;
 
 import java.time.Duration;
 import java.util.List;
@@ -27,8 +28,12 @@ public final class TransitRoutingConfig implements RaptorTuningParameters, Trans
   private final int scheduledTripBinarySearchThreshold;
   private final int iterationDepartureStepInSeconds;
   private final int searchThreadPoolSize;
+  private final int searchWindowPartitions;
+  private final boolean sortStopArrivalsByArrivalTime;
   private final int transferCacheMaxSize;
   private final List<RouteRequest> transferCacheRequests;
+  private final int transitDataCacheMaxSize;
+  private final int heuristicCacheSize;
   private final List<Duration> pagingSearchWindowAdjustments;
 
   private final Map<StopTransferPriority, Integer> stopBoardAlightDuringTransferCost;
@@ -113,6 +118,42 @@ no extra threads are started and the search is done in one thread.
 """
         )
         .asInt(dft.searchThreadPoolSize());
+    this.searchWindowPartitions =
+      c
+        .of("searchWindowPartitions")
+        .since(V2_7)
+        .summary("Split the search-window of a travel search in parts and search them in parallel.")
+        .description(
+          """
+The multi-criteria search iterates over the departure times in the search-window, one minute at a
+time. If this parameter is greater than 1, the search-window is split in this number of
+sub-windows, and the sub-windows are searched in parallel. The results are merged in the end. This
+reduces the response time on machines with idle cores, but the total amount of work increases.
+The paths found at the destination are shared, and used to prune the earlier sub-windows, but a
+sub-window search can not use the stop arrivals of the later sub-windows to prune the search. For
+the same reason the result may differ slightly from the result of a single search, and the stop
+arrivals returned with the result only cover the first sub-window.
+
+This only applies when the `searchThreadPoolSize` is greater than 0. The sub-windows of all
+requests share the same thread pool, the request thread searches the latest sub-window.
+"""
+        )
+        .asInt(dft.searchWindowPartitions());
+    this.sortStopArrivalsByArrivalTime =
+      c
+        .of("sortStopArrivalsByArrivalTime")
+        .since(V2_7)
+        .summary("Index the multi-criteria stop arrivals on the arrival time.")
+        .description(
+          """
+Each stop keeps a pareto-set of the arrivals in the multi-criteria search, and a new arrival is
+compared with all arrivals in the set. With c2 or transit-group-priority enabled the sets at busy
+stops can be large. If enabled, the arrivals are kept sorted on the arrival time, and only the
+arrivals which arrive at the same time or earlier can reject a new arrival. This reduces the number
+of comparisons when the sets are large, but adds overhead to small sets.
+"""
+        )
+        .asBoolean(dft.sortStopArrivalsByArrivalTime());
     // Dynamic Search Window
     this.stopBoardAlightDuringTransferCost =
       c
@@ -168,6 +209,10 @@ Use values in a range from `0` to `100 000`. **All key/value pairs are required
           """
 If not set, the default behavior is to cache stop-to-stop transfers using the default route request 
 (`routingDefaults`). Use this to change the default or specify more than one `RouteRequest`.
+The transfers for the requests are computed in parallel at startup. Requests that differ from these
+in options relevant for transfers, like the walk reluctance or wheelchair accessibility, will have
+to compute the transfers on the first search. The `raptorTransfersCache` metrics can be used to
+find out how often this happens.
 
 **Example**
 
@@ -189,6 +234,45 @@ If not set, the default behavior is to cache stop-to-stop transfers using the de
           List.of(routingRequestDefaults),
           n -> RouteRequestConfig.mapRouteRequest(n, routingRequestDefaults)
         );
+    this.transitDataCacheMaxSize =
+      c
+        .of("transitDataCacheMaxSize")
+        .since(V2_7)
+        .summary("The maximum number of filtered timetables to cache for the trip search.")
+        .description(
+          """
+Before each trip search, the timetables of the patterns running on the search days are filtered
+with the request's transit filters and merged. Requests which search the same days with the same
+filters, like the allowed modes and banned routes, share the merged timetables from the cache. The
+cached entries are dropped when a realtime update replaces the transit data. Each entry contains
+the trip times of all the patterns in the search, so a large value will use a lot of memory for
+big networks. Set it to `0` to disable the cache. The `raptorTransitDataCache` metrics report the
+hit rate.
+"""
+        )
+        .asInt(5);
+    this.heuristicCacheSize =
+      c
+        .of("heuristicCacheSize")
+        .since(V2_7)
+        .summary("The maximum number of heuristic search results to cache.")
+        .description(
+          """
+Before the multi-criteria search, a forward and/or reverse heuristic search is run to compute the
+search-window and to prune the search. The next and previous pages of a search, and the same search
+repeated, run the same heuristic search again - often the reverse search from the destination. The
+result is cached and reused if the access, egress, search time, filters and transit data are the
+same. The cache is disabled by default, set it to a positive number to enable it.
+
+Each entry has three integers per stop, which is several megabytes on a large network. The
+transit data changes with every realtime update, so the cached results are only reused until the
+next update. The results are only reused if the filtered timetables are shared, see
+`transitDataCacheMaxSize`. When the cache is enabled, the reverse heuristic search is run without
+the earliest departure time, so it can be reused across pages. This makes the search slower when
+the result is not found in the cache. The `raptorHeuristicsCache` metrics report the hit rate.
+"""
+        )
+        .asInt(0);
     this.pagingSearchWindowAdjustments =
       c
         .of("pagingSearchWindowAdjustments")
@@ -249,6 +333,21 @@ for more info."
     return searchThreadPoolSize;
   }
 
+  @Override
+  public int searchWindowPartitions() {
+    return searchWindowPartitions;
+  }
+
+  @Override
+  public boolean sortStopArrivalsByArrivalTime() {
+    return sortStopArrivalsByArrivalTime;
+  }
+
+  @Override
+  public int heuristicCacheSize() {
+    return heuristicCacheSize;
+  }
+
   @Override
   public DynamicSearchWindowCoefficients dynamicSearchWindowCoefficients() {
     return dynamicSearchWindowCoefficients;
@@ -274,6 +373,11 @@ for more info."
     return transferCacheRequests;
   }
 
+  @Override
+  public int transitDataCacheMaxSize() {
+    return transitDataCacheMaxSize;
+  }
+
   @Override
   public Duration maxSearchWindow() {
     return maxSearchWindow;
@@ -154,7 +154,6 @@ public class ConstructApplication {
 
   private void setupTransitRoutingServer() {
     enableRequestTraceLogging();
-    createMetricsLogging();
 
     creatTransitLayerForRaptor(transitModel(), routerConfig().transitTuningConfig());
 
@@ -169,6 +168,10 @@ public class ConstructApplication {
 
     initEllipsoidToGeoidDifference();
 
+    // The metrics are bound after the transit layer and the updaters are created, and before the
+    // transfer cache is initialized
+    createMetricsLogging();
+
     initializeTransferCache(routerConfig().transitTuningConfig(), transitModel());
 
     if (OTPFeature.TransmodelGraphQlApi.isOn()) {
@@ -230,12 +233,15 @@ public class ConstructApplication {
 
       LOG.info(progress.startMessage());
 
-      transferCacheRequests.forEach(request -> {
-        transitModel.getTransitLayer().initTransferCacheForRequest(request);
+      // The transfer indexes are independent of each other, build them in parallel
+      transferCacheRequests
+        .parallelStream()
+        .forEach(request -> {
+          transitModel.getTransitLayer().initTransferCacheForRequest(request);
 
-        //noinspection Convert2MethodRef
-        progress.step(s -> LOG.info(s));
-      });
+          //noinspection Convert2MethodRef
+          progress.step(s -> LOG.info(s));
+        });
 
       LOG.info(progress.completeMessage());
     }
@@ -0,0 +1,51 @@
+package org.opentripplanner.standalone.server;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import java.util.List;
+import org.opentripplanner.raptor.configure.HeuristicSearchCache;
+
+/**
+ * Report the Raptor heuristic cache statistics with the same meters as the Guava caches, with the
+ * {@code raptorHeuristicsCache} name and the {@code cache=raptorHeuristics} tag.
+ */
+class HeuristicSearchCacheMetrics extends CacheMeterBinder<HeuristicSearchCache<?>> {
+
+  HeuristicSearchCacheMetrics(HeuristicSearchCache<?> cache) {
+    super(cache, "raptorHeuristicsCache", List.of(Tag.of("cache", "raptorHeuristics")));
+  }
+
+  @Override
+  protected Long size() {
+    var cache = getCache();
+    return cache == null ? null : cache.size();
+  }
+
+  @Override
+  protected long hitCount() {
+    var cache = getCache();
+    return cache == null ? 0 : cache.hitCount();
+  }
+
+  @Override
+  protected Long missCount() {
+    var cache = getCache();
+    return cache == null ? null : cache.missCount();
+  }
+
+  @Override
+  protected Long evictionCount() {
+    var cache = getCache();
+    return cache == null ? null : cache.evictionCount();
+  }
+
+  @Override
+  protected long putCount() {
+    var cache = getCache();
+    return cache == null ? 0 : cache.putCount();
+  }
+
+  @Override
+  protected void bindImplementationSpecificMetrics(MeterRegistry registry) {}
+}
@@ -2,7 +2,6 @@ package org.opentripplanner.standalone.server;
 
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tag;
-import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import io.micrometer.core.instrument.binder.jvm.ClassLoaderMetrics;
 import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import io.micrometer.core.instrument.binder.jvm.JvmCompilationMetrics;
@@ -19,6 +18,9 @@ import jakarta.inject.Inject;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ForkJoinPool;
+import org.opentripplanner.apis.gtfs.GtfsGraphQLAPI;
+import org.opentripplanner.apis.transmodel.TransmodelAPI;
+import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueSummary;
 import org.opentripplanner.raptor.configure.RaptorConfig;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
@@ -48,13 +50,19 @@ public class MetricsLogging {
     new ProcessorMetrics().bindTo(Metrics.globalRegistry);
     new UptimeMetrics().bindTo(Metrics.globalRegistry);
 
-    if (transitModel.getTransitLayer() != null) {
-      new GuavaCacheMetrics(
-        transitModel.getTransitLayer().getTransferCache().getTransferCache(),
-        "raptorTransfersCache",
-        List.of(Tag.of("cache", "raptorTransfers"))
-      )
-        .bindTo(Metrics.globalRegistry);
+    var transitLayer = transitModel.getTransitLayer();
+    if (transitLayer != null) {
+      transitLayer.getTransferCache().bindTo(Metrics.globalRegistry);
+      transitLayer.getTransitDataCache().bindTo(Metrics.globalRegistry);
+    }
+    if (OTPFeature.GtfsGraphQlApi.isOn()) {
+      GtfsGraphQLAPI.documentCacheMetrics().bindTo(Metrics.globalRegistry);
+    }
+    if (OTPFeature.TransmodelGraphQlApi.isOn()) {
+      TransmodelAPI.documentCacheMetrics().bindTo(Metrics.globalRegistry);
+    }
+    if (raptorConfig.heuristicCache().isEnabled()) {
+      new HeuristicSearchCacheMetrics(raptorConfig.heuristicCache()).bindTo(Metrics.globalRegistry);
     }
     new ExecutorServiceMetrics(
       ForkJoinPool.commonPool(),
@@ -84,6 +92,8 @@ public class MetricsLogging {
         List.of(Tag.of("pool", "graphUpdateScheduler"))
       )
         .bindTo(Metrics.globalRegistry);
+
+      transitModel.getUpdaterManager().getGraphWriterQueue().bindTo(Metrics.globalRegistry);
     }
 
     if (raptorConfig.isMultiThreaded()) {
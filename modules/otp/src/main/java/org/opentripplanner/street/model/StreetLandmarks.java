@@ -0,0 +1,116 @@
+package org.opentripplanner.street.model;
+
+import gnu.trove.map.hash.TObjectIntHashMap;
+import java.io.Serializable;
+import java.util.List;
+import org.opentripplanner.street.model.vertex.Vertex;
+
+/**
+ * Pre-calculated car travel times between a small set of landmark vertices and every vertex in the
+ * street network, used for the ALT (A*, Landmarks and Triangle inequality) heuristic.
+ * <p>
+ * The travel time is the fastest possible time, driving each street at its car speed without any
+ * turn costs or delays, so it is a lower bound of the real travel time. By the triangle
+ * inequality, for every landmark {@code L} the travel time from {@code a} to {@code b} is at least
+ * {@code d(L,b) - d(L,a)} and {@code d(a,L) - d(b,L)}.
+ * <p>
+ * The durations of all vertices are stored in one array, one row per vertex. The vertices do not
+ * have a dense index, so the row of each vertex is kept in a primitive map.
+ */
+public class StreetLandmarks implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /** The row returned for vertices which are not known by the pre-calculation. */
+  public static final int UNKNOWN_VERTEX = -1;
+
+  private final Vertex[] landmarks;
+
+  private final TObjectIntHashMap<Vertex> rows;
+
+  /**
+   * For the vertex in row {@code r}, the time from landmark {@code i} is stored at index
+   * {@code r*2*n + 2*i} and the time to landmark {@code i} at index {@code r*2*n + 2*i+1}, where
+   * {@code n} is the number of landmarks. Unreachable is stored as positive infinity.
+   */
+  private final float[] durations;
+
+  /**
+   * @param rows the row in the {@code durations} of each vertex, the map must return
+   *             {@link #UNKNOWN_VERTEX} for vertices it does not contain.
+   */
+  public StreetLandmarks(
+    List<Vertex> landmarks,
+    TObjectIntHashMap<Vertex> rows,
+    float[] durations
+  ) {
+    if (rows.getNoEntryValue() != UNKNOWN_VERTEX) {
+      throw new IllegalArgumentException("Missing vertices must have the row UNKNOWN_VERTEX");
+    }
+    if (durations.length != 2 * landmarks.size() * rows.size()) {
+      throw new IllegalArgumentException(
+        "Expected " + 2 * landmarks.size() * rows.size() + " durations, was " + durations.length
+      );
+    }
+    this.landmarks = landmarks.toArray(Vertex[]::new);
+    this.rows = rows;
+    this.durations = durations;
+  }
+
+  public List<Vertex> landmarks() {
+    return List.of(landmarks);
+  }
+
+  /**
+   * The row of the durations to and from each landmark for the given vertex, or
+   * {@link #UNKNOWN_VERTEX} if the vertex was not reached by the pre-calculation, for example if it
+   * is a temporary vertex.
+   */
+  public int row(Vertex vertex) {
+    return rows.get(vertex);
+  }
+
+  /** The duration from the landmark with the given index to the vertex in the given row. */
+  public float durationFrom(int row, int landmark) {
+    return durations[2 * (row * landmarks.length + landmark)];
+  }
+
+  /** The duration from the vertex in the given row to the landmark with the given index. */
+  public float durationTo(int row, int landmark) {
+    return durations[2 * (row * landmarks.length + landmark) + 1];
+  }
+
+  /**
+   * Return a lower bound of the car travel time in seconds from the vertex in row {@code from} to
+   * the vertex in row {@code to}. Landmarks which can not be used, because one of the vertices is
+   * unreachable from or to it, are ignored.
+   */
+  public double lowerBound(int from, int to) {
+    int stride = 2 * landmarks.length;
+    int f = from * stride;
+    int t = to * stride;
+    double max = 0;
+    for (int i = 0; i < stride; i += 2) {
+      // d(from,to) >= d(L,to) - d(L,from)
+      double d = durations[t + i] - durations[f + i];
+      if (d > max && d != Double.POSITIVE_INFINITY) {
+        max = d;
+      }
+      // d(from,to) >= d(from,L) - d(to,L)
+      d = durations[f + i + 1] - durations[t + i + 1];
+      if (d > max && d != Double.POSITIVE_INFINITY) {
+        max = d;
+      }
+    }
+    return max;
+  }
+
+  /** The number of vertices with durations. */
+  public int numberOfVertices() {
+    return rows.size();
+  }
+
+  public int size() {
+    return landmarks.length;
+  }
+}
@@ -0,0 +1,248 @@
+package org.opentripplanner.street.model.edge;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.annotation.Nullable;
+import org.opentripplanner.framework.application.OtpAppException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The compact geometries of the street edges are by far the largest part of a serialized street
+ * graph, but they are not used by the routing itself, only when itineraries and debug layers are
+ * created. This class stores them in a separate file next to the graph file. The file is memory
+ * mapped when the graph is loaded, so the geometries are neither deserialized nor kept on the
+ * heap, but read lazily by the operating system when they are used.
+ * <p>
+ * Only the geometries are mapped. The vertices and edges, and the trip times of the transit model,
+ * are still deserialized with Kryo and kept on the heap. Mapping them as flat arrays would need
+ * the routing to read them from the arrays instead of from the objects. The
+ * {@code GraphLoadSpeedTest} in the speed test reports the load time and heap size with and
+ * without this store.
+ * <p>
+ * The file starts with a header of {@link #HEADER_SIZE} bytes: a magic string and a random file
+ * id, which is also stored in the graph to make sure the two files belong together. After the
+ * header follows the geometries, each prefixed by its length. An edge refers to its geometry with
+ * the position in the file, 0 means that the geometry is not stored here.
+ * <p>
+ * Each loaded graph maps its own file, and the edges keep a reference to the store of their graph.
+ * Writing the file does not change the edges, the positions are passed to the
+ * {@link StreetEdgeSerializer} when the graph is serialized.
+ */
+public final class MappedStreetGeometry {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MappedStreetGeometry.class);
+
+  private static final byte[] MAGIC = "OTPGEOM1".getBytes(StandardCharsets.US_ASCII);
+  private static final int HEADER_SIZE = 16;
+
+  /**
+   * The file is mapped in chunks, since a single {@link MappedByteBuffer} is limited to 2 GB. The
+   * geometries are written so that none of them crosses the boundary of a chunk.
+   */
+  private static final int CHUNK_BITS = 30;
+  private static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+
+  /**
+   * Small geometries, like straight lines, take less space inline on the edge than the position
+   * in the file.
+   */
+  private static final int MIN_MAPPED_SIZE = 9;
+
+  private final long fileId;
+  private final ByteBuffer[] chunks;
+
+  private MappedStreetGeometry(long fileId, ByteBuffer[] chunks) {
+    this.fileId = fileId;
+    this.chunks = chunks;
+  }
+
+  /**
+   * Write the geometries of the given edges to the file. The edges are not changed, the returned
+   * positions are used to refer to the geometries when the edges are serialized.
+   */
+  public static Positions write(Collection<StreetEdge> edges, File file) {
+    long fileId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    // Edges in opposite directions share the same geometry, store it only once. The geometry
+    // arrays are compared by identity. A geometry which is already mapped is read again for each
+    // edge, so it is identified by its position in the current store instead.
+    Map<Object, Long> positions = new HashMap<>();
+    Map<StreetEdge, Long> edgePositions = new IdentityHashMap<>();
+    // Write to a temporary file, the old file may be mapped and in use by the edges
+    File tmpFile = new File(file.getParentFile(), file.getName() + ".tmp");
+
+    try (
+      var out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath()))
+      )
+    ) {
+      out.write(MAGIC);
+      out.writeLong(fileId);
+      long filePosition = HEADER_SIZE;
+
+      for (StreetEdge edge : edges) {
+        byte[] geometry = edge.compactGeometry();
+        if (geometry == null || geometry.length < MIN_MAPPED_SIZE) {
+          continue;
+        }
+        Object key = edge.mappedGeometry() == null ? geometry : edge.mappedGeometryPosition();
+        Long position = positions.get(key);
+        if (position == null) {
+          long entryEnd = filePosition + Integer.BYTES + geometry.length;
+          long chunkEnd = ((filePosition >>> CHUNK_BITS) + 1) << CHUNK_BITS;
+          if (entryEnd > chunkEnd) {
+            // Pad to the next chunk, a geometry may not cross the boundary of a chunk
+            out.write(new byte[(int) (chunkEnd - filePosition)]);
+            filePosition = chunkEnd;
+          }
+          position = filePosition;
+          out.writeInt(geometry.length);
+          out.write(geometry);
+          filePosition += Integer.BYTES + geometry.length;
+          positions.put(key, position);
+        }
+        edgePositions.put(edge, position);
+      }
+    } catch (IOException e) {
+      throw new OtpAppException(
+        "Unable to write street geometry file: %s, %s",
+        file,
+        e.getLocalizedMessage()
+      );
+    }
+    try {
+      Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      throw new OtpAppException(
+        "Unable to write street geometry file: %s, %s",
+        file,
+        e.getLocalizedMessage()
+      );
+    }
+    LOG.info("{} street geometries written to {}", positions.size(), file);
+    return new Positions(fileId, edgePositions);
+  }
+
+  /**
+   * Map the given file. The file must be the one written together with the graph.
+   */
+  public static MappedStreetGeometry map(File file, long expectedFileId) {
+    try (var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      var chunks = new ByteBuffer[(int) ((size + CHUNK_SIZE - 1) >>> CHUNK_BITS)];
+      for (int i = 0; i < chunks.length; ++i) {
+        long start = i * CHUNK_SIZE;
+        chunks[i] =
+          channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_SIZE, size - start));
+      }
+      var header = new byte[MAGIC.length];
+      if (size >= HEADER_SIZE) {
+        chunks[0].get(0, header);
+      }
+      if (!Arrays.equals(MAGIC, header)) {
+        throw new OtpAppException("The file is not a street geometry file: " + file);
+      }
+      long fileId = chunks[0].getLong(MAGIC.length);
+      if (fileId != expectedFileId) {
+        throw new OtpAppException(
+          "The street geometry file does not belong to the graph. Expected id %d, but was %d in %s.",
+          expectedFileId,
+          fileId,
+          file
+        );
+      }
+      return new MappedStreetGeometry(fileId, chunks);
+    } catch (IOException e) {
+      throw new OtpAppException(
+        "Unable to map street geometry file: %s, %s",
+        file,
+        e.getLocalizedMessage()
+      );
+    }
+  }
+
+  public long fileId() {
+    return fileId;
+  }
+
+  byte[] get(long position) {
+    ByteBuffer chunk = chunks[(int) (position >>> CHUNK_BITS)];
+    int offset = (int) (position & (CHUNK_SIZE - 1));
+    int length = chunk.getInt(offset);
+    byte[] geometry = new byte[length];
+    // Absolute bulk get does not change the buffer position, so it is safe to call concurrently
+    chunk.get(offset + Integer.BYTES, geometry);
+    return geometry;
+  }
+
+  /**
+   * Compare the geometry at the given position with the given array, without copying it.
+   */
+  boolean contentEquals(long position, @Nullable byte[] geometry) {
+    if (geometry == null) {
+      return false;
+    }
+    ByteBuffer chunk = chunks[(int) (position >>> CHUNK_BITS)];
+    int offset = (int) (position & (CHUNK_SIZE - 1));
+    if (chunk.getInt(offset) != geometry.length) {
+      return false;
+    }
+    offset += Integer.BYTES;
+    for (int i = 0; i < geometry.length; ++i) {
+      if (chunk.get(offset + i) != geometry[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Compare the geometries at the two positions, without copying them.
+   */
+  boolean contentEquals(long positionA, long positionB) {
+    if (positionA == positionB) {
+      return true;
+    }
+    ByteBuffer chunkA = chunks[(int) (positionA >>> CHUNK_BITS)];
+    ByteBuffer chunkB = chunks[(int) (positionB >>> CHUNK_BITS)];
+    int offsetA = (int) (positionA & (CHUNK_SIZE - 1));
+    int offsetB = (int) (positionB & (CHUNK_SIZE - 1));
+    int length = chunkA.getInt(offsetA);
+    if (chunkB.getInt(offsetB) != length) {
+      return false;
+    }
+    offsetA += Integer.BYTES;
+    offsetB += Integer.BYTES;
+    for (int i = 0; i < length; ++i) {
+      if (chunkA.get(offsetA + i) != chunkB.get(offsetB + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The id of a written file and the positions of the geometries of the edges in it.
+   */
+  public record Positions(long fileId, Map<StreetEdge, Long> edgePositions) {
+    /** The position of the geometry of the given edge, or 0 if it is not stored in the file. */
+    long position(StreetEdge edge) {
+      return edgePositions.getOrDefault(edge, 0L);
+    }
+  }
+}
@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
 import org.opentripplanner.framework.geometry.CompactLineStringUtils;
@@ -93,6 +94,16 @@ public class StreetEdge
 
   private byte[] compactGeometry;
 
+  /**
+   * The store of the graph the geometry is read from, or {@code null} if the geometry is stored in
+   * the {@link #compactGeometry} field. The geometry fields are serialized by the
+   * {@link StreetEdgeSerializer}.
+   */
+  private transient MappedStreetGeometry mappedGeometry;
+
+  /** The position of the geometry in the {@link #mappedGeometry} store. */
+  private long mappedGeometryPosition = 0;
+
   private I18NString name;
 
   private StreetTraversalPermission permission;
@@ -457,7 +468,7 @@ public class StreetEdge
       fromv.getLat(),
       tov.getLon(),
       tov.getLat(),
-      compactGeometry,
+      compactGeometry(),
       isBack()
     );
   }
@@ -520,8 +531,10 @@ public class StreetEdge
   }
 
   public void shareData(StreetEdge reversedEdge) {
-    if (Arrays.equals(compactGeometry, reversedEdge.compactGeometry)) {
+    if (hasSameCompactGeometry(reversedEdge)) {
       compactGeometry = reversedEdge.compactGeometry;
+      mappedGeometry = reversedEdge.mappedGeometry;
+      mappedGeometryPosition = reversedEdge.mappedGeometryPosition;
     } else {
       LOG.warn("Can't share geometry between {} and {}", this, reversedEdge);
     }
@@ -1035,7 +1048,64 @@ public class StreetEdge
     );
   }
 
+  /**
+   * The compact geometry of the edge, read from the {@link MappedStreetGeometry} if it is stored
+   * there. A mapped geometry is copied into a new array on each call, use
+   * {@link #hasSameCompactGeometry(StreetEdge)} to compare geometries.
+   */
+  byte[] compactGeometry() {
+    return mappedGeometry == null ? compactGeometry : mappedGeometry.get(mappedGeometryPosition);
+  }
+
+  /**
+   * Compare the compact geometries of the two edges without copying the mapped geometries.
+   */
+  private boolean hasSameCompactGeometry(StreetEdge other) {
+    if (mappedGeometry == null && other.mappedGeometry == null) {
+      return Arrays.equals(compactGeometry, other.compactGeometry);
+    }
+    if (mappedGeometry == null) {
+      return other.mappedGeometry.contentEquals(other.mappedGeometryPosition, compactGeometry);
+    }
+    if (other.mappedGeometry == null) {
+      return mappedGeometry.contentEquals(mappedGeometryPosition, other.compactGeometry);
+    }
+    if (mappedGeometry == other.mappedGeometry) {
+      return mappedGeometry.contentEquals(mappedGeometryPosition, other.mappedGeometryPosition);
+    }
+    return Arrays.equals(compactGeometry(), other.compactGeometry());
+  }
+
+  /**
+   * Read the geometry from the given store, instead of keeping it on the edge.
+   */
+  void setMappedGeometry(MappedStreetGeometry store, long position) {
+    this.compactGeometry = null;
+    this.mappedGeometry = store;
+    this.mappedGeometryPosition = position;
+  }
+
+  /**
+   * Keep the given geometry on the edge.
+   */
+  void setCompactGeometry(byte[] compactGeometry) {
+    this.compactGeometry = compactGeometry;
+    this.mappedGeometry = null;
+    this.mappedGeometryPosition = 0;
+  }
+
+  @Nullable
+  MappedStreetGeometry mappedGeometry() {
+    return mappedGeometry;
+  }
+
+  long mappedGeometryPosition() {
+    return mappedGeometryPosition;
+  }
+
   private void setGeometry(LineString geometry) {
+    this.mappedGeometry = null;
+    this.mappedGeometryPosition = 0;
     this.compactGeometry =
       CompactLineStringUtils.compactLineString(
         fromv.getLon(),
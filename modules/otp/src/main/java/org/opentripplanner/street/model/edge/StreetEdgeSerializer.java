@@ -0,0 +1,107 @@
+package org.opentripplanner.street.model.edge;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.serializers.FieldSerializer;
+import com.esotericsoftware.kryo.util.ObjectMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Serialize the street edges with Kryo. The geometry of an edge is written after the other fields,
+ * either inline or as the position of the geometry in the {@link MappedStreetGeometry} file saved
+ * with the graph. The positions are looked up while the edges are written, so the edges of a graph
+ * which is still in use are not changed when the graph is saved.
+ * <p>
+ * The positions to write and the store to read from are passed in with the Kryo context, see
+ * {@link #writeGeometryPositions(Kryo, MappedStreetGeometry.Positions)} and
+ * {@link #readGeometriesFrom(Kryo, MappedStreetGeometry)}.
+ */
+public final class StreetEdgeSerializer extends FieldSerializer<StreetEdge> {
+
+  private static final Object POSITIONS_KEY = MappedStreetGeometry.Positions.class;
+  private static final Object STORE_KEY = MappedStreetGeometry.class;
+
+  /**
+   * The edges in opposite directions share their geometry, and are usually written close together.
+   * The most recent mapped geometries written inline are kept, so the shared geometry is written
+   * once and read back as one array. The map is bounded, so saving a graph without a geometry file
+   * does not copy all the mapped geometries to the heap.
+   */
+  private static final int MAX_INLINED_GEOMETRIES = 4096;
+
+  private final Map<Long, byte[]> inlinedGeometries = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+      return size() > MAX_INLINED_GEOMETRIES;
+    }
+  };
+
+  public StreetEdgeSerializer(Kryo kryo, Class<?> type) {
+    super(kryo, type);
+    removeField("compactGeometry");
+    removeField("mappedGeometryPosition");
+  }
+
+  /**
+   * Write the positions in the given file instead of the geometries. Without positions all
+   * geometries are written inline.
+   */
+  public static void writeGeometryPositions(
+    Kryo kryo,
+    @Nullable MappedStreetGeometry.Positions positions
+  ) {
+    context(kryo).put(POSITIONS_KEY, positions);
+  }
+
+  /**
+   * Read the geometries written as positions from the given store.
+   */
+  public static void readGeometriesFrom(Kryo kryo, @Nullable MappedStreetGeometry store) {
+    context(kryo).put(STORE_KEY, store);
+  }
+
+  @Override
+  public void write(Kryo kryo, Output output, StreetEdge edge) {
+    super.write(kryo, output, edge);
+    var positions = (MappedStreetGeometry.Positions) context(kryo).get(POSITIONS_KEY);
+    long position = positions == null ? 0 : positions.position(edge);
+    output.writeVarLong(position, true);
+    if (position == 0) {
+      kryo.writeObjectOrNull(output, inlineGeometry(edge), byte[].class);
+    }
+  }
+
+  @Override
+  public StreetEdge read(Kryo kryo, Input input, Class<? extends StreetEdge> type) {
+    StreetEdge edge = super.read(kryo, input, type);
+    long position = input.readVarLong(true);
+    if (position == 0) {
+      edge.setCompactGeometry(kryo.readObjectOrNull(input, byte[].class));
+    } else {
+      var store = (MappedStreetGeometry) context(kryo).get(STORE_KEY);
+      if (store == null) {
+        throw new KryoException("The street geometries are saved in a file which is not mapped.");
+      }
+      edge.setMappedGeometry(store, position);
+    }
+    return edge;
+  }
+
+  /** The Kryo context is a raw map, this is the only place it is cast. */
+  @SuppressWarnings("unchecked")
+  private static ObjectMap<Object, Object> context(Kryo kryo) {
+    return kryo.getContext();
+  }
+
+  private byte[] inlineGeometry(StreetEdge edge) {
+    var store = edge.mappedGeometry();
+    if (store == null) {
+      return edge.compactGeometry();
+    }
+    return inlinedGeometries.computeIfAbsent(edge.mappedGeometryPosition(), store::get);
+  }
+}
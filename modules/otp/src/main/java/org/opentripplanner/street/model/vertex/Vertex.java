@@ -7,7 +7,10 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import org.locationtech.jts.geom.Coordinate;
 import org.opentripplanner.astar.spi.AStarVertex;
 import org.opentripplanner.framework.geometry.WgsCoordinate;
@@ -65,6 +68,22 @@ public abstract class Vertex implements AStarVertex<State, Edge, Vertex>, Serial
     this.incoming = new Edge[0];
   }
 
+  /**
+   * Replace the outgoing edges, used to reconstruct the edge lists after deserialization. An edge
+   * is only added once, as in {@link #addOutgoing(Edge)}.
+   */
+  public void initOutgoing(Collection<Edge> outgoing) {
+    this.outgoing = distinctEdges(outgoing);
+  }
+
+  /**
+   * Replace the incoming edges, used to reconstruct the edge lists after deserialization. An edge
+   * is only added once, as in {@link #addIncoming(Edge)}.
+   */
+  public void initIncoming(Collection<Edge> incoming) {
+    this.incoming = distinctEdges(incoming);
+  }
+
   /* EDGE UTILITY METHODS (use arrays to eliminate copy-on-write set objects) */
 
   public void addOutgoing(Edge edge) {
@@ -259,6 +278,24 @@ public abstract class Vertex implements AStarVertex<State, Edge, Vertex>, Serial
     return copy;
   }
 
+  /**
+   * Copy the edges to an array, skipping the repeated edges like {@link #addEdge(Edge[], Edge)}.
+   * The edges already copied are kept in an identity set, so this is linear in the number of edges.
+   */
+  private static Edge[] distinctEdges(Collection<Edge> edges) {
+    Edge[] copy = new Edge[edges.size()];
+    Set<Edge> added = Collections.newSetFromMap(new IdentityHashMap<>(copy.length));
+    int n = 0;
+    for (Edge e : edges) {
+      if (added.add(e)) {
+        copy[n++] = e;
+      } else {
+        LOG.error("repeatedly added edge {}", e);
+      }
+    }
+    return n == copy.length ? copy : Arrays.copyOf(copy, n);
+  }
+
   /**
    * A helper method to avoid repeated code for outgoing and incoming lists. Synchronization
    * must be handled by the caller, to avoid passing edge array pointers that may be invalidated.
@@ -70,11 +70,11 @@ public class StreetSearchBuilder extends AStarBuilder<State, Edge, Vertex, Stree
   }
 
   @Override
-  protected Collection<State> createInitialStates(Set<Vertex> originVertices) {
+  protected Collection<State> createInitialStates(Set<Vertex> originVertices, boolean arriveBy) {
     StreetSearchRequest streetSearchRequest = StreetSearchRequestMapper
       .map(routeRequest)
       .withMode(streetRequest.mode())
-      .withArriveBy(arriveBy())
+      .withArriveBy(arriveBy)
       .build();
 
     return State.getInitialStates(originVertices, streetSearchRequest);
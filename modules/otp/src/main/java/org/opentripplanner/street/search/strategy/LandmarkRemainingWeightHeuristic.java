@@ -0,0 +1,112 @@
+package org.opentripplanner.street.search.strategy;
+
+import gnu.trove.list.array.TIntArrayList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.preference.RoutingPreferences;
+import org.opentripplanner.street.model.StreetLandmarks;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.vertex.TemporaryVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.state.State;
+
+/**
+ * A remaining weight heuristic for car searches using the pre-calculated {@link StreetLandmarks},
+ * also known as ALT (A*, Landmarks and Triangle inequality). The Euclidean estimate assumes the
+ * car can drive in a straight line at the maximum speed of the network, while the landmarks know
+ * that the car has to follow the streets, and that most of them are slower. This gives a much
+ * tighter lower bound.
+ * <p>
+ * The landmark bound is only used for {@link StreetMode#CAR}, for all other modes and for vertices
+ * not known by the pre-calculation this falls back to the Euclidean estimate.
+ */
+public class LandmarkRemainingWeightHeuristic extends EuclideanRemainingWeightHeuristic {
+
+  private final StreetLandmarks landmarks;
+
+  private boolean arriveBy;
+  private double carReluctance;
+
+  /**
+   * The landmark rows of the permanent vertices closest to the destination. A destination is often
+   * a temporary vertex, so the bound is calculated to these vertices instead. Null if the landmarks
+   * can not be used for the current search.
+   */
+  @Nullable
+  private int[] destinationRows;
+
+  public LandmarkRemainingWeightHeuristic(StreetLandmarks landmarks, Float maxCarSpeed) {
+    super(maxCarSpeed);
+    this.landmarks = landmarks;
+  }
+
+  @Override
+  public void initialize(
+    StreetMode streetMode,
+    Set<Vertex> toVertices,
+    boolean arriveBy,
+    RoutingPreferences preferences
+  ) {
+    super.initialize(streetMode, toVertices, arriveBy, preferences);
+    this.arriveBy = arriveBy;
+    this.carReluctance = preferences.car().reluctance();
+    this.destinationRows =
+      streetMode == StreetMode.CAR ? findDestinationRows(toVertices, arriveBy) : null;
+  }
+
+  @Override
+  public double estimateRemainingWeight(State s) {
+    double euclidean = super.estimateRemainingWeight(s);
+    if (destinationRows == null) {
+      return euclidean;
+    }
+    int row = landmarks.row(s.getVertex());
+    if (row == StreetLandmarks.UNKNOWN_VERTEX) {
+      return euclidean;
+    }
+    double min = Double.POSITIVE_INFINITY;
+    for (int destination : destinationRows) {
+      double bound = arriveBy
+        ? landmarks.lowerBound(destination, row)
+        : landmarks.lowerBound(row, destination);
+      min = Math.min(min, bound);
+    }
+    return Math.max(euclidean, carReluctance * min);
+  }
+
+  /**
+   * Find the permanent vertices every path to the destination must pass through, by walking
+   * backwards from the destination through the temporary vertices.
+   */
+  @Nullable
+  private int[] findDestinationRows(Set<Vertex> toVertices, boolean arriveBy) {
+    var result = new TIntArrayList();
+    var visited = new HashSet<Vertex>();
+    var queue = new ArrayList<>(toVertices);
+
+    while (!queue.isEmpty()) {
+      Vertex v = queue.removeLast();
+      if (!visited.add(v)) {
+        continue;
+      }
+      if (v instanceof TemporaryVertex) {
+        Collection<Edge> edges = arriveBy ? v.getOutgoing() : v.getIncoming();
+        for (Edge e : edges) {
+          queue.add(arriveBy ? e.getToVertex() : e.getFromVertex());
+        }
+      } else {
+        int row = landmarks.row(v);
+        if (row == StreetLandmarks.UNKNOWN_VERTEX) {
+          // The destination is not connected to the pre-calculated network
+          return null;
+        }
+        result.add(row);
+      }
+    }
+    return result.isEmpty() ? null : result.toArray();
+  }
+}
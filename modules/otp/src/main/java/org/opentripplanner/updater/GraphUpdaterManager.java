@@ -48,6 +48,11 @@ public class GraphUpdaterManager implements WriteToGraphCallback, GraphUpdaterSt
    */
   private final ScheduledExecutorService scheduler;
 
+  /**
+   * The graph writer runnables are queued here, and run in batches by the scheduler thread.
+   */
+  private final GraphWriterQueue graphWriterQueue;
+
   private final ScheduledExecutorService pollingUpdaterPool;
 
   /**
@@ -61,20 +66,15 @@ public class GraphUpdaterManager implements WriteToGraphCallback, GraphUpdaterSt
    */
   private final List<GraphUpdater> updaterList = new ArrayList<>();
 
-  /**
-   * The Graph that will be updated.
-   */
-  private final RealTimeUpdateContext realtimeUpdateContext;
-
   /**
    * Constructor.
    *
    */
   public GraphUpdaterManager(RealTimeUpdateContext context, List<GraphUpdater> updaters) {
-    this.realtimeUpdateContext = context;
     // Thread factories used to create new threads, giving them more human-readable names.
     var graphWriterThreadFactory = new ThreadFactoryBuilder().setNameFormat("graph-writer").build();
     this.scheduler = Executors.newSingleThreadScheduledExecutor(graphWriterThreadFactory);
+    this.graphWriterQueue = new GraphWriterQueue(scheduler, context);
     var updaterThreadFactory = new ThreadFactoryBuilder().setNameFormat("updater-%d").build();
     this.pollingUpdaterPool =
       Executors.newScheduledThreadPool(
@@ -182,13 +182,7 @@ public class GraphUpdaterManager implements WriteToGraphCallback, GraphUpdaterSt
 
   @Override
   public Future<?> execute(GraphWriterRunnable runnable) {
-    return scheduler.submit(() -> {
-      try {
-        runnable.run(realtimeUpdateContext);
-      } catch (Exception e) {
-        LOG.error("Error while running graph writer {}:", runnable.getClass().getName(), e);
-      }
-    });
+    return graphWriterQueue.submit(runnable);
   }
 
   @Override
@@ -256,6 +250,10 @@ public class GraphUpdaterManager implements WriteToGraphCallback, GraphUpdaterSt
     return scheduler;
   }
 
+  public GraphWriterQueue getGraphWriterQueue() {
+    return graphWriterQueue;
+  }
+
   /**
    * This method start a task during startup and log a message when all updaters are initialized.
    * When all updaters are ready, then OTP is ready for processing routing requests.
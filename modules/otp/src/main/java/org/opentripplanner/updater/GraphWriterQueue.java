@@ -0,0 +1,163 @@
+package org.opentripplanner.updater;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The queue of {@link GraphWriterRunnable}s waiting to be run on the single graph writer thread.
+ * <p>
+ * The runnables are not submitted to the writer executor one by one. Instead, the writer thread
+ * drains all runnables waiting in the queue and runs them as one batch, in the order they were
+ * submitted. A runnable is skipped if a runnable later in the same batch
+ * {@link GraphWriterRunnable#supersedes(GraphWriterRunnable) supersedes} it. If an updater
+ * produces data faster than the writer can apply it, only the most recent data is applied. The
+ * {@link Future} of a skipped runnable is completed without running it.
+ * <p>
+ * The queue size, the time each runnable waits in the queue, the time it takes to run it and the
+ * number of skipped runnables are reported as metrics, see {@link #bindTo(MeterRegistry)}.
+ */
+public class GraphWriterQueue implements MeterBinder {
+
+  private static final Logger LOG = LoggerFactory.getLogger(GraphWriterQueue.class);
+
+  private final ExecutorService writer;
+  private final RealTimeUpdateContext context;
+  private final BlockingQueue<Task> queue = new LinkedBlockingQueue<>();
+
+  private volatile Timer waitTimer = null;
+  private volatile Timer runTimer = null;
+  private volatile Counter supersededCounter = null;
+
+  GraphWriterQueue(ExecutorService writer, RealTimeUpdateContext context) {
+    this.writer = writer;
+    this.context = context;
+  }
+
+  /**
+   * Add the runnable to the queue, and schedule the writer to run the queued runnables.
+   */
+  Future<?> submit(GraphWriterRunnable runnable) {
+    var task = new Task(runnable);
+    queue.add(task);
+    writer.execute(this::runBatch);
+    return task;
+  }
+
+  /**
+   * The number of runnables waiting to be run.
+   */
+  public int size() {
+    return queue.size();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge
+      .builder("graph_writer_queue_size", this, GraphWriterQueue::size)
+      .description("Graph writer runnables waiting to be run")
+      .register(registry);
+    waitTimer =
+      Timer
+        .builder("graph_writer_wait_time")
+        .description("Time a graph writer runnable waits in the queue before it is run")
+        .register(registry);
+    runTimer =
+      Timer
+        .builder("graph_writer_run_time")
+        .description("Time it takes to run a graph writer runnable")
+        .register(registry);
+    supersededCounter =
+      Counter
+        .builder("graph_writer_superseded")
+        .description("Graph writer runnables skipped, because a later runnable superseded them")
+        .register(registry);
+  }
+
+  /**
+   * Run all runnables in the queue. The writer is scheduled once for each runnable submitted, so
+   * the writer often finds the queue empty, the runnables are then already run in a previous
+   * batch.
+   */
+  private void runBatch() {
+    List<Task> batch = new ArrayList<>();
+    queue.drainTo(batch);
+
+    for (int i = 0; i < batch.size(); ++i) {
+      var task = batch.get(i);
+      if (isSuperseded(task, batch.subList(i + 1, batch.size()))) {
+        task.skip();
+      } else {
+        task.run();
+      }
+    }
+  }
+
+  private static boolean isSuperseded(Task task, List<Task> laterTasks) {
+    for (Task it : laterTasks) {
+      if (it.runnable.supersedes(task.runnable)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The run time is recorded before the future of the task is completed, so it is included in the
+   * metrics when the submitter sees the runnable as done.
+   */
+  private void runGraphWriter(GraphWriterRunnable runnable) {
+    long startTime = System.nanoTime();
+    try {
+      runnable.run(context);
+    } catch (Exception e) {
+      LOG.error("Error while running graph writer {}:", runnable.getClass().getName(), e);
+    } finally {
+      record(runTimer, System.nanoTime() - startTime);
+    }
+  }
+
+  private static void record(Timer timer, long durationNanos) {
+    if (timer != null) {
+      timer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private class Task extends FutureTask<Void> {
+
+    private final GraphWriterRunnable runnable;
+    private final long submitTime = System.nanoTime();
+
+    private Task(GraphWriterRunnable runnable) {
+      super(() -> runGraphWriter(runnable), null);
+      this.runnable = runnable;
+    }
+
+    @Override
+    public void run() {
+      record(waitTimer, System.nanoTime() - submitTime);
+      super.run();
+    }
+
+    private void skip() {
+      record(waitTimer, System.nanoTime() - submitTime);
+      if (supersededCounter != null) {
+        supersededCounter.increment();
+      }
+      LOG.debug("Graph writer {} skipped, superseded by a later update.", runnable);
+      set(null);
+    }
+  }
+}
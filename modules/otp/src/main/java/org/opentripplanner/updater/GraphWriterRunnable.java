@@ -14,4 +14,17 @@ public interface GraphWriterRunnable {
    * This function is executed to modify the graph.
    */
   void run(RealTimeUpdateContext context);
+
+  /**
+   * Return {@code true} if running this runnable makes it unnecessary to run the given runnable,
+   * submitted before this one. For example, if both contain the full dataset from the same
+   * source. The result of running the previous runnable and then this runnable must be the same as
+   * running only this runnable, also if other runnables are run in between. The graph updater
+   * manager skips runnables which are superseded by a runnable waiting in the queue.
+   * <p>
+   * The default is {@code false}, all runnables are run.
+   */
+  default boolean supersedes(GraphWriterRunnable previous) {
+    return false;
+  }
 }
@@ -0,0 +1,38 @@
+package org.opentripplanner.updater.siri;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.opentripplanner.transit.model.timetable.Trip;
+import uk.org.siri.siri20.EstimatedVehicleJourney;
+
+/**
+ * A SIRI EstimatedVehicleJourney prepared by the updater before it is handed over to the graph
+ * writer thread. The trip and service date are resolved against the published timetable snapshot,
+ * and the candidate trips for fuzzy matching are looked up in the scheduled data. The graph writer
+ * thread checks the resolved trip against the timetable snapshot buffer before using it, see
+ * {@link SiriTimetableSnapshotSource#applyPreparedEstimatedTimetable}.
+ *
+ * @param trip the trip resolved against the published snapshot, or {@code null} if not found
+ * @param serviceDate the service date resolved together with the trip
+ * @param fuzzyMatchCandidates the candidate trips for fuzzy matching, or {@code null} if they
+ *                             were not looked up
+ */
+public record PreparedEstimatedVehicleJourney(
+  EstimatedVehicleJourney journey,
+  @Nullable Trip trip,
+  @Nullable LocalDate serviceDate,
+  @Nullable Set<Trip> fuzzyMatchCandidates
+) {
+  public PreparedEstimatedVehicleJourney {
+    Objects.requireNonNull(journey);
+  }
+
+  /**
+   * A journey without anything resolved, it is resolved on the graph writer thread.
+   */
+  static PreparedEstimatedVehicleJourney of(EstimatedVehicleJourney journey) {
+    return new PreparedEstimatedVehicleJourney(journey, null, null, null);
+  }
+}
@@ -80,23 +80,25 @@ public class SiriFuzzyTripMatcher {
   }
 
   /**
-   * Matches EstimatedVehicleJourney to a set of possible Trips based on tripId
+   * Find the scheduled trips that may match the EstimatedVehicleJourney, based on the internal
+   * planning code or the last stop and arrival time. This only reads the scheduled data, so it can
+   * be called outside the graph writer thread. The candidates are narrowed down to a single trip
+   * and pattern by {@link #match}.
+   *
+   * @return the candidate trips, empty if there are none
    */
-  @Nullable
-  public TripAndPattern match(
+  public Set<Trip> findCandidateTrips(
     EstimatedVehicleJourney journey,
-    EntityResolver entityResolver,
-    BiFunction<TripPattern, LocalDate, Timetable> getCurrentTimetable,
-    BiFunction<FeedScopedId, LocalDate, TripPattern> getRealtimeAddedTripPattern
+    EntityResolver entityResolver
   ) {
     List<CallWrapper> calls = CallWrapper.of(journey);
 
     if (calls.isEmpty()) {
-      return null;
+      return Set.of();
     }
 
     if (calls.getFirst().getAimedDepartureTime() == null) {
-      return null;
+      return Set.of();
     }
 
     Set<Trip> trips = null;
@@ -118,10 +120,27 @@ public class SiriFuzzyTripMatcher {
         trips = getMatchingTripsOnStopOrSiblings(lastStopPoint, arrivalTime, entityResolver);
       }
     }
-    if (trips == null || trips.isEmpty()) {
+    return trips == null ? Set.of() : trips;
+  }
+
+  /**
+   * Matches EstimatedVehicleJourney to one of the candidate trips found by
+   * {@link #findCandidateTrips(EstimatedVehicleJourney, EntityResolver)}, using the current
+   * timetables and trip patterns.
+   */
+  @Nullable
+  public TripAndPattern match(
+    Set<Trip> candidateTrips,
+    EstimatedVehicleJourney journey,
+    EntityResolver entityResolver,
+    BiFunction<TripPattern, LocalDate, Timetable> getCurrentTimetable,
+    BiFunction<FeedScopedId, LocalDate, TripPattern> getRealtimeAddedTripPattern
+  ) {
+    if (candidateTrips.isEmpty()) {
       return null;
     }
 
+    Set<Trip> trips = candidateTrips;
     if (journey.getLineRef() != null) {
       var lineRef = journey.getLineRef().getValue();
       Route route = entityResolver.resolveRoute(lineRef);
@@ -133,7 +152,7 @@ public class SiriFuzzyTripMatcher {
 
     return getTripAndPatternForJourney(
       trips,
-      calls,
+      CallWrapper.of(journey),
       entityResolver,
       getCurrentTimetable,
       getRealtimeAddedTripPattern
@@ -12,6 +12,8 @@ import static org.opentripplanner.updater.trip.UpdateIncrementality.FULL_DATASET
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import org.opentripplanner.model.RealTimeTripUpdate;
 import org.opentripplanner.model.Timetable;
@@ -67,6 +69,19 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
 
   private final TimetableSnapshotManager snapshotManager;
 
+  /**
+   * Used to prepare the updates outside the graph writer thread, the transit services created from
+   * it only see the published timetable snapshot.
+   */
+  private final TransitModel transitModel;
+
+  /**
+   * The fuzzy trip matcher last used on the graph writer thread. Its caches only hold scheduled
+   * data and are not changed after it is created, so it is used to look up the candidate trips
+   * when the updates are prepared.
+   */
+  private volatile SiriFuzzyTripMatcher fuzzyTripMatcher;
+
   public SiriTimetableSnapshotSource(
     TimetableSnapshotSourceParameters parameters,
     TransitModel transitModel
@@ -81,6 +96,7 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
       new DefaultTransitService(transitModel, getTimetableSnapshotBuffer());
     this.tripPatternCache =
       new SiriTripPatternCache(tripPatternIdGenerator, transitEditorService::getPatternForTrip);
+    this.transitModel = transitModel;
 
     transitModel.initTimetableSnapshotProvider(this);
   }
@@ -107,26 +123,56 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
       return UpdateResult.empty();
     }
 
-    List<Result<UpdateSuccess, UpdateError>> results = new ArrayList<>();
-
-    if (incrementality == FULL_DATASET) {
-      // Remove all updates from the buffer
-      snapshotManager.clearBuffer(feedId);
-    }
+    List<PreparedEstimatedVehicleJourney> journeys = new ArrayList<>();
+    forEachJourney(updates, journey -> journeys.add(PreparedEstimatedVehicleJourney.of(journey)));
+    return applyJourneys(fuzzyTripMatcher, entityResolver, feedId, incrementality, journeys);
+  }
 
-    for (var etDelivery : updates) {
-      for (var estimatedJourneyVersion : etDelivery.getEstimatedJourneyVersionFrames()) {
-        var journeys = estimatedJourneyVersion.getEstimatedVehicleJourneies();
-        LOG.debug("Handling {} EstimatedVehicleJourneys.", journeys.size());
-        for (EstimatedVehicleJourney journey : journeys) {
-          results.add(apply(journey, transitEditorService, fuzzyTripMatcher, entityResolver));
-        }
-      }
+  /**
+   * Prepare the updates before they are applied, so as little work as possible is left for the
+   * graph writer thread. The trip and service date of each journey are resolved, and if the trip
+   * is not found, the candidate trips for fuzzy matching are looked up.
+   * <p>
+   * This only reads the static transit data and the published timetable snapshot, so it can be
+   * called from the updater thread. Changes in the snapshot buffer are not visible here, so the
+   * resolved trips are checked against the buffer in {@link #applyPreparedEstimatedTimetable}.
+   * The candidate trips are only looked up once a fuzzy trip matcher has been used on the graph
+   * writer thread, until then the fuzzy matching is done on the graph writer thread.
+   *
+   * @param fuzzyTripMatching if the candidate trips for fuzzy matching should be looked up
+   */
+  public List<PreparedEstimatedVehicleJourney> prepareEstimatedTimetable(
+    boolean fuzzyTripMatching,
+    String feedId,
+    List<EstimatedTimetableDeliveryStructure> updates
+  ) {
+    if (updates == null) {
+      return List.of();
     }
+    var entityResolver = new EntityResolver(new DefaultTransitService(transitModel), feedId);
+    var fuzzyTripMatcher = fuzzyTripMatching ? this.fuzzyTripMatcher : null;
 
-    LOG.debug("message contains {} trip updates", updates.size());
+    List<PreparedEstimatedVehicleJourney> journeys = new ArrayList<>();
+    forEachJourney(
+      updates,
+      journey -> journeys.add(prepare(journey, entityResolver, fuzzyTripMatcher))
+    );
+    return journeys;
+  }
 
-    return UpdateResult.ofResults(results);
+  /**
+   * Apply the journeys prepared by {@link #prepareEstimatedTimetable} to the most recent version
+   * of the timetable snapshot, see {@link #applyEstimatedTimetable}. This must be called from the
+   * graph writer thread.
+   */
+  public UpdateResult applyPreparedEstimatedTimetable(
+    @Nullable SiriFuzzyTripMatcher fuzzyTripMatcher,
+    EntityResolver entityResolver,
+    String feedId,
+    UpdateIncrementality incrementality,
+    List<PreparedEstimatedVehicleJourney> journeys
+  ) {
+    return applyJourneys(fuzzyTripMatcher, entityResolver, feedId, incrementality, journeys);
   }
 
   @Override
@@ -144,15 +190,77 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
     return snapshotManager.getTimetableSnapshotBuffer();
   }
 
-  private Result<UpdateSuccess, UpdateError> apply(
+  private UpdateResult applyJourneys(
+    @Nullable SiriFuzzyTripMatcher fuzzyTripMatcher,
+    EntityResolver entityResolver,
+    String feedId,
+    UpdateIncrementality incrementality,
+    List<PreparedEstimatedVehicleJourney> journeys
+  ) {
+    if (fuzzyTripMatcher != null) {
+      this.fuzzyTripMatcher = fuzzyTripMatcher;
+    }
+
+    List<Result<UpdateSuccess, UpdateError>> results = new ArrayList<>();
+
+    if (incrementality == FULL_DATASET) {
+      // Remove all updates from the buffer
+      snapshotManager.clearBuffer(feedId);
+    }
+
+    LOG.debug("Handling {} EstimatedVehicleJourneys.", journeys.size());
+    for (PreparedEstimatedVehicleJourney journey : journeys) {
+      results.add(apply(journey, transitEditorService, fuzzyTripMatcher, entityResolver));
+    }
+
+    return UpdateResult.ofResults(results);
+  }
+
+  private static void forEachJourney(
+    List<EstimatedTimetableDeliveryStructure> updates,
+    Consumer<EstimatedVehicleJourney> action
+  ) {
+    for (var etDelivery : updates) {
+      for (var estimatedJourneyVersion : etDelivery.getEstimatedJourneyVersionFrames()) {
+        estimatedJourneyVersion.getEstimatedVehicleJourneies().forEach(action);
+      }
+    }
+  }
+
+  /**
+   * Resolve the journey against the published snapshot, see {@link #prepareEstimatedTimetable}.
+   * If this fails, the journey is resolved again on the graph writer thread, where the error is
+   * reported.
+   */
+  private static PreparedEstimatedVehicleJourney prepare(
     EstimatedVehicleJourney journey,
+    EntityResolver entityResolver,
+    @Nullable SiriFuzzyTripMatcher fuzzyTripMatcher
+  ) {
+    try {
+      Trip trip = entityResolver.resolveTrip(journey);
+      LocalDate serviceDate = entityResolver.resolveServiceDate(journey);
+      Set<Trip> fuzzyMatchCandidates = null;
+      if (trip == null && fuzzyTripMatcher != null && !TRUE.equals(journey.isExtraJourney())) {
+        fuzzyMatchCandidates = fuzzyTripMatcher.findCandidateTrips(journey, entityResolver);
+      }
+      return new PreparedEstimatedVehicleJourney(journey, trip, serviceDate, fuzzyMatchCandidates);
+    } catch (Exception e) {
+      return PreparedEstimatedVehicleJourney.of(journey);
+    }
+  }
+
+  private Result<UpdateSuccess, UpdateError> apply(
+    PreparedEstimatedVehicleJourney preparedJourney,
     TransitEditorService transitService,
     @Nullable SiriFuzzyTripMatcher fuzzyTripMatcher,
     EntityResolver entityResolver
   ) {
+    EstimatedVehicleJourney journey = preparedJourney.journey();
     boolean shouldAddNewTrip = false;
     try {
-      shouldAddNewTrip = shouldAddNewTrip(journey, entityResolver);
+      Trip trip = resolveTrip(preparedJourney, entityResolver);
+      shouldAddNewTrip = shouldAddNewTrip(journey, trip);
       Result<TripUpdate, UpdateError> result;
       if (shouldAddNewTrip) {
         result =
@@ -164,7 +272,7 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
           )
             .build();
       } else {
-        result = handleModifiedTrip(fuzzyTripMatcher, entityResolver, journey);
+        result = handleModifiedTrip(fuzzyTripMatcher, entityResolver, preparedJourney, trip);
       }
 
       if (result.isFailure()) {
@@ -187,19 +295,34 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
   }
 
   /**
-   * Check if VehicleJourney is a replacement departure according to SIRI-ET requirements.
+   * Resolve the trip of the journey in the timetable snapshot buffer. The trip resolved against the
+   * published snapshot is kept if the buffer has the same trip for its id. Otherwise, or if no trip
+   * was found, the trip is resolved again, since the buffer may have trips added or removed by
+   * updates that are not published yet.
    */
-  private boolean shouldAddNewTrip(
-    EstimatedVehicleJourney vehicleJourney,
+  @Nullable
+  private Trip resolveTrip(
+    PreparedEstimatedVehicleJourney preparedJourney,
     EntityResolver entityResolver
   ) {
+    Trip trip = preparedJourney.trip();
+    if (trip != null && transitEditorService.getTripForId(trip.getId()) == trip) {
+      return trip;
+    }
+    return entityResolver.resolveTrip(preparedJourney.journey());
+  }
+
+  /**
+   * Check if VehicleJourney is a replacement departure according to SIRI-ET requirements.
+   */
+  private boolean shouldAddNewTrip(EstimatedVehicleJourney vehicleJourney, @Nullable Trip trip) {
     // Replacement departure only if ExtraJourney is true
     if (!(TRUE.equals(vehicleJourney.isExtraJourney()))) {
       return false;
     }
 
     // And if the trip has not been added before
-    return entityResolver.resolveTrip(vehicleJourney) == null;
+    return trip == null;
   }
 
   /**
@@ -214,9 +337,10 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
   private Result<TripUpdate, UpdateError> handleModifiedTrip(
     @Nullable SiriFuzzyTripMatcher fuzzyTripMatcher,
     EntityResolver entityResolver,
-    EstimatedVehicleJourney estimatedVehicleJourney
+    PreparedEstimatedVehicleJourney preparedJourney,
+    @Nullable Trip trip
   ) {
-    Trip trip = entityResolver.resolveTrip(estimatedVehicleJourney);
+    EstimatedVehicleJourney estimatedVehicleJourney = preparedJourney.journey();
 
     // Check if EstimatedVehicleJourney is reported as NOT monitored, ignore the notMonitored-flag
     // if the journey is NOT monitored because it has been cancelled
@@ -227,7 +351,10 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
       return UpdateError.result(trip != null ? trip.getId() : null, NOT_MONITORED);
     }
 
-    LocalDate serviceDate = entityResolver.resolveServiceDate(estimatedVehicleJourney);
+    // The service date depends on the trip, so it is only kept if the same trip is resolved
+    LocalDate serviceDate = preparedJourney.serviceDate() != null && trip == preparedJourney.trip()
+      ? preparedJourney.serviceDate()
+      : entityResolver.resolveServiceDate(estimatedVehicleJourney);
 
     if (serviceDate == null) {
       return UpdateError.result(trip != null ? trip.getId() : null, NO_START_DATE);
@@ -239,8 +366,13 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
       // Found exact match
       pattern = transitEditorService.getPatternForTrip(trip);
     } else if (fuzzyTripMatcher != null) {
-      // No exact match found - search for trips based on arrival-times/stop-patterns
+      // No exact match found - search for trips based on arrival-times/stop-patterns. The candidate
+      // trips are found in the scheduled data and may be prepared, the match reads the buffer.
+      Set<Trip> candidateTrips = preparedJourney.fuzzyMatchCandidates() != null
+        ? preparedJourney.fuzzyMatchCandidates()
+        : fuzzyTripMatcher.findCandidateTrips(estimatedVehicleJourney, entityResolver);
       TripAndPattern tripAndPattern = fuzzyTripMatcher.match(
+        candidateTrips,
         estimatedVehicleJourney,
         entityResolver,
         this::getCurrentTimetable,
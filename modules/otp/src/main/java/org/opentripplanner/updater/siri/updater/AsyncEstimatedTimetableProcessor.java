@@ -29,14 +29,18 @@ public class AsyncEstimatedTimetableProcessor {
 
   /**
    * Apply the estimated timetables to the transit model.
-   * This method is non-blocking and applies the changes asynchronously.
+   * The estimated timetables are prepared on the calling thread, then this method applies the
+   * changes asynchronously without blocking.
    * @return a future indicating when the changes are applied.
    */
   public Future<?> processSiriData(ServiceDelivery serviceDelivery) {
+    var journeys = estimatedTimetableHandler.prepareUpdate(
+      serviceDelivery.getEstimatedTimetableDeliveries()
+    );
     return saveResultOnGraph.execute(context ->
       updateResultConsumer.accept(
-        estimatedTimetableHandler.applyUpdate(
-          serviceDelivery.getEstimatedTimetableDeliveries(),
+        estimatedTimetableHandler.applyPreparedUpdate(
+          journeys,
           UpdateIncrementality.DIFFERENTIAL,
           context
         )
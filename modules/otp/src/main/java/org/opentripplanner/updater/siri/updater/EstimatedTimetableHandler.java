@@ -2,6 +2,7 @@ package org.opentripplanner.updater.siri.updater;
 
 import java.util.List;
 import org.opentripplanner.updater.RealTimeUpdateContext;
+import org.opentripplanner.updater.siri.PreparedEstimatedVehicleJourney;
 import org.opentripplanner.updater.siri.SiriTimetableSnapshotSource;
 import org.opentripplanner.updater.spi.UpdateResult;
 import org.opentripplanner.updater.trip.UpdateIncrementality;
@@ -9,6 +10,9 @@ import uk.org.siri.siri20.EstimatedTimetableDeliveryStructure;
 
 /**
  * A consumer of estimated timetables that applies the real-time updates to the transit model.
+ * <p>
+ * The updaters prepare the estimated timetables with {@link #prepareUpdate(List)} on their own
+ * thread, and only apply them with {@link #applyPreparedUpdate} on the graph writer thread.
  */
 public class EstimatedTimetableHandler {
 
@@ -30,19 +34,34 @@ public class EstimatedTimetableHandler {
   }
 
   /**
-   * Apply the update to the transit model.
+   * Resolve the trips of the update against the published timetable snapshot. This can be called
+   * from the updater thread.
    */
-  public UpdateResult applyUpdate(
-    List<EstimatedTimetableDeliveryStructure> estimatedTimetableDeliveries,
+  public List<PreparedEstimatedVehicleJourney> prepareUpdate(
+    List<EstimatedTimetableDeliveryStructure> estimatedTimetableDeliveries
+  ) {
+    return snapshotSource.prepareEstimatedTimetable(
+      fuzzyTripMatching,
+      feedId,
+      estimatedTimetableDeliveries
+    );
+  }
+
+  /**
+   * Apply the update prepared by {@link #prepareUpdate(List)} to the transit model. This must be
+   * called from the graph writer thread.
+   */
+  public UpdateResult applyPreparedUpdate(
+    List<PreparedEstimatedVehicleJourney> journeys,
     UpdateIncrementality updateMode,
     RealTimeUpdateContext context
   ) {
-    return snapshotSource.applyEstimatedTimetable(
+    return snapshotSource.applyPreparedEstimatedTimetable(
       fuzzyTripMatching ? context.siriFuzzyTripMatcher() : null,
       context.entityResolver(feedId),
       feedId,
       updateMode,
-      estimatedTimetableDeliveries
+      journeys
     );
   }
 }
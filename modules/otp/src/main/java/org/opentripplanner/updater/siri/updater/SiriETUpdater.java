@@ -68,7 +68,8 @@ public class SiriETUpdater extends PollingGraphUpdater {
 
   /**
    * Repeatedly makes blocking calls to an UpdateStreamer to retrieve new stop time updates, and
-   * applies those updates to the graph.
+   * applies those updates to the graph. The updates are prepared on the polling thread, only
+   * applying them to the timetable snapshot buffer is left for the graph writer thread.
    */
   @Override
   public void runPolling() {
@@ -84,8 +85,13 @@ public class SiriETUpdater extends PollingGraphUpdater {
         final boolean markPrimed = !moreData;
         List<EstimatedTimetableDeliveryStructure> etds = serviceDelivery.getEstimatedTimetableDeliveries();
         if (etds != null) {
+          var journeys = estimatedTimetableHandler.prepareUpdate(etds);
           saveResultOnGraph.execute(context -> {
-            var result = estimatedTimetableHandler.applyUpdate(etds, incrementality, context);
+            var result = estimatedTimetableHandler.applyPreparedUpdate(
+              journeys,
+              incrementality,
+              context
+            );
             ResultLogger.logUpdateResult(feedId, "siri-et", result);
             recordMetrics.accept(result);
             if (markPrimed) {
@@ -6,6 +6,7 @@ import static org.opentripplanner.updater.trip.UpdateIncrementality.FULL_DATASET
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.transit.realtime.GtfsRealtime;
 import java.net.URI;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
@@ -55,6 +56,7 @@ public class MqttGtfsRealtimeUpdater implements GraphUpdater {
   private final MemoryPersistence persistence = new MemoryPersistence();
   private final TimetableSnapshotSource snapshotSource;
   private final Consumer<UpdateResult> recordMetrics;
+  private final Consumer<Duration> recordLatency;
   private WriteToGraphCallback saveResultOnGraph;
 
   private final boolean fuzzyTripMatching;
@@ -75,6 +77,7 @@ public class MqttGtfsRealtimeUpdater implements GraphUpdater {
     // Set properties of realtime data snapshot source
     this.fuzzyTripMatching = parameters.getFuzzyTripMatching();
     this.recordMetrics = TripUpdateMetrics.streaming(parameters);
+    this.recordLatency = TripUpdateMetrics.latency(parameters);
     LOG.info("Creating streaming GTFS-RT TripUpdate updater subscribing to MQTT broker at {}", url);
   }
 
@@ -165,18 +168,26 @@ public class MqttGtfsRealtimeUpdater implements GraphUpdater {
       } catch (InvalidProtocolBufferException e) {
         LOG.error("Could not decode gtfs-rt message:", e);
       }
+      long receivedTime = System.nanoTime();
 
       if (updates != null) {
+        var preparedUpdates = snapshotSource.prepareTripUpdates(
+          fuzzyTripMatching,
+          backwardsDelayPropagationType,
+          updates,
+          feedId
+        );
         // Handle trip updates via graph writer runnable
         saveResultOnGraph.execute(
           new TripUpdateGraphWriterRunnable(
             snapshotSource,
-            fuzzyTripMatching,
             backwardsDelayPropagationType,
             updateIncrementality,
-            updates,
+            preparedUpdates,
             feedId,
-            recordMetrics
+            recordMetrics,
+            recordLatency,
+            receivedTime
           )
         );
       }
@@ -1,6 +1,7 @@
 package org.opentripplanner.updater.trip;
 
 import com.google.transit.realtime.GtfsRealtime.TripUpdate;
+import java.time.Duration;
 import java.util.List;
 import java.util.function.Consumer;
 import org.opentripplanner.framework.tostring.ToStringBuilder;
@@ -8,6 +9,7 @@ import org.opentripplanner.updater.spi.PollingGraphUpdater;
 import org.opentripplanner.updater.spi.UpdateResult;
 import org.opentripplanner.updater.spi.WriteToGraphCallback;
 import org.opentripplanner.updater.trip.metrics.BatchTripUpdateMetrics;
+import org.opentripplanner.updater.trip.metrics.TripUpdateMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,6 +34,7 @@ public class PollingTripUpdater extends PollingGraphUpdater {
    */
   private final BackwardsDelayPropagationType backwardsDelayPropagationType;
   private final Consumer<UpdateResult> recordMetrics;
+  private final Consumer<Duration> recordLatency;
 
   /**
    * Parent update manager. Is used to execute graph writer runnables.
@@ -55,6 +58,7 @@ public class PollingTripUpdater extends PollingGraphUpdater {
     this.fuzzyTripMatching = parameters.fuzzyTripMatching();
 
     this.recordMetrics = BatchTripUpdateMetrics.batch(parameters);
+    this.recordLatency = TripUpdateMetrics.latency(parameters);
 
     LOG.info(
       "Creating stop time updater running every {} seconds : {}",
@@ -70,24 +74,33 @@ public class PollingTripUpdater extends PollingGraphUpdater {
 
   /**
    * Repeatedly makes blocking calls to an UpdateStreamer to retrieve new stop time updates, and
-   * applies those updates to the graph.
+   * applies those updates to the graph. The updates are prepared on the polling thread, only
+   * applying them to the timetable snapshot buffer is left for the graph writer thread.
    */
   @Override
   public void runPolling() {
     // Get update lists from update source
     List<TripUpdate> updates = updateSource.getUpdates();
     var incrementality = updateSource.incrementalityOfLastUpdates();
+    long receivedTime = System.nanoTime();
 
     if (updates != null) {
+      var preparedUpdates = snapshotSource.prepareTripUpdates(
+        fuzzyTripMatching,
+        backwardsDelayPropagationType,
+        updates,
+        feedId
+      );
       // Handle trip updates via graph writer runnable
       TripUpdateGraphWriterRunnable runnable = new TripUpdateGraphWriterRunnable(
         snapshotSource,
-        fuzzyTripMatching,
         backwardsDelayPropagationType,
         incrementality,
-        updates,
+        preparedUpdates,
         feedId,
-        recordMetrics
+        recordMetrics,
+        recordLatency,
+        receivedTime
       );
       saveResultOnGraph.execute(runnable);
     }
@@ -0,0 +1,46 @@
+package org.opentripplanner.updater.trip;
+
+import com.google.transit.realtime.GtfsRealtime.TripUpdate;
+import java.time.LocalDate;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import org.opentripplanner.model.TripTimesPatch;
+import org.opentripplanner.transit.model.framework.Result;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.updater.spi.UpdateError;
+
+/**
+ * A GTFS-RT trip update prepared by the updater before it is handed over to the graph writer
+ * thread. The trip is matched with the fuzzy trip matcher, and for SCHEDULED trips the new trip
+ * times may be computed already. The trip times are only valid for the pattern and service date
+ * they were computed for, see {@link #tripTimesPatch(TripPattern, LocalDate)}.
+ */
+record PreparedTripUpdate(
+  TripUpdate tripUpdate,
+  @Nullable TripPattern pattern,
+  @Nullable LocalDate serviceDate,
+  @Nullable Result<TripTimesPatch, UpdateError> result
+) {
+  PreparedTripUpdate {
+    Objects.requireNonNull(tripUpdate);
+  }
+
+  /**
+   * A trip update without any precomputed trip times.
+   */
+  static PreparedTripUpdate of(TripUpdate tripUpdate) {
+    return new PreparedTripUpdate(tripUpdate, null, null, null);
+  }
+
+  /**
+   * Return the precomputed trip times if they were computed from the scheduled timetable of the
+   * given pattern for the given service date, otherwise {@code null}.
+   */
+  @Nullable
+  Result<TripTimesPatch, UpdateError> tripTimesPatch(TripPattern pattern, LocalDate serviceDate) {
+    if (result == null || this.pattern != pattern || !serviceDate.equals(this.serviceDate)) {
+      return null;
+    }
+    return result;
+  }
+}
@@ -35,6 +35,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Supplier;
+import javax.annotation.Nullable;
 import org.opentripplanner.framework.i18n.I18NString;
 import org.opentripplanner.framework.i18n.NonLocalizedString;
 import org.opentripplanner.framework.lang.StringUtils;
@@ -45,6 +46,7 @@ import org.opentripplanner.model.StopTime;
 import org.opentripplanner.model.Timetable;
 import org.opentripplanner.model.TimetableSnapshot;
 import org.opentripplanner.model.TimetableSnapshotProvider;
+import org.opentripplanner.model.TripTimesPatch;
 import org.opentripplanner.transit.model.basic.TransitMode;
 import org.opentripplanner.transit.model.framework.DataValidationException;
 import org.opentripplanner.transit.model.framework.Deduplicator;
@@ -62,6 +64,7 @@ import org.opentripplanner.transit.model.timetable.TripTimesFactory;
 import org.opentripplanner.transit.service.DefaultTransitService;
 import org.opentripplanner.transit.service.TransitEditorService;
 import org.opentripplanner.transit.service.TransitModel;
+import org.opentripplanner.transit.service.TransitService;
 import org.opentripplanner.updater.GtfsRealtimeFuzzyTripMatcher;
 import org.opentripplanner.updater.GtfsRealtimeMapper;
 import org.opentripplanner.updater.TimetableSnapshotSourceParameters;
@@ -106,6 +109,12 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
   private final TimetableSnapshotManager snapshotManager;
   private final Supplier<LocalDate> localDateNow;
 
+  /**
+   * Used to prepare the trip updates outside the graph writer thread, the transit services created
+   * from it only see the published timetable snapshot.
+   */
+  private final TransitModel transitModel;
+
   public TimetableSnapshotSource(
     TimetableSnapshotSourceParameters parameters,
     TransitModel transitModel
@@ -130,6 +139,7 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
     this.deduplicator = transitModel.getDeduplicator();
     this.serviceCodes = transitModel.getServiceCodes();
     this.localDateNow = localDateNow;
+    this.transitModel = transitModel;
 
     // Inject this into the transit model
     transitModel.initTimetableSnapshotProvider(this);
@@ -159,7 +169,72 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
       LOG.warn("updates is null");
       return UpdateResult.empty();
     }
+    List<PreparedTripUpdate> preparedUpdates = new ArrayList<>(updates.size());
+    for (TripUpdate tripUpdate : updates) {
+      preparedUpdates.add(PreparedTripUpdate.of(matchTrip(fuzzyTripMatcher, tripUpdate, feedId)));
+    }
+    return applyPreparedTripUpdates(
+      backwardsDelayPropagationType,
+      updateIncrementality,
+      preparedUpdates,
+      feedId
+    );
+  }
 
+  /**
+   * Prepare the trip updates before they are applied, so as little work as possible is left for
+   * the graph writer thread. The trips are matched with the fuzzy trip matcher, and the new trip
+   * times of SCHEDULED trips are computed from the scheduled timetable, including the delay
+   * propagation.
+   * <p>
+   * This only reads the static transit data and the published timetable snapshot, so it can be
+   * called from the updater thread. Changes in the snapshot buffer are not visible here. If the
+   * pattern of a trip is changed in the buffer before the update is applied, the trip times are
+   * computed again in {@link #applyPreparedTripUpdates}.
+   * <p>
+   * The fuzzy trip matcher does not see the updates in the buffer either, including the earlier
+   * updates in the same batch. Before, the trips were matched on the graph writer thread against
+   * the buffer. The matcher only searches the scheduled timetables, and the patterns added by
+   * real-time updates have no scheduled trips, so the same trips are matched as before.
+   *
+   * @param fuzzyTripMatching if the trips should be matched with the fuzzy trip matcher
+   */
+  List<PreparedTripUpdate> prepareTripUpdates(
+    boolean fuzzyTripMatching,
+    BackwardsDelayPropagationType backwardsDelayPropagationType,
+    List<TripUpdate> updates,
+    String feedId
+  ) {
+    var transitService = new DefaultTransitService(transitModel);
+    var fuzzyTripMatcher = fuzzyTripMatching
+      ? new GtfsRealtimeFuzzyTripMatcher(transitService)
+      : null;
+
+    List<PreparedTripUpdate> preparedUpdates = new ArrayList<>(updates.size());
+    for (TripUpdate tripUpdate : updates) {
+      preparedUpdates.add(
+        prepareTripUpdate(
+          transitService,
+          matchTrip(fuzzyTripMatcher, tripUpdate, feedId),
+          backwardsDelayPropagationType,
+          feedId
+        )
+      );
+    }
+    return preparedUpdates;
+  }
+
+  /**
+   * Apply the trip updates prepared by {@link #prepareTripUpdates} to the most recent version of
+   * the timetable snapshot, see {@link #applyTripUpdates}. This must be called from the graph
+   * writer thread.
+   */
+  UpdateResult applyPreparedTripUpdates(
+    BackwardsDelayPropagationType backwardsDelayPropagationType,
+    UpdateIncrementality updateIncrementality,
+    List<PreparedTripUpdate> updates,
+    String feedId
+  ) {
     Map<ScheduleRelationship, Integer> failuresByRelationship = new HashMap<>();
     List<Result<UpdateSuccess, UpdateError>> results = new ArrayList<>();
 
@@ -170,17 +245,13 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
 
     LOG.debug("message contains {} trip updates", updates.size());
     int uIndex = 0;
-    for (TripUpdate tripUpdate : updates) {
+    for (PreparedTripUpdate preparedUpdate : updates) {
+      TripUpdate tripUpdate = preparedUpdate.tripUpdate();
       if (!tripUpdate.hasTrip()) {
         debug(feedId, "", "Missing TripDescriptor in gtfs-rt trip update: \n{}", tripUpdate);
         continue;
       }
 
-      if (fuzzyTripMatcher != null) {
-        final TripDescriptor trip = fuzzyTripMatcher.match(feedId, tripUpdate.getTrip());
-        tripUpdate = tripUpdate.toBuilder().setTrip(trip).build();
-      }
-
       final TripDescriptor tripDescriptor = tripUpdate.getTrip();
 
       if (!tripDescriptor.hasTripId() || tripDescriptor.getTripId().isBlank()) {
@@ -191,22 +262,14 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
 
       FeedScopedId tripId = new FeedScopedId(feedId, tripUpdate.getTrip().getTripId());
 
-      LocalDate serviceDate;
-      if (tripDescriptor.hasStartDate()) {
-        try {
-          serviceDate = ServiceDateUtils.parseString(tripDescriptor.getStartDate());
-        } catch (final ParseException e) {
-          debug(
-            tripId,
-            "Failed to parse start date in gtfs-rt trip update: {}",
-            tripDescriptor.getStartDate()
-          );
-          continue;
-        }
-      } else {
-        // TODO: figure out the correct service date. For the special case that a trip
-        // starts for example at 40:00, yesterday would probably be a better guess.
-        serviceDate = localDateNow.get();
+      LocalDate serviceDate = resolveServiceDate(tripDescriptor);
+      if (serviceDate == null) {
+        debug(
+          tripId,
+          "Failed to parse start date in gtfs-rt trip update: {}",
+          tripDescriptor.getStartDate()
+        );
+        continue;
       }
       // Determine what kind of trip update this is
       var scheduleRelationship = Objects.requireNonNullElse(
@@ -226,7 +289,7 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
         result =
           switch (scheduleRelationship) {
             case SCHEDULED -> handleScheduledTrip(
-              tripUpdate,
+              preparedUpdate,
               tripId,
               serviceDate,
               backwardsDelayPropagationType
@@ -283,6 +346,88 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
     return updateResult;
   }
 
+  private static TripUpdate matchTrip(
+    @Nullable GtfsRealtimeFuzzyTripMatcher fuzzyTripMatcher,
+    TripUpdate tripUpdate,
+    String feedId
+  ) {
+    if (fuzzyTripMatcher == null || !tripUpdate.hasTrip()) {
+      return tripUpdate;
+    }
+    final TripDescriptor trip = fuzzyTripMatcher.match(feedId, tripUpdate.getTrip());
+    return tripUpdate.toBuilder().setTrip(trip).build();
+  }
+
+  /**
+   * Compute the new trip times of a SCHEDULED trip from the scheduled timetable of the pattern in
+   * the published snapshot. Patterns created by the real-time updater are skipped, since they are
+   * modified by the graph writer thread.
+   */
+  private PreparedTripUpdate prepareTripUpdate(
+    TransitService transitService,
+    TripUpdate tripUpdate,
+    BackwardsDelayPropagationType backwardsDelayPropagationType,
+    String feedId
+  ) {
+    final TripDescriptor tripDescriptor = tripUpdate.getTrip();
+    if (
+      !tripUpdate.hasTrip() ||
+      !tripDescriptor.hasTripId() ||
+      tripDescriptor.getScheduleRelationship() != SCHEDULED ||
+      tripUpdate.getStopTimeUpdateCount() < 1
+    ) {
+      return PreparedTripUpdate.of(tripUpdate);
+    }
+    LocalDate serviceDate = resolveServiceDate(tripDescriptor);
+    Trip trip = transitService.getTripForId(new FeedScopedId(feedId, tripDescriptor.getTripId()));
+    if (serviceDate == null || trip == null) {
+      return PreparedTripUpdate.of(tripUpdate);
+    }
+    TripPattern pattern = transitService.getPatternForTrip(trip);
+    if (pattern == null || pattern.isCreatedByRealtimeUpdater()) {
+      return PreparedTripUpdate.of(tripUpdate);
+    }
+    return new PreparedTripUpdate(
+      tripUpdate,
+      pattern,
+      serviceDate,
+      createUpdatedTripTimes(pattern, tripUpdate, serviceDate, backwardsDelayPropagationType)
+    );
+  }
+
+  /**
+   * Return the service date of the trip, or {@code null} if the start date can not be parsed.
+   */
+  @Nullable
+  private LocalDate resolveServiceDate(TripDescriptor tripDescriptor) {
+    if (!tripDescriptor.hasStartDate()) {
+      // TODO: figure out the correct service date. For the special case that a trip
+      // starts for example at 40:00, yesterday would probably be a better guess.
+      return localDateNow.get();
+    }
+    try {
+      return ServiceDateUtils.parseString(tripDescriptor.getStartDate());
+    } catch (final ParseException e) {
+      return null;
+    }
+  }
+
+  private Result<TripTimesPatch, UpdateError> createUpdatedTripTimes(
+    TripPattern pattern,
+    TripUpdate tripUpdate,
+    LocalDate serviceDate,
+    BackwardsDelayPropagationType backwardsDelayPropagationType
+  ) {
+    return pattern
+      .getScheduledTimetable()
+      .createUpdatedTripTimesFromGTFSRT(
+        tripUpdate,
+        timeZone,
+        serviceDate,
+        backwardsDelayPropagationType
+      );
+  }
+
   /**
    * Remove previous realtime updates for this trip. This is necessary to avoid previous stop
    * pattern modifications from persisting. If a trip was previously added with the
@@ -363,11 +508,12 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
   }
 
   private Result<UpdateSuccess, UpdateError> handleScheduledTrip(
-    TripUpdate tripUpdate,
+    PreparedTripUpdate preparedUpdate,
     FeedScopedId tripId,
     LocalDate serviceDate,
     BackwardsDelayPropagationType backwardsDelayPropagationType
   ) {
+    final TripUpdate tripUpdate = preparedUpdate.tripUpdate();
     final TripPattern pattern = getPatternForTripId(tripId);
 
     if (pattern == null) {
@@ -393,15 +539,12 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
       return UpdateError.result(tripId, NO_SERVICE_ON_DATE);
     }
 
-    // Get new TripTimes based on scheduled timetable
-    var result = pattern
-      .getScheduledTimetable()
-      .createUpdatedTripTimesFromGTFSRT(
-        tripUpdate,
-        timeZone,
-        serviceDate,
-        backwardsDelayPropagationType
-      );
+    // Get new TripTimes based on scheduled timetable, unless they are computed already
+    var result = preparedUpdate.tripTimesPatch(pattern, serviceDate);
+    if (result == null) {
+      result =
+        createUpdatedTripTimes(pattern, tripUpdate, serviceDate, backwardsDelayPropagationType);
+    }
 
     if (result.isFailure()) {
       // necessary so the success type is correct
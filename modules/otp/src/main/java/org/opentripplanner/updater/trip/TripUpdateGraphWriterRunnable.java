@@ -1,6 +1,6 @@
 package org.opentripplanner.updater.trip;
 
-import com.google.transit.realtime.GtfsRealtime.TripUpdate;
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
@@ -8,6 +8,12 @@ import org.opentripplanner.updater.GraphWriterRunnable;
 import org.opentripplanner.updater.RealTimeUpdateContext;
 import org.opentripplanner.updater.spi.UpdateResult;
 
+/**
+ * Apply GTFS-RT trip updates to the timetable snapshot buffer. The updates are prepared by the
+ * updater with {@link TimetableSnapshotSource#prepareTripUpdates}, so the trips are matched and
+ * most of the new trip times are computed before this runnable is executed by the graph writer
+ * thread.
+ */
 class TripUpdateGraphWriterRunnable implements GraphWriterRunnable {
 
   private final UpdateIncrementality updateIncrementality;
@@ -15,43 +21,67 @@ class TripUpdateGraphWriterRunnable implements GraphWriterRunnable {
   /**
    * The list with updates to apply to the graph
    */
-  private final List<TripUpdate> updates;
-
-  private final boolean fuzzyTripMatching;
+  private final List<PreparedTripUpdate> updates;
 
   private final BackwardsDelayPropagationType backwardsDelayPropagationType;
 
   private final String feedId;
   private final Consumer<UpdateResult> sendMetrics;
+  private final Consumer<Duration> recordLatency;
   private final TimetableSnapshotSource snapshotSource;
 
+  /**
+   * The time the updates were received from the feed, see {@link System#nanoTime()}.
+   */
+  private final long receivedTime;
+
+  /**
+   * @param receivedTime the time the updates were received and decoded from the feed, from
+   *                     {@link System#nanoTime()}.
+   */
   TripUpdateGraphWriterRunnable(
     TimetableSnapshotSource snapshotSource,
-    boolean fuzzyTripMatching,
     BackwardsDelayPropagationType backwardsDelayPropagationType,
     UpdateIncrementality updateIncrementality,
-    List<TripUpdate> updates,
+    List<PreparedTripUpdate> updates,
     String feedId,
-    Consumer<UpdateResult> sendMetrics
+    Consumer<UpdateResult> sendMetrics,
+    Consumer<Duration> recordLatency,
+    long receivedTime
   ) {
     this.snapshotSource = snapshotSource;
-    this.fuzzyTripMatching = fuzzyTripMatching;
     this.backwardsDelayPropagationType = backwardsDelayPropagationType;
     this.updateIncrementality = updateIncrementality;
     this.updates = Objects.requireNonNull(updates);
     this.feedId = Objects.requireNonNull(feedId);
     this.sendMetrics = sendMetrics;
+    this.recordLatency = recordLatency;
+    this.receivedTime = receivedTime;
   }
 
   @Override
   public void run(RealTimeUpdateContext context) {
-    var result = snapshotSource.applyTripUpdates(
-      fuzzyTripMatching ? context.gtfsRealtimeFuzzyTripMatcher() : null,
+    var result = snapshotSource.applyPreparedTripUpdates(
       backwardsDelayPropagationType,
       updateIncrementality,
       updates,
       feedId
     );
     sendMetrics.accept(result);
+    recordLatency.accept(Duration.ofNanos(System.nanoTime() - receivedTime));
+  }
+
+  /**
+   * A full dataset clears all previous updates for the feed before it is applied, so it
+   * supersedes all previous trip updates for the same feed.
+   */
+  @Override
+  public boolean supersedes(GraphWriterRunnable previous) {
+    return (
+      updateIncrementality == UpdateIncrementality.FULL_DATASET &&
+      previous instanceof TripUpdateGraphWriterRunnable other &&
+      other.snapshotSource == snapshotSource &&
+      other.feedId.equals(feedId)
+    );
   }
 }
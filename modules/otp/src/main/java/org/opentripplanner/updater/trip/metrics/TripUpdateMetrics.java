@@ -1,6 +1,9 @@
 package org.opentripplanner.updater.trip.metrics;
 
+import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -14,12 +17,7 @@ public class TripUpdateMetrics {
   protected List<Tag> baseTags;
 
   TripUpdateMetrics(UrlUpdaterParameters parameters) {
-    this.baseTags =
-      List.of(
-        Tag.of("configRef", parameters.configRef()),
-        Tag.of("url", parameters.url()),
-        Tag.of("feedId", parameters.feedId())
-      );
+    this.baseTags = baseTags(parameters);
   }
 
   public static Consumer<UpdateResult> batch(UrlUpdaterParameters parameters) {
@@ -36,6 +34,32 @@ public class TripUpdateMetrics {
     });
   }
 
+  /**
+   * Record the time from the trip updates are received and decoded from the feed until they are
+   * applied to the timetable snapshot buffer. This includes the time spent preparing the updates
+   * and waiting for the graph writer thread, but not the time spent fetching and parsing the feed.
+   */
+  public static Consumer<Duration> latency(UrlUpdaterParameters parameters) {
+    if (OTPFeature.ActuatorAPI.isOn()) {
+      var timer = Timer
+        .builder("trip_updates_latency")
+        .description("Time from the trip updates are received until they are applied")
+        .tags(baseTags(parameters))
+        .register(Metrics.globalRegistry);
+      return timer::record;
+    } else {
+      return ignored -> {};
+    }
+  }
+
+  private static List<Tag> baseTags(UrlUpdaterParameters parameters) {
+    return List.of(
+      Tag.of("configRef", parameters.configRef()),
+      Tag.of("url", parameters.url()),
+      Tag.of("feedId", parameters.feedId())
+    );
+  }
+
   private static Consumer<UpdateResult> getConsumer(Supplier<Consumer<UpdateResult>> maker) {
     if (OTPFeature.ActuatorAPI.isOn()) {
       return maker.get();
@@ -254,5 +254,21 @@ public class VehicleRentalUpdater extends PollingGraphUpdater {
         );
       }
     }
+
+    /**
+     * All stations from the source are in each update, and stations not in the update are
+     * removed. So, a later update from the same updater supersedes the previous one.
+     */
+    @Override
+    public boolean supersedes(GraphWriterRunnable previous) {
+      return (
+        previous instanceof VehicleRentalGraphWriterRunnable other &&
+        other.updater() == VehicleRentalUpdater.this
+      );
+    }
+
+    private VehicleRentalUpdater updater() {
+      return VehicleRentalUpdater.this;
+    }
   }
 }
@@ -0,0 +1,139 @@
+package org.opentripplanner.apis.support.graphql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.hash.Hashing;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.PersistedQueryIdInvalid;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.language.Document;
+import graphql.parser.Parser;
+import graphql.validation.ValidationError;
+import graphql.validation.ValidationErrorType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class CachingPreparsedDocumentProviderTest {
+
+  private static final String QUERY = "{ stops { gtfsId } }";
+  private static final String HASH = Hashing
+    .sha256()
+    .hashString(QUERY, StandardCharsets.UTF_8)
+    .toString();
+
+  private CachingPreparsedDocumentProvider subject = new CachingPreparsedDocumentProvider(
+    "test",
+    10_000
+  );
+  private final List<String> parsedQueries = new ArrayList<>();
+
+  @Test
+  void cacheDocuments() {
+    var first = getDocument(QUERY, null);
+    var second = getDocument(QUERY, null);
+
+    assertFalse(first.hasErrors());
+    assertSame(first, second);
+    assertEquals(List.of(QUERY), parsedQueries);
+  }
+
+  @Test
+  void doNotCacheDocumentsLargerThanTheMaximumWeight() {
+    subject = new CachingPreparsedDocumentProvider("test", QUERY.length() - 1);
+    getDocument(QUERY, null);
+    getDocument(QUERY, null);
+
+    assertEquals(List.of(QUERY, QUERY), parsedQueries);
+  }
+
+  @Test
+  void doNotCacheDocumentsWithErrors() {
+    getDocument("{ invalid }", null);
+    getDocument("{ invalid }", null);
+
+    assertEquals(List.of("{ invalid }", "{ invalid }"), parsedQueries);
+  }
+
+  @Test
+  void persistedQuery() {
+    var notFound = getDocument(null, HASH);
+    assertInstanceOf(PersistedQueryNotFound.class, notFound.getErrors().getFirst().getErrorType());
+    assertEquals("PersistedQueryNotFound", notFound.getErrors().getFirst().getMessage());
+
+    var registered = getDocument(QUERY, HASH);
+    assertFalse(registered.hasErrors());
+
+    var persisted = getDocument(CachingPreparsedDocumentProvider.persistedQueryMarker(), HASH);
+    assertSame(registered, persisted);
+    assertEquals(List.of(QUERY), parsedQueries);
+  }
+
+  @Test
+  void persistedQueryWithInvalidHash() {
+    var entry = getDocument(QUERY, "abc");
+    assertInstanceOf(PersistedQueryIdInvalid.class, entry.getErrors().getFirst().getErrorType());
+    assertTrue(parsedQueries.isEmpty());
+  }
+
+  @Test
+  void hasPersistedQuery() {
+    assertTrue(CachingPreparsedDocumentProvider.hasPersistedQuery(extensions(HASH)));
+    assertFalse(CachingPreparsedDocumentProvider.hasPersistedQuery(Map.of()));
+    assertFalse(CachingPreparsedDocumentProvider.hasPersistedQuery(null));
+  }
+
+  @Test
+  void metrics() {
+    var registry = new SimpleMeterRegistry();
+    subject.bindTo(registry);
+
+    getDocument(QUERY, null);
+    getDocument(QUERY, null);
+
+    var hits = registry.get("cache.gets").tags("cache", "testDocumentCache", "result", "hit");
+    assertEquals(1, hits.functionCounter().count());
+  }
+
+  private PreparsedDocumentEntry getDocument(String query, String hash) {
+    var input = ExecutionInput
+      .newExecutionInput()
+      .query(query == null ? CachingPreparsedDocumentProvider.persistedQueryMarker() : query)
+      .extensions(hash == null ? Map.of() : extensions(hash))
+      .build();
+    return subject.getDocumentAsync(input, this::parseAndValidate).join();
+  }
+
+  /**
+   * Parse the query, queries with an "invalid" field are returned with a validation error.
+   */
+  private PreparsedDocumentEntry parseAndValidate(ExecutionInput input) {
+    parsedQueries.add(input.getQuery());
+    Document document = Parser.parse(input.getQuery());
+    if (input.getQuery().contains("invalid")) {
+      return new PreparsedDocumentEntry(
+        document,
+        List.of(
+          ValidationError
+            .newValidationError()
+            .validationErrorType(ValidationErrorType.FieldUndefined)
+            .description("Invalid field")
+            .build()
+        )
+      );
+    }
+    return new PreparsedDocumentEntry(document);
+  }
+
+  private static Map<String, Object> extensions(String hash) {
+    return Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash));
+  }
+}
@@ -2,6 +2,7 @@ package org.opentripplanner.astar;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.opentripplanner.street.model.vertex.VertexLabel.string;
 
@@ -10,10 +11,13 @@ import java.util.List;
 import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.locationtech.jts.geom.Coordinate;
 import org.opentripplanner.astar.model.GraphPath;
 import org.opentripplanner.astar.model.ShortestPathTree;
 import org.opentripplanner.astar.spi.SearchTerminationStrategy;
+import org.opentripplanner.astar.spi.TraverseVisitor;
 import org.opentripplanner.framework.i18n.NonLocalizedString;
 import org.opentripplanner.routing.algorithm.MultiTargetTerminationStrategy;
 import org.opentripplanner.routing.api.request.RouteRequest;
@@ -283,6 +287,75 @@ public class AStarTest {
     }
   }
 
+  @ParameterizedTest
+  @ValueSource(booleans = { false, true })
+  public void testBidirectionalFindsPathsWithTheSameWeight(boolean arriveBy) {
+    var request = new RouteRequest();
+    request.withPreferences(pref -> pref.withWalk(w -> w.withSpeed(1.0)));
+    request.setArriveBy(arriveBy);
+
+    for (Vertex from : graph.getVertices()) {
+      for (Vertex to : graph.getVertices()) {
+        var expected = StreetSearchBuilder
+          .of()
+          .setHeuristic(new EuclideanRemainingWeightHeuristic())
+          .setRequest(request)
+          .setFrom(from)
+          .setTo(to)
+          .getPathsToTarget();
+
+        var result = StreetSearchBuilder
+          .of()
+          .setHeuristic(new EuclideanRemainingWeightHeuristic())
+          .setBidirectionalSearch(new EuclideanRemainingWeightHeuristic())
+          .setRequest(request)
+          .setFrom(from)
+          .setTo(to)
+          .getPathsToTarget();
+
+        assertEquals(1, expected.size());
+        assertEquals(1, result.size());
+
+        GraphPath<State, Edge, Vertex> path = result.getFirst();
+        assertEquals(expected.getFirst().getWeight(), path.getWeight(), 1e-6);
+        assertEquals(from, path.states.getFirst().getVertex());
+        assertEquals(to, path.states.getLast().getVertex());
+      }
+    }
+  }
+
+  @Test
+  public void testBidirectionalCallsTraverseVisitor() {
+    var visitor = new CountingTraverseVisitor();
+
+    StreetSearchBuilder
+      .of()
+      .setHeuristic(new EuclideanRemainingWeightHeuristic())
+      .setBidirectionalSearch(new EuclideanRemainingWeightHeuristic())
+      .setTraverseVisitor(visitor)
+      .setRequest(new RouteRequest())
+      .setFrom(graph.getVertex("56th_24th"))
+      .setTo(graph.getVertex("leary_20th"))
+      .getPathsToTarget();
+
+    assertTrue(visitor.nVertices > 0);
+    assertTrue(visitor.nEdges > 0);
+  }
+
+  @Test
+  public void testBidirectionalRejectsTerminationStrategy() {
+    var builder = StreetSearchBuilder
+      .of()
+      .setHeuristic(new EuclideanRemainingWeightHeuristic())
+      .setBidirectionalSearch(new EuclideanRemainingWeightHeuristic())
+      .setTerminationStrategy(current -> false)
+      .setRequest(new RouteRequest())
+      .setFrom(graph.getVertex("56th_24th"))
+      .setTo(graph.getVertex("leary_20th"));
+
+    assertThrows(IllegalStateException.class, builder::getPathsToTarget);
+  }
+
   /****
    * Private Methods
    ****/
@@ -302,4 +375,23 @@ public class AStarTest {
       SimpleConcreteEdge.createSimpleConcreteEdge(vB, vA);
     }
   }
+
+  private static class CountingTraverseVisitor implements TraverseVisitor<State, Edge> {
+
+    private int nVertices = 0;
+    private int nEdges = 0;
+
+    @Override
+    public void visitEdge(Edge edge) {
+      ++nEdges;
+    }
+
+    @Override
+    public void visitVertex(State state) {
+      ++nVertices;
+    }
+
+    @Override
+    public void visitEnqueue() {}
+  }
 }
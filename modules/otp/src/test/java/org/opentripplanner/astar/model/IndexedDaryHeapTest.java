@@ -0,0 +1,170 @@
+package org.opentripplanner.astar.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class IndexedDaryHeapTest {
+
+  private static final int N = 50000;
+
+  private final Random random = new Random(42);
+
+  @ParameterizedTest
+  @ValueSource(ints = { 2, 4, 8 })
+  void extractInOrder(int arity) {
+    List<Integer> input = new ArrayList<>(N);
+    for (int i = 0; i < N; i++) {
+      input.add(random.nextInt(10000));
+    }
+    List<Integer> expected = new ArrayList<>(input);
+    expected.sort(Comparator.naturalOrder());
+
+    // Small initial capacity to force the heap and the index to grow
+    var heap = new IndexedDaryHeap<Element>(20, arity);
+    for (Integer i : input) {
+      heap.insert(new Element(i), i * 0.5);
+    }
+    assertEquals(N, heap.size());
+
+    List<Integer> result = new ArrayList<>(N);
+    while (!heap.empty()) {
+      result.add(heap.extract_min().value);
+    }
+    assertEquals(expected, result);
+    assertNull(heap.peek_min());
+    assertNull(heap.extract_min());
+    assertThrows(IllegalStateException.class, heap::peek_min_key);
+  }
+
+  @Test
+  void rekey() {
+    final int n = 5000;
+    var heap = new IndexedDaryHeap<Element>(20);
+
+    for (int iter = 0; iter < 2; iter++) {
+      // Reuse the internal arrays
+      heap.reset();
+
+      List<Element> elements = new ArrayList<>(n);
+      for (int i = 0; i < n; i++) {
+        var e = new Element((n - i) * 3);
+        elements.add(e);
+        heap.insert(e, random.nextDouble() * 10000);
+      }
+
+      // Requeue every item with a new key that is an order-preserving function of its place in
+      // the original list
+      for (int i = 0; i < n; i++) {
+        heap.rekey(elements.get(i), i * 2.0 + 10);
+      }
+
+      for (int i = 0; i < n; i++) {
+        assertEquals(i * 2.0 + 10, heap.peek_min_key());
+        assertEquals(elements.get(i), heap.extract_min());
+      }
+      assertTrue(heap.empty());
+    }
+  }
+
+  @Test
+  void remove() {
+    var heap = new IndexedDaryHeap<Element>(20);
+    List<Element> elements = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      var e = new Element(random.nextInt(10000));
+      elements.add(e);
+      heap.insert(e, e.value);
+    }
+
+    // Remove every other element, the rest must come out in order
+    List<Element> kept = new ArrayList<>();
+    for (int i = 0; i < elements.size(); i++) {
+      if (i % 2 == 0) {
+        assertTrue(heap.remove(elements.get(i)));
+        assertFalse(heap.remove(elements.get(i)));
+      } else {
+        kept.add(elements.get(i));
+      }
+    }
+    assertEquals(kept.size(), heap.size());
+    kept.sort(Comparator.comparingInt(e -> e.value));
+
+    int last = Integer.MIN_VALUE;
+    for (int i = 0; i < kept.size(); i++) {
+      var e = heap.extract_min();
+      assertTrue(e.value >= last);
+      assertEquals(kept.get(i).value, e.value);
+      last = e.value;
+    }
+    assertTrue(heap.empty());
+    assertFalse(heap.remove(new Element(7)));
+  }
+
+  @Test
+  void insertExistingElementChangesKey() {
+    var heap = new IndexedDaryHeap<Element>();
+    var a = new Element(1);
+    var b = new Element(2);
+    heap.insert(a, 10);
+    heap.insert(b, 20);
+    heap.insert(b, 5);
+
+    assertEquals(2, heap.size());
+    assertEquals(5, heap.peek_min_key());
+    assertEquals(b, heap.extract_min());
+    assertEquals(a, heap.extract_min());
+  }
+
+  @Test
+  void interleavedOperationsMatchReferenceQueue() {
+    var heap = new IndexedDaryHeap<Element>(10);
+    var reference = new PriorityQueue<Element>(Comparator.comparingDouble(e -> e.key));
+    List<Element> inQueue = new ArrayList<>();
+
+    for (int i = 0; i < 20_000; i++) {
+      int op = random.nextInt(4);
+      if (op < 2 || inQueue.isEmpty()) {
+        var e = new Element(i);
+        e.key = random.nextInt(1000);
+        heap.insert(e, e.key);
+        reference.add(e);
+        inQueue.add(e);
+      } else if (op == 2) {
+        var e = inQueue.remove(random.nextInt(inQueue.size()));
+        assertTrue(heap.remove(e));
+        reference.remove(e);
+      } else {
+        double expectedKey = reference.peek().key;
+        assertEquals(expectedKey, heap.peek_min_key());
+        var e = heap.extract_min();
+        assertEquals(expectedKey, e.key);
+        assertTrue(reference.remove(e));
+        inQueue.remove(e);
+      }
+      assertEquals(reference.size(), heap.size());
+    }
+  }
+
+  /** Elements must be unique objects, the heap index is based on identity. */
+  private static class Element {
+
+    private final int value;
+    private double key;
+
+    private Element(int value) {
+      this.value = value;
+    }
+  }
+}
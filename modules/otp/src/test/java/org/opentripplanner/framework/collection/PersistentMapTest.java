@@ -0,0 +1,123 @@
+package org.opentripplanner.framework.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PersistentMapTest {
+
+  @Test
+  void empty() {
+    PersistentMap<String, Integer> map = PersistentMap.empty();
+    assertTrue(map.isEmpty());
+    assertEquals(0, map.size());
+    assertNull(map.get("A"));
+    assertNull(map.get(null));
+    assertFalse(map.entrySet().iterator().hasNext());
+    assertEquals(Map.of(), map);
+  }
+
+  @Test
+  void plusAndMinusDoNotChangeTheOriginalMap() {
+    PersistentMap<String, Integer> m0 = PersistentMap.empty();
+    var m1 = m0.plus("A", 1);
+    var m2 = m1.plus("B", 2);
+    var m3 = m2.plus("A", 3);
+    var m4 = m3.minus("B");
+
+    assertEquals(Map.of(), m0);
+    assertEquals(Map.of("A", 1), m1);
+    assertEquals(Map.of("A", 1, "B", 2), m2);
+    assertEquals(Map.of("A", 3, "B", 2), m3);
+    assertEquals(Map.of("A", 3), m4);
+  }
+
+  @Test
+  void unchangedMapIsReturnedAsIs() {
+    Integer one = 1;
+    var map = PersistentMap.<String, Integer>empty().plus("A", one);
+    assertSame(map, map.plus("A", one));
+    assertSame(map, map.minus("B"));
+    assertSame(map, map.minus(null));
+    assertSame(map, map.minusIf(k -> k.equals("B")));
+    assertSame(map, PersistentMap.copyOf(map));
+  }
+
+  @Test
+  void minusIf() {
+    var map = PersistentMap.copyOf(Map.of("A", 1, "B", 2, "C", 3));
+    assertEquals(Map.of("B", 2), map.minusIf(k -> !k.equals("B")));
+  }
+
+  @Test
+  void mutatingMethodsAreNotSupported() {
+    var map = PersistentMap.copyOf(Map.of("A", 1));
+    assertThrows(UnsupportedOperationException.class, () -> map.put("B", 2));
+    assertThrows(UnsupportedOperationException.class, () -> map.remove("A"));
+    assertThrows(NullPointerException.class, () -> map.plus("B", null));
+  }
+
+  @Test
+  void hashCollisions() {
+    var a = new CollidingKey(1, 7);
+    var b = new CollidingKey(2, 7);
+    var c = new CollidingKey(3, 7 + 32);
+    var map = PersistentMap.<CollidingKey, String>empty().plus(a, "a").plus(b, "b").plus(c, "c");
+
+    assertEquals(Map.of(a, "a", b, "b", c, "c"), map);
+    assertEquals(Map.of(a, "a", c, "c"), map.minus(b));
+    assertEquals(Map.of(c, "c"), map.minus(b).minus(a));
+    assertEquals(Map.of(a, "a", b, "B", c, "c"), map.plus(b, "B"));
+  }
+
+  /**
+   * Apply random operations to a HashMap and a PersistentMap and check that they are equal. The
+   * keys have few hash codes, to exercise the collision handling.
+   */
+  @Test
+  void randomOperations() {
+    var random = new Random(42);
+    var expected = new HashMap<CollidingKey, Integer>();
+    PersistentMap<CollidingKey, Integer> map = PersistentMap.empty();
+    PersistentMap<CollidingKey, Integer> previous = map;
+    Map<CollidingKey, Integer> previousExpected = Map.of();
+
+    for (int i = 0; i < 20_000; i++) {
+      int id = random.nextInt(3000);
+      var key = new CollidingKey(id, id % 1000 * 0x9E3779B9);
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        map = map.minus(key);
+      } else {
+        expected.put(key, i);
+        map = map.plus(key, i);
+      }
+      assertEquals(expected.size(), map.size());
+      assertEquals(expected.get(key), map.get(key));
+
+      if (i % 1000 == 0) {
+        assertEquals(expected, map);
+        assertEquals(previousExpected, previous);
+        previous = map;
+        previousExpected = Map.copyOf(expected);
+      }
+    }
+    assertEquals(expected, map);
+    assertEquals(expected.hashCode(), map.hashCode());
+  }
+
+  private record CollidingKey(int id, int hash) {
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
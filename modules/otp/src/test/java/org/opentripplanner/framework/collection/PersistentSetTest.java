@@ -0,0 +1,92 @@
+package org.opentripplanner.framework.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class PersistentSetTest {
+
+  @Test
+  void empty() {
+    PersistentSet<String> set = PersistentSet.empty();
+    assertTrue(set.isEmpty());
+    assertEquals(0, set.size());
+    assertFalse(set.contains("A"));
+    assertFalse(set.contains(null));
+    assertFalse(set.iterator().hasNext());
+    assertEquals(Set.of(), set);
+  }
+
+  @Test
+  void plusAndMinusDoNotChangeTheOriginalSet() {
+    PersistentSet<String> s0 = PersistentSet.empty();
+    var s1 = s0.plus("A");
+    var s2 = s1.plus("B");
+    var s3 = s2.minus("A");
+
+    assertEquals(Set.of(), s0);
+    assertEquals(Set.of("A"), s1);
+    assertEquals(Set.of("A", "B"), s2);
+    assertEquals(Set.of("B"), s3);
+  }
+
+  @Test
+  void unchangedSetIsReturnedAsIs() {
+    var set = PersistentSet.<String>empty().plus("A");
+    assertSame(set, set.plus("A"));
+    assertSame(set, set.minus("B"));
+    assertSame(set, set.minus(null));
+    assertSame(set, set.minusIf(e -> e.equals("B")));
+    assertSame(set, PersistentSet.copyOf(set));
+  }
+
+  @Test
+  void theElementAlreadyInTheSetIsKept() {
+    var a1 = new String("A");
+    var a2 = new String("A");
+    var set = PersistentSet.<String>empty().plus(a1).plus(a2);
+    assertSame(a1, set.iterator().next());
+  }
+
+  @Test
+  void minusIf() {
+    var set = PersistentSet.copyOf(List.of("A", "B", "C"));
+    assertEquals(Set.of("B"), set.minusIf(e -> !e.equals("B")));
+  }
+
+  @Test
+  void nullsAndMutationsAreRejected() {
+    PersistentSet<String> set = PersistentSet.empty();
+    assertThrows(NullPointerException.class, () -> set.plus(null));
+    assertThrows(UnsupportedOperationException.class, () -> set.add("A"));
+  }
+
+  @Test
+  void sameContentAsHashSet() {
+    var random = new Random(42);
+    var expected = new HashSet<Integer>();
+    PersistentSet<Integer> set = PersistentSet.empty();
+
+    for (int i = 0; i < 10_000; i++) {
+      int element = random.nextInt(2_000);
+      if (random.nextInt(3) == 0) {
+        expected.remove(element);
+        set = set.minus(element);
+      } else {
+        expected.add(element);
+        set = set.plus(element);
+      }
+    }
+    assertEquals(expected, set);
+    assertEquals(expected.size(), set.size());
+    assertEquals(expected, new HashSet<>(set));
+  }
+}
@@ -0,0 +1,233 @@
+package org.opentripplanner.graph_builder.module;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.astar.spi.TraverseVisitor;
+import org.opentripplanner.framework.geometry.SphericalDistanceLibrary;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.request.StreetRequest;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.kryosupport.KryoBuilder;
+import org.opentripplanner.street.model.StreetLandmarks;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model._data.StreetModelForTest;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.vertex.IntersectionVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.StreetSearchBuilder;
+import org.opentripplanner.street.search.state.State;
+import org.opentripplanner.street.search.strategy.DominanceFunctions;
+import org.opentripplanner.street.search.strategy.EuclideanRemainingWeightHeuristic;
+import org.opentripplanner.street.search.strategy.LandmarkRemainingWeightHeuristic;
+
+class StreetLandmarkModuleTest {
+
+  private static final int N = 12;
+  private static final float SLOW = 5f;
+  private static final float FAST = 30f;
+
+  private final Graph graph = new Graph();
+  private final IntersectionVertex[][] grid = new IntersectionVertex[N][N];
+
+  /**
+   * A grid of slow streets with a fast ring road around it, and a pedestrian street through the
+   * middle which cars can not use.
+   */
+  @BeforeEach
+  void setup() {
+    for (int i = 0; i < N; i++) {
+      for (int j = 0; j < N; j++) {
+        grid[i][j] =
+          StreetModelForTest.intersectionVertex("v_" + i + "_" + j, 60 + i * 0.002, 10 + j * 0.004);
+        graph.addVertex(grid[i][j]);
+      }
+    }
+    for (int i = 0; i < N; i++) {
+      for (int j = 0; j < N; j++) {
+        if (i + 1 < N) {
+          boolean ring = j == 0 || j == N - 1;
+          edge(grid[i][j], grid[i + 1][j], ring ? FAST : SLOW, StreetTraversalPermission.ALL);
+        }
+        if (j + 1 < N) {
+          boolean ring = i == 0 || i == N - 1;
+          var permission = i == N / 2
+            ? StreetTraversalPermission.PEDESTRIAN
+            : StreetTraversalPermission.ALL;
+          edge(grid[i][j], grid[i][j + 1], ring ? FAST : SLOW, permission);
+        }
+      }
+    }
+    new StreetLandmarkModule(graph, 4).buildGraph();
+  }
+
+  @Test
+  void landmarksAreSelectedAndStored() {
+    var landmarks = graph.getStreetLandmarks();
+    assertNotNull(landmarks);
+    assertEquals(4, landmarks.size());
+    assertEquals(4, landmarks.landmarks().stream().distinct().count());
+    assertEquals(N * N, landmarks.numberOfVertices());
+    for (int i = 0; i < landmarks.size(); i++) {
+      int row = landmarks.row(landmarks.landmarks().get(i));
+      assertEquals(0f, landmarks.durationFrom(row, i));
+      assertEquals(0f, landmarks.durationTo(row, i));
+    }
+    assertEquals(
+      StreetLandmarks.UNKNOWN_VERTEX,
+      landmarks.row(StreetModelForTest.intersectionVertex("unknown", 0, 0))
+    );
+  }
+
+  @Test
+  void landmarksCanBeSerialized() {
+    var landmarks = graph.getStreetLandmarks();
+    var output = new Output(4096, -1);
+    KryoBuilder.create().writeClassAndObject(output, List.of(graph, landmarks));
+
+    var result = (List<?>) KryoBuilder.create().readClassAndObject(new Input(output.toBytes()));
+    var copy = (StreetLandmarks) result.get(1);
+    var copies = ((Graph) result.get(0)).getVertices();
+    assertEquals(landmarks.numberOfVertices(), copy.numberOfVertices());
+    for (Vertex from : allVertices()) {
+      for (Vertex to : allVertices()) {
+        assertEquals(
+          landmarks.lowerBound(landmarks.row(from), landmarks.row(to)),
+          copy.lowerBound(copy.row(copyOf(copies, from)), copy.row(copyOf(copies, to)))
+        );
+      }
+    }
+  }
+
+  @Test
+  void lowerBoundIsNeverLargerThanTheShortestTravelTime() {
+    var landmarks = graph.getStreetLandmarks();
+    for (Vertex from : allVertices()) {
+      var shortest = StreetLandmarkModule.dijkstra(from, true);
+      for (Vertex to : allVertices()) {
+        double bound = landmarks.lowerBound(landmarks.row(from), landmarks.row(to));
+        assertTrue(bound <= shortest.get(to) + 1e-3, from + " -> " + to);
+      }
+    }
+  }
+
+  @Test
+  void carSearchFindsTheSamePathAndVisitsFewerStates() {
+    var landmarks = graph.getStreetLandmarks();
+    long euclideanStates = 0;
+    long landmarkStates = 0;
+
+    for (boolean arriveBy : new boolean[] { false, true }) {
+      for (Vertex from : allVertices()) {
+        for (Vertex to : List.of(grid[0][0], grid[N - 1][N - 1], grid[N / 2 + 1][2])) {
+          var euclidean = new CountStates();
+          var expected = search(
+            new EuclideanRemainingWeightHeuristic(FAST),
+            from,
+            to,
+            arriveBy,
+            euclidean
+          );
+          var landmark = new CountStates();
+          var result = search(
+            new LandmarkRemainingWeightHeuristic(landmarks, FAST),
+            from,
+            to,
+            arriveBy,
+            landmark
+          );
+
+          assertEquals(expected, result, 1e-3, from + " -> " + to);
+          euclideanStates += euclidean.count;
+          landmarkStates += landmark.count;
+        }
+      }
+    }
+    assertTrue(
+      landmarkStates < euclideanStates,
+      "Landmark states: " + landmarkStates + ", Euclidean states: " + euclideanStates
+    );
+  }
+
+  private double search(
+    EuclideanRemainingWeightHeuristic heuristic,
+    Vertex from,
+    Vertex to,
+    boolean arriveBy,
+    CountStates visitor
+  ) {
+    var request = new RouteRequest();
+    request.setArriveBy(arriveBy);
+    var paths = StreetSearchBuilder
+      .of()
+      .setHeuristic(heuristic)
+      .setDominanceFunction(new DominanceFunctions.MinimumWeight())
+      .setTraverseVisitor(visitor)
+      .setRequest(request)
+      .setStreetRequest(new StreetRequest(StreetMode.CAR))
+      .setFrom(from)
+      .setTo(to)
+      .getPathsToTarget();
+    assertEquals(1, paths.size());
+    return paths.getFirst().getWeight();
+  }
+
+  private static Vertex copyOf(Collection<Vertex> copies, Vertex vertex) {
+    return copies
+      .stream()
+      .filter(v -> v.getLabel().equals(vertex.getLabel()))
+      .findFirst()
+      .orElseThrow();
+  }
+
+  private List<Vertex> allVertices() {
+    var list = new ArrayList<Vertex>();
+    for (IntersectionVertex[] row : grid) {
+      list.addAll(List.of(row));
+    }
+    return list;
+  }
+
+  private static void edge(
+    IntersectionVertex a,
+    IntersectionVertex b,
+    float speed,
+    StreetTraversalPermission permission
+  ) {
+    var length = SphericalDistanceLibrary.distance(a.getCoordinate(), b.getCoordinate());
+    StreetModelForTest
+      .streetEdgeBuilder(a, b, length, permission)
+      .withCarSpeed(speed)
+      .buildAndConnect();
+    StreetModelForTest
+      .streetEdgeBuilder(b, a, length, permission)
+      .withCarSpeed(speed)
+      .withBack(true)
+      .buildAndConnect();
+  }
+
+  private static class CountStates implements TraverseVisitor<State, Edge> {
+
+    private int count = 0;
+
+    @Override
+    public void visitEdge(Edge edge) {}
+
+    @Override
+    public void visitVertex(State state) {
+      ++count;
+    }
+
+    @Override
+    public void visitEnqueue() {}
+  }
+}
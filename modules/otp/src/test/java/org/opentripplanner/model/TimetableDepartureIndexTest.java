@@ -0,0 +1,78 @@
+package org.opentripplanner.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.opentripplanner.framework.time.TimeUtils.time;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.timetable.ScheduledTripTimes;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+
+class TimetableDepartureIndexTest {
+
+  private static final TripTimes TRIP_A = tripTimes("A", "10:00 10:30", "10:01 10:31");
+  private static final TripTimes TRIP_B = tripTimes("B", "09:00 09:30", "09:00 09:35");
+  private static final TripTimes TRIP_C = tripTimes("C", "11:00 11:30", "11:00 11:30");
+  private static final TripTimes TRIP_D = tripTimes("D", "10:00 10:30", "10:01 10:31");
+
+  private final TimetableDepartureIndex subject = TimetableDepartureIndex.create(
+    List.of(TRIP_A, TRIP_B, TRIP_C, TRIP_D),
+    1
+  );
+
+  @Test
+  void sortedByDepartureTime() {
+    assertEquals(4, subject.size());
+    // A and D depart at the same time, and keep the order in the timetable
+    assertArrayEquals(new int[] { 1, 0, 3, 2 }, tripIndexes());
+    assertEquals(time("09:35"), subject.departureTime(0));
+    assertEquals(time("11:30"), subject.departureTime(3));
+  }
+
+  @Test
+  void findFirstDepartureAtOrAfter() {
+    assertEquals(0, subject.findFirstDepartureAtOrAfter(0));
+    assertEquals(0, subject.findFirstDepartureAtOrAfter(time("09:35")));
+    assertEquals(1, subject.findFirstDepartureAtOrAfter(time("09:36")));
+    assertEquals(1, subject.findFirstDepartureAtOrAfter(time("10:31")));
+    assertEquals(3, subject.findFirstDepartureAtOrAfter(time("10:32")));
+    assertEquals(4, subject.findFirstDepartureAtOrAfter(time("11:31")));
+  }
+
+  @Test
+  void maxDwellTime() {
+    assertEquals(5 * 60, subject.maxDwellTime());
+  }
+
+  @Test
+  void minScheduledDepartureOffset() {
+    assertEquals(0, subject.minScheduledDepartureOffset());
+
+    var delayed = TRIP_C.copyScheduledTimes();
+    delayed.updateArrivalTime(1, time("11:40"));
+    delayed.updateDepartureTime(1, time("11:40"));
+    var index = TimetableDepartureIndex.create(List.of(TRIP_A, delayed), 1);
+
+    assertEquals(time("11:40"), index.departureTime(1));
+    assertEquals(-10 * 60, index.minScheduledDepartureOffset());
+  }
+
+  private int[] tripIndexes() {
+    var result = new int[subject.size()];
+    for (int i = 0; i < result.length; ++i) {
+      result[i] = subject.tripIndex(i);
+    }
+    return result;
+  }
+
+  private static TripTimes tripTimes(String tripId, String arrivalTimes, String departureTimes) {
+    return ScheduledTripTimes
+      .of()
+      .withTrip(TransitModelForTest.trip(tripId).build())
+      .withArrivalTimes(arrivalTimes)
+      .withDepartureTimes(departureTimes)
+      .build();
+  }
+}
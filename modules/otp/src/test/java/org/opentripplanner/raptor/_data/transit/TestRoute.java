@@ -1,6 +1,7 @@
 package org.opentripplanner.raptor._data.transit;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import org.opentripplanner.framework.tostring.ToStringBuilder;
@@ -24,6 +25,10 @@ public class TestRoute implements RaptorRoute<TestTripSchedule>, RaptorTimeTable
     false
   );
 
+  /** The route pruning index, computed on first use and reset if a trip is added. */
+  private int[] latestDepartureTimes = null;
+  private int[] earliestArrivalTimes = null;
+
   private TestRoute(TestTripPattern pattern) {
     this.pattern = pattern;
   }
@@ -73,12 +78,41 @@ public class TestRoute implements RaptorRoute<TestTripSchedule>, RaptorTimeTable
     return TripScheduleSearchFactory.create(direction, new TestTripSearchTimetable(this));
   }
 
+  /** The latest departure time for each stop position, used by the route pruning index. */
+  public int[] latestDepartureTimes() {
+    if (latestDepartureTimes == null) {
+      latestDepartureTimes = new int[pattern.numberOfStopsInPattern()];
+      Arrays.fill(latestDepartureTimes, Integer.MIN_VALUE);
+      for (var trip : schedules) {
+        for (int i = 0; i < latestDepartureTimes.length; ++i) {
+          latestDepartureTimes[i] = Math.max(latestDepartureTimes[i], trip.departure(i));
+        }
+      }
+    }
+    return latestDepartureTimes;
+  }
+
+  /** The earliest arrival time for each stop position, used by the route pruning index. */
+  public int[] earliestArrivalTimes() {
+    if (earliestArrivalTimes == null) {
+      earliestArrivalTimes = new int[pattern.numberOfStopsInPattern()];
+      Arrays.fill(earliestArrivalTimes, Integer.MAX_VALUE);
+      for (var trip : schedules) {
+        for (int i = 0; i < earliestArrivalTimes.length; ++i) {
+          earliestArrivalTimes[i] = Math.min(earliestArrivalTimes[i], trip.arrival(i));
+        }
+      }
+    }
+    return earliestArrivalTimes;
+  }
+
   public List<TestConstrainedTransfer> listTransferConstraintsForwardSearch() {
     return transferConstraintsForwardSearch.constrainedBoardings();
   }
 
   public TestRoute withTimetable(TestTripSchedule... trips) {
     Collections.addAll(schedules, trips);
+    resetRoutePruningIndex();
     return this;
   }
 
@@ -87,6 +121,7 @@ public class TestRoute implements RaptorRoute<TestTripSchedule>, RaptorTimeTable
       var tripSchedule = builder.pattern(pattern).build();
       schedules.add(tripSchedule);
     }
+    resetRoutePruningIndex();
     return this;
   }
 
@@ -144,4 +179,9 @@ public class TestRoute implements RaptorRoute<TestTripSchedule>, RaptorTimeTable
       }
     }
   }
+
+  private void resetRoutePruningIndex() {
+    latestDepartureTimes = null;
+    earliestArrivalTimes = null;
+  }
 }
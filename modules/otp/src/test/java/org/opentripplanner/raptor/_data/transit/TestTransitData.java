@@ -26,6 +26,7 @@ import org.opentripplanner.raptor.spi.RaptorConstrainedBoardingSearch;
 import org.opentripplanner.raptor.spi.RaptorCostCalculator;
 import org.opentripplanner.raptor.spi.RaptorPathConstrainedTransferSearch;
 import org.opentripplanner.raptor.spi.RaptorRoute;
+import org.opentripplanner.raptor.spi.RaptorRoutePruningIndex;
 import org.opentripplanner.raptor.spi.RaptorSlackProvider;
 import org.opentripplanner.raptor.spi.RaptorTimeTable;
 import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
@@ -67,6 +68,19 @@ public class TestTransitData
 
   private final int[] stopBoardAlightTransferCosts = new int[NUM_STOPS];
 
+  /** The times are computed once for each route, see {@link TestRoute#latestDepartureTimes()}. */
+  private final RaptorRoutePruningIndex routePruningIndex = new RaptorRoutePruningIndex() {
+    @Override
+    public int[] latestDepartureTimes(int routeIndex) {
+      return routes.get(routeIndex).latestDepartureTimes();
+    }
+
+    @Override
+    public int[] earliestArrivalTimes(int routeIndex) {
+      return routes.get(routeIndex).earliestArrivalTimes();
+    }
+  };
+
   private RaptorSlackProvider slackProvider = SLACK_PROVIDER;
 
   @Override
@@ -91,6 +105,11 @@ public class TestTransitData
     return new BitSetIterator(routes);
   }
 
+  @Override
+  public RaptorRoutePruningIndex routePruningIndex() {
+    return routePruningIndex;
+  }
+
   @Override
   public RaptorRoute<TestTripSchedule> getRouteForIndex(int routeIndex) {
     return this.routes.get(routeIndex);
@@ -24,6 +24,7 @@ import org.opentripplanner.raptor._data.stoparrival.BasicPathTestCase;
 import org.opentripplanner.raptor._data.transit.TestAccessEgress;
 import org.opentripplanner.raptor._data.transit.TestTripSchedule;
 import org.opentripplanner.raptor.api.model.RaptorAccessEgress;
+import org.opentripplanner.raptor.api.model.RaptorConstants;
 import org.opentripplanner.raptor.path.Path;
 
 public class PathTest implements RaptorTestConstants {
@@ -144,6 +145,20 @@ public class PathTest implements RaptorTestConstants {
     assertEquals(expected, paths);
   }
 
+  @Test
+  public void testDummyPath() {
+    var p = Path.dummyPath(5, 10, 20, 2, 300, 7);
+
+    assertEquals(5, p.rangeRaptorIterationDepartureTime());
+    assertEquals(10, p.startTimeInclusivePenalty());
+    assertEquals(20, p.endTimeInclusivePenalty());
+    assertEquals(10, p.durationInclusivePenaltyInSeconds());
+    assertEquals(2, p.numberOfTransfers());
+    assertEquals(300, p.c1());
+    assertEquals(7, p.c2());
+    assertEquals(RaptorConstants.NOT_SET, Path.dummyPath(5, 10, 20, 2, 300).c2());
+  }
+
   @Test
   public void testCountTransfersWithStaySeated() {
     int egressStart = time("09:30");
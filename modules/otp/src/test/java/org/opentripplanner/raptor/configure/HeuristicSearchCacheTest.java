@@ -0,0 +1,151 @@
+package org.opentripplanner.raptor.configure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.raptor._data.api.PathUtils.pathsToString;
+import static org.opentripplanner.raptor._data.transit.TestRoute.route;
+import static org.opentripplanner.raptor._data.transit.TestTripSchedule.schedule;
+
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.raptor.RaptorService;
+import org.opentripplanner.raptor._data.RaptorTestConstants;
+import org.opentripplanner.raptor._data.transit.TestAccessEgress;
+import org.opentripplanner.raptor._data.transit.TestTransitData;
+import org.opentripplanner.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.raptor.api.request.Optimization;
+import org.opentripplanner.raptor.api.request.RaptorProfile;
+import org.opentripplanner.raptor.api.request.RaptorRequest;
+import org.opentripplanner.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.raptor.api.request.RaptorTuningParameters;
+import org.opentripplanner.raptor.api.response.RaptorResponse;
+
+class HeuristicSearchCacheTest implements RaptorTestConstants {
+
+  private static final TestAccessEgress ACCESS = TestAccessEgress.walk(STOP_A, D1m);
+  private static final TestAccessEgress EGRESS_B = TestAccessEgress.walk(STOP_B, D1m);
+  private static final TestAccessEgress EGRESS_C = TestAccessEgress.walk(STOP_C, D1m);
+
+  private final TestTransitData data = new TestTransitData() {
+    @Override
+    public Object heuristicCacheKey() {
+      return "v1";
+    }
+  };
+
+  private final RaptorConfig<TestTripSchedule> config = new RaptorConfig<>(
+    new RaptorTuningParameters() {
+      @Override
+      public int heuristicCacheSize() {
+        return 10;
+      }
+    }
+  );
+
+  @BeforeEach
+  void setup() {
+    addRoutes(data);
+  }
+
+  @Test
+  void nextPageUseTheCachedReverseHeuristics() {
+    var firstPage = request(T00_00, EGRESS_C);
+    // The egress is part of the key with its values, not the instance
+    var nextPage = request(T00_30, TestAccessEgress.walk(STOP_C, D1m));
+
+    assertEquals(routeWithoutCache(firstPage), pathsToString(routeWithCache(firstPage)));
+    assertEquals(routeWithoutCache(nextPage), pathsToString(routeWithCache(nextPage)));
+
+    var cache = config.heuristicCache();
+    assertEquals(1, cache.missCount());
+    assertEquals(1, cache.hitCount());
+    assertEquals(1, cache.putCount());
+  }
+
+  @Test
+  void searchWithAnotherEgressDurationIsNotCached() {
+    routeWithCache(request(T00_00, EGRESS_C));
+    routeWithCache(request(T00_00, TestAccessEgress.walk(STOP_C, D2m)));
+
+    assertEquals(2, config.heuristicCache().missCount());
+  }
+
+  @Test
+  void searchWithAnotherEgressIsNotCached() {
+    routeWithCache(request(T00_00, EGRESS_C));
+    routeWithCache(request(T00_00, EGRESS_B));
+
+    var cache = config.heuristicCache();
+    assertEquals(2, cache.missCount());
+    assertEquals(0, cache.hitCount());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  void transitDataWithoutKeyIsNotCached() {
+    var request = request(T00_00, EGRESS_C);
+    var service = new RaptorService<>(config);
+
+    var expected = routeWithoutCache(request);
+    var withoutKey = addRoutes(new TestTransitData());
+    service.route(request, withoutKey);
+
+    assertEquals(expected, pathsToString(service.route(request, withoutKey)));
+    assertEquals(0, config.heuristicCache().size());
+  }
+
+  @Test
+  void cacheIsDisabledByDefault() {
+    assertFalse(RaptorConfig.defaultConfigForTest().heuristicCache().isEnabled());
+  }
+
+  /**
+   * The reverse heuristic search only drops the earliest-departure-time if the result is cached.
+   */
+  @Test
+  void isCacheable() {
+    var request = request(T00_00, EGRESS_C);
+    var disabledCache = RaptorConfig.<TestTripSchedule>defaultConfigForTest().heuristicCache();
+
+    assertTrue(config.heuristicCache().isCacheable(data, request));
+    assertFalse(config.heuristicCache().isCacheable(addRoutes(new TestTransitData()), request));
+    assertFalse(disabledCache.isCacheable(data, request));
+  }
+
+  private static TestTransitData addRoutes(TestTransitData data) {
+    return data.withRoute(
+      route("R1", STOP_A, STOP_B, STOP_C)
+        .withTimetable(
+          schedule("0:05 0:15 0:25"),
+          schedule("0:35 0:45 0:55"),
+          schedule("1:05 1:15 1:25"),
+          schedule("1:35 1:45 1:55")
+        )
+    );
+  }
+
+  private RaptorResponse<TestTripSchedule> routeWithCache(RaptorRequest<TestTripSchedule> request) {
+    return new RaptorService<>(config).route(request, data);
+  }
+
+  private String routeWithoutCache(RaptorRequest<TestTripSchedule> request) {
+    return pathsToString(
+      new RaptorService<>(RaptorConfig.<TestTripSchedule>defaultConfigForTest())
+        .route(request, data)
+    );
+  }
+
+  private static RaptorRequest<TestTripSchedule> request(int edt, TestAccessEgress egress) {
+    return new RaptorRequestBuilder<TestTripSchedule>()
+      .profile(RaptorProfile.MULTI_CRITERIA)
+      .enableOptimization(Optimization.PARETO_CHECK_AGAINST_DESTINATION)
+      .searchParams()
+      .earliestDepartureTime(edt)
+      .searchWindow(Duration.ofMinutes(30))
+      .addAccessPaths(ACCESS)
+      .addEgressPaths(egress)
+      .build();
+  }
+}
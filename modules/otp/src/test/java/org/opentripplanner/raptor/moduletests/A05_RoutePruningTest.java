@@ -0,0 +1,147 @@
+package org.opentripplanner.raptor.moduletests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.raptor._data.transit.TestRoute.route;
+import static org.opentripplanner.raptor._data.transit.TestTripSchedule.schedule;
+import static org.opentripplanner.raptor.moduletests.support.RaptorModuleTestConfig.multiCriteria;
+import static org.opentripplanner.raptor.moduletests.support.RaptorModuleTestConfig.standard;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.opentripplanner.raptor.RaptorService;
+import org.opentripplanner.raptor._data.RaptorTestConstants;
+import org.opentripplanner.raptor._data.transit.TestAccessEgress;
+import org.opentripplanner.raptor._data.transit.TestTransitData;
+import org.opentripplanner.raptor._data.transit.TestTripPattern;
+import org.opentripplanner.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.raptor.api.model.RaptorTripPattern;
+import org.opentripplanner.raptor.api.request.RaptorProfile;
+import org.opentripplanner.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.raptor.configure.RaptorConfig;
+import org.opentripplanner.raptor.moduletests.support.ModuleTestDebugLogging;
+import org.opentripplanner.raptor.moduletests.support.RaptorModuleTestCase;
+import org.opentripplanner.raptor.spi.RaptorRoute;
+import org.opentripplanner.raptor.spi.RaptorRoutePruningIndex;
+import org.opentripplanner.raptor.spi.RaptorTimeTable;
+
+/**
+ * FEATURE UNDER TEST
+ * <p>
+ * Raptor should skip a route if none of its trips depart after the stops are reached in the
+ * previous round, see {@link RaptorRoutePruningIndex}. The route L2 leaves stop B before L1
+ * arrives, so it is skipped in the second round. The result must be the same as when all routes
+ * are scanned.
+ */
+public class A05_RoutePruningTest implements RaptorTestConstants {
+
+  private final TestTransitData data = new ScannedRoutesTransitData(true);
+  private final TestTransitData dataWithoutPruning = new ScannedRoutesTransitData(false);
+  private final RaptorService<TestTripSchedule> raptorService = new RaptorService<>(
+    RaptorConfig.defaultConfigForTest()
+  );
+
+  @BeforeEach
+  void setup() {
+    for (var it : List.of(data, dataWithoutPruning)) {
+      it.withRoute(route("L1", STOP_A, STOP_B).withTimetable(schedule("0:10 0:20")));
+      it.withRoute(route("L2", STOP_B, STOP_C).withTimetable(schedule("0:15 0:25")));
+      it.withRoute(route("L3", STOP_B, STOP_C).withTimetable(schedule("0:30 0:40")));
+    }
+  }
+
+  @Test
+  void routeIsSkipped() {
+    raptorService.route(requestBuilder().profile(RaptorProfile.STANDARD).build(), data);
+    raptorService.route(
+      requestBuilder().profile(RaptorProfile.STANDARD).build(),
+      dataWithoutPruning
+    );
+
+    assertFalse(scannedRoutes(data).contains("L2"));
+    assertTrue(scannedRoutes(data).contains("L3"));
+    assertTrue(scannedRoutes(dataWithoutPruning).contains("L2"));
+  }
+
+  static List<RaptorModuleTestCase> testCases() {
+    return RaptorModuleTestCase
+      .of()
+      .add(
+        standard(),
+        "Walk 1m ~ A ~ BUS L1 0:10 0:20 ~ B ~ BUS L3 0:30 0:40 ~ C ~ Walk 1m [0:09 0:41 32m Tₓ1]"
+      )
+      .add(
+        multiCriteria(),
+        "Walk 1m ~ A ~ BUS L1 0:10 0:20 ~ B ~ BUS L3 0:30 0:40 ~ C ~ Walk 1m " +
+        "[0:09 0:41 32m Tₓ1 C₁3_240]"
+      )
+      .build();
+  }
+
+  @ParameterizedTest
+  @MethodSource("testCases")
+  void testRaptor(RaptorModuleTestCase testCase) {
+    assertEquals(testCase.expected(), testCase.run(raptorService, data, requestBuilder()));
+    assertEquals(
+      testCase.expected(),
+      testCase.run(raptorService, dataWithoutPruning, requestBuilder())
+    );
+  }
+
+  private RaptorRequestBuilder<TestTripSchedule> requestBuilder() {
+    var builder = new RaptorRequestBuilder<TestTripSchedule>();
+    builder
+      .searchParams()
+      .addAccessPaths(TestAccessEgress.walk(STOP_A, D1m))
+      .addEgressPaths(TestAccessEgress.walk(STOP_C, D1m))
+      .earliestDepartureTime(T00_00)
+      .latestArrivalTime(T01_00)
+      .searchOneIterationOnly();
+    ModuleTestDebugLogging.setupDebugLogging(data, builder);
+    return builder;
+  }
+
+  private static List<String> scannedRoutes(TestTransitData data) {
+    return ((ScannedRoutesTransitData) data).scannedRoutes;
+  }
+
+  /**
+   * Record the name of the routes Raptor scans, a route is scanned when its timetable is used.
+   */
+  private static class ScannedRoutesTransitData extends TestTransitData {
+
+    private final boolean routePruning;
+    private final List<String> scannedRoutes = new ArrayList<>();
+
+    private ScannedRoutesTransitData(boolean routePruning) {
+      this.routePruning = routePruning;
+    }
+
+    @Override
+    public RaptorRoutePruningIndex routePruningIndex() {
+      return routePruning ? super.routePruningIndex() : null;
+    }
+
+    @Override
+    public RaptorRoute<TestTripSchedule> getRouteForIndex(int routeIndex) {
+      var route = super.getRouteForIndex(routeIndex);
+      return new RaptorRoute<>() {
+        @Override
+        public RaptorTimeTable<TestTripSchedule> timetable() {
+          scannedRoutes.add(((TestTripPattern) route.pattern()).getName());
+          return route.timetable();
+        }
+
+        @Override
+        public RaptorTripPattern pattern() {
+          return route.pattern();
+        }
+      };
+    }
+  }
+}
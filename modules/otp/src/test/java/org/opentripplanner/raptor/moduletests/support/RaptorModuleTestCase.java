@@ -1,26 +1,44 @@
 package org.opentripplanner.raptor.moduletests.support;
 
 import static java.util.Objects.requireNonNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.opentripplanner.raptor._data.api.PathUtils.pathsToString;
 import static org.opentripplanner.raptor._data.api.PathUtils.pathsToStringDetailed;
 
 import java.util.function.Consumer;
 import org.opentripplanner.raptor.RaptorService;
 import org.opentripplanner.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.raptor.api.request.RaptorProfile;
 import org.opentripplanner.raptor.api.request.RaptorRequest;
 import org.opentripplanner.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.raptor.api.request.RaptorTuningParameters;
 import org.opentripplanner.raptor.api.response.RaptorResponse;
+import org.opentripplanner.raptor.configure.RaptorConfig;
 import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
 
 /**
  * The given Raptor module-test configuration should result in the given expected path string,
  * when calling Raptor. Se one of the module test on how to use this.
+ * <p>
+ * The multi-criteria test cases are also run with the stop arrivals sorted by arrival time, and
+ * the result must be the same as with the default configuration.
  */
 public record RaptorModuleTestCase(
   Consumer<RaptorRequestBuilder<TestTripSchedule>> requestAdditions,
   RaptorModuleTestConfig config,
   String expected
 ) {
+  private static final RaptorService<TestTripSchedule> SORTED_STOP_ARRIVALS_SERVICE = new RaptorService<>(
+    new RaptorConfig<>(
+      new RaptorTuningParameters() {
+        @Override
+        public boolean sortStopArrivalsByArrivalTime() {
+          return true;
+        }
+      }
+    )
+  );
+
   public RaptorModuleTestCase(Builder builder) {
     this(
       builder.requestAdditions,
@@ -77,7 +95,17 @@ public record RaptorModuleTestCase(
     RaptorTransitDataProvider<TestTripSchedule> data,
     RaptorRequestBuilder<TestTripSchedule> requestBuilder
   ) {
-    return raptorService.route(withConfig(requestBuilder), data);
+    var request = withConfig(requestBuilder);
+    var response = raptorService.route(request, data);
+
+    if (config.profile().is(RaptorProfile.MULTI_CRITERIA)) {
+      assertEquals(
+        pathsToStringDetailed(response),
+        pathsToStringDetailed(SORTED_STOP_ARRIVALS_SERVICE.route(request, data)),
+        "Sorting the stop arrivals by arrival time should not change the result"
+      );
+    }
+    return response;
   }
 
   static class Builder {
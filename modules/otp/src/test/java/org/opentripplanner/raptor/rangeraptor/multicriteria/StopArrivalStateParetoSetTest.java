@@ -75,12 +75,27 @@ public class StopArrivalStateParetoSetTest {
     return Stream.of(
       Arguments.of(
         "Stop Arrival - regular",
-        createStopArrivalSet(COMPARATOR_FACTORY.compareArrivalTimeRoundAndCost(), null)
+        createStopArrivalSet(COMPARATOR_FACTORY.compareArrivalTimeRoundAndCost(), false, null)
       ),
       Arguments.of(
         "Stop Arrival - w/egress",
         createEgressStopArrivalSet(
           COMPARATOR_FACTORY.compareArrivalTimeRoundCostAndOnBoardArrival(),
+          false,
+          List.of(),
+          null,
+          null
+        )
+      ),
+      Arguments.of(
+        "Stop Arrival - sorted by arrival time",
+        createStopArrivalSet(COMPARATOR_FACTORY.compareArrivalTimeRoundAndCost(), true, null)
+      ),
+      Arguments.of(
+        "Stop Arrival - w/egress, sorted by arrival time",
+        createEgressStopArrivalSet(
+          COMPARATOR_FACTORY.compareArrivalTimeRoundCostAndOnBoardArrival(),
+          true,
           List.of(),
           null,
           null
@@ -169,7 +184,11 @@ public class StopArrivalStateParetoSetTest {
    */
   @Test
   public void testTransitAndTransferDoesNotAffectDominance() {
-    var subject = createStopArrivalSet(COMPARATOR_FACTORY.compareArrivalTimeRoundAndCost(), null);
+    var subject = createStopArrivalSet(
+      COMPARATOR_FACTORY.compareArrivalTimeRoundAndCost(),
+      false,
+      null
+    );
     subject.add(newAccessStopState(STOP_1, 20, ANY));
     subject.add(newTransitStopState(ROUND_1, STOP_2, 10, ANY));
     subject.add(newTransferStopState(ROUND_1, STOP_4, 8, ANY));
@@ -186,6 +205,7 @@ public class StopArrivalStateParetoSetTest {
   public void testTransitAndTransferDoesAffectDominanceForStopArrivalsWithEgress() {
     var subject = createEgressStopArrivalSet(
       COMPARATOR_FACTORY.compareArrivalTimeRoundCostAndOnBoardArrival(),
+      false,
       List.of(),
       null,
       null
@@ -0,0 +1,214 @@
+package org.opentripplanner.raptor.rangeraptor.path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.opentripplanner.framework.time.TimeUtils.time;
+import static org.opentripplanner.raptor._data.stoparrival.BasicPathTestCase.C1_CALCULATOR;
+import static org.opentripplanner.raptor._data.stoparrival.TestArrivals.access;
+import static org.opentripplanner.raptor._data.stoparrival.TestArrivals.bus;
+import static org.opentripplanner.raptor._data.stoparrival.TestArrivals.transfer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.raptor._data.RaptorTestConstants;
+import org.opentripplanner.raptor._data.transit.TestAccessEgress;
+import org.opentripplanner.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.raptor.api.model.DominanceFunction;
+import org.opentripplanner.raptor.api.model.RaptorConstants;
+import org.opentripplanner.raptor.api.model.RelaxFunction;
+import org.opentripplanner.raptor.api.path.RaptorPath;
+import org.opentripplanner.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.raptor.api.view.ArrivalView;
+import org.opentripplanner.raptor.path.Path;
+import org.opentripplanner.raptor.rangeraptor.debug.DebugHandlerFactory;
+import org.opentripplanner.raptor.rangeraptor.internalapi.ParetoSetCost;
+import org.opentripplanner.raptor.rangeraptor.internalapi.ParetoSetTime;
+import org.opentripplanner.raptor.rangeraptor.lifecycle.LifeCycleSubscriptions;
+import org.opentripplanner.raptor.rangeraptor.transit.AccessWithPenalty;
+import org.opentripplanner.raptor.rangeraptor.transit.ForwardRaptorTransitCalculator;
+import org.opentripplanner.raptor.rangeraptor.transit.SlackProviderAdapter;
+
+/**
+ * The destination arrivals are checked against the paths found before they are mapped to a path,
+ * see {@link DestinationArrivalPaths}. The path mapper in this test records the arrivals it maps
+ * and returns the path the {@link ForwardPathMapper} would return for the arrival.
+ */
+class DestinationArrivalPathsTest implements RaptorTestConstants {
+
+  private static final int ITERATION_DEPARTURE_TIME = time("10:00");
+  private static final TestTripSchedule ANY_TRIP = null;
+  private static final int ANY_C2 = RaptorConstants.NOT_SET;
+  private static final int LOW_C1 = 1_000;
+  private static final int HIGH_C1 = 2_000;
+
+  private static final TestAccessEgress ACCESS = TestAccessEgress.walk(STOP_A, D2m);
+  private static final TestAccessEgress EGRESS_B = TestAccessEgress.walk(STOP_B, D2m);
+  private static final TestAccessEgress EGRESS_D = TestAccessEgress.walk(STOP_D, D2m);
+
+  private final List<ArrivalView<TestTripSchedule>> mappedArrivals = new ArrayList<>();
+  private final Map<ArrivalView<TestTripSchedule>, MappedPath> mappedPaths = new HashMap<>();
+
+  @Test
+  void dominatedArrivalIsNotMapped() {
+    var subject = subject(false);
+
+    // Walk 2m ~ A ~ BUS 10:05 10:20 ~ B ~ Walk 2m [10:00 10:22 Tₓ0]
+    var cheap = bus(1, STOP_B, time("10:20"), LOW_C1, ANY_C2, ANY_TRIP, accessArrival());
+    var expensive = bus(1, STOP_B, time("10:20"), HIGH_C1, ANY_C2, ANY_TRIP, accessArrival());
+    expectPath(cheap, time("10:00"), 0);
+    expectPath(expensive, time("10:00"), 0);
+
+    subject.add(cheap, EGRESS_B);
+    subject.add(expensive, EGRESS_B);
+
+    assertEquals(List.of(cheap), mappedArrivals);
+    assertEquals(1, subject.listPaths().size());
+  }
+
+  @Test
+  void arrivalNotDominatedIsMapped() {
+    var subject = subject(false);
+
+    var expensive = bus(1, STOP_B, time("10:20"), HIGH_C1, ANY_C2, ANY_TRIP, accessArrival());
+    var cheap = bus(1, STOP_B, time("10:20"), LOW_C1, ANY_C2, ANY_TRIP, accessArrival());
+    expectPath(expensive, time("10:00"), 0);
+    expectPath(cheap, time("10:00"), 0);
+
+    subject.add(expensive, EGRESS_B);
+    subject.add(cheap, EGRESS_B);
+
+    assertEquals(List.of(expensive, cheap), mappedArrivals);
+    assertEquals(1, subject.listPaths().size());
+  }
+
+  /**
+   * The second bus is reached by staying seated (or by a guaranteed transfer) at stop B. The
+   * mapped path has no transfers, so the arrival is optimal even if it is more expensive than the
+   * path with a walking transfer.
+   */
+  @Test
+  void arrivalWithStaySeatedTransferIsMapped() {
+    var subject = subject(true);
+
+    var walkingTransfer = walkingTransfer();
+    var staySeated = busToBusAtB();
+    expectPath(staySeated, time("10:00"), 0);
+
+    subject.add(walkingTransfer, EGRESS_D);
+    subject.add(staySeated, EGRESS_D);
+
+    assertEquals(List.of(walkingTransfer, staySeated), mappedArrivals);
+    assertEquals(2, subject.listPaths().size());
+  }
+
+  /**
+   * Without constrained transfers the same arrival is dominated, and it is not mapped.
+   */
+  @Test
+  void arrivalWithTransferIsNotMappedWithoutConstrainedTransfers() {
+    var subject = subject(false);
+
+    var walkingTransfer = walkingTransfer();
+    var transfer = busToBusAtB();
+    expectPath(transfer, time("10:00"), 1);
+
+    subject.add(walkingTransfer, EGRESS_D);
+    subject.add(transfer, EGRESS_D);
+
+    assertEquals(List.of(walkingTransfer), mappedArrivals);
+    assertEquals(1, subject.listPaths().size());
+  }
+
+  /**
+   * Raptor adds the time-penalty to the access duration. The access departs 10:05 including the
+   * penalty, so the path is shorter than the cheaper path departing 10:00.
+   */
+  @Test
+  void arrivalWithTimePenaltyAccessIsMapped() {
+    var subject = subject(false);
+
+    var access = new AccessWithPenalty(ACCESS.withTimePenalty(D3m));
+    var accessArrival = access(STOP_A, time("10:10"), access);
+
+    var cheap = bus(1, STOP_B, time("10:20"), LOW_C1, ANY_C2, ANY_TRIP, accessArrival());
+    var withPenalty = bus(1, STOP_B, time("10:20"), HIGH_C1, ANY_C2, ANY_TRIP, accessArrival);
+    expectPath(cheap, time("10:00"), 0);
+    expectPath(withPenalty, time("10:05"), 0);
+
+    subject.add(cheap, EGRESS_B);
+    subject.add(withPenalty, EGRESS_B);
+
+    assertEquals(List.of(cheap, withPenalty), mappedArrivals);
+    assertEquals(2, subject.listPaths().size());
+  }
+
+  /** Walk 2m ~ A ~ BUS 10:05 10:20 ~ B ~ Walk 3m ~ C ~ BUS 10:25 10:40 ~ D [Tₓ1] */
+  private ArrivalView<TestTripSchedule> walkingTransfer() {
+    var busB = bus(1, STOP_B, time("10:20"), LOW_C1, ANY_C2, ANY_TRIP, accessArrival());
+    var walkC = transfer(1, STOP_C, time("10:20"), time("10:23"), 0, busB);
+    var busD = bus(2, STOP_D, time("10:40"), LOW_C1, ANY_C2, ANY_TRIP, walkC);
+    expectPath(busD, time("10:00"), 1);
+    return busD;
+  }
+
+  /** Walk 2m ~ A ~ BUS 10:05 10:20 ~ B ~ BUS 10:25 10:40 ~ D */
+  private static ArrivalView<TestTripSchedule> busToBusAtB() {
+    var busB = bus(1, STOP_B, time("10:20"), LOW_C1, ANY_C2, ANY_TRIP, accessArrival());
+    return bus(2, STOP_D, time("10:40"), HIGH_C1, ANY_C2, ANY_TRIP, busB);
+  }
+
+  private static ArrivalView<TestTripSchedule> accessArrival() {
+    return access(STOP_A, time("10:02"), ACCESS);
+  }
+
+  private void expectPath(ArrivalView<TestTripSchedule> arrival, int startTime, int nTransfers) {
+    mappedPaths.put(arrival, new MappedPath(startTime, nTransfers));
+  }
+
+  private RaptorPath<TestTripSchedule> mapToPath(DestinationArrival<TestTripSchedule> arrival) {
+    mappedArrivals.add(arrival.previous());
+    var path = mappedPaths.get(arrival.previous());
+    return Path.dummyPath(
+      ITERATION_DEPARTURE_TIME,
+      path.startTime(),
+      arrival.arrivalTime(),
+      path.nTransfers(),
+      arrival.c1(),
+      arrival.c2()
+    );
+  }
+
+  private DestinationArrivalPaths<TestTripSchedule> subject(boolean constrainedTransfers) {
+    var lifeCycle = new LifeCycleSubscriptions();
+    var subject = new DestinationArrivalPaths<>(
+      PathParetoSetComparators.<TestTripSchedule>paretoComparator(
+        ParetoSetTime.USE_ARRIVAL_TIME,
+        ParetoSetCost.USE_C1,
+        RelaxFunction.NORMAL,
+        DominanceFunction.noop()
+      ),
+      new ForwardRaptorTransitCalculator<>(
+        ITERATION_DEPARTURE_TIME,
+        D24h,
+        RaptorConstants.TIME_NOT_SET,
+        60
+      ),
+      C1_CALCULATOR,
+      null,
+      SlackProviderAdapter.forwardSlackProvider(SLACK_PROVIDER, lifeCycle),
+      this::mapToPath,
+      true,
+      constrainedTransfers,
+      new DebugHandlerFactory<>(new RaptorRequestBuilder<>().debug().build(), lifeCycle),
+      this::stopIndexToName,
+      lifeCycle,
+      null
+    );
+    subject.setRangeRaptorIterationDepartureTime(ITERATION_DEPARTURE_TIME);
+    return subject;
+  }
+
+  private record MappedPath(int startTime, int nTransfers) {}
+}
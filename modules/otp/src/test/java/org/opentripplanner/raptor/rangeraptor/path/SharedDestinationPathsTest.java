@@ -0,0 +1,71 @@
+package org.opentripplanner.raptor.rangeraptor.path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.framework.time.TimeUtils.time;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.raptor.api.model.DominanceFunction;
+import org.opentripplanner.raptor.api.model.RelaxFunction;
+import org.opentripplanner.raptor.api.path.RaptorPath;
+import org.opentripplanner.raptor.path.Path;
+import org.opentripplanner.raptor.rangeraptor.internalapi.ParetoSetCost;
+import org.opentripplanner.raptor.rangeraptor.internalapi.ParetoSetTime;
+import org.opentripplanner.raptor.util.paretoset.ParetoComparator;
+
+class SharedDestinationPathsTest {
+
+  private static final ParetoComparator<RaptorPath<TestTripSchedule>> COMPARATOR = PathParetoSetComparators.paretoComparator(
+    ParetoSetTime.USE_ARRIVAL_TIME,
+    ParetoSetCost.USE_C1,
+    RelaxFunction.NORMAL,
+    DominanceFunction.noop()
+  );
+
+  private static final RaptorPath<TestTripSchedule> FAST = path(time("10:20"), 1_000);
+  private static final RaptorPath<TestTripSchedule> SLOW = path(time("10:40"), 1_000);
+
+  private final List<SharedDestinationPaths<TestTripSchedule>> subject = SharedDestinationPaths.create(
+    3
+  );
+
+  @Test
+  void pathsOfTheLaterSubWindowsAreUsed() {
+    subject.get(0).publish(List.of(FAST));
+
+    assertTrue(subject.get(1).isDominated(SLOW, COMPARATOR));
+    assertTrue(subject.get(2).isDominated(SLOW, COMPARATOR));
+    assertFalse(subject.get(1).isEmpty());
+  }
+
+  @Test
+  void pathsOfTheEarlierSubWindowsAreNotUsed() {
+    subject.get(1).publish(List.of(FAST));
+
+    assertFalse(subject.get(0).isDominated(SLOW, COMPARATOR));
+    assertTrue(subject.get(0).isEmpty());
+    assertTrue(subject.get(2).isDominated(SLOW, COMPARATOR));
+  }
+
+  @Test
+  void equalPathsAreNotDominated() {
+    subject.get(0).publish(List.of(FAST));
+
+    assertFalse(subject.get(1).isDominated(path(time("10:20"), 1_000), COMPARATOR));
+    assertFalse(subject.get(1).isDominated(path(time("10:40"), 500), COMPARATOR));
+  }
+
+  @Test
+  void publishReplacesThePathsOfTheSubWindow() {
+    subject.get(0).publish(List.of(FAST));
+    subject.get(0).publish(List.of(SLOW));
+
+    assertFalse(subject.get(1).isDominated(path(time("10:30"), 1_000), COMPARATOR));
+  }
+
+  private static RaptorPath<TestTripSchedule> path(int arrivalTime, int c1) {
+    return Path.dummyPath(time("10:00"), time("10:00"), arrivalTime, 0, c1);
+  }
+}
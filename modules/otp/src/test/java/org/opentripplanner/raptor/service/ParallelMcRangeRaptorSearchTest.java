@@ -0,0 +1,139 @@
+package org.opentripplanner.raptor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.raptor._data.api.PathUtils.pathsToString;
+import static org.opentripplanner.raptor._data.transit.TestRoute.route;
+import static org.opentripplanner.raptor._data.transit.TestTripSchedule.schedule;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.raptor.RaptorService;
+import org.opentripplanner.raptor._data.RaptorTestConstants;
+import org.opentripplanner.raptor._data.transit.TestAccessEgress;
+import org.opentripplanner.raptor._data.transit.TestTransitData;
+import org.opentripplanner.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.raptor.api.request.RaptorProfile;
+import org.opentripplanner.raptor.api.request.RaptorRequest;
+import org.opentripplanner.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.raptor.api.request.RaptorTuningParameters;
+import org.opentripplanner.raptor.configure.RaptorConfig;
+
+class ParallelMcRangeRaptorSearchTest implements RaptorTestConstants {
+
+  private final TestTransitData data = new TestTransitData();
+  private final RaptorRequestBuilder<TestTripSchedule> requestBuilder = new RaptorRequestBuilder<>();
+
+  private final RaptorConfig<TestTripSchedule> parallelConfig = new RaptorConfig<>(
+    new RaptorTuningParameters() {
+      @Override
+      public int searchThreadPoolSize() {
+        return 2;
+      }
+
+      @Override
+      public int searchWindowPartitions() {
+        return 3;
+      }
+    }
+  );
+
+  @BeforeEach
+  void setup() {
+    data.withRoute(
+      route("R1", STOP_A, STOP_B, STOP_C)
+        .withTimetable(
+          schedule("0:05 0:15 0:25"),
+          schedule("0:15 0:25 0:35"),
+          schedule("0:25 0:35 0:45"),
+          schedule("0:35 0:45 0:55"),
+          schedule("0:45 0:55 1:05"),
+          schedule("0:55 1:05 1:15"),
+          schedule("1:05 1:15 1:25")
+        )
+    );
+    data.withRoute(
+      route("R2", STOP_A, STOP_C).withTimetable(schedule("0:12 0:20"), schedule("0:42 0:50"))
+    );
+
+    requestBuilder
+      .profile(RaptorProfile.MULTI_CRITERIA)
+      .searchParams()
+      .addAccessPaths(TestAccessEgress.walk(STOP_A, D1m))
+      .addEgressPaths(TestAccessEgress.walk(STOP_C, D1m))
+      .earliestDepartureTime(T00_00)
+      .searchWindow(Duration.ofHours(1))
+      .timetable(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    parallelConfig.shutdown();
+  }
+
+  @Test
+  void partitionSearchWindow() {
+    var request = requestBuilder.build();
+
+    assertEquals(
+      List.of("0:45-1:00", "0:30-0:45", "0:15-0:30", "0:00-0:15"),
+      toWindows(ParallelMcRangeRaptorSearch.partitionSearchWindow(request, 4, 60))
+    );
+    // 7 iterations of 10 minutes in 3 partitions
+    var request70m = requestBuilder.searchParams().searchWindow(Duration.ofMinutes(70)).build();
+    assertEquals(
+      List.of("0:40-1:10", "0:10-0:40", "0:00-0:10"),
+      toWindows(ParallelMcRangeRaptorSearch.partitionSearchWindow(request70m, 3, 600))
+    );
+  }
+
+  @Test
+  void isApplicable() {
+    var request = requestBuilder.build();
+    assertTrue(ParallelMcRangeRaptorSearch.isApplicable(parallelConfig, request));
+    assertFalse(
+      ParallelMcRangeRaptorSearch.isApplicable(RaptorConfig.defaultConfigForTest(), request)
+    );
+
+    var oneIteration = requestBuilder.searchParams().searchWindowInSeconds(D1m).build();
+    assertFalse(ParallelMcRangeRaptorSearch.isApplicable(parallelConfig, oneIteration));
+  }
+
+  /**
+   * The parallel search is not guaranteed to return the same paths as a single search. In this
+   * small data set the stop arrivals of the later sub-windows do not prune any paths, so the
+   * result is the same here.
+   */
+  @Test
+  void parallelSearchMatchesASingleSearchForThisSmallDataSet() {
+    var request = requestBuilder.build();
+
+    var expected = new RaptorService<>(RaptorConfig.<TestTripSchedule>defaultConfigForTest())
+      .route(request, data);
+    var result = new RaptorService<>(parallelConfig).route(request, data);
+
+    assertEquals(7, expected.paths().size());
+    assertEquals(pathsToString(expected), pathsToString(result));
+    assertEquals(request, result.requestUsed());
+  }
+
+  private static List<String> toWindows(List<RaptorRequest<TestTripSchedule>> requests) {
+    return requests
+      .stream()
+      .map(RaptorRequest::searchParams)
+      .map(s ->
+        toHm(s.earliestDepartureTime()) +
+        "-" +
+        toHm(s.earliestDepartureTime() + s.searchWindowInSeconds())
+      )
+      .toList();
+  }
+
+  private static String toHm(int time) {
+    return String.format("%d:%02d", time / 3600, (time % 3600) / 60);
+  }
+}
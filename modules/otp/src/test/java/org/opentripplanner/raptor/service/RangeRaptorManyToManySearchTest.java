@@ -0,0 +1,135 @@
+package org.opentripplanner.raptor.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.opentripplanner.raptor._data.transit.TestRoute.route;
+import static org.opentripplanner.raptor._data.transit.TestTransfer.transfer;
+import static org.opentripplanner.raptor._data.transit.TestTripSchedule.schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.framework.time.TimeUtils;
+import org.opentripplanner.raptor.RaptorService;
+import org.opentripplanner.raptor._data.RaptorTestConstants;
+import org.opentripplanner.raptor._data.transit.TestAccessEgress;
+import org.opentripplanner.raptor._data.transit.TestTransitData;
+import org.opentripplanner.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.raptor.api.model.RaptorConstants;
+import org.opentripplanner.raptor.api.request.RaptorProfile;
+import org.opentripplanner.raptor.api.request.RaptorRequest;
+import org.opentripplanner.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.raptor.api.request.RaptorTuningParameters;
+import org.opentripplanner.raptor.configure.RaptorConfig;
+
+class RangeRaptorManyToManySearchTest implements RaptorTestConstants {
+
+  private static final int N_STOPS = STOP_E + 1;
+
+  private final TestTransitData data = new TestTransitData();
+
+  @BeforeEach
+  void setup() {
+    data
+      .withRoute(
+        route("R1", STOP_A, STOP_B, STOP_C).withTimetable(
+          schedule("0:05 0:15 0:25"),
+          schedule("0:35 0:45 0:55")
+        )
+      )
+      .withRoute(route("R2", STOP_C, STOP_D).withTimetable(schedule("0:30 0:40")))
+      .withTransfer(STOP_B, transfer(STOP_E, D1m));
+  }
+
+  @Test
+  void routeManyToMany() {
+    var config = RaptorConfig.<TestTripSchedule>defaultConfigForTest();
+    var result = routeManyToMany(config);
+
+    assertEquals(3, result.size());
+    assertEquals(
+      "[-, 0:00, 0:15, 0:25, 0:40, 0:16]",
+      toString(result.get(0)),
+      "From A, all stops are reached"
+    );
+    assertEquals("[-, -, 0:00, 0:25, 0:40, -]", toString(result.get(1)));
+    assertEquals("[-, -, -, 0:00, 0:40, -]", toString(result.get(2)));
+  }
+
+  @Test
+  void routeManyToManyInParallelReturnTheSameResultAsSingleThreaded() {
+    var config = new RaptorConfig<TestTripSchedule>(
+      new RaptorTuningParameters() {
+        @Override
+        public int searchThreadPoolSize() {
+          return 1;
+        }
+      }
+    );
+    try {
+      var expected = routeManyToMany(RaptorConfig.defaultConfigForTest());
+      var result = routeManyToMany(config);
+
+      assertEquals(expected.size(), result.size());
+      for (int i = 0; i < expected.size(); ++i) {
+        assertArrayEquals(expected.get(i), result.get(i));
+      }
+    } finally {
+      config.shutdown();
+    }
+  }
+
+  @Test
+  void multiCriteriaRequestsAreNotAllowed() {
+    var request = request(STOP_A, RaptorProfile.MULTI_CRITERIA);
+    var service = new RaptorService<>(RaptorConfig.<TestTripSchedule>defaultConfigForTest());
+
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> service.routeManyToMany(List.of(request), data, (origin, times) -> {})
+    );
+  }
+
+  private List<int[]> routeManyToMany(RaptorConfig<TestTripSchedule> config) {
+    var requests = List.of(
+      request(STOP_A, RaptorProfile.BEST_TIME),
+      request(STOP_B, RaptorProfile.BEST_TIME),
+      request(STOP_C, RaptorProfile.BEST_TIME)
+    );
+    List<int[]> result = new ArrayList<>();
+    new RaptorService<>(config)
+      .routeManyToMany(
+        requests,
+        data,
+        (origin, times) -> {
+          assertEquals(result.size(), origin);
+          // The array is reused, so it must be copied
+          result.add(times.clone());
+        }
+      );
+    return result;
+  }
+
+  private RaptorRequest<TestTripSchedule> request(int stop, RaptorProfile profile) {
+    return new RaptorRequestBuilder<TestTripSchedule>()
+      .profile(profile)
+      .searchParams()
+      .earliestDepartureTime(T00_00)
+      .searchWindowInSeconds(0)
+      .numberOfAdditionalTransfers(10)
+      .addAccessPaths(TestAccessEgress.free(stop))
+      .addEgressPaths(TestAccessEgress.free(stop))
+      .build();
+  }
+
+  private static String toString(int[] arrivalTimes) {
+    assertEquals(N_STOPS, arrivalTimes.length);
+    List<String> times = new ArrayList<>();
+    for (int time : arrivalTimes) {
+      times.add(time == RaptorConstants.TIME_NOT_SET ? "-" : TimeUtils.timeToStrCompact(time));
+    }
+    return times.toString();
+  }
+}
@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Random;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import org.junit.jupiter.api.Test;
@@ -22,6 +23,8 @@ public class ParetoSetTest {
     l.v1 < r.v1 || l.v2 < r.v2;
   private static final ParetoComparator<Vector> LESS_DIFFERENT_THEN = (l, r) ->
     l.v1 < r.v1 || l.v2 != r.v2;
+  private static final ParetoComparator<Vector> FOUR_LESS_THEN = (l, r) ->
+    l.v1 < r.v1 || l.v2 < r.v2 || l.v3 < r.v3 || l.v4 < r.v4;
 
   // Used to stored dropped vectors (callback from set)
   private final List<Vector> dropped = new ArrayList<>();
@@ -319,7 +322,59 @@ public class ParetoSetTest {
   @Test
   public void testAddingMultipleElements() {
     // Given a set with 2 criteria: LT and LT
-    ParetoSet<Vector> set = new ParetoSet<>(LESS_LESS_THEN);
+    testAddingMultipleElements(new ParetoSet<>(LESS_LESS_THEN));
+  }
+
+  @Test
+  public void testAddingMultipleElementsToSetSortedOnPrimaryCriteria() {
+    // Given a set with 2 criteria: LT and LT, sorted on the first
+    testAddingMultipleElements(new ParetoSet<>(LESS_LESS_THEN, null, it -> it.v1));
+  }
+
+  @Test
+  public void setSortedOnPrimaryCriteriaKeepTheSameElementsInTheSameOrder() {
+    List<Vector> droppedFromSortedSet = new ArrayList<>();
+    ParetoSet<Vector> expected = new ParetoSet<>(FOUR_LESS_THEN, listener);
+    ParetoSet<Vector> subject = new ParetoSet<>(
+      FOUR_LESS_THEN,
+      new ParetoSetEventListener<>() {
+        @Override
+        public void notifyElementAccepted(Vector newElement) {}
+
+        @Override
+        public void notifyElementDropped(Vector element, Vector droppedByElement) {
+          droppedFromSortedSet.add(element);
+        }
+
+        @Override
+        public void notifyElementRejected(Vector element, Vector rejectedByElement) {}
+      },
+      it -> it.v1
+    );
+    var random = new Random(17);
+
+    for (int i = 0; i < 100; ++i) {
+      expected.clear();
+      subject.clear();
+
+      for (int j = 0; j < 200; ++j) {
+        // Use a small range to get many equal values
+        var v = new Vector(
+          "V" + j,
+          random.nextInt(20),
+          random.nextInt(20),
+          random.nextInt(20),
+          random.nextInt(20)
+        );
+        assertEquals(expected.qualify(v), subject.qualify(v), v.toString());
+        assertEquals(expected.add(v), subject.add(v), v.toString());
+        assertEquals(expected.toString(), subject.toString());
+      }
+    }
+    assertEquals(dropped, droppedFromSortedSet);
+  }
+
+  private void testAddingMultipleElements(ParetoSet<Vector> set) {
     Vector v55 = new Vector("v55", 5, 5);
     Vector v53 = new Vector("v53", 5, 3);
     Vector v44 = new Vector("v44", 4, 4);
@@ -58,6 +58,30 @@ public class ParetoSetWithMarkerTest {
     assertEquals("[4, 3], <M>, [2, 4]", toString(subject));
   }
 
+  @Test
+  public void verifyMarkerWhenSetIsSortedOnPrimaryCriteria() {
+    var subject = new ParetoSetWithMarker<Vector>(
+      (l, r) -> l.u < r.u || l.v < r.v,
+      null,
+      it -> it.u
+    );
+    subject.add(v(5, 5));
+
+    subject.markAtEndOfSet();
+    subject.add(v(8, 8));
+    subject.add(v(3, 7));
+    assertEquals("[5, 5], <M>, [3, 7]", toString(subject));
+
+    subject.add(v(4, 3));
+    assertEquals("<M>, [3, 7], [4, 3]", toString(subject));
+
+    subject.markAtEndOfSet();
+    subject.add(v(2, 4));
+    subject.add(v(6, 1));
+    assertEquals("[4, 3], <M>, [2, 4], [6, 1]", toString(subject));
+    assertEquals("[2, 4], [6, 1]", toString(subject.elementsAfterMarker()));
+  }
+
   @Test
   public void clear() {
     subject.clear();
@@ -308,6 +308,7 @@ public class RaptorPathToItineraryMapperTest {
       null,
       null,
       null,
+      null,
       null
     );
   }
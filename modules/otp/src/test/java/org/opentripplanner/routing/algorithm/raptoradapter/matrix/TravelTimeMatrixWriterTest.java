@@ -0,0 +1,62 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.matrix;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.raptor.api.model.RaptorConstants;
+
+class TravelTimeMatrixWriterTest {
+
+  private static final int DEPARTURE_TIME = 8 * 3600;
+  private static final long DEPARTURE_EPOCH_SECOND = 1_714_543_200L;
+  private static final int NOT_SET = RaptorConstants.TIME_NOT_SET;
+
+  private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+  @Test
+  void writeMatrix() throws IOException {
+    try (var subject = writer()) {
+      subject.accept(0, new int[] { DEPARTURE_TIME, DEPARTURE_TIME + 600 });
+      subject.accept(1, new int[] { NOT_SET, DEPARTURE_TIME });
+      assertEquals(2, subject.rows());
+    }
+
+    var in = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+    assertArrayEquals(TravelTimeMatrixWriter.MAGIC, in.readNBytes(8));
+    assertEquals(DEPARTURE_EPOCH_SECOND, in.readLong());
+    assertEquals(2, in.readInt());
+    assertEquals("F:A", in.readUTF());
+    assertEquals("F:B", in.readUTF());
+    assertEquals(0, in.readInt());
+    assertEquals(600, in.readInt());
+    assertEquals(TravelTimeMatrixWriter.NOT_REACHED, in.readInt());
+    assertEquals(0, in.readInt());
+    assertEquals(-1, in.read());
+  }
+
+  @Test
+  void rowsMustBeWrittenInOrder() throws IOException {
+    try (var subject = writer()) {
+      assertThrows(
+        IllegalStateException.class,
+        () -> subject.accept(1, new int[] { NOT_SET, NOT_SET })
+      );
+    }
+  }
+
+  private TravelTimeMatrixWriter writer() {
+    return new TravelTimeMatrixWriter(
+      buffer,
+      List.of("F:A", "F:B"),
+      DEPARTURE_TIME,
+      DEPARTURE_EPOCH_SECOND
+    );
+  }
+}
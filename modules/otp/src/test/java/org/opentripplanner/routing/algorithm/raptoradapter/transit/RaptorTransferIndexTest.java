@@ -0,0 +1,103 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.raptor.api.model.RaptorTransfer;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+
+class RaptorTransferIndexTest {
+
+  private static final StreetSearchRequest REQUEST = StreetSearchRequest.of().build();
+
+  private static final Transfer T0_2 = new Transfer(2, 200);
+  private static final Transfer T0_1 = new Transfer(1, 150);
+  private static final Transfer T0_1_SHORT = new Transfer(1, 100);
+  private static final Transfer T1_0 = new Transfer(0, 100);
+  private static final Transfer T2_1 = new Transfer(1, 50);
+
+  private final TransfersByStop transfers = TransfersByStop.create(
+    List.of(List.of(T0_2, T0_1, T0_1_SHORT), List.of(T1_0), List.of(T2_1), List.of())
+  );
+
+  private final RaptorTransferIndex subject = RaptorTransferIndex.create(transfers, REQUEST);
+
+  @Test
+  void forwardTransfers() {
+    var result = toList(subject.getForwardTransfers(0));
+
+    // Only the shortest transfer to stop 1 is kept
+    assertEquals(List.of(1, 2), result.stream().map(RaptorTransfer::stop).toList());
+    assertEquals(expected(T0_1_SHORT, 1), result.get(0));
+    assertEquals(expected(T0_2, 2), result.get(1));
+
+    assertEquals(List.of(expected(T2_1, 1)), toList(subject.getForwardTransfers(2)));
+    assertFalse(subject.getForwardTransfers(3).hasNext());
+  }
+
+  @Test
+  void reversedTransfers() {
+    var result = toList(subject.getReversedTransfers(1));
+
+    assertEquals(List.of(0, 2), result.stream().map(RaptorTransfer::stop).toList());
+    assertEquals(expected(T0_1_SHORT, 0), result.get(0));
+    assertEquals(expected(T2_1, 2), result.get(1));
+    assertEquals(List.of(expected(T1_0, 1)), toList(subject.getReversedTransfers(0)));
+    assertFalse(subject.getReversedTransfers(3).hasNext());
+  }
+
+  @Test
+  void transfersAreIteratedWithAFlyweight() {
+    var it = subject.getForwardTransfers(0);
+    var first = it.next();
+    assertSame(first, it.next());
+    assertSame(T0_2, ((DefaultRaptorTransfer) first.asImmutable()).transfer());
+  }
+
+  @Test
+  void theCursorIsReusedForAllStops() {
+    var cursor = subject.forwardTransfersCursor();
+    var it = cursor.apply(0);
+    var first = it.next().asImmutable();
+
+    assertSame(it, cursor.apply(2));
+    assertEquals(expected(T2_1, 1), it.next().asImmutable());
+    assertFalse(cursor.apply(3).hasNext());
+
+    // The immutable copy is created on demand and not kept by the index
+    var again = cursor.apply(0).next().asImmutable();
+    assertEquals(first, again);
+    assertNotSame(first, again);
+  }
+
+  @Test
+  void theReversedCursorIsReusedForAllStops() {
+    var cursor = subject.reversedTransfersCursor();
+    var it = cursor.apply(1);
+    assertEquals(List.of(expected(T0_1_SHORT, 0), expected(T2_1, 2)), toList(it));
+    assertSame(it, cursor.apply(0));
+    assertEquals(List.of(expected(T1_0, 1)), toList(it));
+  }
+
+  private static DefaultRaptorTransfer expected(Transfer transfer, int stop) {
+    var raptorTransfer = transfer.asRaptorTransfer(REQUEST).orElseThrow();
+    return new DefaultRaptorTransfer(
+      stop,
+      raptorTransfer.durationInSeconds(),
+      raptorTransfer.c1(),
+      transfer
+    );
+  }
+
+  private static List<RaptorTransfer> toList(Iterator<? extends RaptorTransfer> it) {
+    var list = new ArrayList<RaptorTransfer>();
+    it.forEachRemaining(t -> list.add(t.asImmutable()));
+    return list;
+  }
+}
@@ -65,6 +65,7 @@ class TransitLayerTest {
       null,
       null,
       null,
+      null,
       null
     );
     var runningOnDate = transitLayer.getTripPatternsRunningOnDateCopy(date);
@@ -94,6 +95,7 @@ class TransitLayerTest {
       null,
       null,
       null,
+      null,
       null
     );
     var runningOnDate = transitLayer.getTripPatternsForRunningDate(date);
@@ -122,6 +124,7 @@ class TransitLayerTest {
       null,
       null,
       null,
+      null,
       null
     );
     var startingOnDate = transitLayer.getTripPatternsOnServiceDateCopy(date);
@@ -150,6 +153,7 @@ class TransitLayerTest {
       null,
       null,
       null,
+      null,
       null
     );
     var startingOnDate = transitLayer.getTripPatternsOnServiceDateCopy(serviceDate);
@@ -183,6 +187,7 @@ class TransitLayerTest {
       null,
       null,
       null,
+      null,
       null
     );
     var startingOnDate = transitLayer.getTripPatternsOnServiceDateCopy(firstRunningDate);
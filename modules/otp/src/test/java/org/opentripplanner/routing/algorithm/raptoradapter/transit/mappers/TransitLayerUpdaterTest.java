@@ -0,0 +1,115 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers;
+
+import static com.google.transit.realtime.GtfsRealtime.TripDescriptor.ScheduleRelationship.SCHEDULED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.model.Timetable;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitTuningParameters;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
+import org.opentripplanner.standalone.configure.ConstructApplication;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+import org.opentripplanner.updater.trip.RealtimeTestConstants;
+import org.opentripplanner.updater.trip.RealtimeTestEnvironment;
+import org.opentripplanner.updater.trip.TripInput;
+import org.opentripplanner.updater.trip.TripUpdateBuilder;
+
+class TransitLayerUpdaterTest implements RealtimeTestConstants {
+
+  private static final TripInput TRIP_1 = TripInput
+    .of(TRIP_1_ID)
+    .addStop(STOP_A1, "0:00:10", "0:00:11")
+    .addStop(STOP_B1, "0:00:20", "0:00:21")
+    .build();
+
+  private static final TripInput TRIP_2 = TripInput
+    .of(TRIP_2_ID)
+    .addStop(STOP_A1, "0:01:00", "0:01:01")
+    .addStop(STOP_C1, "0:01:10", "0:01:11")
+    .build();
+
+  @Test
+  void onlyTheUpdatedPatternIsReplaced() {
+    var env = RealtimeTestEnvironment.gtfs().addTrip(TRIP_1).addTrip(TRIP_2).build();
+    var transitModel = env.transitModel;
+    ConstructApplication.creatTransitLayerForRaptor(transitModel, TransitTuningParameters.FOR_TEST);
+    var subject = transitModel.getTransitLayerUpdater();
+
+    var scheduledLayer = transitModel.getRealtimeTransitLayer();
+    var scheduled = List.copyOf(scheduledLayer.getTripPatternsForRunningDate(SERVICE_DATE));
+    assertEquals(2, scheduled.size());
+
+    var pattern1 = env.getPatternForTrip(TRIP_1_ID);
+    var pattern2 = env.getPatternForTrip(TRIP_2_ID);
+
+    var first = update(env, subject, pattern1, 1);
+    var firstLayer = transitModel.getRealtimeTransitLayer();
+    assertNotSame(scheduledLayer, firstLayer);
+    assertEquals(
+      first,
+      tripTimes(firstLayer.getTripPatternsForRunningDate(SERVICE_DATE), pattern1)
+    );
+    // The pattern which was not updated is reused
+    assertSame(
+      tripPatternForDate(scheduled, pattern2),
+      tripPatternForDate(firstLayer.getTripPatternsForRunningDate(SERVICE_DATE), pattern2)
+    );
+
+    var second = update(env, subject, pattern1, 2);
+    var secondLayer = transitModel.getRealtimeTransitLayer();
+    assertEquals(2, secondLayer.getTripPatternsForRunningDate(SERVICE_DATE).size());
+    assertEquals(
+      second,
+      tripTimes(secondLayer.getTripPatternsForRunningDate(SERVICE_DATE), pattern1)
+    );
+
+    // Layers already published are never changed
+    assertEquals(scheduled, List.copyOf(scheduledLayer.getTripPatternsForRunningDate(SERVICE_DATE)));
+    assertEquals(
+      first,
+      tripTimes(firstLayer.getTripPatternsForRunningDate(SERVICE_DATE), pattern1)
+    );
+  }
+
+  private static List<TripTimes> update(
+    RealtimeTestEnvironment env,
+    TransitLayerUpdater subject,
+    TripPattern pattern,
+    int delay
+  ) {
+    var tripUpdate = new TripUpdateBuilder(TRIP_1_ID, SERVICE_DATE, SCHEDULED, TIME_ZONE)
+      .addDelayedStopTime(1, delay)
+      .build();
+    assertEquals(1, env.applyTripUpdate(tripUpdate).successful());
+
+    Timetable timetable = env.getTimetableSnapshot().resolve(pattern, SERVICE_DATE);
+    // The timetables are only used for patterns created by realtime updates
+    subject.update(Set.of(timetable), Map.of());
+    return timetable.getTripTimes();
+  }
+
+  private static List<TripTimes> tripTimes(
+    Iterable<TripPatternForDate> tripPatternsForDate,
+    TripPattern pattern
+  ) {
+    return tripPatternForDate(tripPatternsForDate, pattern).tripTimes();
+  }
+
+  private static TripPatternForDate tripPatternForDate(
+    Iterable<TripPatternForDate> tripPatternsForDate,
+    TripPattern pattern
+  ) {
+    for (TripPatternForDate it : tripPatternsForDate) {
+      if (it.getTripPattern().getPattern() == pattern) {
+        return it;
+      }
+    }
+    throw new IllegalStateException("Pattern not found: " + pattern);
+  }
+}
@@ -0,0 +1,68 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransfersByStop;
+import org.opentripplanner.routing.api.request.RouteRequest;
+
+class RaptorRequestTransferCacheTest {
+
+  private static final TransfersByStop TRANSFERS = TransfersByStop.create(
+    List.of(List.of(), List.of())
+  );
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final RaptorRequestTransferCache subject = new RaptorRequestTransferCache(10);
+
+  @BeforeEach
+  void bindMetrics() {
+    subject.bindTo(registry);
+  }
+
+  @Test
+  void initializedRequestIsFoundInCache() {
+    var request = new RouteRequest();
+    subject.put(TRANSFERS, request);
+    var index = subject.get(TRANSFERS, request);
+
+    assertSame(index, subject.get(TRANSFERS, new RouteRequest()));
+    assertEquals(2.0, gets("hit"));
+    assertEquals(0.0, gets("miss"));
+    assertEquals(1, buildCount("init"));
+    assertEquals(0, buildCount("request"));
+  }
+
+  @Test
+  void requestWithOtherStreetOptionsIsBuiltOnDemand() {
+    subject.put(TRANSFERS, new RouteRequest());
+
+    var wheelchairRequest = new RouteRequest();
+    wheelchairRequest.setWheelchair(true);
+    var index = subject.get(TRANSFERS, wheelchairRequest);
+
+    assertNotSame(index, subject.get(TRANSFERS, new RouteRequest()));
+    assertSame(index, subject.get(TRANSFERS, wheelchairRequest));
+    assertEquals(2.0, gets("hit"));
+    assertEquals(1.0, gets("miss"));
+    assertEquals(1, buildCount("request"));
+  }
+
+  private double gets(String result) {
+    return registry
+      .get("cache.gets")
+      .tag("cache", "raptorTransfers")
+      .tag("result", result)
+      .functionCounter()
+      .count();
+  }
+
+  private long buildCount(String trigger) {
+    return registry.get("raptorTransfersCache.build").tag("trigger", trigger).timer().count();
+  }
+}
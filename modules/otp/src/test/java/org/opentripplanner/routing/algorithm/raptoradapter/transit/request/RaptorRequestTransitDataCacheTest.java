@@ -0,0 +1,131 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.request.filter.SelectRequest;
+import org.opentripplanner.routing.api.request.request.filter.TransitFilterRequest;
+import org.opentripplanner.transit.model.basic.MainAndSubMode;
+import org.opentripplanner.transit.model.basic.TransitMode;
+
+class RaptorRequestTransitDataCacheTest {
+
+  private static final ZonedDateTime TIME_ZERO = ZonedDateTime.parse("2024-05-01T00:00+02:00");
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final RaptorRequestTransitDataCache subject = new RaptorRequestTransitDataCache(10);
+  private final TransitLayer transitLayer = transitLayer(subject);
+  private int created = 0;
+
+  @BeforeEach
+  void bindMetrics() {
+    subject.bindTo(registry);
+  }
+
+  @Test
+  void requestsWithEqualFiltersShareTheTripPatterns() {
+    var first = get(transitLayer, TIME_ZERO, busFilter());
+
+    assertSame(first, get(transitLayer, TIME_ZERO, busFilter()));
+    assertEquals(1, created);
+    assertEquals(1.0, gets("hit"));
+    assertEquals(1.0, gets("miss"));
+    assertEquals(1, registry.get("raptorTransitDataCache.build").timer().count());
+  }
+
+  @Test
+  void tripPatternsAreCreatedForOtherFiltersAndDays() {
+    var bus = get(transitLayer, TIME_ZERO, busFilter());
+
+    assertNotSame(bus, get(transitLayer, TIME_ZERO, filter(new RouteRequest())));
+    assertNotSame(bus, get(transitLayer, TIME_ZERO.plusDays(1), busFilter()));
+    assertEquals(3, created);
+  }
+
+  @Test
+  void invalidateRemovesTheEntriesForTheReplacedLayer() {
+    var updatedLayer = new TransitLayer(transitLayer);
+    var old = get(transitLayer, TIME_ZERO, busFilter());
+    var updated = get(updatedLayer, TIME_ZERO, busFilter());
+    assertNotSame(old, updated);
+
+    subject.invalidate(transitLayer);
+
+    assertEquals(1, subject.size());
+    assertSame(updated, get(updatedLayer, TIME_ZERO, busFilter()));
+    assertEquals(2, created);
+  }
+
+  @Test
+  void tripPatternsForAReplacedLayerAreNotCached() {
+    subject.invalidate(transitLayer);
+
+    var first = get(transitLayer, TIME_ZERO, busFilter());
+
+    assertNotSame(first, get(transitLayer, TIME_ZERO, busFilter()));
+    assertEquals(0, subject.size());
+    assertEquals(2, created);
+  }
+
+  private RaptorRequestTransitDataCache.TripPatterns get(
+    TransitLayer transitLayer,
+    ZonedDateTime timeZero,
+    TransitDataProviderFilter filter
+  ) {
+    return subject.get(
+      transitLayer,
+      timeZero,
+      1,
+      1,
+      filter,
+      () -> {
+        ++created;
+        return RaptorRequestTransitDataCache.TripPatterns.of(List.of(), List.of());
+      }
+    );
+  }
+
+  private static TransitDataProviderFilter busFilter() {
+    var request = new RouteRequest();
+    request
+      .journey()
+      .transit()
+      .setFilters(
+        List.of(
+          TransitFilterRequest
+            .of()
+            .addSelect(
+              SelectRequest.of().addTransportMode(new MainAndSubMode(TransitMode.BUS)).build()
+            )
+            .build()
+        )
+      );
+    return filter(request);
+  }
+
+  private static TransitDataProviderFilter filter(RouteRequest request) {
+    return new RouteRequestTransitDataProviderFilter(request);
+  }
+
+  private double gets(String result) {
+    return registry
+      .get("cache.gets")
+      .tag("cache", "raptorTransitData")
+      .tag("result", result)
+      .functionCounter()
+      .count();
+  }
+
+  private static TransitLayer transitLayer(RaptorRequestTransitDataCache cache) {
+    return new TransitLayer(new HashMap<>(), null, null, null, null, cache, null, null, null);
+  }
+}
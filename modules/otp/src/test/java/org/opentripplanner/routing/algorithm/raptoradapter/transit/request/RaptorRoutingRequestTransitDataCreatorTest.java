@@ -1,5 +1,6 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.opentripplanner.transit.model._data.TransitModelForTest.id;
 
@@ -85,6 +86,11 @@ public class RaptorRoutingRequestTransitDataCreatorTest {
     assertEquals(-82800, ((TripScheduleWithOffset) r3.getTripSchedule(0)).getSecondsOffset());
     assertEquals(0, ((TripScheduleWithOffset) r3.getTripSchedule(1)).getSecondsOffset());
     assertEquals(86400, ((TripScheduleWithOffset) r3.getTripSchedule(2)).getSecondsOffset());
+
+    // Verify the times used by Raptor to prune the pattern, the latest departure is on the 3rd
+    // day and the earliest arrival is on the 1st day
+    assertArrayEquals(new int[] { 86400, 93600 }, r3.latestDepartureTimes());
+    assertArrayEquals(new int[] { -82800, -75600 }, r3.earliestArrivalTimes());
   }
 
   private static TripPatternForDates findTripPatternForDate(
@@ -0,0 +1,148 @@
+package org.opentripplanner.routing.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.street.model._data.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdge;
+
+import com.google.common.collect.HashMultimap;
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opentripplanner.datastore.api.FileType;
+import org.opentripplanner.datastore.file.FileDataSource;
+import org.opentripplanner.ext.emissions.EmissionsDataModel;
+import org.opentripplanner.graph_builder.issue.api.DataImportIssueSummary;
+import org.opentripplanner.model.PathTransfer;
+import org.opentripplanner.service.worldenvelope.internal.DefaultWorldEnvelopeRepository;
+import org.opentripplanner.standalone.config.BuildConfig;
+import org.opentripplanner.standalone.config.RouterConfig;
+import org.opentripplanner.street.model.StreetLimitationParameters;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.vertex.TransitStopVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.framework.Deduplicator;
+import org.opentripplanner.transit.model.site.StopLocation;
+import org.opentripplanner.transit.service.TransitModel;
+
+class SerializedGraphObjectTest {
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  void roundTrip() {
+    var graph = new Graph();
+    var a = intersectionVertex("A", 1, 1);
+    var b = intersectionVertex("B", 1, 2);
+    var c = intersectionVertex("C", 2, 2);
+    List.of(a, b, c).forEach(graph::addVertex);
+    streetEdge(a, b);
+    streetEdge(a, c);
+    streetEdge(b, a);
+    streetEdge(c, a);
+    streetEdge(b, c);
+    streetEdge(c, b);
+    streetEdge(a, b);
+
+    var streetLimitationParameters = new StreetLimitationParameters();
+    streetLimitationParameters.initMaxCarSpeed(40);
+    var file = new File(tempDir, "graph.obj");
+
+    new SerializedGraphObject(
+      graph,
+      new TransitModel(),
+      new DefaultWorldEnvelopeRepository(),
+      BuildConfig.DEFAULT,
+      RouterConfig.DEFAULT,
+      DataImportIssueSummary.empty(),
+      new EmissionsDataModel(),
+      null,
+      streetLimitationParameters
+    )
+      .save(new FileDataSource(file, FileType.GRAPH));
+
+    var loaded = SerializedGraphObject.load(file);
+
+    assertEquals(40, loaded.streetLimitationParameters.maxCarSpeed());
+    assertNotNull(loaded.worldEnvelopeRepository);
+    assertNotNull(loaded.buildConfig);
+    assertNotNull(loaded.routerConfig);
+    assertNotNull(loaded.issueSummary);
+    assertNotNull(loaded.emissionsDataModel);
+    assertNull(loaded.stopConsolidationRepository);
+
+    // The edge lists are reconstructed
+    assertEquals(7, loaded.graph.countEdges());
+    for (Vertex v : List.of(a, b, c)) {
+      var copy = loaded.graph.getVertex(v.getLabel());
+      assertEquals(toLabels(v.getOutgoing(), false), toLabels(copy.getOutgoing(), false));
+      assertEquals(toLabels(v.getIncoming(), true), toLabels(copy.getIncoming(), true));
+    }
+  }
+
+  @Test
+  void stopsAndTransferEdgesAreSharedBetweenTheStreetAndTransitSections() {
+    var testModel = TransitModelForTest.of();
+    var s1 = testModel.stop("S1", 1, 1).build();
+    var s2 = testModel.stop("S2", 1, 2).build();
+    var stopModel = testModel.stopModelBuilder().withRegularStops(List.of(s1, s2)).build();
+    var transitModel = new TransitModel(stopModel, new Deduplicator());
+
+    var graph = new Graph();
+    var a = TransitStopVertex.of().withStop(s1).build();
+    var b = TransitStopVertex.of().withStop(s2).build();
+    var c = intersectionVertex("C", 1, 1.5);
+    List.of(a, b, c).forEach(graph::addVertex);
+    var ac = streetEdge(a, c);
+    var cb = streetEdge(c, b);
+    var transfers = HashMultimap.<StopLocation, PathTransfer>create();
+    transfers.put(s1, new PathTransfer(s1, s2, 100, List.of(ac, cb)));
+    transfers.put(s2, new PathTransfer(s2, s1, 100, null));
+    transitModel.addAllTransfersByStops(transfers);
+    var file = new File(tempDir, "graph.obj");
+
+    new SerializedGraphObject(
+      graph,
+      transitModel,
+      new DefaultWorldEnvelopeRepository(),
+      BuildConfig.DEFAULT,
+      RouterConfig.DEFAULT,
+      DataImportIssueSummary.empty(),
+      new EmissionsDataModel(),
+      null,
+      new StreetLimitationParameters()
+    )
+      .save(new FileDataSource(file, FileType.GRAPH));
+
+    var loaded = SerializedGraphObject.load(file);
+
+    var stop = loaded.transitModel.getStopModel().getRegularStop(s1.getId());
+    var stopVertex = (TransitStopVertex) loaded.graph.getVertex(a.getLabel());
+    assertSame(stop, stopVertex.getStop());
+
+    var transfer = loaded.transitModel.getTransfersByStop(stop).iterator().next();
+    var loadedEdges = transfer.getEdges();
+    assertEquals(2, loadedEdges.size());
+    assertSame(stopVertex, loadedEdges.get(0).getFromVertex());
+    assertTrue(stopVertex.getOutgoing().contains(loadedEdges.get(0)));
+    assertSame(loadedEdges.get(0).getToVertex(), loadedEdges.get(1).getFromVertex());
+
+    var stop2 = loaded.transitModel.getStopModel().getRegularStop(s2.getId());
+    assertNull(loaded.transitModel.getTransfersByStop(stop2).iterator().next().getEdges());
+  }
+
+  private static List<String> toLabels(Collection<Edge> edges, boolean from) {
+    return edges
+      .stream()
+      .map(e -> (from ? e.getFromVertex() : e.getToVertex()).getLabelString())
+      .sorted()
+      .toList();
+  }
+}
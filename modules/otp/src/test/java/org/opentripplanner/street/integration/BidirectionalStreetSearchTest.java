@@ -0,0 +1,190 @@
+package org.opentripplanner.street.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.opentripplanner.ConstantsForTests;
+import org.opentripplanner.astar.model.GraphPath;
+import org.opentripplanner.framework.application.OTPFeature;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.impl.GraphPathFinder;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.StreetSearchBuilder;
+import org.opentripplanner.street.search.TraverseMode;
+import org.opentripplanner.street.search.state.State;
+import org.opentripplanner.street.search.strategy.DominanceFunctions;
+import org.opentripplanner.street.search.strategy.EuclideanRemainingWeightHeuristic;
+import org.opentripplanner.test.support.ResourceLoader;
+
+/**
+ * Compare the direct street search with and without the
+ * {@link OTPFeature#BidirectionalStreetSearch} on a street network with turn restrictions and
+ * footways where the bike must be walked.
+ */
+public class BidirectionalStreetSearchTest {
+
+  private static final ResourceLoader RESOURCE_LOADER = ResourceLoader.of(
+    BidirectionalStreetSearchTest.class
+  );
+  private static final int N_VERTICES = 25;
+
+  private static Graph graph;
+  private static List<StreetVertex> vertices;
+
+  @BeforeAll
+  static void setup() {
+    graph =
+      ConstantsForTests
+        .buildOsmGraph(RESOURCE_LOADER.file("boeblingen-minimal.osm.pbf"))
+        .graph();
+
+    // The vertices are sorted to pick the same sample each time, and only vertices on a street open
+    // to cars are used, so all modes can reach them
+    var all = graph
+      .getVerticesOfType(StreetVertex.class)
+      .stream()
+      .filter(v -> v.getOutgoing().stream().anyMatch(BidirectionalStreetSearchTest::isOpenToCars))
+      .sorted(Comparator.comparing(v -> v.getLabel().toString()))
+      .toList();
+    vertices = new ArrayList<>();
+    for (int i = 0; i < N_VERTICES; ++i) {
+      vertices.add(all.get(i * all.size() / N_VERTICES));
+    }
+  }
+
+  @Test
+  void theNetworkHasTurnRestrictionsAndFootways() {
+    var edges = graph.getStreetEdges();
+    assertTrue(edges.stream().anyMatch(e -> !e.getTurnRestrictions().isEmpty()));
+    assertTrue(
+      edges
+        .stream()
+        .anyMatch(e ->
+          e.getPermission().allows(TraverseMode.WALK) &&
+          !e.getPermission().allows(TraverseMode.BICYCLE)
+        )
+    );
+  }
+
+  /**
+   * Both searches keep the best state for each edge into a vertex, so the bidirectional search
+   * finds a path with the same weight as a single search keeping the same states, with turn costs
+   * and turn restrictions.
+   */
+  @ParameterizedTest
+  @MethodSource("modesAndDirections")
+  void bidirectionalSearchFindsTheSameOptimalPath(StreetMode mode, boolean arriveBy) {
+    var request = request(mode, arriveBy);
+
+    for (Vertex from : vertices) {
+      for (Vertex to : vertices) {
+        var dominanceFunction = new DominanceFunctions.MinimumWeight();
+        var expected = StreetSearchBuilder
+          .of()
+          .setHeuristic(new EuclideanRemainingWeightHeuristic())
+          .setDominanceFunction(dominanceFunction.perBackEdge())
+          .setRequest(request)
+          .setStreetRequest(request.journey().direct())
+          .setFrom(from)
+          .setTo(to)
+          .getPathsToTarget();
+        var result = StreetSearchBuilder
+          .of()
+          .setHeuristic(new EuclideanRemainingWeightHeuristic())
+          .setBidirectionalSearch(new EuclideanRemainingWeightHeuristic())
+          .setDominanceFunction(dominanceFunction)
+          .setRequest(request)
+          .setStreetRequest(request.journey().direct())
+          .setFrom(from)
+          .setTo(to)
+          .getPathsToTarget();
+
+        var message = mode + " " + from + " -> " + to;
+        assertEquals(expected.isEmpty(), result.isEmpty(), message);
+        if (!expected.isEmpty()) {
+          var path = result.getFirst();
+          assertEquals(expected.getFirst().getWeight(), path.getWeight(), 1e-6, message);
+          assertEquals(from, path.states.getFirst().getVertex(), message);
+          assertEquals(to, path.states.getLast().getVertex(), message);
+        }
+      }
+    }
+  }
+
+  /**
+   * The direct search without the feature only keeps the best state at each vertex, so it may miss
+   * a path with cheaper turns, or a path which needs a turn the best state at a vertex can not make.
+   * With the feature, the search never finds a more expensive path.
+   */
+  @ParameterizedTest
+  @MethodSource("modesAndDirections")
+  void featureNeverFindsAMoreExpensivePath(StreetMode mode, boolean arriveBy) {
+    var request = request(mode, arriveBy);
+
+    for (Vertex from : vertices) {
+      for (Vertex to : vertices) {
+        var expected = search(request, from, to, false);
+        var result = search(request, from, to, true);
+
+        var message = mode + " " + from + " -> " + to;
+        if (!expected.isEmpty()) {
+          assertFalse(result.isEmpty(), message);
+          var path = result.getFirst();
+          assertTrue(path.getWeight() <= expected.getFirst().getWeight() + 1e-6, message);
+          assertEquals(from, path.states.getFirst().getVertex(), message);
+          assertEquals(to, path.states.getLast().getVertex(), message);
+        }
+      }
+    }
+  }
+
+  private static Stream<Arguments> modesAndDirections() {
+    return Stream
+      .of(StreetMode.WALK, StreetMode.BIKE, StreetMode.CAR)
+      .flatMap(mode -> Stream.of(Arguments.of(mode, false), Arguments.of(mode, true)));
+  }
+
+  private static boolean isOpenToCars(Edge edge) {
+    return edge instanceof StreetEdge e && e.getPermission().allows(TraverseMode.CAR);
+  }
+
+  private static RouteRequest request(StreetMode mode, boolean arriveBy) {
+    var request = new RouteRequest();
+    request.setArriveBy(arriveBy);
+    request.journey().direct().setMode(mode);
+    return request;
+  }
+
+  private static List<GraphPath<State, Edge, Vertex>> search(
+    RouteRequest request,
+    Vertex from,
+    Vertex to,
+    boolean bidirectional
+  ) {
+    var result = new ArrayList<GraphPath<State, Edge, Vertex>>();
+    Runnable search = () ->
+      result.addAll(new GraphPathFinder(null).getPaths(request, Set.of(from), Set.of(to)));
+    if (bidirectional) {
+      OTPFeature.BidirectionalStreetSearch.testOn(search);
+    } else {
+      OTPFeature.BidirectionalStreetSearch.testOff(search);
+    }
+    return result;
+  }
+}
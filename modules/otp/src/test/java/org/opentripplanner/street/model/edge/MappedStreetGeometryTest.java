@@ -0,0 +1,202 @@
+package org.opentripplanner.street.model.edge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.street.model._data.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdgeBuilder;
+
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.locationtech.jts.geom.LineString;
+import org.opentripplanner.framework.application.OtpAppException;
+import org.opentripplanner.framework.geometry.GeometryUtils;
+import org.opentripplanner.routing.graph.kryosupport.KryoBuilder;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+
+class MappedStreetGeometryTest {
+
+  private static final StreetVertex A = intersectionVertex("A", 60.0, 10.0);
+  private static final StreetVertex B = intersectionVertex("B", 60.01, 10.01);
+
+  private static final LineString CURVED = GeometryUtils.makeLineString(
+    10.0,
+    60.0,
+    10.002,
+    60.001,
+    10.004,
+    60.0035,
+    10.007,
+    60.006,
+    10.009,
+    60.0087,
+    10.01,
+    60.01
+  );
+  private static final LineString STRAIGHT = GeometryUtils.makeLineString(10.0, 60.0, 10.01, 60.01);
+
+  private static final LineString OTHER_CURVE = GeometryUtils.makeLineString(
+    10.0,
+    60.0,
+    10.003,
+    60.002,
+    10.006,
+    60.005,
+    10.008,
+    60.009,
+    10.01,
+    60.01
+  );
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  void geometriesAreReadFromTheMappedFile() {
+    var edges = edges(CURVED);
+
+    var copy = saveAndLoad(edges, new File(tempDir, "graph.obj.geometry"));
+
+    assertEquals(CURVED, copy.get(0).getGeometry());
+    assertEquals(CURVED.reverse(), copy.get(1).getGeometry());
+    assertEquals(STRAIGHT, copy.get(2).getGeometry());
+    // The shared geometry is stored once, the straight line is kept on the edge
+    assertNotNull(copy.get(0).mappedGeometry());
+    assertEquals(copy.get(0).mappedGeometryPosition(), copy.get(1).mappedGeometryPosition());
+    assertNull(copy.get(2).mappedGeometry());
+  }
+
+  @Test
+  void savingTheGraphDoesNotChangeTheEdges() {
+    var edges = edges(CURVED);
+    var geometry = edges.get(0).compactGeometry();
+
+    MappedStreetGeometry.write(edges, new File(tempDir, "graph.obj.geometry"));
+
+    assertNull(edges.get(0).mappedGeometry());
+    assertSame(geometry, edges.get(0).compactGeometry());
+    assertEquals(CURVED, edges.get(0).getGeometry());
+  }
+
+  /**
+   * A graph loaded with mapped geometries is saved again, with and without the geometry file.
+   */
+  @Test
+  void mappedGeometriesAreSavedAgain() {
+    var file = new File(tempDir, "graph.obj.geometry");
+    var loaded = saveAndLoad(edges(CURVED), file);
+
+    // Replace the file, which is still mapped by the loaded graph
+    var reloaded = saveAndLoad(loaded, file);
+    assertEquals(CURVED, loaded.get(0).getGeometry());
+    assertEquals(CURVED.reverse(), reloaded.get(1).getGeometry());
+    assertEquals(
+      reloaded.get(0).mappedGeometryPosition(),
+      reloaded.get(1).mappedGeometryPosition()
+    );
+
+    var inlined = roundTrip(loaded, null, null);
+    assertNull(inlined.get(0).mappedGeometry());
+    assertSame(inlined.get(0).compactGeometry(), inlined.get(1).compactGeometry());
+    assertEquals(CURVED.reverse(), inlined.get(1).getGeometry());
+  }
+
+  @Test
+  void mappedGeometriesAreComparedInTheStore() {
+    var edges = edges(CURVED);
+    var loaded = saveAndLoad(edges, new File(tempDir, "graph.obj.geometry"));
+    var store = loaded.get(0).mappedGeometry();
+    long position = loaded.get(0).mappedGeometryPosition();
+
+    assertTrue(store.contentEquals(position, edges.get(0).compactGeometry()));
+    assertFalse(store.contentEquals(position, edges(OTHER_CURVE).get(0).compactGeometry()));
+    assertFalse(store.contentEquals(position, null));
+
+    // An edge with the geometry on the heap shares the mapped geometry of the opposite edge
+    var back = edge(B, A, CURVED.reverse(), true);
+    back.shareData(loaded.get(0));
+    assertSame(store, back.mappedGeometry());
+    assertEquals(position, back.mappedGeometryPosition());
+    assertEquals(CURVED.reverse(), back.getGeometry());
+  }
+
+  @Test
+  void eachGraphHasItsOwnStore() {
+    var graphA = saveAndLoad(edges(CURVED), new File(tempDir, "a.obj.geometry"));
+    var graphB = saveAndLoad(edges(OTHER_CURVE), new File(tempDir, "b.obj.geometry"));
+
+    assertEquals(CURVED, graphA.get(0).getGeometry());
+    assertEquals(OTHER_CURVE, graphB.get(0).getGeometry());
+  }
+
+  @Test
+  void fileMustBelongToTheGraph() {
+    var file = new File(tempDir, "graph.obj.geometry");
+    long id = MappedStreetGeometry.write(List.of(edge(A, B, CURVED, false)), file).fileId();
+
+    assertEquals(id, MappedStreetGeometry.map(file, id).fileId());
+    assertThrows(OtpAppException.class, () -> MappedStreetGeometry.map(file, id + 1));
+  }
+
+  @Test
+  void edgesAreNotReadWithoutTheMappedFile() {
+    var edges = edges(CURVED);
+    var positions = MappedStreetGeometry.write(edges, new File(tempDir, "graph.obj.geometry"));
+    assertThrows(KryoException.class, () -> roundTrip(edges, positions, null));
+  }
+
+  /** An edge with the given curve, the same edge in the opposite direction and a straight edge */
+  private static List<StreetEdge> edges(LineString curve) {
+    var curved = edge(A, B, curve, false);
+    var curvedBack = edge(B, A, curve.reverse(), true);
+    curvedBack.shareData(curved);
+    return List.of(curved, curvedBack, edge(A, B, STRAIGHT, false));
+  }
+
+  /** Save the edges with the geometries in the given file, and load them again */
+  private static List<StreetEdge> saveAndLoad(List<StreetEdge> edges, File file) {
+    var positions = MappedStreetGeometry.write(edges, file);
+    return roundTrip(edges, positions, MappedStreetGeometry.map(file, positions.fileId()));
+  }
+
+  /** Serialize and deserialize the edges, like the edges of a graph which is saved and loaded */
+  @SuppressWarnings("unchecked")
+  private static List<StreetEdge> roundTrip(
+    List<StreetEdge> edges,
+    @Nullable MappedStreetGeometry.Positions positions,
+    @Nullable MappedStreetGeometry store
+  ) {
+    var output = new Output(4096, -1);
+    var writer = KryoBuilder.create();
+    StreetEdgeSerializer.writeGeometryPositions(writer, positions);
+    writer.writeClassAndObject(output, new ArrayList<>(edges));
+
+    var reader = KryoBuilder.create();
+    StreetEdgeSerializer.readGeometriesFrom(reader, store);
+    return (List<StreetEdge>) reader.readClassAndObject(new Input(output.toBytes()));
+  }
+
+  private static StreetEdge edge(
+    StreetVertex from,
+    StreetVertex to,
+    LineString geometry,
+    boolean back
+  ) {
+    return streetEdgeBuilder(from, to, 1500, StreetTraversalPermission.ALL)
+      .withGeometry(geometry)
+      .withBack(back)
+      .buildAndConnect();
+  }
+}
@@ -3,7 +3,10 @@ package org.opentripplanner.street.model.vertex;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.street.model._data.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdge;
 
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.framework.geometry.WgsCoordinate;
 
@@ -33,4 +36,18 @@ class VertexTest {
     Vertex v1 = new SimpleVertex("", LAT, LON);
     assertEquals(new WgsCoordinate(LAT, LON), v1.toWgsCoordinate());
   }
+
+  @Test
+  void initEdgeListsSkipsRepeatedEdges() {
+    var a = intersectionVertex("A", LAT, LON);
+    var b = intersectionVertex("B", LAT, LON + 0.001);
+    var ab = streetEdge(a, b);
+    var ba = streetEdge(b, a);
+
+    a.initOutgoing(List.of(ab, ab));
+    a.initIncoming(List.of(ba, ba, ba));
+
+    assertEquals(List.of(ab), List.copyOf(a.getOutgoing()));
+    assertEquals(List.of(ba), List.copyOf(a.getIncoming()));
+  }
 }
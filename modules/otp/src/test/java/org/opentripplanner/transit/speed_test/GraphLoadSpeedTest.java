@@ -0,0 +1,116 @@
+package org.opentripplanner.transit.speed_test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import org.opentripplanner.datastore.api.FileType;
+import org.opentripplanner.datastore.file.FileDataSource;
+import org.opentripplanner.framework.application.OTPFeature;
+import org.opentripplanner.framework.application.OtpAppException;
+import org.opentripplanner.routing.graph.SerializedGraphObject;
+import org.opentripplanner.transit.speed_test.options.SpeedTestCmdLineOpts;
+import org.opentripplanner.transit.speed_test.options.SpeedTestConfig;
+
+/**
+ * Measure what the {@link OTPFeature#MappedStreetGeometry} buys when the graph is loaded. Only the
+ * street geometries are memory mapped, the vertices, edges and trip times are still deserialized
+ * with Kryo. The speed test graph is saved to a temporary directory with and without the feature,
+ * and each file is loaded a number of times. The size of the files, the load time and the heap
+ * used by the loaded graph is reported. This uses the same command line options and input files
+ * as the {@link SpeedTest}, but only the {@code --dir} and {@code --sampleTestNTimes} options are
+ * used.
+ */
+public class GraphLoadSpeedTest {
+
+  public static void main(String[] args) {
+    try {
+      var opts = new SpeedTestCmdLineOpts(args);
+      var config = SpeedTestConfig.config(opts.rootDir());
+      SpeedTest.loadOtpFeatures(opts);
+      var graph = SerializedGraphObject.load(SpeedTest.graphFile(opts.rootDir(), config.graph));
+
+      var tmpDir = Files.createTempDirectory("otp-graph-load").toFile();
+      var kryoFile = new File(tmpDir, "kryo-graph.obj");
+      var mappedFile = new File(tmpDir, "mapped-graph.obj");
+      OTPFeature.MappedStreetGeometry.testOff(() -> graph.save(graphDataSource(kryoFile)));
+      OTPFeature.MappedStreetGeometry.testOn(() -> graph.save(graphDataSource(mappedFile)));
+
+      // The first round is run to warm up the JIT compiler
+      int nSamples = Math.max(1, opts.numberOfTestsSamplesToRun());
+      run(kryoFile, mappedFile, 1, false);
+      run(kryoFile, mappedFile, nSamples, true);
+
+      for (File file : tmpDir.listFiles()) {
+        file.delete();
+      }
+      tmpDir.delete();
+    } catch (OtpAppException ae) {
+      System.err.println(ae.getMessage());
+      System.exit(1);
+    } catch (IOException e) {
+      System.err.println(e.getMessage());
+      System.exit(1);
+    }
+  }
+
+  private static void run(File kryoFile, File mappedFile, int nSamples, boolean print) {
+    var kryo = new LoadResult();
+    var mapped = new LoadResult();
+    for (int i = 0; i < nSamples; ++i) {
+      kryo.load(kryoFile);
+      mapped.load(mappedFile);
+    }
+    if (print) {
+      var geometryFile = new File(mappedFile.getParentFile(), mappedFile.getName() + ".geometry");
+      System.err.printf(
+        "%-10s %10s %10s %10s %10s%n",
+        "Graph",
+        "File MB",
+        "Mapped MB",
+        "ms",
+        "Heap MB"
+      );
+      kryo.print("Kryo", kryoFile.length(), 0, nSamples);
+      mapped.print("Mapped", mappedFile.length(), geometryFile.length(), nSamples);
+    }
+  }
+
+  private static FileDataSource graphDataSource(File file) {
+    return new FileDataSource(file, FileType.GRAPH);
+  }
+
+  private static long usedHeap() {
+    var runtime = Runtime.getRuntime();
+    System.gc();
+    System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static class LoadResult {
+
+    private long nanos = 0;
+    private long heap = 0;
+
+    void load(File file) {
+      long heapBefore = usedHeap();
+      long start = System.nanoTime();
+      var graph = SerializedGraphObject.load(file);
+      nanos += System.nanoTime() - start;
+      heap += usedHeap() - heapBefore;
+      // Keep the graph on the heap until the used heap is measured
+      Reference.reachabilityFence(graph);
+    }
+
+    void print(String name, long fileSize, long mappedSize, int nSamples) {
+      System.err.printf(
+        "%-10s %10.1f %10.1f %10.1f %10.1f%n",
+        name,
+        fileSize / 1e6,
+        mappedSize / 1e6,
+        nanos / 1e6 / nSamples,
+        heap / 1e6 / nSamples
+      );
+    }
+  }
+}
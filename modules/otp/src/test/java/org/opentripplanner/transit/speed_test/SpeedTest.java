@@ -257,15 +257,14 @@ public class SpeedTest {
 
   /* setup helper methods */
 
-  private static void loadOtpFeatures(SpeedTestCmdLineOpts opts) {
+  static void loadOtpFeatures(SpeedTestCmdLineOpts opts) {
     ConfigModel.initializeOtpFeatures(new OtpConfigLoader(opts.rootDir()).loadOtpConfig());
   }
 
-  private static LoadModel loadGraph(File baseDir, URI path) {
-    File file = path == null
-      ? OtpDataStore.graphFile(baseDir)
-      : path.isAbsolute() ? new File(path) : new File(baseDir, path.getPath());
-    SerializedGraphObject serializedGraphObject = SerializedGraphObject.load(file);
+  static LoadModel loadGraph(File baseDir, URI path) {
+    SerializedGraphObject serializedGraphObject = SerializedGraphObject.load(
+      graphFile(baseDir, path)
+    );
     Graph graph = serializedGraphObject.graph;
 
     if (graph == null) {
@@ -278,6 +277,12 @@ public class SpeedTest {
     return new LoadModel(graph, transitModel, serializedGraphObject.buildConfig);
   }
 
+  static File graphFile(File baseDir, URI path) {
+    return path == null
+      ? OtpDataStore.graphFile(baseDir)
+      : path.isAbsolute() ? new File(path) : new File(baseDir, path.getPath());
+  }
+
   private void initProfileStatistics() {
     for (SpeedTestProfile key : opts.profiles()) {
       workerResults.put(key, new ArrayList<>());
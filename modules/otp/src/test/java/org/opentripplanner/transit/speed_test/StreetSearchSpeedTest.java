@@ -0,0 +1,196 @@
+package org.opentripplanner.transit.speed_test;
+
+import java.time.ZoneId;
+import java.util.List;
+import org.opentripplanner.astar.spi.TraverseVisitor;
+import org.opentripplanner.framework.application.OTPFeature;
+import org.opentripplanner.framework.application.OtpAppException;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.impl.GraphPathFinder;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.search.TemporaryVerticesContainer;
+import org.opentripplanner.street.search.state.State;
+import org.opentripplanner.transit.speed_test.model.testcase.CsvFileSupport;
+import org.opentripplanner.transit.speed_test.model.testcase.TestCaseDefinition;
+import org.opentripplanner.transit.speed_test.options.SpeedTestCmdLineOpts;
+import org.opentripplanner.transit.speed_test.options.SpeedTestConfig;
+
+/**
+ * Compare the direct street search with and without the
+ * {@link OTPFeature#BidirectionalStreetSearch}. The origin and destination of the speed test
+ * cases are routed with walk, bike and car, and the number of visited states, the latency and the
+ * weight of the path found is reported for each search. This uses the same command line options
+ * and input files as the {@link SpeedTest}, but only the {@code --dir} and {@code --testCases}
+ * options are used.
+ */
+public class StreetSearchSpeedTest {
+
+  private static final List<StreetMode> MODES = List.of(
+    StreetMode.WALK,
+    StreetMode.BIKE,
+    StreetMode.CAR
+  );
+
+  private final Graph graph;
+  private final ZoneId timeZone;
+  private final SpeedTestConfig config;
+  private final List<TestCaseDefinition> testCases;
+
+  private StreetSearchSpeedTest(
+    Graph graph,
+    ZoneId timeZone,
+    SpeedTestConfig config,
+    List<TestCaseDefinition> testCases
+  ) {
+    this.graph = graph;
+    this.timeZone = timeZone;
+    this.config = config;
+    this.testCases = testCases;
+  }
+
+  public static void main(String[] args) {
+    try {
+      var opts = new SpeedTestCmdLineOpts(args);
+      var config = SpeedTestConfig.config(opts.rootDir());
+      SpeedTest.loadOtpFeatures(opts);
+      var model = SpeedTest.loadGraph(opts.rootDir(), config.graph);
+
+      var testCases = new CsvFileSupport(opts.rootDir(), "travelSearch", config.feedId, false)
+        .readTestCaseDefinitions()
+        .stream()
+        .filter(it -> opts.testCaseIds().isEmpty() || opts.testCaseIds().contains(it.id()))
+        .toList();
+
+      var test = new StreetSearchSpeedTest(
+        model.graph(),
+        model.transitModel().getTimeZone(),
+        config,
+        testCases
+      );
+      // The first round is run to warm up the JIT compiler
+      test.run(false);
+      test.run(true);
+    } catch (OtpAppException ae) {
+      System.err.println(ae.getMessage());
+      System.exit(1);
+    }
+  }
+
+  private void run(boolean print) {
+    if (print) {
+      System.err.printf(
+        "%-8s %-6s %10s %10s %8s %8s %12s %12s%n",
+        "TC",
+        "Mode",
+        "States",
+        "States-Bi",
+        "ms",
+        "ms-Bi",
+        "Weight",
+        "Weight-Bi"
+      );
+    }
+    long[] totalStates = new long[2];
+    long[] totalNanos = new long[2];
+
+    for (var mode : MODES) {
+      for (var tc : testCases) {
+        var request = createRequest(tc, mode);
+        try (
+          var temporaryVertices = new TemporaryVerticesContainer(
+            graph,
+            request.from(),
+            request.to(),
+            mode,
+            mode
+          )
+        ) {
+          var uni = new SearchResult();
+          var bi = new SearchResult();
+          OTPFeature.BidirectionalStreetSearch.testOff(() ->
+            uni.route(request, temporaryVertices)
+          );
+          OTPFeature.BidirectionalStreetSearch.testOn(() -> bi.route(request, temporaryVertices));
+
+          totalStates[0] += uni.nStates;
+          totalStates[1] += bi.nStates;
+          totalNanos[0] += uni.nanos;
+          totalNanos[1] += bi.nanos;
+
+          if (print) {
+            System.err.printf(
+              "%-8s %-6s %10d %10d %8.2f %8.2f %12.1f %12.1f%n",
+              tc.id(),
+              mode,
+              uni.nStates,
+              bi.nStates,
+              uni.nanos / 1e6,
+              bi.nanos / 1e6,
+              uni.weight,
+              bi.weight
+            );
+          }
+        } catch (RuntimeException e) {
+          if (print) {
+            System.err.printf("%-8s %-6s failed: %s%n", tc.id(), mode, e.getMessage());
+          }
+        }
+      }
+    }
+    if (print) {
+      System.err.printf(
+        "%-15s %10d %10d %8.1f %8.1f%n",
+        "Total",
+        totalStates[0],
+        totalStates[1],
+        totalNanos[0] / 1e6,
+        totalNanos[1] / 1e6
+      );
+    }
+  }
+
+  private RouteRequest createRequest(TestCaseDefinition tc, StreetMode mode) {
+    var request = config.request.clone();
+    var date = config.testDate.atStartOfDay(timeZone);
+    if (tc.departureTimeSet()) {
+      request.setDateTime(date.plusSeconds(tc.departureTime()).toInstant());
+    } else {
+      request.setDateTime(date.plusSeconds(tc.arrivalTime()).toInstant());
+      request.setArriveBy(true);
+    }
+    request.setFrom(tc.fromPlace());
+    request.setTo(tc.toPlace());
+    request.journey().direct().setMode(mode);
+    return request;
+  }
+
+  private static class SearchResult implements TraverseVisitor<State, Edge> {
+
+    private int nStates = 0;
+    private long nanos = 0;
+    private double weight = Double.NaN;
+
+    void route(RouteRequest request, TemporaryVerticesContainer temporaryVertices) {
+      long start = System.nanoTime();
+      var paths = new GraphPathFinder(this)
+        .getPaths(request, temporaryVertices.getFromVertices(), temporaryVertices.getToVertices());
+      nanos = System.nanoTime() - start;
+      if (!paths.isEmpty()) {
+        weight = paths.getFirst().getWeight();
+      }
+    }
+
+    @Override
+    public void visitEdge(Edge edge) {}
+
+    @Override
+    public void visitVertex(State state) {
+      ++nStates;
+    }
+
+    @Override
+    public void visitEnqueue() {}
+  }
+}
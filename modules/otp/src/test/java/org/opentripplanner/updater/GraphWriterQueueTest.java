@@ -0,0 +1,122 @@
+package org.opentripplanner.updater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class GraphWriterQueueTest {
+
+  private final ExecutorService writer = Executors.newSingleThreadExecutor();
+  private final GraphWriterQueue subject = new GraphWriterQueue(writer, null);
+  private final List<String> events = new CopyOnWriteArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    writer.shutdownNow();
+  }
+
+  @Test
+  void runInOrder() throws Exception {
+    var a1 = subject.submit(new TestRunnable("A", 1, false));
+    var b1 = subject.submit(new TestRunnable("B", 1, false));
+    var a2 = subject.submit(new TestRunnable("A", 2, false));
+
+    waitFor(a1, b1, a2);
+    assertEquals(List.of("A1", "B1", "A2"), events);
+  }
+
+  @Test
+  void skipSupersededRunnables() throws Exception {
+    var registry = new SimpleMeterRegistry();
+    subject.bindTo(registry);
+
+    // Block the writer, so the next runnables are run in the same batch
+    var writerBlocked = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var blocking = subject.submit(context -> {
+      writerBlocked.countDown();
+      await(release);
+    });
+    assertTrue(writerBlocked.await(10, TimeUnit.SECONDS));
+
+    var a1 = subject.submit(new TestRunnable("A", 1, true));
+    var b1 = subject.submit(new TestRunnable("B", 1, true));
+    var a2 = subject.submit(new TestRunnable("A", 2, false));
+    var a3 = subject.submit(new TestRunnable("A", 3, true));
+    var b2 = subject.submit(new TestRunnable("B", 2, false));
+    assertEquals(5, subject.size());
+    assertEquals(5, registry.get("graph_writer_queue_size").gauge().value());
+
+    release.countDown();
+    waitFor(blocking, a1, b1, a2, a3, b2);
+
+    // A1 and A2 are superseded by A3, B2 does not supersede B1
+    assertEquals(List.of("B1", "A3", "B2"), events);
+    assertEquals(0, subject.size());
+    assertEquals(2, registry.get("graph_writer_superseded").counter().count());
+    assertEquals(6, registry.get("graph_writer_wait_time").timer().count());
+    assertEquals(4, registry.get("graph_writer_run_time").timer().count());
+  }
+
+  @Test
+  void continueAfterError() throws Exception {
+    var failing = subject.submit(context -> {
+      throw new IllegalStateException("Expected error in test");
+    });
+    var a1 = subject.submit(new TestRunnable("A", 1, false));
+
+    waitFor(failing, a1);
+    assertEquals(List.of("A1"), events);
+  }
+
+  private static void waitFor(Future<?>... futures) throws Exception {
+    for (Future<?> it : futures) {
+      it.get(10, TimeUnit.SECONDS);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * A runnable from the given source. If {@code fullDataset} is set, it supersedes all previous
+   * runnables from the same source.
+   */
+  private class TestRunnable implements GraphWriterRunnable {
+
+    private final String source;
+    private final int sequenceNumber;
+    private final boolean fullDataset;
+
+    private TestRunnable(String source, int sequenceNumber, boolean fullDataset) {
+      this.source = source;
+      this.sequenceNumber = sequenceNumber;
+      this.fullDataset = fullDataset;
+    }
+
+    @Override
+    public void run(RealTimeUpdateContext context) {
+      events.add(source + sequenceNumber);
+    }
+
+    @Override
+    public boolean supersedes(GraphWriterRunnable previous) {
+      return fullDataset && previous instanceof TestRunnable other && other.source.equals(source);
+    }
+  }
+}
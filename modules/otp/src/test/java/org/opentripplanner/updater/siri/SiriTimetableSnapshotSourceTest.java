@@ -1,10 +1,13 @@
 package org.opentripplanner.updater.siri;
 
+import static java.util.stream.Collectors.toSet;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.opentripplanner.transit.model._data.TransitModelForTest.id;
 import static org.opentripplanner.updater.spi.UpdateResultAssertions.assertFailure;
 
+import java.util.Set;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.transit.model.framework.FeedScopedId;
@@ -129,6 +132,25 @@ class SiriTimetableSnapshotSourceTest implements RealtimeTestConstants {
     assertEquals(numTrips + 1, env.getTransitService().getAllTrips().size());
   }
 
+  /**
+   * The journey is prepared before the trip is added, so the trip is not found in the published
+   * snapshot. It is resolved again in the buffer when applied, and not added a second time.
+   */
+  @Test
+  void testAddJourneyPreparedBeforeItWasAdded() {
+    var env = RealtimeTestEnvironment.siri().addTrip(TRIP_1_INPUT).build();
+    var updates = createValidAddedJourney(env).buildEstimatedTimetableDeliveries();
+
+    int numTrips = env.getTransitService().getAllTrips().size();
+    var journeys = env.prepareEstimatedTimetable(updates, false);
+    assertNull(journeys.getFirst().trip());
+
+    assertEquals(1, env.applyEstimatedTimetable(updates).successful());
+    var result = env.applyPreparedEstimatedTimetable(journeys);
+    assertEquals(1, result.successful());
+    assertEquals(numTrips + 1, env.getTransitService().getAllTrips().size());
+  }
+
   @Test
   void testAddedJourneyWithInvalidScheduledData() {
     // we actually don't need the trip, but it's the only way to add a route to the index
@@ -271,6 +293,27 @@ class SiriTimetableSnapshotSourceTest implements RealtimeTestConstants {
     assertTripUpdated(env);
   }
 
+  /**
+   * Update calls without changing the pattern. Fuzzy matching with the candidate trips looked up
+   * when the journey is prepared, which is done once the graph writer has used a fuzzy matcher.
+   */
+  @Test
+  void testUpdateJourneyWithPreparedFuzzyMatchCandidates() {
+    var env = RealtimeTestEnvironment.siri().addTrip(TRIP_1_INPUT).build();
+    var updates = updatedJourneyBuilder(env).buildEstimatedTimetableDeliveries();
+
+    assertNull(env.prepareEstimatedTimetable(updates, true).getFirst().fuzzyMatchCandidates());
+    assertEquals(1, env.applyEstimatedTimetableWithFuzzyMatcher(updates).successful());
+
+    var candidates = env.prepareEstimatedTimetable(updates, true).getFirst().fuzzyMatchCandidates();
+    assertNotNull(candidates);
+    assertEquals(Set.of(id(TRIP_1_ID)), candidates.stream().map(Trip::getId).collect(toSet()));
+
+    var result = env.applyEstimatedTimetableWithFuzzyMatcher(updates);
+    assertEquals(1, result.successful());
+    assertTripUpdated(env);
+  }
+
   /**
    * Update calls without changing the pattern. Fuzzy matching.
    * Edge case: invalid reference to vehicle journey and missing aimed departure time.
@@ -9,11 +9,14 @@ import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Objects;
+import javax.annotation.Nullable;
 import org.opentripplanner.DateTimeHelper;
 import org.opentripplanner.model.TimetableSnapshot;
+import org.opentripplanner.model.TripTimesPatch;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.transit.model._data.TransitModelForTest;
 import org.opentripplanner.transit.model.framework.FeedScopedId;
+import org.opentripplanner.transit.model.framework.Result;
 import org.opentripplanner.transit.model.network.TripPattern;
 import org.opentripplanner.transit.model.timetable.TripTimes;
 import org.opentripplanner.transit.model.timetable.TripTimesStringBuilder;
@@ -22,8 +25,10 @@ import org.opentripplanner.transit.service.TransitModel;
 import org.opentripplanner.transit.service.TransitService;
 import org.opentripplanner.updater.DefaultRealTimeUpdateContext;
 import org.opentripplanner.updater.TimetableSnapshotSourceParameters;
+import org.opentripplanner.updater.siri.PreparedEstimatedVehicleJourney;
 import org.opentripplanner.updater.siri.SiriTimetableSnapshotSource;
 import org.opentripplanner.updater.siri.updater.EstimatedTimetableHandler;
+import org.opentripplanner.updater.spi.UpdateError;
 import org.opentripplanner.updater.spi.UpdateResult;
 import uk.org.siri.siri20.EstimatedTimetableDeliveryStructure;
 
@@ -177,6 +182,24 @@ public final class RealtimeTestEnvironment implements RealtimeTestConstants {
     return applyEstimatedTimetable(updates, false);
   }
 
+  /**
+   * Prepare the updates in the same way as the SIRI updaters do, so they can be applied later with
+   * {@link #applyPreparedEstimatedTimetable(List)}.
+   */
+  public List<PreparedEstimatedVehicleJourney> prepareEstimatedTimetable(
+    List<EstimatedTimetableDeliveryStructure> updates,
+    boolean fuzzyMatching
+  ) {
+    Objects.requireNonNull(siriSource, "Test environment is configured for GTFS-RT only");
+    return getEstimatedTimetableHandler(fuzzyMatching).prepareUpdate(updates);
+  }
+
+  public UpdateResult applyPreparedEstimatedTimetable(
+    List<PreparedEstimatedVehicleJourney> journeys
+  ) {
+    return applyPreparedEstimatedTimetable(journeys, false);
+  }
+
   // GTFS-RT updates
 
   public UpdateResult applyTripUpdate(GtfsRealtime.TripUpdate update) {
@@ -206,16 +229,89 @@ public final class RealtimeTestEnvironment implements RealtimeTestConstants {
     return updateResult;
   }
 
+  /**
+   * Prepare the trip updates before they are applied, in the same way as the GTFS-RT updaters do
+   * outside the graph writer thread.
+   */
+  public UpdateResult applyPreparedTripUpdates(
+    List<GtfsRealtime.TripUpdate> updates,
+    UpdateIncrementality incrementality
+  ) {
+    return applyPreparedTripUpdates(updates, incrementality, false);
+  }
+
+  /**
+   * Same as {@link #applyPreparedTripUpdates(List, UpdateIncrementality)}, but the trips are
+   * matched with the fuzzy trip matcher.
+   */
+  public UpdateResult applyPreparedTripUpdatesWithFuzzyMatcher(
+    List<GtfsRealtime.TripUpdate> updates
+  ) {
+    return applyPreparedTripUpdates(updates, DIFFERENTIAL, true);
+  }
+
+  /**
+   * Prepare a trip update in the same way as the GTFS-RT updaters do, and return the trip times
+   * precomputed for the current pattern of the trip on the default service date. Returns
+   * {@code null} if the trip times were not precomputed for that pattern and date.
+   */
+  @Nullable
+  public Result<TripTimesPatch, UpdateError> prepareTripTimes(
+    GtfsRealtime.TripUpdate update,
+    String tripId
+  ) {
+    Objects.requireNonNull(gtfsSource, "Test environment is configured for SIRI only");
+    var preparedUpdates = gtfsSource.prepareTripUpdates(
+      false,
+      BackwardsDelayPropagationType.REQUIRED_NO_DATA,
+      List.of(update),
+      getFeedId()
+    );
+    return preparedUpdates.getFirst().tripTimesPatch(getPatternForTrip(tripId), SERVICE_DATE);
+  }
+
   // private methods
 
+  private UpdateResult applyPreparedTripUpdates(
+    List<GtfsRealtime.TripUpdate> updates,
+    UpdateIncrementality incrementality,
+    boolean fuzzyMatching
+  ) {
+    Objects.requireNonNull(gtfsSource, "Test environment is configured for SIRI only");
+    var preparedUpdates = gtfsSource.prepareTripUpdates(
+      fuzzyMatching,
+      BackwardsDelayPropagationType.REQUIRED_NO_DATA,
+      updates,
+      getFeedId()
+    );
+    UpdateResult updateResult = gtfsSource.applyPreparedTripUpdates(
+      BackwardsDelayPropagationType.REQUIRED_NO_DATA,
+      incrementality,
+      preparedUpdates,
+      getFeedId()
+    );
+    commitTimetableSnapshot();
+    return updateResult;
+  }
+
   private UpdateResult applyEstimatedTimetable(
     List<EstimatedTimetableDeliveryStructure> updates,
     boolean fuzzyMatching
+  ) {
+    return applyPreparedEstimatedTimetable(
+      prepareEstimatedTimetable(updates, fuzzyMatching),
+      fuzzyMatching
+    );
+  }
+
+  private UpdateResult applyPreparedEstimatedTimetable(
+    List<PreparedEstimatedVehicleJourney> journeys,
+    boolean fuzzyMatching
   ) {
     Objects.requireNonNull(siriSource, "Test environment is configured for GTFS-RT only");
     UpdateResult updateResult = getEstimatedTimetableHandler(fuzzyMatching)
-      .applyUpdate(
-        updates,
+      .applyPreparedUpdate(
+        journeys,
         DIFFERENTIAL,
         new DefaultRealTimeUpdateContext(
           new Graph(),
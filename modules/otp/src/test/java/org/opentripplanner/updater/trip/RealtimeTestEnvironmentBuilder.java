@@ -31,7 +31,6 @@ public class RealtimeTestEnvironmentBuilder implements RealtimeTestConstants {
 
   public RealtimeTestEnvironmentBuilder addTrip(TripInput trip) {
     createTrip(trip);
-    transitModel.index();
     return this;
   }
 
@@ -46,6 +45,9 @@ public class RealtimeTestEnvironmentBuilder implements RealtimeTestConstants {
       List.of(SERVICE_DATE.minusDays(1), SERVICE_DATE, SERVICE_DATE.plusDays(1))
     );
     transitModel.getServiceCodes().put(SERVICE_ID, 0);
+    transitModel
+      .getAllTripPatterns()
+      .forEach(p -> p.getScheduledTimetable().setServiceCodes(transitModel.getServiceCodes()));
     transitModel.updateCalendarServiceData(true, calendarServiceData, DataImportIssueStore.NOOP);
 
     return new RealtimeTestEnvironment(sourceType, transitModel);
@@ -3,11 +3,14 @@ package org.opentripplanner.updater.trip.moduletests.delay;
 import static com.google.transit.realtime.GtfsRealtime.TripDescriptor.ScheduleRelationship.SCHEDULED;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.opentripplanner.transit.model._data.TransitModelForTest.id;
 import static org.opentripplanner.updater.spi.UpdateResultAssertions.assertSuccess;
+import static org.opentripplanner.updater.trip.UpdateIncrementality.FULL_DATASET;
 
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.transit.model.timetable.RealTimeState;
 import org.opentripplanner.updater.trip.RealtimeTestConstants;
@@ -127,4 +130,36 @@ class DelayedTest implements RealtimeTestConstants {
       env.getRealtimeTimetable(TRIP_2_ID)
     );
   }
+
+  /**
+   * The trip times are computed by the updater before the update is applied, the result must be
+   * the same as when the update is applied directly.
+   */
+  @Test
+  void preparedComplexDelay() {
+    var tripInput = TripInput
+      .of(TRIP_2_ID)
+      .addStop(STOP_A1, "0:01:00", "0:01:01")
+      .addStop(STOP_B1, "0:01:10", "0:01:11")
+      .addStop(STOP_C1, "0:01:20", "0:01:21")
+      .build();
+    var env = RealtimeTestEnvironment.gtfs().addTrip(tripInput).build();
+
+    var tripUpdate = new TripUpdateBuilder(TRIP_2_ID, SERVICE_DATE, SCHEDULED, TIME_ZONE)
+      .addDelayedStopTime(0, 0)
+      .addDelayedStopTime(1, 60, 80)
+      .addDelayedStopTime(2, 90, 90)
+      .build();
+
+    var preparedTripTimes = env.prepareTripTimes(tripUpdate, TRIP_2_ID);
+    assertNotNull(preparedTripTimes, "The trip times should be computed by the updater");
+    assertTrue(preparedTripTimes.isSuccess());
+
+    assertSuccess(env.applyPreparedTripUpdates(List.of(tripUpdate), FULL_DATASET));
+
+    assertEquals(
+      "UPDATED | A1 0:01 0:01:01 | B1 0:02:10 0:02:31 | C1 0:02:50 0:02:51",
+      env.getRealtimeTimetable(TRIP_2_ID)
+    );
+  }
 }
@@ -10,6 +10,7 @@ import static org.opentripplanner.transit.model._data.TransitModelForTest.id;
 import static org.opentripplanner.updater.spi.UpdateResultAssertions.assertSuccess;
 import static org.opentripplanner.updater.trip.UpdateIncrementality.DIFFERENTIAL;
 
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.transit.model.timetable.RealTimeState;
 import org.opentripplanner.transit.model.timetable.TripTimesStringBuilder;
@@ -102,6 +103,39 @@ class SkippedTest implements RealtimeTestConstants {
     );
   }
 
+  /**
+   * The trip times are computed by the updater before the update is applied, while the trip is
+   * still on the stop-skipping trip pattern. The trip is reverted to the scheduled pattern when
+   * the update is applied, so the trip times must be computed again.
+   */
+  @Test
+  void preparedScheduledTripWithPreviouslySkipped() {
+    var env = RealtimeTestEnvironment.gtfs().addTrip(TRIP_INPUT).build();
+
+    var tripUpdate = new TripUpdateBuilder(TRIP_2_ID, SERVICE_DATE, SCHEDULED, TIME_ZONE)
+      .addDelayedStopTime(0, 0)
+      .addSkippedStop(1)
+      .addDelayedStopTime(2, 90)
+      .build();
+
+    assertSuccess(env.applyPreparedTripUpdates(List.of(tripUpdate), DIFFERENTIAL));
+
+    tripUpdate =
+      new TripUpdateBuilder(TRIP_2_ID, SERVICE_DATE, SCHEDULED, TIME_ZONE)
+        .addDelayedStopTime(0, 0)
+        .addDelayedStopTime(1, 50)
+        .addDelayedStopTime(2, 90)
+        .build();
+
+    assertSuccess(env.applyPreparedTripUpdates(List.of(tripUpdate), DIFFERENTIAL));
+
+    assertNull(env.getTimetableSnapshot().getRealtimeAddedTripPattern(id(TRIP_2_ID), SERVICE_DATE));
+    assertEquals(
+      "UPDATED | A1 0:01 0:01:01 | B1 0:02 0:02:01 | C1 0:02:50 0:02:51",
+      env.getRealtimeTimetable(id(TRIP_2_ID), SERVICE_DATE)
+    );
+  }
+
   /**
    * Tests a mixture of SKIPPED and NO_DATA.
    */
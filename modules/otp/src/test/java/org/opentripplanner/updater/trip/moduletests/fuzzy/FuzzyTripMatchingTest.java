@@ -0,0 +1,98 @@
+package org.opentripplanner.updater.trip.moduletests.fuzzy;
+
+import static com.google.transit.realtime.GtfsRealtime.TripDescriptor.ScheduleRelationship.ADDED;
+import static com.google.transit.realtime.GtfsRealtime.TripDescriptor.ScheduleRelationship.SCHEDULED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.google.transit.realtime.GtfsRealtime.TripUpdate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.updater.trip.RealtimeTestConstants;
+import org.opentripplanner.updater.trip.RealtimeTestEnvironment;
+import org.opentripplanner.updater.trip.TripInput;
+import org.opentripplanner.updater.trip.TripUpdateBuilder;
+
+/**
+ * The trips are matched with the fuzzy trip matcher before the updates are applied, so the matcher
+ * reads the published snapshot and not the updates applied earlier in the same batch.
+ */
+class FuzzyTripMatchingTest implements RealtimeTestConstants {
+
+  private static final String ADDED_TRIP_ID = "added_trip";
+
+  /** The test trips have no direction, a direction id other than 0 and 1 is mapped to unknown. */
+  private static final int UNKNOWN_DIRECTION = 2;
+
+  private final RealtimeTestEnvironment env = RealtimeTestEnvironment
+    .gtfs()
+    .addTrip(
+      TripInput
+        .of(TRIP_1_ID)
+        .addStop(STOP_A1, "0:00:10", "0:00:11")
+        .addStop(STOP_B1, "0:00:20", "0:00:21")
+        .build()
+    )
+    .build();
+
+  @Test
+  void matchScheduledTripInTheSameBatchAsAnAddedTripOnTheRoute() {
+    var addedTrip = addedTrip();
+    var delay = withoutTripId(
+      new TripUpdateBuilder(TRIP_1_ID, SERVICE_DATE, SCHEDULED, TIME_ZONE)
+        .addDelayedStopTime(1, 1)
+        .build(),
+      "00:00:11"
+    );
+
+    var result = env.applyPreparedTripUpdatesWithFuzzyMatcher(List.of(addedTrip, delay));
+
+    assertEquals(2, result.successful());
+    assertEquals(
+      "UPDATED | A1 [ND] 0:00:10 0:00:11 | B1 0:00:21 0:00:22",
+      env.getRealtimeTimetable(TRIP_1_ID)
+    );
+  }
+
+  /**
+   * The trips added by real-time updates are not part of the scheduled timetables, so an update
+   * without a trip id never matches them. This is the case for trips added in the same batch as
+   * well as in an earlier batch.
+   */
+  @Test
+  void doNotMatchTripAddedInTheSameBatch() {
+    var addedTrip = addedTrip();
+    var delay = withoutTripId(
+      new TripUpdateBuilder(ADDED_TRIP_ID, SERVICE_DATE, SCHEDULED, TIME_ZONE)
+        .addDelayedStopTime(1, 60)
+        .build(),
+      "00:30:00"
+    );
+
+    var result = env.applyPreparedTripUpdatesWithFuzzyMatcher(List.of(addedTrip, delay));
+
+    assertEquals(1, result.successful());
+    assertEquals(1, result.failed());
+  }
+
+  private static TripUpdate addedTrip() {
+    var update = new TripUpdateBuilder(ADDED_TRIP_ID, SERVICE_DATE, ADDED, TIME_ZONE)
+      .addStopTime(STOP_A1_ID, 30)
+      .addStopTime(STOP_B1_ID, 40)
+      .build();
+    return update
+      .toBuilder()
+      .setTrip(update.getTrip().toBuilder().setRouteId(ROUTE_1_ID))
+      .build();
+  }
+
+  private static TripUpdate withoutTripId(TripUpdate update, String startTime) {
+    var trip = update
+      .getTrip()
+      .toBuilder()
+      .clearTripId()
+      .setRouteId(ROUTE_1_ID)
+      .setDirectionId(UNKNOWN_DIRECTION)
+      .setStartTime(startTime);
+    return update.toBuilder().setTrip(trip).build();
+  }
+}
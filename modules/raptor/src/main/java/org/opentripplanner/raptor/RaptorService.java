@@ -1,13 +1,16 @@
 package org.opentripplanner.raptor;
 
+import java.util.List;
 import java.util.stream.Collectors;
 import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
 import org.opentripplanner.raptor.api.request.RaptorRequest;
 import org.opentripplanner.raptor.api.response.RaptorResponse;
+import org.opentripplanner.raptor.api.response.StopArrivalTimesConsumer;
 import org.opentripplanner.raptor.configure.RaptorConfig;
 import org.opentripplanner.raptor.service.DefaultStopArrivals;
 import org.opentripplanner.raptor.service.HeuristicSearchTask;
 import org.opentripplanner.raptor.service.RangeRaptorDynamicSearch;
+import org.opentripplanner.raptor.service.RangeRaptorManyToManySearch;
 import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +46,22 @@ public class RaptorService<T extends RaptorTripSchedule> {
     return response;
   }
 
+  /**
+   * Route from many origins, one request for each origin, and pass the best arrival time at every
+   * stop to the consumer. This is used to compute travel-time matrices. The requests must use
+   * the standard Range Raptor, so the profile must be {@code BEST_TIME} or {@code STANDARD} with
+   * a search-window of zero. The searches stop when the destination(egress) is reached and the
+   * {@code numberOfAdditionalTransfers} is exhausted, set it to the max number of transfers to
+   * search the entire network.
+   */
+  public void routeManyToMany(
+    List<RaptorRequest<T>> requests,
+    RaptorTransitDataProvider<T> transitData,
+    StopArrivalTimesConsumer consumer
+  ) {
+    new RangeRaptorManyToManySearch<>(config, transitData).route(requests, consumer);
+  }
+
   /**
    * TODO Add back the possibility to compare heuristics using a test - like the SpeedTest,
    *      but maybe better to make a separate test.
@@ -28,6 +28,16 @@ public interface RaptorTransfer {
    */
   int durationInSeconds();
 
+  /**
+   * The transfers returned by the {@link org.opentripplanner.raptor.spi.RaptorTransitDataProvider}
+   * may be flyweight objects, which change when the iterator moves on. Raptor calls this method
+   * before it keeps a reference to a transfer. Immutable implementations should return
+   * {@code this}, which is the default.
+   */
+  default RaptorTransfer asImmutable() {
+    return this;
+  }
+
   /* TIME-DEPENDENT ACCESS/TRANSFER/EGRESS */
   // The methods below should be only overridden when a RaptorTransfer is only available at
   // specific times, such as flexible transit, TNC or shared vehicle schemes with limited opening
@@ -0,0 +1,18 @@
+package org.opentripplanner.raptor.api.response;
+
+import org.opentripplanner.raptor.api.model.RaptorConstants;
+
+/**
+ * Receive the result of a many-to-many search, one origin at the time. See
+ * {@link org.opentripplanner.raptor.RaptorService#routeManyToMany}.
+ */
+@FunctionalInterface
+public interface StopArrivalTimesConsumer {
+  /**
+   * @param origin The index of the origin request in the list of requests.
+   * @param arrivalTimes The best arrival time by stop index. Stops not reached are set to
+   *                     {@link RaptorConstants#TIME_NOT_SET}. The array is reused after this
+   *                     method returns, copy the values to keep them.
+   */
+  void accept(int origin, int[] arrivalTimes);
+}
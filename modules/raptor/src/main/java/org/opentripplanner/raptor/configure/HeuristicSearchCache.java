@@ -0,0 +1,296 @@
+package org.opentripplanner.raptor.configure;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.opentripplanner.raptor.api.model.RaptorAccessEgress;
+import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
+import org.opentripplanner.raptor.api.model.SearchDirection;
+import org.opentripplanner.raptor.api.path.RaptorPath;
+import org.opentripplanner.raptor.api.request.DebugRequest;
+import org.opentripplanner.raptor.api.request.RaptorProfile;
+import org.opentripplanner.raptor.api.request.RaptorRequest;
+import org.opentripplanner.raptor.api.request.SearchParams;
+import org.opentripplanner.raptor.rangeraptor.internalapi.RaptorWorker;
+import org.opentripplanner.raptor.rangeraptor.internalapi.RaptorWorkerResult;
+import org.opentripplanner.raptor.rangeraptor.internalapi.SingleCriteriaStopArrivals;
+import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
+
+/**
+ * Cache the result of the heuristic searches. A paged search, or the same search repeated, will
+ * run the same heuristic search again - often the reverse search from the same egress stops. The
+ * result only depends on the transit data and the search parameters, so it can be shared between
+ * requests.
+ * <p>
+ * The key is the {@link RaptorTransitDataProvider#heuristicCacheKey()} and the parameters of the
+ * heuristic request. The access and egress paths are part of the key with the values used by the
+ * search, not the path instances - they may hold on to the street search state. Only the best
+ * times and number-of-transfers are kept, not the full worker state. The heuristics are created
+ * again for each request from the cached arrivals, so the request specific cost calculator is
+ * used.
+ * <p>
+ * The search is not cached if the transit data does not provide a key, if the request has
+ * debugging enabled, or if an access or egress has opening hours.
+ * <p>
+ * The least recently used entry is removed when the cache is full. The search is not run while
+ * holding the lock, so two requests missing the cache at the same time may both run the search.
+ * <p>
+ * This class is thread-safe, and should have APPLICATION scope.
+ */
+public class HeuristicSearchCache<T extends RaptorTripSchedule> {
+
+  private final int maximumSize;
+  private final Map<CacheKey, RaptorWorkerResult<T>> cache;
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder putCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  public HeuristicSearchCache(int maximumSize) {
+    this.maximumSize = maximumSize;
+    this.cache =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, RaptorWorkerResult<T>> eldest) {
+          if (size() > HeuristicSearchCache.this.maximumSize) {
+            evictionCount.increment();
+            return true;
+          }
+          return false;
+        }
+      };
+  }
+
+  public boolean isEnabled() {
+    return maximumSize > 0;
+  }
+
+  public long size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  public long hitCount() {
+    return hitCount.sum();
+  }
+
+  public long missCount() {
+    return missCount.sum();
+  }
+
+  public long evictionCount() {
+    return evictionCount.sum();
+  }
+
+  public long putCount() {
+    return putCount.sum();
+  }
+
+  /**
+   * Return {@code true} if the result of the given heuristic request is cached. This is the case
+   * if the cache is enabled, the transit data provide a key, the request has no debugging enabled
+   * and none of the access and egress paths have opening hours.
+   */
+  public boolean isCacheable(RaptorTransitDataProvider<T> transitData, RaptorRequest<T> request) {
+    if (!isEnabled() || isDebugEnabled(request.debug())) {
+      return false;
+    }
+    if (transitData.heuristicCacheKey() == null) {
+      return false;
+    }
+    var s = request.searchParams();
+    return !hasOpeningHours(s.accessPaths()) && !hasOpeningHours(s.egressPaths());
+  }
+
+  /**
+   * Return the cached result for the given heuristic request, or create and run a new search.
+   */
+  public RaptorWorkerResult<T> route(
+    RaptorTransitDataProvider<T> transitData,
+    RaptorRequest<T> request,
+    Supplier<RaptorWorker<T>> searchFactory
+  ) {
+    var key = cacheKey(transitData, request);
+    if (key == null) {
+      return searchFactory.get().route();
+    }
+    RaptorWorkerResult<T> result;
+    synchronized (cache) {
+      result = cache.get(key);
+    }
+    if (result != null) {
+      hitCount.increment();
+      return result;
+    }
+    missCount.increment();
+    result = CachedWorkerResult.of(searchFactory.get().route(), transitData.numberOfStops());
+    synchronized (cache) {
+      cache.put(key, result);
+    }
+    putCount.increment();
+    return result;
+  }
+
+  @Nullable
+  private CacheKey cacheKey(RaptorTransitDataProvider<T> transitData, RaptorRequest<T> request) {
+    if (!isCacheable(transitData, request)) {
+      return null;
+    }
+    var s = request.searchParams();
+    return new CacheKey(
+      transitData.heuristicCacheKey(),
+      request.profile(),
+      request.searchDirection(),
+      s.earliestDepartureTime(),
+      s.latestArrivalTime(),
+      s.searchWindowInSeconds(),
+      s.preferLateArrival(),
+      s.numberOfAdditionalTransfers(),
+      s.maxNumberOfTransfers(),
+      s.timetable(),
+      s.constrainedTransfers(),
+      AccessEgressKey.of(s.accessPaths()),
+      AccessEgressKey.of(s.egressPaths())
+    );
+  }
+
+  private static boolean isDebugEnabled(DebugRequest debug) {
+    return (
+      !debug.stops().isEmpty() ||
+      !debug.path().isEmpty() ||
+      debug.stopArrivalListener() != null ||
+      debug.patternRideDebugListener() != null ||
+      debug.pathFilteringListener() != null
+    );
+  }
+
+  private static boolean hasOpeningHours(Collection<RaptorAccessEgress> paths) {
+    return paths.stream().anyMatch(RaptorAccessEgress::hasOpeningHours);
+  }
+
+  /**
+   * The {@link SearchParams} used by the heuristic search.
+   */
+  private record CacheKey(
+    Object transitDataKey,
+    RaptorProfile profile,
+    SearchDirection direction,
+    int earliestDepartureTime,
+    int latestArrivalTime,
+    int searchWindowInSeconds,
+    boolean preferLateArrival,
+    int numberOfAdditionalTransfers,
+    int maxNumberOfTransfers,
+    boolean timetable,
+    boolean constrainedTransfers,
+    Set<AccessEgressKey> accessPaths,
+    Set<AccessEgressKey> egressPaths
+  ) {}
+
+  /**
+   * The values of an access or egress path used by the search. Paths with opening hours are not
+   * cached, so the opening hours are not part of the key.
+   */
+  private record AccessEgressKey(
+    int stop,
+    int durationInSeconds,
+    int c1,
+    int timePenalty,
+    int numberOfRides,
+    boolean stopReachedOnBoard
+  ) {
+    private static Set<AccessEgressKey> of(Collection<RaptorAccessEgress> paths) {
+      return paths
+        .stream()
+        .map(it ->
+          new AccessEgressKey(
+            it.stop(),
+            it.durationInSeconds(),
+            it.c1(),
+            it.timePenalty(),
+            it.numberOfRides(),
+            it.stopReachedOnBoard()
+          )
+        )
+        .collect(Collectors.toUnmodifiableSet());
+    }
+  }
+
+  /**
+   * A copy of the arrivals needed to create the heuristics, the worker state is not kept.
+   */
+  private record CachedWorkerResult<T extends RaptorTripSchedule>(
+    SingleCriteriaStopArrivals bestOverallArrivals,
+    SingleCriteriaStopArrivals bestTransitArrivals,
+    SingleCriteriaStopArrivals bestNumberOfTransfers,
+    boolean destinationReached
+  )
+    implements RaptorWorkerResult<T> {
+    private static <T extends RaptorTripSchedule> CachedWorkerResult<T> of(
+      RaptorWorkerResult<T> result,
+      int nStops
+    ) {
+      return new CachedWorkerResult<>(
+        IntArrayStopArrivals.copyOf(result.extractBestOverallArrivals(), nStops),
+        IntArrayStopArrivals.copyOf(result.extractBestTransitArrivals(), nStops),
+        IntArrayStopArrivals.copyOf(result.extractBestNumberOfTransfers(), nStops),
+        result.isDestinationReached()
+      );
+    }
+
+    @Override
+    public Collection<RaptorPath<T>> extractPaths() {
+      throw new UnsupportedOperationException("The paths of a heuristic search are not cached.");
+    }
+
+    @Override
+    public SingleCriteriaStopArrivals extractBestOverallArrivals() {
+      return bestOverallArrivals;
+    }
+
+    @Override
+    public SingleCriteriaStopArrivals extractBestTransitArrivals() {
+      return bestTransitArrivals;
+    }
+
+    @Override
+    public SingleCriteriaStopArrivals extractBestNumberOfTransfers() {
+      return bestNumberOfTransfers;
+    }
+
+    @Override
+    public boolean isDestinationReached() {
+      return destinationReached;
+    }
+  }
+
+  private record IntArrayStopArrivals(int[] values) implements SingleCriteriaStopArrivals {
+    /** No criteria use this value, so it is safe to use it for stops not reached. */
+    private static final int UNREACHED = Integer.MIN_VALUE;
+
+    private static IntArrayStopArrivals copyOf(SingleCriteriaStopArrivals arrivals, int nStops) {
+      int[] values = new int[nStops];
+      for (int stop = 0; stop < nStops; ++stop) {
+        values[stop] = arrivals.isReached(stop) ? arrivals.value(stop) : UNREACHED;
+      }
+      return new IntArrayStopArrivals(values);
+    }
+
+    @Override
+    public boolean isReached(int stop) {
+      return values[stop] != UNREACHED;
+    }
+
+    @Override
+    public int value(int stop) {
+      return values[stop];
+    }
+  }
+}
@@ -1,11 +1,14 @@
 package org.opentripplanner.raptor.configure;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.IntPredicate;
 import javax.annotation.Nullable;
 import org.opentripplanner.framework.concurrent.OtpRequestThreadFactory;
 import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
+import org.opentripplanner.raptor.api.path.RaptorPath;
 import org.opentripplanner.raptor.api.request.RaptorRequest;
 import org.opentripplanner.raptor.api.request.RaptorTuningParameters;
 import org.opentripplanner.raptor.rangeraptor.DefaultRangeRaptorWorker;
@@ -17,6 +20,7 @@ import org.opentripplanner.raptor.rangeraptor.internalapi.RaptorWorkerResult;
 import org.opentripplanner.raptor.rangeraptor.internalapi.RaptorWorkerState;
 import org.opentripplanner.raptor.rangeraptor.internalapi.RoutingStrategy;
 import org.opentripplanner.raptor.rangeraptor.multicriteria.configure.McRangeRaptorConfig;
+import org.opentripplanner.raptor.rangeraptor.path.SharedDestinationPaths;
 import org.opentripplanner.raptor.rangeraptor.standard.configure.StdRangeRaptorConfig;
 import org.opentripplanner.raptor.rangeraptor.transit.RaptorSearchWindowCalculator;
 import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
@@ -33,6 +37,7 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
 
   private final ExecutorService threadPool;
   private final RaptorTuningParameters tuningParameters;
+  private final HeuristicSearchCache<T> heuristicCache;
 
   /** The service is not final, because it depends on the request. */
   private PassThroughPointsService passThroughPointsService = null;
@@ -40,6 +45,7 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
   public RaptorConfig(RaptorTuningParameters tuningParameters) {
     this.tuningParameters = tuningParameters;
     this.threadPool = createNewThreadPool(tuningParameters.searchThreadPoolSize());
+    this.heuristicCache = new HeuristicSearchCache<>(tuningParameters.heuristicCacheSize());
   }
 
   public static <T extends RaptorTripSchedule> RaptorConfig<T> defaultConfigForTest() {
@@ -65,15 +71,44 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
     RaptorTransitDataProvider<T> transitData,
     RaptorRequest<T> request,
     Heuristics heuristics
+  ) {
+    return createMcWorker(transitData, request, heuristics, null);
+  }
+
+  /**
+   * Create a multi-criteria worker for one of the sub-windows of a search-window searched in
+   * parallel. The destination arrivals are also checked against the paths the workers of the later
+   * sub-windows share, if not {@code null}.
+   */
+  public RaptorWorker<T> createMcWorker(
+    RaptorTransitDataProvider<T> transitData,
+    RaptorRequest<T> request,
+    Heuristics heuristics,
+    @Nullable SharedDestinationPaths<T> sharedPaths
   ) {
     final SearchContext<T> context = context(transitData, request);
     return new McRangeRaptorConfig<>(context, passThroughPointsService)
       .createWorker(
         heuristics,
+        sharedPaths,
         (state, routingStrategy) -> createWorker(context, state, routingStrategy)
       );
   }
 
+  /**
+   * Merge the paths of several multi-criteria searches into one set of pareto optimal paths. The
+   * paths are compared with the same criteria as in the destination arrivals of the worker. The
+   * first path is kept if two paths are equal.
+   */
+  public List<RaptorPath<T>> mergeMcPaths(
+    RaptorTransitDataProvider<T> transitData,
+    RaptorRequest<T> request,
+    List<? extends Collection<RaptorPath<T>>> paths
+  ) {
+    var context = context(transitData, request);
+    return new McRangeRaptorConfig<>(context, passThroughPointsService).mergePaths(paths);
+  }
+
   public RaptorWorker<T> createHeuristicSearch(
     RaptorTransitDataProvider<T> transitData,
     RaptorRequest<T> request
@@ -92,6 +127,14 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
     return new StdRangeRaptorConfig<>(context).createHeuristics(results);
   }
 
+  public HeuristicSearchCache<T> heuristicCache() {
+    return heuristicCache;
+  }
+
+  public RaptorTuningParameters tuningParameters() {
+    return tuningParameters;
+  }
+
   public boolean isMultiThreaded() {
     return threadPool != null;
   }
@@ -44,13 +44,14 @@ public class Path<T extends RaptorTripSchedule> implements RaptorPath<T> {
   private final AccessPathLeg<T> accessLeg;
   private final EgressPathLeg<T> egressLeg;
 
-  /** @see #dummyPath(int, int, int, int, int) */
+  /** @see #dummyPath(int, int, int, int, int, int) */
   private Path(
     int iterationDepartureTime,
     int startTime,
     int endTime,
     int numberOfTransfers,
-    int c1
+    int c1,
+    int c2
   ) {
     this.iterationDepartureTime = iterationDepartureTime;
     this.startTime = startTime;
@@ -61,7 +62,7 @@ public class Path<T extends RaptorTripSchedule> implements RaptorPath<T> {
     this.c1 = c1;
     this.accessLeg = null;
     this.egressLeg = null;
-    this.c2 = RaptorConstants.NOT_SET;
+    this.c2 = c2;
   }
 
   public Path(int iterationDepartureTime, AccessPathLeg<T> accessLeg, int c1, int c2) {
@@ -106,7 +107,28 @@ public class Path<T extends RaptorTripSchedule> implements RaptorPath<T> {
     int numberOfTransfers,
     int cost
   ) {
-    return new Path<>(iteration, startTime, endTime, numberOfTransfers, cost);
+    return dummyPath(
+      iteration,
+      startTime,
+      endTime,
+      numberOfTransfers,
+      cost,
+      RaptorConstants.NOT_SET
+    );
+  }
+
+  /**
+   * Same as {@link #dummyPath(int, int, int, int, int)}, but with the c2 value set.
+   */
+  public static <T extends RaptorTripSchedule> RaptorPath<T> dummyPath(
+    int iteration,
+    int startTime,
+    int endTime,
+    int numberOfTransfers,
+    int c1,
+    int c2
+  ) {
+    return new Path<>(iteration, startTime, endTime, numberOfTransfers, c1, c2);
   }
 
   @Override
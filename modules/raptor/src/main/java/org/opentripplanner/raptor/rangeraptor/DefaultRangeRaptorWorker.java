@@ -1,10 +1,15 @@
 package org.opentripplanner.raptor.rangeraptor;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.IntFunction;
+import javax.annotation.Nullable;
 import org.opentripplanner.framework.application.OTPRequestTimeoutException;
 import org.opentripplanner.raptor.api.debug.RaptorTimers;
 import org.opentripplanner.raptor.api.model.RaptorAccessEgress;
 import org.opentripplanner.raptor.api.model.RaptorConstants;
+import org.opentripplanner.raptor.api.model.RaptorTransfer;
+import org.opentripplanner.raptor.api.model.RaptorTripPattern;
 import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
 import org.opentripplanner.raptor.rangeraptor.internalapi.RaptorWorker;
 import org.opentripplanner.raptor.rangeraptor.internalapi.RaptorWorkerResult;
@@ -17,6 +22,8 @@ import org.opentripplanner.raptor.rangeraptor.transit.AccessPaths;
 import org.opentripplanner.raptor.rangeraptor.transit.RaptorTransitCalculator;
 import org.opentripplanner.raptor.rangeraptor.transit.RoundTracker;
 import org.opentripplanner.raptor.spi.IntIterator;
+import org.opentripplanner.raptor.spi.RaptorConstrainedBoardingSearch;
+import org.opentripplanner.raptor.spi.RaptorRoutePruningIndex;
 import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
 
 /**
@@ -73,6 +80,15 @@ public final class DefaultRangeRaptorWorker<T extends RaptorTripSchedule>
 
   private final RaptorTransitDataProvider<T> transitData;
 
+  /** The transfers from (or to in a reverse search) each stop, reusing one cursor. */
+  private final IntFunction<Iterator<? extends RaptorTransfer>> transfers;
+
+  /**
+   * Used to skip routes which can not be boarded, {@code null} if all routes should be scanned.
+   */
+  @Nullable
+  private final RaptorRoutePruningIndex routePruningIndex;
+
   private final SlackProvider slackProvider;
 
   private final RaptorTransitCalculator<T> calculator;
@@ -104,6 +120,8 @@ public final class DefaultRangeRaptorWorker<T extends RaptorTripSchedule>
     this.transitWorker = transitWorker;
     this.state = state;
     this.transitData = transitData;
+    this.transfers = calculator.transfersCursor(transitData);
+    this.routePruningIndex = transitData.routePruningIndex();
     this.slackProvider = slackProvider;
     this.calculator = calculator;
     this.timers = timers;
@@ -206,6 +224,10 @@ public final class DefaultRangeRaptorWorker<T extends RaptorTripSchedule>
           ? calculator.transferConstraintsSearch(transitData, routeIndex)
           : null;
 
+        if (routePruningIndex != null && !isBoardingPossible(pattern, routeIndex, txSearch)) {
+          continue;
+        }
+
         int alightSlack = slackProvider.alightSlack(pattern.slackIndex());
         int boardSlack = slackProvider.boardSlack(pattern.slackIndex());
 
@@ -252,6 +274,42 @@ public final class DefaultRangeRaptorWorker<T extends RaptorTripSchedule>
     });
   }
 
+  /**
+   * Return {@code true} if a trip in the route may depart after one of the stops in the pattern
+   * is reached in the previous round. A regular transfer can not board a trip before the stop
+   * arrival time, so if no trip departs after the arrival at any of the stops the route is
+   * skipped. The slack is not included, this is only an upper bound. A constrained transfer is
+   * boarded relative to the arrival time of the previous transit leg, so the route is not skipped
+   * if a constrained transfer exist at one of the stops reached.
+   */
+  private boolean isBoardingPossible(
+    RaptorTripPattern pattern,
+    int routeIndex,
+    RaptorConstrainedBoardingSearch<T> txSearch
+  ) {
+    int[] lastBoardingTimes = calculator.lastBoardingTimes(routePruningIndex, routeIndex);
+    if (lastBoardingTimes == null) {
+      return true;
+    }
+    for (int stopPos = 0; stopPos < pattern.numberOfStopsInPattern(); ++stopPos) {
+      int stopIndex = pattern.stopIndex(stopPos);
+      if (
+        !calculator.boardingPossibleAt(pattern, stopPos) ||
+        !state.isStopReachedInPreviousRound(stopIndex)
+      ) {
+        continue;
+      }
+      if (enableTransferConstraints && txSearch.transferExistTargetStop(stopPos)) {
+        return true;
+      }
+      int arrivalTime = state.bestTimePreviousRound(stopIndex);
+      if (!calculator.isBefore(lastBoardingTimes[stopPos], arrivalTime)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private void findTransfersForRound() {
     timers.findTransfersForRound(() -> {
       IntIterator it = state.stopsTouchedByTransitCurrentRound();
@@ -260,7 +318,7 @@ public final class DefaultRangeRaptorWorker<T extends RaptorTripSchedule>
         final int fromStop = it.next();
         // no need to consider loop transfers, since we don't mark patterns here any more
         // loop transfers are already included by virtue of those stops having been reached
-        state.transferToStops(fromStop, calculator.getTransfers(transitData, fromStop));
+        state.transferToStops(fromStop, transfers.apply(fromStop));
       }
 
       lifeCycle.transfersForRoundComplete();
@@ -193,6 +193,11 @@ public class SearchContext<T extends RaptorTripSchedule> {
     return tuningParameters.maxNumberOfTransfers() + 1;
   }
 
+  /** See {@link RaptorTuningParameters#sortStopArrivalsByArrivalTime()} */
+  public boolean sortStopArrivalsByArrivalTime() {
+    return tuningParameters.sortStopArrivalsByArrivalTime();
+  }
+
   public RoundProvider roundProvider() {
     return roundTracker;
   }
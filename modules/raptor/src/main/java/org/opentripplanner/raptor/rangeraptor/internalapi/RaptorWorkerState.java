@@ -40,6 +40,15 @@ public interface RaptorWorkerState<T extends RaptorTripSchedule> {
    */
   boolean isStopReachedInPreviousRound(int stopIndex);
 
+  /**
+   * Return the best time at the given stop found in the last round. This is used to find the right
+   * trip to board in the current round.
+   * <p/>
+   * If you are not trying to find paths or calculate the exact number of transfers it is ok to
+   * return the overall best time to reach the given stop.
+   */
+  int bestTimePreviousRound(int stop);
+
   /**
    * Update state with a new transfer.
    */
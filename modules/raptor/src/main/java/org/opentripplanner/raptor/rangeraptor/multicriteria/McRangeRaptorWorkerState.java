@@ -93,6 +93,17 @@ public final class McRangeRaptorWorkerState<T extends RaptorTripSchedule>
     return arrivals.hasArrivalsAfterMarker(stopIndex);
   }
 
+  @Override
+  public int bestTimePreviousRound(int stop) {
+    int bestTime = transitCalculator.unreachedTime();
+    for (var it : arrivals.listArrivalsAfterMarker(stop)) {
+      if (transitCalculator.isBefore(it.arrivalTime(), bestTime)) {
+        bestTime = it.arrivalTime();
+      }
+    }
+    return bestTime;
+  }
+
   public void setAccessToStop(RaptorAccessEgress accessPath, int departureTime) {
     addStopArrival(stopArrivalFactory.createAccessStopArrival(departureTime, accessPath));
   }
@@ -171,12 +182,19 @@ public final class McRangeRaptorWorkerState<T extends RaptorTripSchedule>
     RaptorTransfer transfer
   ) {
     final int transferTimeInSeconds = transfer.durationInSeconds();
+    // The transfer may be a flyweight, make an immutable copy before the arrivals keep it
+    RaptorTransfer immutableTransfer = null;
 
     for (McStopArrival<T> it : fromArrivals) {
       int arrivalTime = it.arrivalTime() + transferTimeInSeconds;
 
       if (!exceedsTimeLimit(arrivalTime)) {
-        arrivalsCache.add(stopArrivalFactory.createTransferStopArrival(it, transfer, arrivalTime));
+        if (immutableTransfer == null) {
+          immutableTransfer = transfer.asImmutable();
+        }
+        arrivalsCache.add(
+          stopArrivalFactory.createTransferStopArrival(it, immutableTransfer, arrivalTime)
+        );
       }
     }
   }
@@ -31,6 +31,7 @@ public final class McStopArrivals<T extends RaptorTripSchedule> {
   private final ArrivalParetoSetComparatorFactory<McStopArrival<T>> comparatorFactory;
   private final DebugHandlerFactory<T> debugHandlerFactory;
   private final DebugStopArrivalsStatistics debugStats;
+  private final boolean sortByArrivalTime;
 
   /**
    * Set the time at a transit index iff it is optimal. This sets both the best time and the
@@ -42,9 +43,11 @@ public final class McStopArrivals<T extends RaptorTripSchedule> {
     AccessPaths accessPaths,
     DestinationArrivalPaths<T> paths,
     ArrivalParetoSetComparatorFactory<McStopArrival<T>> comparatorFactory,
-    DebugHandlerFactory<T> debugHandlerFactory
+    DebugHandlerFactory<T> debugHandlerFactory,
+    boolean sortByArrivalTime
   ) {
     this.comparatorFactory = comparatorFactory;
+    this.sortByArrivalTime = sortByArrivalTime;
     //noinspection unchecked
     this.arrivals = (StopArrivalParetoSet<T>[]) new StopArrivalParetoSet[nStops];
     this.touchedStops = new BitSet(nStops);
@@ -89,7 +92,11 @@ public final class McStopArrivals<T extends RaptorTripSchedule> {
     return new BitSetIterator(touchedStops);
   }
 
-  void addStopArrival(McStopArrival<T> arrival) {
+  /**
+   * Add the arrival to the pareto set of its stop, and mark the stop as touched if it is added.
+   * This is public to be used by the benchmarks, it is otherwise only used by the worker state.
+   */
+  public void addStopArrival(McStopArrival<T> arrival) {
     boolean added = findOrCreateSet(arrival.stop()).add(arrival);
     if (added) {
       touchedStops.set(arrival.stop());
@@ -118,7 +125,11 @@ public final class McStopArrivals<T extends RaptorTripSchedule> {
     return it.elementsAfterMarker();
   }
 
-  void clearTouchedStopsAndSetStopMarkers() {
+  /**
+   * Set the marker of the touched stops at the end of their pareto sets, and clear the touched
+   * stops. This is public to be used by the benchmarks, see {@link #addStopArrival(McStopArrival)}.
+   */
+  public void clearTouchedStopsAndSetStopMarkers() {
     IntIterator it = stopsTouchedIterator();
     while (it.hasNext()) {
       arrivals[it.next()].markAtEndOfSet();
@@ -133,6 +144,7 @@ public final class McStopArrivals<T extends RaptorTripSchedule> {
       arrivals[stop] =
         StopArrivalParetoSet.createStopArrivalSet(
           comparatorFactory.compareArrivalTimeRoundAndCost(),
+          sortByArrivalTime,
           debugHandlerFactory.paretoSetStopArrivalListener(stop)
         );
     }
@@ -147,6 +159,7 @@ public final class McStopArrivals<T extends RaptorTripSchedule> {
         arrivals[stop] =
           StopArrivalParetoSet.createStopArrivalSet(
             comparatorFactory.compareArrivalTimeRoundCostAndOnBoardArrival(),
+            sortByArrivalTime,
             debugHandlerFactory.paretoSetStopArrivalListener(stop)
           );
       }
@@ -168,6 +181,7 @@ public final class McStopArrivals<T extends RaptorTripSchedule> {
         this.arrivals[stop] =
           StopArrivalParetoSet.createEgressStopArrivalSet(
             comparatorFactory.compareArrivalTimeRoundCostAndOnBoardArrival(),
+            sortByArrivalTime,
             list,
             paths,
             debugHandlerFactory.paretoSetStopArrivalListener(stop)
@@ -25,20 +25,23 @@ class StopArrivalParetoSet<T extends RaptorTripSchedule>
    */
   private StopArrivalParetoSet(
     ParetoComparator<McStopArrival<T>> comparator,
-    ParetoSetEventListener<ArrivalView<T>> listener
+    ParetoSetEventListener<ArrivalView<T>> listener,
+    boolean sortByArrivalTime
   ) {
-    super(comparator, listener);
+    super(comparator, listener, sortByArrivalTime ? McStopArrival::arrivalTime : null);
   }
 
   /**
    * Create a stop arrivals pareto set and attach an optional {@code paretoSetEventListener}
-   * (debug handler).
+   * (debug handler). If {@code sortByArrivalTime} is set, the arrivals are indexed on the arrival
+   * time to speed up the dominance check for large sets.
    */
   static <T extends RaptorTripSchedule> StopArrivalParetoSet<T> createStopArrivalSet(
     ParetoComparator<McStopArrival<T>> comparator,
+    boolean sortByArrivalTime,
     @Nullable ParetoSetEventListener<ArrivalView<T>> paretoSetEventListener
   ) {
-    return new StopArrivalParetoSet<>(comparator, paretoSetEventListener);
+    return new StopArrivalParetoSet<>(comparator, paretoSetEventListener, sortByArrivalTime);
   }
 
   /**
@@ -48,6 +51,7 @@ class StopArrivalParetoSet<T extends RaptorTripSchedule>
    */
   static <T extends RaptorTripSchedule> StopArrivalParetoSet<T> createEgressStopArrivalSet(
     ParetoComparator<McStopArrival<T>> comparator,
+    boolean sortByArrivalTime,
     List<RaptorAccessEgress> egressPaths,
     DestinationArrivalPaths<T> destinationArrivals,
     @Nullable ParetoSetEventListener<ArrivalView<T>> paretoSetEventListener
@@ -60,6 +64,6 @@ class StopArrivalParetoSet<T extends RaptorTripSchedule>
       listener = new ParetoSetEventListenerComposite<>(paretoSetEventListener, listener);
     }
 
-    return new StopArrivalParetoSet<>(comparator, listener);
+    return new StopArrivalParetoSet<>(comparator, listener, sortByArrivalTime);
   }
 }
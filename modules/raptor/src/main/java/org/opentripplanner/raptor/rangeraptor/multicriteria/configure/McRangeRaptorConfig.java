@@ -1,10 +1,13 @@
 package org.opentripplanner.raptor.rangeraptor.multicriteria.configure;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.BiFunction;
 import javax.annotation.Nullable;
 import org.opentripplanner.raptor.api.model.DominanceFunction;
 import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
+import org.opentripplanner.raptor.api.path.RaptorPath;
 import org.opentripplanner.raptor.api.request.MultiCriteriaRequest;
 import org.opentripplanner.raptor.api.request.RaptorTransitGroupPriorityCalculator;
 import org.opentripplanner.raptor.rangeraptor.context.SearchContext;
@@ -31,6 +34,7 @@ import org.opentripplanner.raptor.rangeraptor.multicriteria.ride.c2.PassThroughR
 import org.opentripplanner.raptor.rangeraptor.multicriteria.ride.c2.PatternRideC2;
 import org.opentripplanner.raptor.rangeraptor.multicriteria.ride.c2.TransitGroupPriorityRideFactory;
 import org.opentripplanner.raptor.rangeraptor.path.DestinationArrivalPaths;
+import org.opentripplanner.raptor.rangeraptor.path.SharedDestinationPaths;
 import org.opentripplanner.raptor.rangeraptor.path.configure.PathConfig;
 import org.opentripplanner.raptor.util.paretoset.ParetoComparator;
 import org.opentripplanner.raptor.util.paretoset.ParetoSet;
@@ -45,6 +49,7 @@ public class McRangeRaptorConfig<T extends RaptorTripSchedule> {
   private final SearchContext<T> context;
   private final PathConfig<T> pathConfig;
   private DestinationArrivalPaths<T> paths;
+  private SharedDestinationPaths<T> sharedPaths;
   private PassThroughPointsService passThroughPointsService;
 
   public McRangeRaptorConfig(
@@ -74,10 +79,35 @@ public class McRangeRaptorConfig<T extends RaptorTripSchedule> {
     Heuristics heuristics,
     BiFunction<RaptorWorkerState<T>, RoutingStrategy<T>, RaptorWorker<T>> createWorker
   ) {
+    return createWorker(heuristics, null, createWorker);
+  }
+
+  /**
+   * Create new multi-criteria worker with optional heuristics, for one of the sub-windows of a
+   * search-window searched in parallel. The destination arrivals are also checked against the
+   * shared paths of the later sub-windows, if not {@code null}.
+   */
+  public RaptorWorker<T> createWorker(
+    Heuristics heuristics,
+    @Nullable SharedDestinationPaths<T> sharedPaths,
+    BiFunction<RaptorWorkerState<T>, RoutingStrategy<T>, RaptorWorker<T>> createWorker
+  ) {
+    this.sharedPaths = sharedPaths;
     McRangeRaptorWorkerState<T> state = createState(heuristics);
     return createWorker.apply(state, createTransitWorkerStrategy(state));
   }
 
+  /**
+   * Merge the paths of several searches into one set of pareto optimal paths, using the same
+   * comparator as for the paths found at the destination.
+   */
+  public List<RaptorPath<T>> mergePaths(List<? extends Collection<RaptorPath<T>>> paths) {
+    var c2Comp = includeC2() ? dominanceFunctionC2() : null;
+    var set = new ParetoSet<>(pathConfig.createPathParetoComparator(resolveCostConfig(), c2Comp));
+    paths.forEach(set::addAll);
+    return List.copyOf(set);
+  }
+
   /* private factory methods */
 
   private RoutingStrategy<T> createTransitWorkerStrategy(McRangeRaptorWorkerState<T> state) {
@@ -133,7 +163,8 @@ public class McRangeRaptorConfig<T extends RaptorTripSchedule> {
       context.accessPaths(),
       createDestinationArrivalPaths(),
       createFactoryParetoComparator(),
-      context.debugFactory()
+      context.debugFactory(),
+      context.sortStopArrivalsByArrivalTime()
     );
   }
 
@@ -159,7 +190,7 @@ public class McRangeRaptorConfig<T extends RaptorTripSchedule> {
   private DestinationArrivalPaths<T> createDestinationArrivalPaths() {
     if (paths == null) {
       var c2Comp = includeC2() ? dominanceFunctionC2() : null;
-      paths = pathConfig.createDestArrivalPaths(resolveCostConfig(), c2Comp);
+      paths = pathConfig.createDestArrivalPaths(resolveCostConfig(), c2Comp, sharedPaths);
     }
     return paths;
   }
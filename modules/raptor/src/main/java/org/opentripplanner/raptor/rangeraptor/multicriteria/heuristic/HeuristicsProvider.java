@@ -44,7 +44,7 @@ public final class HeuristicsProvider<T extends RaptorTripSchedule> {
    * This is a very effective optimization, enabled by the {@link Optimization#PARETO_CHECK_AGAINST_DESTINATION}.
    */
   public boolean rejectDestinationArrivalBasedOnHeuristic(McStopArrival<T> arrival) {
-    if (heuristics == null || paths.isEmpty()) {
+    if (heuristics == null || paths.isEmptyIncludingSharedPaths()) {
       return false;
     }
     boolean rejected = !qualify(
@@ -1,5 +1,8 @@
 package org.opentripplanner.raptor.rangeraptor.path;
 
+import static org.opentripplanner.raptor.api.model.PathLegType.ACCESS;
+import static org.opentripplanner.raptor.api.model.PathLegType.TRANSIT;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Optional;
@@ -36,6 +39,14 @@ import org.slf4j.LoggerFactory;
  * <p/>
  * This class is a thin wrapper around a ParetoSet of {@link RaptorPath}s. Before paths are added
  * the arrival time is checked against the arrival time limit.
+ * <p/>
+ * Mapping a destination arrival to a path is expensive, the trip times are searched for each
+ * transit leg and the cost is calculated again. In a multi-criteria search most destination
+ * arrivals are rejected by the paths already found, so the arrival is checked against the set
+ * before it is mapped, see {@link #qualifyBeforeMappingToPath(DestinationArrival)}.
+ * <p/>
+ * If the search-window is split in sub-windows searched in parallel, the arrivals are also checked
+ * against the paths of the later sub-windows, see {@link SharedDestinationPaths}.
  *
  * @param <T> The TripSchedule type defined by the user of the raptor API.
  */
@@ -44,7 +55,12 @@ public class DestinationArrivalPaths<T extends RaptorTripSchedule> {
   private static final Logger LOG = LoggerFactory.getLogger(DestinationArrivalPaths.class);
   private static final Throttle THROTTLE_MISS_MATCH = Throttle.ofOneSecond();
 
+  private final ParetoComparator<RaptorPath<T>> paretoComparator;
   private final ParetoSet<RaptorPath<T>> paths;
+
+  @Nullable
+  private final SharedDestinationPaths<T> sharedPaths;
+
   private final RaptorTransitCalculator<T> transitCalculator;
 
   @Nullable
@@ -55,6 +71,8 @@ public class DestinationArrivalPaths<T extends RaptorTripSchedule> {
 
   private final SlackProvider slackProvider;
   private final PathMapper<T> pathMapper;
+  private final boolean qualifyBeforeMapping;
+  private final boolean constrainedTransfers;
   private final DebugHandler<RaptorPath<?>> debugPathHandler;
   private final RaptorStopNameResolver stopNameResolver;
   private boolean reachedCurrentRound = false;
@@ -67,19 +85,27 @@ public class DestinationArrivalPaths<T extends RaptorTripSchedule> {
     @Nullable IntPredicate acceptC2AtDestination,
     SlackProvider slackProvider,
     PathMapper<T> pathMapper,
+    boolean qualifyBeforeMapping,
+    boolean constrainedTransfers,
     DebugHandlerFactory<T> debugHandlerFactory,
     RaptorStopNameResolver stopNameResolver,
-    WorkerLifeCycle lifeCycle
+    WorkerLifeCycle lifeCycle,
+    @Nullable SharedDestinationPaths<T> sharedPaths
   ) {
+    this.paretoComparator = paretoComparator;
+    this.sharedPaths = sharedPaths;
     this.paths =
       new ParetoSet<>(paretoComparator, debugHandlerFactory.paretoSetDebugPathListener());
     this.transitCalculator = transitCalculator;
     this.costCalculator = costCalculator;
     this.slackProvider = slackProvider;
     this.pathMapper = pathMapper;
+    this.constrainedTransfers = constrainedTransfers;
     this.acceptC2AtDestination = acceptC2AtDestination;
     this.debugPathHandler = debugHandlerFactory.debugPathArrival();
     this.stopNameResolver = stopNameResolver;
+    // The debug listeners should be notified about the mapped path, not the dummy path
+    this.qualifyBeforeMapping = qualifyBeforeMapping && costCalculator != null && !isDebugOn();
     lifeCycle.onPrepareForNextRound(round -> clearReachedCurrentRoundFlag());
     lifeCycle.onSetupIteration(this::setRangeRaptorIterationDepartureTime);
   }
@@ -104,6 +130,9 @@ public class DestinationArrivalPaths<T extends RaptorTripSchedule> {
   }
 
   private void addDestinationArrivalToPaths(DestinationArrival<T> destArrival) {
+    if (qualifyBeforeMapping && !qualifyBeforeMappingToPath(destArrival)) {
+      return;
+    }
     RaptorPath<T> path = pathMapper.mapToPath(destArrival);
 
     assertGeneralizedCostIsCalculatedCorrectByMapper(destArrival, path);
@@ -111,6 +140,9 @@ public class DestinationArrivalPaths<T extends RaptorTripSchedule> {
     boolean added = paths.add(path);
     if (added) {
       reachedCurrentRound = true;
+      if (sharedPaths != null) {
+        sharedPaths.publish(paths);
+      }
     }
   }
 
@@ -129,8 +161,16 @@ public class DestinationArrivalPaths<T extends RaptorTripSchedule> {
     return paths.isEmpty();
   }
 
+  /**
+   * Return {@code true} if there are no paths to check an arrival against, this include the paths
+   * of the later sub-windows if the search-window is split.
+   */
+  public boolean isEmptyIncludingSharedPaths() {
+    return paths.isEmpty() && (sharedPaths == null || sharedPaths.isEmpty());
+  }
+
   public boolean qualify(int departureTime, int arrivalTime, int numberOfTransfers, int cost) {
-    return paths.qualify(
+    return qualify(
       Path.dummyPath(iterationDepartureTime, departureTime, arrivalTime, numberOfTransfers, cost)
     );
   }
@@ -212,6 +252,59 @@ public class DestinationArrivalPaths<T extends RaptorTripSchedule> {
     );
   }
 
+  /**
+   * Test if the destination arrival qualify, using a dummy path created from the stop arrivals.
+   * The values of the dummy path must be the same or better than the values of the mapped path,
+   * if not a pareto-optimal path might be dropped. This is only true for a forward search where
+   * the access is time-shifted by Raptor, like the mapper does it:
+   * <ul>
+   *   <li>The start time is the departure time of the access arrival. The access must be
+   *   followed by transit, if not the mapper might time-shift the access.</li>
+   *   <li>A stay-seated or guaranteed transfer at the same stop is not counted as a transfer in
+   *   the path. If constrained transfers are used, a transfer between two trips without a
+   *   transfer leg is not counted in the dummy path.</li>
+   * </ul>
+   * Return {@code true} if the arrival should be mapped and added to the paths.
+   */
+  private boolean qualifyBeforeMappingToPath(DestinationArrival<T> destArrival) {
+    if (isEmptyIncludingSharedPaths()) {
+      return true;
+    }
+    int nTransfers = destArrival.numberOfTransfers();
+    ArrivalView<T> it = destArrival.previous();
+    ArrivalView<T> next = null;
+
+    while (!it.arrivedBy(ACCESS)) {
+      if (constrainedTransfers && it.arrivedBy(TRANSIT) && it.previous().arrivedBy(TRANSIT)) {
+        --nTransfers;
+      }
+      next = it;
+      it = it.previous();
+    }
+    if (next == null || !next.arrivedBy(TRANSIT)) {
+      return true;
+    }
+    int startTime = it.arrivalTime() - it.accessPath().access().durationInSeconds();
+
+    return qualify(
+      Path.dummyPath(
+        iterationDepartureTime,
+        startTime,
+        destArrival.arrivalTime(),
+        nTransfers,
+        destArrival.c1(),
+        destArrival.c2()
+      )
+    );
+  }
+
+  private boolean qualify(RaptorPath<T> dummyPath) {
+    if (!paths.qualify(dummyPath)) {
+      return false;
+    }
+    return sharedPaths == null || !sharedPaths.isDominated(dummyPath, paretoComparator);
+  }
+
   /**
    * If the total cost generated by the mapper is not equal to the total cost calculated by Raptor,
    * there is probably a mistake in the mapper! This is a rather critical error and should be fixed.
@@ -0,0 +1,90 @@
+package org.opentripplanner.raptor.rangeraptor.path;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
+import org.opentripplanner.raptor.api.path.RaptorPath;
+import org.opentripplanner.raptor.util.paretoset.ParetoComparator;
+
+/**
+ * The destination paths of a search-window split into sub-windows searched in parallel, as seen
+ * from one of the sub-windows.
+ * <p>
+ * A single Range Raptor search routes the latest iteration first, and the paths found are used to
+ * reject the destination arrivals of the earlier iterations. To do the same here, each worker
+ * publishes its paths, and the arrivals of a worker are rejected if they are dominated by a path
+ * published by a worker searching a later sub-window. The paths of the earlier sub-windows are not
+ * used, like in a single search. The workers run at the same time, so a worker only sees the paths
+ * published so far and may keep paths a single search would reject. These paths are dropped when
+ * the paths of all sub-windows are merged.
+ * <p>
+ * The paths of a sub-window are only published by the worker searching it, as an immutable list,
+ * so this class is thread-safe.
+ *
+ * @param <T> The TripSchedule type defined by the user of the raptor API.
+ */
+public final class SharedDestinationPaths<T extends RaptorTripSchedule> {
+
+  private final AtomicReferenceArray<List<RaptorPath<T>>> pathsBySubWindow;
+  private final int subWindow;
+
+  private SharedDestinationPaths(
+    AtomicReferenceArray<List<RaptorPath<T>>> pathsBySubWindow,
+    int subWindow
+  ) {
+    this.pathsBySubWindow = pathsBySubWindow;
+    this.subWindow = subWindow;
+  }
+
+  /**
+   * Create one instance for each sub-window, in the same order as the sub-windows. The first
+   * sub-window is the latest.
+   */
+  public static <S extends RaptorTripSchedule> List<SharedDestinationPaths<S>> create(
+    int nSubWindows
+  ) {
+    var pathsBySubWindow = new AtomicReferenceArray<List<RaptorPath<S>>>(nSubWindows);
+    var result = new ArrayList<SharedDestinationPaths<S>>(nSubWindows);
+    for (int i = 0; i < nSubWindows; ++i) {
+      pathsBySubWindow.set(i, List.of());
+      result.add(new SharedDestinationPaths<>(pathsBySubWindow, i));
+    }
+    return result;
+  }
+
+  /**
+   * Replace the published paths of this sub-window.
+   */
+  void publish(Collection<RaptorPath<T>> paths) {
+    pathsBySubWindow.set(subWindow, List.copyOf(paths));
+  }
+
+  /**
+   * Return {@code true} if no paths are published for the later sub-windows.
+   */
+  boolean isEmpty() {
+    for (int i = 0; i < subWindow; ++i) {
+      if (!pathsBySubWindow.get(i).isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return {@code true} if the given path is dominated by one of the paths published for the later
+   * sub-windows, using the same comparator as the destination pareto set.
+   */
+  boolean isDominated(RaptorPath<T> path, ParetoComparator<RaptorPath<T>> comparator) {
+    for (int i = 0; i < subWindow; ++i) {
+      for (RaptorPath<T> it : pathsBySubWindow.get(i)) {
+        if (comparator.leftDominanceExist(it, path) && !comparator.leftDominanceExist(path, it)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -2,6 +2,7 @@ package org.opentripplanner.raptor.rangeraptor.path.configure;
 
 import static org.opentripplanner.raptor.rangeraptor.path.PathParetoSetComparators.paretoComparator;
 
+import javax.annotation.Nullable;
 import org.opentripplanner.raptor.api.model.DominanceFunction;
 import org.opentripplanner.raptor.api.model.GeneralizedCostRelaxFunction;
 import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
@@ -18,6 +19,7 @@ import org.opentripplanner.raptor.rangeraptor.path.DestinationArrivalPaths;
 import org.opentripplanner.raptor.rangeraptor.path.ForwardPathMapper;
 import org.opentripplanner.raptor.rangeraptor.path.PathMapper;
 import org.opentripplanner.raptor.rangeraptor.path.ReversePathMapper;
+import org.opentripplanner.raptor.rangeraptor.path.SharedDestinationPaths;
 import org.opentripplanner.raptor.spi.RaptorCostCalculator;
 import org.opentripplanner.raptor.spi.RaptorPathConstrainedTransferSearch;
 import org.opentripplanner.raptor.spi.RaptorSlackProvider;
@@ -52,6 +54,19 @@ public class PathConfig<T extends RaptorTripSchedule> {
   public DestinationArrivalPaths<T> createDestArrivalPaths(
     ParetoSetCost costConfig,
     DominanceFunction c2Comp
+  ) {
+    return createDestArrivalPaths(costConfig, c2Comp, null);
+  }
+
+  /**
+   * Create a new {@link DestinationArrivalPaths} for one of the sub-windows of a search-window
+   * searched in parallel. The arrivals are also checked against the shared paths, if not
+   * {@code null}.
+   */
+  public DestinationArrivalPaths<T> createDestArrivalPaths(
+    ParetoSetCost costConfig,
+    DominanceFunction c2Comp,
+    @Nullable SharedDestinationPaths<T> sharedPaths
   ) {
     return new DestinationArrivalPaths<>(
       createPathParetoComparator(costConfig, c2Comp),
@@ -60,15 +75,20 @@ public class PathConfig<T extends RaptorTripSchedule> {
       ctx.acceptC2AtDestination(),
       ctx.slackProvider(),
       createPathMapper(costConfig.includeC1()),
+      ctx.searchDirection().isForward(),
+      ctx.searchParams().constrainedTransfers(),
       ctx.debugFactory(),
       ctx.stopNameResolver(),
-      ctx.lifeCycle()
+      ctx.lifeCycle(),
+      sharedPaths
     );
   }
 
-  /* private members */
-
-  private ParetoComparator<RaptorPath<T>> createPathParetoComparator(
+  /**
+   * Create the comparator used to find the pareto optimal paths at the destination, see
+   * {@link #createDestArrivalPaths(ParetoSetCost, DominanceFunction)}.
+   */
+  public ParetoComparator<RaptorPath<T>> createPathParetoComparator(
     ParetoSetCost costConfig,
     DominanceFunction c2Comp
   ) {
@@ -85,6 +105,8 @@ public class PathConfig<T extends RaptorTripSchedule> {
     return paretoComparator(paretoSetTimeConfig(), costConfig, relaxC1, c2Comp);
   }
 
+  /* private members */
+
   private ParetoSetTime paretoSetTimeConfig() {
     boolean preferLatestDeparture =
       ctx.searchParams().preferLateArrival() != ctx.searchDirection().isInReverse();
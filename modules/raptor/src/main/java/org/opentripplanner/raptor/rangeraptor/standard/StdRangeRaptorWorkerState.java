@@ -202,7 +202,7 @@ public final class StdRangeRaptorWorkerState<T extends RaptorTripSchedule>
     final int toStop = transfer.stop();
 
     if (newOverallBestTime(toStop, arrivalTime)) {
-      stopArrivalsState.setNewBestTransferTime(fromStop, arrivalTime, transfer);
+      stopArrivalsState.setNewBestTransferTime(fromStop, arrivalTime, transfer.asImmutable());
     } else {
       stopArrivalsState.rejectNewBestTransferTime(fromStop, arrivalTime, transfer);
     }
@@ -12,15 +12,6 @@ import org.opentripplanner.raptor.rangeraptor.internalapi.RaptorWorkerState;
  * @param <T> The TripSchedule type defined by the user of the raptor API.
  */
 public interface StdWorkerState<T extends RaptorTripSchedule> extends RaptorWorkerState<T> {
-  /**
-   * Return the best time at the given stop found in the last round. This is used to find the right
-   * trip to board in the current round.
-   * <p/>
-   * If you are not trying to find paths or calculate the exact number of transfers it is ok to
-   * return the overall best tim to reach the given stop.
-   */
-  int bestTimePreviousRound(int stop);
-
   /**
    * See {@link org.opentripplanner.raptor.rangeraptor.internalapi.RoutingStrategy#setAccessToStop(RaptorAccessEgress, int)}.
    */
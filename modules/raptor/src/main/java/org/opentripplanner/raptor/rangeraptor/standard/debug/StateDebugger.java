@@ -70,7 +70,9 @@ class StateDebugger<T extends RaptorTripSchedule> {
 
   void rejectTransfer(int fromStop, RaptorTransfer transfer, int toStop, int arrivalTime) {
     if (isDebug(transfer.stop())) {
-      reject(cursor.fictiveTransfer(round(), fromStop, transfer, toStop, arrivalTime));
+      reject(
+        cursor.fictiveTransfer(round(), fromStop, transfer.asImmutable(), toStop, arrivalTime)
+      );
     }
   }
 
@@ -4,12 +4,15 @@ import static org.opentripplanner.framework.time.TimeUtils.hm2time;
 import static org.opentripplanner.raptor.api.model.RaptorConstants.TIME_NOT_SET;
 
 import java.util.Iterator;
+import java.util.function.IntFunction;
+import javax.annotation.Nullable;
 import org.opentripplanner.raptor.api.model.RaptorAccessEgress;
 import org.opentripplanner.raptor.api.model.RaptorConstants;
 import org.opentripplanner.raptor.api.model.RaptorTransfer;
 import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
 import org.opentripplanner.raptor.spi.IntIterator;
 import org.opentripplanner.raptor.spi.RaptorConstrainedBoardingSearch;
+import org.opentripplanner.raptor.spi.RaptorRoutePruningIndex;
 import org.opentripplanner.raptor.spi.RaptorTimeTable;
 import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
 import org.opentripplanner.raptor.spi.RaptorTripScheduleSearch;
@@ -137,6 +140,16 @@ public interface RaptorTransitCalculator<T extends RaptorTripSchedule>
     int routeIndex
   );
 
+  /**
+   * Return the last time a trip in the given route can be boarded for each stop position, or
+   * {@code null} if the route should not be pruned. This is the latest departure time in a forward
+   * search and the earliest arrival time in a reverse search.
+   *
+   * @see RaptorRoutePruningIndex
+   */
+  @Nullable
+  int[] lastBoardingTimes(RaptorRoutePruningIndex index, int routeIndex);
+
   /**
    * Returns an iterator over all transfers "from" (or "to" for reverse searches) a stopIndex.
    *
@@ -148,6 +161,18 @@ public interface RaptorTransitCalculator<T extends RaptorTripSchedule>
     int fromStop
   );
 
+  /**
+   * Returns a function with the same result as
+   * {@link #getTransfers(RaptorTransitDataProvider, int)}, which may reuse one cursor for all
+   * stops. Each worker must create its own.
+   *
+   * @see RaptorTransitDataProvider#transfersFromStopCursor()
+   * @see RaptorTransitDataProvider#transfersToStopCursor()
+   */
+  IntFunction<Iterator<? extends RaptorTransfer>> transfersCursor(
+    RaptorTransitDataProvider<T> transitDataProvider
+  );
+
   /**
    * This method removes the time-penalty from the given time if the provided accessEgress has
    * a time-penalty, if not the given time is returned without any change.
@@ -1,6 +1,7 @@
 package org.opentripplanner.raptor.rangeraptor.transit;
 
 import java.util.Iterator;
+import java.util.function.IntFunction;
 import org.opentripplanner.framework.time.TimeUtils;
 import org.opentripplanner.raptor.api.model.RaptorConstants;
 import org.opentripplanner.raptor.api.model.RaptorTransfer;
@@ -10,6 +11,7 @@ import org.opentripplanner.raptor.api.request.RaptorTuningParameters;
 import org.opentripplanner.raptor.api.request.SearchParams;
 import org.opentripplanner.raptor.spi.IntIterator;
 import org.opentripplanner.raptor.spi.RaptorConstrainedBoardingSearch;
+import org.opentripplanner.raptor.spi.RaptorRoutePruningIndex;
 import org.opentripplanner.raptor.spi.RaptorTimeTable;
 import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
 import org.opentripplanner.raptor.spi.RaptorTripScheduleSearch;
@@ -98,6 +100,11 @@ public final class ReverseRaptorTransitCalculator<T extends RaptorTripSchedule>
     return transitData.transferConstraintsReverseSearch(routeIndex);
   }
 
+  @Override
+  public int[] lastBoardingTimes(RaptorRoutePruningIndex index, int routeIndex) {
+    return index.earliestArrivalTimes(routeIndex);
+  }
+
   @Override
   public Iterator<? extends RaptorTransfer> getTransfers(
     RaptorTransitDataProvider<T> transitDataProvider,
@@ -106,6 +113,13 @@ public final class ReverseRaptorTransitCalculator<T extends RaptorTripSchedule>
     return transitDataProvider.getTransfersToStop(fromStop);
   }
 
+  @Override
+  public IntFunction<Iterator<? extends RaptorTransfer>> transfersCursor(
+    RaptorTransitDataProvider<T> transitDataProvider
+  ) {
+    return transitDataProvider.transfersToStopCursor();
+  }
+
   @Override
   public RaptorTripScheduleSearch<T> createTripSearch(RaptorTimeTable<T> timeTable) {
     return timeTable.tripSearch(SearchDirection.REVERSE);
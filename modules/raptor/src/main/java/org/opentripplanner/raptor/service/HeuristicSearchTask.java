@@ -21,7 +21,8 @@ import org.slf4j.LoggerFactory;
  * simpler and let it focus on the main bossiness logic.
  * <p>
  * This class is not meant for reuse, create one task for each potential heuristic search. The task
- * must be {@link #enable()}d before it is {@link #run()}.
+ * must be {@link #enable()}d before it is {@link #run()}. The search is skipped if the result is
+ * found in the {@link org.opentripplanner.raptor.configure.HeuristicSearchCache}.
  */
 public class HeuristicSearchTask<T extends RaptorTripSchedule> {
 
@@ -33,7 +34,6 @@ public class HeuristicSearchTask<T extends RaptorTripSchedule> {
   private final RaptorTransitDataProvider<T> transitData;
 
   private boolean run = false;
-  private RaptorWorker<T> search = null;
   private RaptorRequest<T> originalRequest;
   private RaptorRequest<T> heuristicRequest;
   private RaptorWorkerResult<T> result = null;
@@ -110,10 +110,17 @@ public class HeuristicSearchTask<T extends RaptorTripSchedule> {
 
     long start = System.currentTimeMillis();
 
-    createHeuristicSearchIfNotExist(originalRequest);
+    createHeuristicRequestIfNotExist(originalRequest);
 
     LOG.debug("Heuristic search: {}", heuristicRequest);
-    this.result = search.route();
+    this.result =
+      config
+        .heuristicCache()
+        .route(
+          transitData,
+          heuristicRequest,
+          () -> config.createHeuristicSearch(transitData, heuristicRequest)
+        );
     LOG.debug("Heuristic result: {}", result);
 
     if (!result.isDestinationReached()) {
@@ -125,8 +132,8 @@ public class HeuristicSearchTask<T extends RaptorTripSchedule> {
     }
   }
 
-  private void createHeuristicSearchIfNotExist(RaptorRequest<T> request) {
-    if (search == null) {
+  private void createHeuristicRequestIfNotExist(RaptorRequest<T> request) {
+    if (heuristicRequest == null) {
       var profile = MIN_TRAVEL_DURATION;
 
       var builder = request
@@ -144,7 +151,6 @@ public class HeuristicSearchTask<T extends RaptorTripSchedule> {
       );
 
       heuristicRequest = builder.build();
-      search = config.createHeuristicSearch(transitData, heuristicRequest);
     }
   }
 }
@@ -0,0 +1,182 @@
+package org.opentripplanner.raptor.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
+import org.opentripplanner.framework.application.OTPRequestTimeoutException;
+import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
+import org.opentripplanner.raptor.api.request.RaptorRequest;
+import org.opentripplanner.raptor.api.response.RaptorResponse;
+import org.opentripplanner.raptor.configure.RaptorConfig;
+import org.opentripplanner.raptor.rangeraptor.internalapi.Heuristics;
+import org.opentripplanner.raptor.rangeraptor.internalapi.RaptorWorker;
+import org.opentripplanner.raptor.rangeraptor.internalapi.RaptorWorkerResult;
+import org.opentripplanner.raptor.rangeraptor.path.SharedDestinationPaths;
+import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Split the search-window of a multi-criteria Range Raptor search into sub-windows, and route
+ * each sub-window with its own worker in the Raptor thread pool.
+ * <p>
+ * The sub-windows are aligned with the Range Raptor iterations, so each iteration departure time
+ * of the original search is routed in exactly one sub-window. The paths are merged into one
+ * pareto set, adding the paths of the latest sub-window first, which makes the result
+ * deterministic.
+ * <p>
+ * The workers share the destination heuristics and the paths found at the destination. Like in a
+ * single search, where the paths of the later iterations are used to reject the destination
+ * arrivals of the earlier iterations, a worker rejects arrivals dominated by the paths found so
+ * far by the workers of the later sub-windows, see {@link SharedDestinationPaths}.
+ * <p>
+ * The result is NOT guaranteed to be the same as for a single search. In a single search the
+ * stop arrivals of the later iterations also prune the earlier iterations, while a worker here
+ * only sees the stop arrivals of its own sub-window, and only the paths the other workers have
+ * found so far. Hence, a worker may keep paths a single search drops, and with relaxed pareto
+ * functions the merged set may differ. The total amount of work is larger than in a single
+ * search.
+ * <p>
+ * The stop arrivals returned in the response are the ones of the sub-window starting at the
+ * earliest-departure-time, not of the whole search-window.
+ */
+class ParallelMcRangeRaptorSearch<T extends RaptorTripSchedule> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ParallelMcRangeRaptorSearch.class);
+
+  private final RaptorConfig<T> config;
+  private final RaptorTransitDataProvider<T> transitData;
+  private final RaptorRequest<T> request;
+  private final Heuristics heuristics;
+
+  ParallelMcRangeRaptorSearch(
+    RaptorConfig<T> config,
+    RaptorTransitDataProvider<T> transitData,
+    RaptorRequest<T> request,
+    @Nullable Heuristics heuristics
+  ) {
+    this.config = config;
+    this.transitData = transitData;
+    this.request = request;
+    this.heuristics = heuristics;
+  }
+
+  /**
+   * Return {@code true} if the search-window of the given multi-criteria request can be split.
+   * This require a thread pool, more than one partition in the tuning parameters and a forward
+   * search with a search-window spanning several iterations.
+   */
+  static boolean isApplicable(RaptorConfig<?> config, RaptorRequest<?> request) {
+    var s = request.searchParams();
+    int step = config.tuningParameters().iterationDepartureStepInSeconds();
+    return (
+      config.isMultiThreaded() &&
+      config.tuningParameters().searchWindowPartitions() > 1 &&
+      request.searchDirection().isForward() &&
+      s.isEarliestDepartureTimeSet() &&
+      s.isSearchWindowSet() &&
+      s.searchWindowInSeconds() > step &&
+      s.searchWindowInSeconds() % step == 0
+    );
+  }
+
+  RaptorResponse<T> route() {
+    var requests = partitionSearchWindow(
+      request,
+      config.tuningParameters().searchWindowPartitions(),
+      config.tuningParameters().iterationDepartureStepInSeconds()
+    );
+
+    // The workers are created in this thread, the Raptor config is not thread-safe
+    List<SharedDestinationPaths<T>> sharedPaths = SharedDestinationPaths.create(requests.size());
+    List<RaptorWorker<T>> workers = new ArrayList<>();
+    for (int i = 0; i < requests.size(); ++i) {
+      workers.add(
+        config.createMcWorker(transitData, requests.get(i), heuristics, sharedPaths.get(i))
+      );
+    }
+
+    List<RaptorWorkerResult<T>> results = routeInParallel(workers);
+
+    var paths = config.mergeMcPaths(
+      transitData,
+      request,
+      results.stream().map(RaptorWorkerResult::extractPaths).toList()
+    );
+    LOG.debug("Route using RangeRaptor - {} sub-windows searched in parallel.", workers.size());
+
+    return new RaptorResponse<>(
+      paths,
+      // Only the stop arrivals of one sub-window are returned, the last sub-window include the
+      // earliest-departure-time
+      new DefaultStopArrivals(results.getLast()),
+      request,
+      // This method is not run unless the heuristic reached the destination
+      true
+    );
+  }
+
+  /**
+   * Split the search-window into the given number of sub-windows, or less if there are not enough
+   * iterations. The sub-windows are returned in order, starting with the latest.
+   */
+  static <S extends RaptorTripSchedule> List<RaptorRequest<S>> partitionSearchWindow(
+    RaptorRequest<S> request,
+    int partitions,
+    int iterationStep
+  ) {
+    var s = request.searchParams();
+    int nIterations = s.searchWindowInSeconds() / iterationStep;
+    int iterationsPerPartition = (nIterations + partitions - 1) / partitions;
+    int end = s.earliestDepartureTime() + s.searchWindowInSeconds();
+
+    List<RaptorRequest<S>> result = new ArrayList<>();
+    for (int i = 0; i < nIterations; i += iterationsPerPartition) {
+      int searchWindow = Math.min(iterationsPerPartition, nIterations - i) * iterationStep;
+      int edt = end - i * iterationStep - searchWindow;
+      result.add(
+        request
+          .mutate()
+          .searchParams()
+          .earliestDepartureTime(edt)
+          .searchWindowInSeconds(searchWindow)
+          .build()
+      );
+    }
+    return result;
+  }
+
+  /**
+   * Run the first worker in the current thread, and the rest in the Raptor thread pool.
+   */
+  private List<RaptorWorkerResult<T>> routeInParallel(List<RaptorWorker<T>> workers) {
+    List<Future<RaptorWorkerResult<T>>> futures = new ArrayList<>();
+    try {
+      for (RaptorWorker<T> worker : workers.subList(1, workers.size())) {
+        futures.add(config.threadPool().submit(worker::route));
+      }
+      List<RaptorWorkerResult<T>> results = new ArrayList<>();
+      results.add(workers.getFirst().route());
+      for (Future<RaptorWorkerResult<T>> it : futures) {
+        results.add(it.get());
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new OTPRequestTimeoutException();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      LOG.error(e.getMessage() + ". Request: " + request, e);
+      throw new IllegalStateException(
+        "Failed to run the multi-criteria search in parallel. Details: " + e.getMessage()
+      );
+    } finally {
+      // Stop the remaining searches if one of them fail or the request time out
+      futures.forEach(it -> it.cancel(true));
+    }
+  }
+}
@@ -13,6 +13,7 @@ import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.opentripplanner.framework.application.OTPRequestTimeoutException;
 import org.opentripplanner.raptor.RaptorService;
+import org.opentripplanner.raptor.api.model.RaptorConstants;
 import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
 import org.opentripplanner.raptor.api.request.RaptorRequest;
 import org.opentripplanner.raptor.api.request.SearchParams;
@@ -30,7 +31,9 @@ import org.slf4j.LoggerFactory;
  * This search helps the {@link RaptorService} to configure
  * heuristics and set dynamic search parameters like EDT, LAT and raptor-search-window.
  * <p>
- * If possible the forward and reverse heuristics will be run in parallel.
+ * If possible the forward and reverse heuristics will be run in parallel. The search-window of the
+ * multi-criteria search can also be split and searched in parallel, see
+ * {@link ParallelMcRangeRaptorSearch}.
  * <p>
  * Depending on which optimization is enabled and which search parameters are set a forward and/or a
  * reverse "single-iteration" raptor search is performed and heuristics are collected. This is used
@@ -130,6 +133,20 @@ public class RangeRaptorDynamicSearch<T extends RaptorTripSchedule> {
 
   private RaptorResponse<T> createAndRunDynamicRRWorker(RaptorRequest<T> request) {
     LOG.debug("Main request: {}", request);
+
+    if (
+      request.profile().is(MULTI_CRITERIA) &&
+      ParallelMcRangeRaptorSearch.isApplicable(config, request)
+    ) {
+      return new ParallelMcRangeRaptorSearch<>(
+        config,
+        transitData,
+        request,
+        getDestinationHeuristics()
+      )
+        .route();
+    }
+
     RaptorWorker<T> raptorWorker;
 
     // Create worker
@@ -257,17 +274,34 @@ public class RangeRaptorDynamicSearch<T extends RaptorTripSchedule> {
   }
 
   private RaptorRequest<T> requestForReverseHeurSearchWithDynamicSearchParams() {
-    if (originalRequest.searchParams().isLatestArrivalTimeSet()) {
+    var s = originalRequest.searchParams();
+    if (s.isLatestArrivalTimeSet()) {
       return originalRequest;
     }
-    return originalRequest
+    var request = originalRequest
       .mutate()
       .searchParams()
       .latestArrivalTime(
-        transitData.getValidTransitDataEndTime() +
-        originalRequest.searchParams().accessEgressMaxDurationSeconds()
+        transitData.getValidTransitDataEndTime() + s.accessEgressMaxDurationSeconds()
       )
       .build();
+
+    // When both the EDT and the search-window is set, the heuristics are only used for pruning,
+    // not to calculate the search parameters. Without the EDT the result is still a lower bound,
+    // and it is the same for all pages of a search - so it can be reused from the cache. The EDT
+    // is only dropped if the result is cached, otherwise it is kept to prune the search.
+    if (
+      s.isEarliestDepartureTimeSet() &&
+      s.isSearchWindowSet() &&
+      config.heuristicCache().isCacheable(transitData, request)
+    ) {
+      return request
+        .mutate()
+        .searchParams()
+        .earliestDepartureTime(RaptorConstants.TIME_NOT_SET)
+        .build();
+    }
+    return request;
   }
 
   private RaptorRequest<T> requestWithDynamicSearchParams(RaptorRequest<T> request) {
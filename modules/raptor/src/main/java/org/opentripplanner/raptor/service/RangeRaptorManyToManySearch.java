@@ -0,0 +1,116 @@
+package org.opentripplanner.raptor.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.opentripplanner.framework.application.OTPRequestTimeoutException;
+import org.opentripplanner.raptor.api.model.RaptorConstants;
+import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
+import org.opentripplanner.raptor.api.request.RaptorRequest;
+import org.opentripplanner.raptor.api.response.StopArrivalTimesConsumer;
+import org.opentripplanner.raptor.configure.RaptorConfig;
+import org.opentripplanner.raptor.rangeraptor.internalapi.RaptorWorker;
+import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
+
+/**
+ * Run a standard Range Raptor search for each origin, and pass the best arrival time at every
+ * stop to a {@link StopArrivalTimesConsumer}. All searches share the same transit data. The
+ * searches run in the Raptor thread pool if it exists, but the results are passed to the consumer
+ * in the calling thread in the same order as the requests.
+ * <p>
+ * To limit the memory usage, only a few searches are queued at the time, and the arrival time
+ * arrays are reused when the consumer is done with them.
+ */
+public class RangeRaptorManyToManySearch<T extends RaptorTripSchedule> {
+
+  /** The number of searches to queue for each thread in the Raptor thread pool. */
+  private static final int QUEUED_SEARCHES_PER_THREAD = 2;
+
+  private final RaptorConfig<T> config;
+  private final RaptorTransitDataProvider<T> transitData;
+  private final Queue<int[]> arrivalTimesBuffers = new ConcurrentLinkedQueue<>();
+
+  public RangeRaptorManyToManySearch(
+    RaptorConfig<T> config,
+    RaptorTransitDataProvider<T> transitData
+  ) {
+    this.config = config;
+    this.transitData = transitData;
+  }
+
+  public void route(List<RaptorRequest<T>> requests, StopArrivalTimesConsumer consumer) {
+    for (RaptorRequest<T> request : requests) {
+      if (request.isDynamicSearch()) {
+        throw new IllegalArgumentException(
+          "A many-to-many search must use the BEST_TIME profile, or the STANDARD profile " +
+          "with a search-window of zero: " +
+          request
+        );
+      }
+    }
+    if (config.isMultiThreaded()) {
+      routeInParallel(requests, consumer);
+    } else {
+      for (int i = 0; i < requests.size(); ++i) {
+        var worker = config.createStdWorker(transitData, requests.get(i));
+        accept(consumer, i, route(worker));
+      }
+    }
+  }
+
+  private void routeInParallel(List<RaptorRequest<T>> requests, StopArrivalTimesConsumer consumer) {
+    int maxQueued = QUEUED_SEARCHES_PER_THREAD * config.tuningParameters().searchThreadPoolSize();
+    Deque<Future<int[]>> queue = new ArrayDeque<>();
+    int origin = 0;
+    try {
+      for (RaptorRequest<T> request : requests) {
+        if (queue.size() >= maxQueued) {
+          accept(consumer, origin++, queue.removeFirst().get());
+        }
+        // The workers are created in this thread, the Raptor config is not thread-safe
+        var worker = config.createStdWorker(transitData, request);
+        queue.addLast(config.threadPool().submit(() -> route(worker)));
+      }
+      while (!queue.isEmpty()) {
+        accept(consumer, origin++, queue.removeFirst().get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new OTPRequestTimeoutException();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw new IllegalStateException(
+        "Failed to run the many-to-many search. Details: " + e.getMessage(),
+        e
+      );
+    } finally {
+      queue.forEach(it -> it.cancel(true));
+    }
+  }
+
+  private int[] route(RaptorWorker<T> worker) {
+    var arrivals = worker.route().extractBestOverallArrivals();
+    var arrivalTimes = arrivalTimesBuffer();
+    for (int stop = 0; stop < arrivalTimes.length; ++stop) {
+      arrivalTimes[stop] =
+        arrivals.isReached(stop) ? arrivals.value(stop) : RaptorConstants.TIME_NOT_SET;
+    }
+    return arrivalTimes;
+  }
+
+  private void accept(StopArrivalTimesConsumer consumer, int origin, int[] arrivalTimes) {
+    consumer.accept(origin, arrivalTimes);
+    arrivalTimesBuffers.add(arrivalTimes);
+  }
+
+  private int[] arrivalTimesBuffer() {
+    var buffer = arrivalTimesBuffers.poll();
+    return buffer == null ? new int[transitData.numberOfStops()] : buffer;
+  }
+}
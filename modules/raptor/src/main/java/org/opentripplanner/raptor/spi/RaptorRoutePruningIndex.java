@@ -0,0 +1,34 @@
+package org.opentripplanner.raptor.spi;
+
+import javax.annotation.Nullable;
+
+/**
+ * The route pruning index is used by Raptor to skip routes which can not be boarded in the current
+ * round. For each stop position in a route the index contains the latest departure time and the
+ * earliest arrival time of all trips in the route. Before a route is scanned, Raptor compares the
+ * time each stop was reached in the previous round with the index. If no trip departs after the
+ * stop is reached, at any of the stops, the route is skipped without searching the timetable. In
+ * a reverse search the earliest arrival times are used.
+ * <p>
+ * The times must be the same as the times returned by the trips in the route timetable. The index
+ * may include trips which are not returned by the trip search, but it must not leave out any.
+ * <p>
+ * The index is created once for the transit data, not for each round. The arrays returned are
+ * read by Raptor, they should not be copied for each call.
+ */
+public interface RaptorRoutePruningIndex {
+  /**
+   * Return the latest departure time of all trips for each stop position in the route with the
+   * given index. Return {@code null} if the route should not be pruned, for example if the trips
+   * are not known in advance.
+   */
+  @Nullable
+  int[] latestDepartureTimes(int routeIndex);
+
+  /**
+   * Return the earliest arrival time of all trips for each stop position in the route with the
+   * given index. Return {@code null} if the route should not be pruned.
+   */
+  @Nullable
+  int[] earliestArrivalTimes(int routeIndex);
+}
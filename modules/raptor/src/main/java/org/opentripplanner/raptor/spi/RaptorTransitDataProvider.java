@@ -1,6 +1,8 @@
 package org.opentripplanner.raptor.spi;
 
 import java.util.Iterator;
+import java.util.function.IntFunction;
+import javax.annotation.Nullable;
 import org.opentripplanner.raptor.api.model.RaptorTransfer;
 import org.opentripplanner.raptor.api.model.RaptorTransferConstraint;
 import org.opentripplanner.raptor.api.model.RaptorTripPattern;
@@ -38,7 +40,9 @@ public interface RaptorTransitDataProvider<T extends RaptorTripSchedule> {
    * The implementation may implement a lightweight {@link RaptorTransfer} representation. The
    * iterator element only needs to be valid for the duration og a single iterator step. Hence; It
    * is safe to use a cursor/flyweight pattern to represent both the Transfer and the
-   * Iterator<Transfer> - this will most likely be the best performing implementation.
+   * Iterator<Transfer> - this will most likely be the best performing implementation. Raptor calls
+   * {@link RaptorTransfer#asImmutable()} before it keeps a reference to a transfer, so a flyweight
+   * implementation must return a copy from that method.
    * <p/>
    * Example:
    * <pre>
@@ -73,6 +77,24 @@ public interface RaptorTransitDataProvider<T extends RaptorTripSchedule> {
   @Flyweight
   Iterator<? extends RaptorTransfer> getTransfersToStop(int toStop);
 
+  /**
+   * Return a function with the same result as {@link #getTransfersFromStop(int)}. Each Raptor
+   * worker creates one function and uses it for the whole search. A worker runs in one thread and
+   * is done with the transfers of a stop before it asks for the next, so the function may reset
+   * and return the same cursor for every stop. The default calls
+   * {@link #getTransfersFromStop(int)}.
+   */
+  default IntFunction<Iterator<? extends RaptorTransfer>> transfersFromStopCursor() {
+    return this::getTransfersFromStop;
+  }
+
+  /**
+   * Same as {@link #transfersFromStopCursor()}, but for the {@link #getTransfersToStop(int)}.
+   */
+  default IntFunction<Iterator<? extends RaptorTransfer>> transfersToStopCursor() {
+    return this::getTransfersToStop;
+  }
+
   /**
    * Return an iterator of route indices for all routes visiting the given set of stops.
    *
@@ -80,6 +102,16 @@ public interface RaptorTransitDataProvider<T extends RaptorTripSchedule> {
    */
   IntIterator routeIndexIterator(IntIterator stops);
 
+  /**
+   * Return an index Raptor can use to skip routes returned by the
+   * {@link #routeIndexIterator(IntIterator)}, when none of the trips can be boarded in the current
+   * round. If {@code null} is returned all routes are scanned, this is the default.
+   */
+  @Nullable
+  default RaptorRoutePruningIndex routePruningIndex() {
+    return null;
+  }
+
   /**
    * Returns the raptor route for a specific route index
    * <p/>
@@ -148,4 +180,17 @@ public interface RaptorTransitDataProvider<T extends RaptorTripSchedule> {
    * REVERSE search.
    */
   RaptorConstrainedBoardingSearch<T> transferConstraintsReverseSearch(int routeIndex);
+
+  /**
+   * Return a key identifying the transit data used by the heuristic searches, or {@code null} if
+   * the result should not be cached. Two providers with equal keys must return the same routes,
+   * trips, transfers and slack. The key should not reference large objects, it is kept in the
+   * application scoped cache after the transit data is replaced.
+   * <p>
+   * The cost calculator is not part of the key, the heuristics are created for each request.
+   */
+  @Nullable
+  default Object heuristicCacheKey() {
+    return null;
+  }
 }
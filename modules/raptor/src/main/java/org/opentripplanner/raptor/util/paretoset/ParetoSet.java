@@ -5,6 +5,7 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Objects;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -20,6 +21,13 @@ import java.util.stream.Collectors;
  * {@code  [[1,7], [3,5], [5,3]] + [2,4] => [[1,7], [5,3], [2,4]]   -- less than dominates}
  * <p/>
  * No methods for removing elements like {@link #remove(Object)} are supported.
+ * <p/>
+ * The {@link #add(Object)} method compares the new element with all elements in the set. For large
+ * sets a primary criteria can be given, then the elements are indexed on it and only the elements
+ * which can dominate or be dominated by the new element are compared with it - see
+ * {@link PrimaryCriteriaIndex}. The order of the elements is the same, and for a comparator where
+ * the dominance is transitive the set contains the same elements. With a relaxed comparator, more
+ * than one subset can be pareto-optimal, and which one is kept may differ.
  *
  * @param <T> the element type
  */
@@ -27,6 +35,7 @@ public class ParetoSet<T> extends AbstractCollection<T> {
 
   private final ParetoComparator<T> comparator;
   private final ParetoSetEventListener<? super T> eventListener;
+  private final PrimaryCriteriaIndex<T> primaryIndex;
 
   @SuppressWarnings("unchecked")
   private T[] elements = (T[]) new Object[16];
@@ -44,9 +53,28 @@ public class ParetoSet<T> extends AbstractCollection<T> {
   public ParetoSet(
     ParetoComparator<T> comparator,
     ParetoSetEventListener<? super T> eventListener
+  ) {
+    this(comparator, eventListener, null);
+  }
+
+  /**
+   * Create a new ParetoSet with a comparator, a drop event listener and a primary criteria.
+   *
+   * @param comparator      The comparator to use with this set
+   * @param eventListener   At most one listener can be registered to listen for drop events.
+   * @param primaryCriteria The criteria to index the elements on, if {@code null} the elements are
+   *                        not indexed. The comparator must compare this criteria using less-than,
+   *                        see {@link PrimaryCriteriaIndex}.
+   */
+  public ParetoSet(
+    ParetoComparator<T> comparator,
+    ParetoSetEventListener<? super T> eventListener,
+    ToIntFunction<T> primaryCriteria
   ) {
     this.comparator = comparator;
     this.eventListener = eventListener;
+    this.primaryIndex =
+      primaryCriteria == null ? null : new PrimaryCriteriaIndex<>(primaryCriteria);
   }
 
   /**
@@ -78,6 +106,9 @@ public class ParetoSet<T> extends AbstractCollection<T> {
 
   @Override
   public boolean add(T newValue) {
+    if (primaryIndex != null) {
+      return addUsingIndex(newValue);
+    }
     if (size == 0) {
       acceptAndAppendValue(newValue);
       return true;
@@ -132,6 +163,9 @@ public class ParetoSet<T> extends AbstractCollection<T> {
   public void clear() {
     size = 0;
     goodElement = null;
+    if (primaryIndex != null) {
+      primaryIndex.clear();
+    }
   }
 
   @Override
@@ -156,6 +190,10 @@ public class ParetoSet<T> extends AbstractCollection<T> {
       return false;
     }
 
+    if (primaryIndex != null) {
+      return findElementDominatingOrEquivalentWith(newValue) == null;
+    }
+
     boolean mutualDominanceExist = false;
     boolean equivalentVectorExist = false;
 
@@ -250,6 +288,63 @@ public class ParetoSet<T> extends AbstractCollection<T> {
     };
   }
 
+  /**
+   * Same as {@link #add(Object)}, but only the elements with the same or a better primary criteria
+   * are checked for dominance over the new value, and only the elements with the same or a worse
+   * primary criteria are checked for being dominated by it.
+   */
+  private boolean addUsingIndex(final T newValue) {
+    // Quick shortcut, one element probably dominate most of the new elements
+    if (goodElement != null && leftVectorDominatesRightVector(goodElement, newValue)) {
+      notifyElementRejected(newValue, goodElement);
+      return false;
+    }
+
+    T rejectedBy = findElementDominatingOrEquivalentWith(newValue);
+    if (rejectedBy != null) {
+      notifyElementRejected(newValue, rejectedBy);
+      return false;
+    }
+
+    final int start = primaryIndex.startOf(primaryIndex.valueOf(newValue));
+    for (int i = start; i < primaryIndex.size(); ++i) {
+      if (leftVectorDominatesRightVector(newValue, primaryIndex.get(i))) {
+        primaryIndex.markDominated(i);
+      }
+    }
+
+    if (primaryIndex.hasDominatedElements()) {
+      int i = 0;
+      while (!primaryIndex.isDominated(elements[i])) {
+        ++i;
+      }
+      removeDominatedElementsFromRestOfSetAndAddNewElement(newValue, i);
+    } else {
+      assertEnoughSpaceInSet();
+      acceptAndAppendValue(newValue);
+    }
+    primaryIndex.add(newValue);
+    return true;
+  }
+
+  /**
+   * Find an element which dominates or is equivalent with the new value, using the index. Only
+   * the elements with the same or a better primary criteria are checked.
+   */
+  private T findElementDominatingOrEquivalentWith(final T newValue) {
+    final int end = primaryIndex.endOf(primaryIndex.valueOf(newValue));
+    for (int i = 0; i < end; ++i) {
+      T it = primaryIndex.get(i);
+      if (!leftDominanceExist(newValue, it)) {
+        if (rightDominanceExist(newValue, it)) {
+          goodElement = it;
+        }
+        return it;
+      }
+    }
+    return null;
+  }
+
   /**
    * Remove all elements dominated by the {@code newValue} starting from {@code index + 1}. The
    * element at {@code index} is dropped.
@@ -268,7 +363,7 @@ public class ParetoSet<T> extends AbstractCollection<T> {
     while (j < size) {
       notifyElementMoved(j, i);
       // Move next element(j) forward if it is not dominated by the new value
-      if (!leftVectorDominatesRightVector(newValue, elements[j])) {
+      if (!isDominatedBy(newValue, elements[j])) {
         elements[i] = elements[j];
         ++i;
       } else {
@@ -283,6 +378,15 @@ public class ParetoSet<T> extends AbstractCollection<T> {
     size = i + 1;
   }
 
+  /**
+   * If the index is used, the elements dominated by the new value are already marked.
+   */
+  private boolean isDominatedBy(T newValue, T element) {
+    return primaryIndex == null
+      ? leftVectorDominatesRightVector(newValue, element)
+      : primaryIndex.isDominated(element);
+  }
+
   private boolean leftVectorDominatesRightVector(T left, T right) {
     return leftDominanceExist(left, right) && !rightDominanceExist(left, right);
   }
@@ -1,5 +1,7 @@
 package org.opentripplanner.raptor.util.paretoset;
 
+import java.util.function.ToIntFunction;
+
 /**
  * {@link ParetoSet} with the possibility to set an index marker, which can be used to list all
  * elements added after the marker is set.
@@ -21,6 +23,14 @@ public class ParetoSetWithMarker<T> extends ParetoSet<T> {
     super(comparator, eventListener);
   }
 
+  public ParetoSetWithMarker(
+    ParetoComparator<T> comparator,
+    ParetoSetEventListener<? super T> eventListener,
+    ToIntFunction<T> primaryCriteria
+  ) {
+    super(comparator, eventListener, primaryCriteria);
+  }
+
   @Override
   public void clear() {
     super.clear();
@@ -0,0 +1,155 @@
+package org.opentripplanner.raptor.util.paretoset;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * An index of the elements in a {@link ParetoSet} sorted on a primary criteria. The primary
+ * criteria must be one of the criteria in the pareto comparator, and it must be compared using
+ * less-than (smaller is better). Then only elements with the same or a smaller value can dominate
+ * a new element, and only elements with the same or a greater value can be dominated by it. This
+ * is used to skip most of the dominance checks when the set is large.
+ * <p>
+ * The pareto set keeps the elements in the insertion order, this index is only used to find the
+ * elements to compare with. Elements with the same value are kept in the insertion order.
+ * <p>
+ * The elements dominated by a new element are marked first, and then removed from both the set
+ * and the index - see {@link #markDominated(int)}.
+ *
+ * @param <T> the element type
+ */
+final class PrimaryCriteriaIndex<T> {
+
+  private final ToIntFunction<T> primaryCriteria;
+
+  @SuppressWarnings("unchecked")
+  private T[] elements = (T[]) new Object[16];
+
+  private int[] values = new int[16];
+  private int size = 0;
+
+  @SuppressWarnings("unchecked")
+  private T[] dominated = (T[]) new Object[4];
+
+  private int nDominated = 0;
+
+  PrimaryCriteriaIndex(ToIntFunction<T> primaryCriteria) {
+    this.primaryCriteria = primaryCriteria;
+  }
+
+  int valueOf(T element) {
+    return primaryCriteria.applyAsInt(element);
+  }
+
+  int size() {
+    return size;
+  }
+
+  T get(int index) {
+    return elements[index];
+  }
+
+  /**
+   * The index of the first element with a value greater than the given value, or {@link #size()}
+   * if no such element exist.
+   */
+  int endOf(int value) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (values[mid] <= value) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * The index of the first element with the same or a greater value than the given value, or
+   * {@link #size()} if no such element exist.
+   */
+  int startOf(int value) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (values[mid] < value) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Mark the element at the given index as dominated. The element is removed from the index when
+   * the next element is added.
+   */
+  void markDominated(int index) {
+    if (nDominated == dominated.length) {
+      dominated = Arrays.copyOf(dominated, nDominated * 2);
+    }
+    dominated[nDominated++] = elements[index];
+    elements[index] = null;
+  }
+
+  boolean hasDominatedElements() {
+    return nDominated > 0;
+  }
+
+  /**
+   * Return {@code true} if the given element is marked as dominated. The number of elements
+   * dominated by a new element is small, so a linear search is used.
+   */
+  boolean isDominated(T element) {
+    for (int i = 0; i < nDominated; ++i) {
+      if (dominated[i] == element) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Remove the elements marked as dominated, and add the new element after the elements with the
+   * same value.
+   */
+  void add(T element) {
+    if (nDominated > 0) {
+      removeDominatedElements();
+    }
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, size * 2);
+      values = Arrays.copyOf(values, size * 2);
+    }
+    int value = valueOf(element);
+    int index = endOf(value);
+    System.arraycopy(elements, index, elements, index + 1, size - index);
+    System.arraycopy(values, index, values, index + 1, size - index);
+    elements[index] = element;
+    values[index] = value;
+    ++size;
+  }
+
+  void clear() {
+    size = 0;
+    nDominated = 0;
+  }
+
+  private void removeDominatedElements() {
+    int i = 0;
+    for (int j = 0; j < size; ++j) {
+      if (elements[j] != null) {
+        elements[i] = elements[j];
+        values[i] = values[j];
+        ++i;
+      }
+    }
+    size = i;
+    nDominated = 0;
+  }
+}